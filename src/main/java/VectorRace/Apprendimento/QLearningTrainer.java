@@ -0,0 +1,409 @@
+package VectorRace.Apprendimento;
+
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.FinishLineIndex;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.TrackRegistry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QLearningTrainer addestra una {@link QTable} su un tracciato con Q-learning o SARSA tabellare.
+ * <p>
+ * Gli episodi simulano un solo giocatore con le stesse regole di GameEngine: la direzione
+ * viene scelta tra quelle ammesse dall'{@link IInertiaManager} con la velocità precedente,
+ * poi si applica l'accelerazione (velocità limitata a 0..3) e si atterra sulla cella letta
+ * dalla {@link KinematicsTable}; ostacoli e uscite dal tracciato eliminano il giocatore,
+ * con velocità 0 il giocatore resta fermo. Come nel motore, l'episodio termina al traguardo
+ * appena la mossa ne attraversa una cella ({@link FinishLineIndex}), anche se la cella di
+ * atterraggio lo supera.
+ * <p>
+ * Ricompense: -1 per ogni turno e {@code crashPenalty} in caso di eliminazione, così
+ * il valore di uno stato approssima (col segno meno) i turni mancanti al traguardo.
+ * <p>
+ * Gli episodi sono distribuiti su più thread che aggiornano la stessa tabella senza lock
+ * (aggiornamenti in stile Hogwild): le collisioni tra thread sono rare perché gli episodi
+ * visitano stati diversi, e un aggiornamento perso rallenta appena la convergenza.
+ */
+public class QLearningTrainer {
+
+    /**
+     * Regola di aggiornamento.
+     */
+    public enum Algorithm {
+        /**
+         * Off-policy: il valore successivo è il massimo tra le azioni ammesse.
+         */
+        Q_LEARNING,
+        /**
+         * On-policy: il valore successivo è quello dell'azione effettivamente scelta.
+         */
+        SARSA
+    }
+
+    private final KinematicsTable kinematics;
+    private final FinishLineIndex finishLine;
+    private final IInertiaManager inertiaManager;
+    private final QTable table;
+    private final Algorithm algorithm;
+
+    private double alpha = 0.2;
+    private double gamma = 0.99;
+    private double epsilonStart = 0.5;
+    private double epsilonEnd = 0.02;
+    private double exploringStarts = 0.5;
+    private float crashPenalty;
+    private int maxSteps;
+
+    /**
+     * Celle di partenza e celle percorribili (per le partenze esplorative).
+     */
+    private final int[] startCells;
+    private final int[] freeCells;
+
+    /**
+     * Costruttore di QLearningTrainer, con le regole di inerzia di {@link DefaultInertiaManager}.
+     *
+     * @param track     Tracciato su cui addestrare.
+     * @param table     Tabella da aggiornare (con le stesse dimensioni del tracciato).
+     * @param algorithm Regola di aggiornamento.
+     */
+    public QLearningTrainer(ITrack track, QTable table, Algorithm algorithm) {
+        this(track, table, algorithm, new DefaultInertiaManager());
+    }
+
+    /**
+     * Costruttore di QLearningTrainer.
+     *
+     * @param track          Tracciato su cui addestrare.
+     * @param table          Tabella da aggiornare (con le stesse dimensioni del tracciato).
+     * @param algorithm      Regola di aggiornamento.
+     * @param inertiaManager Regole sulle direzioni ammesse.
+     */
+    public QLearningTrainer(ITrack track, QTable table, Algorithm algorithm, IInertiaManager inertiaManager) {
+        if (table.getWidth() != track.getWidth() || table.getHeight() != track.getHeight()) {
+            throw new IllegalArgumentException("La Q-table non corrisponde alle dimensioni del tracciato");
+        }
+        this.kinematics = KinematicsTable.of(track);
+        this.finishLine = FinishLineIndex.of(track);
+        this.inertiaManager = inertiaManager;
+        this.table = table;
+        this.algorithm = algorithm;
+        this.maxSteps = 4 * (track.getWidth() + track.getHeight());
+        this.crashPenalty = -maxSteps;
+
+        List<Position> starts = track.getAllStartPositions();
+        this.startCells = new int[starts.size()];
+        for (int i = 0; i < startCells.length; i++) {
+            startCells[i] = kinematics.index(starts.get(i));
+        }
+        int count = 0;
+        int cells = track.getWidth() * track.getHeight();
+        for (int c = 0; c < cells; c++) {
+            if (kinematics.cellType(c) == CellType.FREE) {
+                count++;
+            }
+        }
+        this.freeCells = new int[count];
+        for (int c = 0, i = 0; c < cells; c++) {
+            if (kinematics.cellType(c) == CellType.FREE) {
+                freeCells[i++] = c;
+            }
+        }
+    }
+
+    /**
+     * Imposta il tasso di apprendimento.
+     *
+     * @param alpha Tasso di apprendimento (0..1].
+     */
+    public void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * Imposta il fattore di sconto.
+     *
+     * @param gamma Fattore di sconto (0..1].
+     */
+    public void setGamma(double gamma) {
+        this.gamma = gamma;
+    }
+
+    /**
+     * Imposta l'esplorazione epsilon-greedy, che decresce linearmente durante l'addestramento.
+     *
+     * @param start Epsilon al primo episodio.
+     * @param end   Epsilon all'ultimo episodio.
+     */
+    public void setEpsilon(double start, double end) {
+        this.epsilonStart = start;
+        this.epsilonEnd = end;
+    }
+
+    /**
+     * Imposta la frazione di episodi che partono da una cella libera casuale, con
+     * velocità e direzione casuali, invece che da una posizione di partenza del tracciato.
+     * Serve a visitare anche le zone che la politica corrente raggiunge di rado.
+     *
+     * @param fraction Frazione di partenze esplorative (0..1).
+     */
+    public void setExploringStarts(double fraction) {
+        this.exploringStarts = fraction;
+    }
+
+    /**
+     * Imposta il numero massimo di turni di un episodio (e la penalità di eliminazione,
+     * pari a meno questo valore).
+     *
+     * @param maxSteps Turni massimi per episodio.
+     */
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+        this.crashPenalty = -maxSteps;
+    }
+
+    /**
+     * Esegue gli episodi di addestramento in parallelo.
+     *
+     * @param episodes Numero totale di episodi.
+     * @param threads  Numero di thread.
+     * @param seed     Seed da cui derivano i generatori casuali dei thread.
+     * @return Statistiche dell'addestramento.
+     */
+    public TrainingStats train(int episodes, int threads, long seed) {
+        AtomicInteger next = new AtomicInteger();
+        LongAdder finished = new LongAdder();
+        LongAdder finishedLate = new LongAdder();
+        LongAdder steps = new LongAdder();
+        int lateFrom = episodes - Math.max(1, episodes / 10);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            SplittableRandom root = new SplittableRandom(seed);
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                SplittableRandom random = root.split();
+                workers.add(pool.submit(() -> {
+                    int episode;
+                    while ((episode = next.getAndIncrement()) < episodes) {
+                        double progress = episodes > 1 ? (double) episode / (episodes - 1) : 1.0;
+                        double epsilon = epsilonStart + (epsilonEnd - epsilonStart) * progress;
+                        int result = runEpisode(random, epsilon);
+                        if (result > 0) {
+                            finished.increment();
+                            if (episode >= lateFrom) {
+                                finishedLate.increment();
+                            }
+                        }
+                        steps.add(Math.abs(result));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                await(worker);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new TrainingStats(episodes, finished.sum(), finishedLate.sum(), episodes - lateFrom, steps.sum());
+    }
+
+    /**
+     * Esegue un episodio aggiornando la tabella.
+     *
+     * @return Numero di turni giocati, positivo se l'episodio è terminato al traguardo.
+     */
+    private int runEpisode(SplittableRandom random, double epsilon) {
+        int cell;
+        int velocity;
+        int direction;
+        if (freeCells.length > 0 && (startCells.length == 0 || random.nextDouble() < exploringStarts)) {
+            cell = freeCells[random.nextInt(freeCells.length)];
+            velocity = random.nextInt(StateEncoder.SPEEDS);
+            direction = random.nextInt(8);
+        } else {
+            cell = startCells[random.nextInt(startCells.length)];
+            velocity = 0;
+            direction = 2; // E, la direzione iniziale di GameEngine
+        }
+
+        int mask = StateEncoder.actionMask(inertiaManager.allowedDirectionMask(velocity, DirectionMask.direction(direction)));
+        int state = StateEncoder.encode(cell, velocity, direction);
+        int action = choose(state, mask, random, epsilon);
+
+        for (int step = 1; step <= maxSteps && action >= 0; step++) {
+            int newDirection = StateEncoder.direction(action);
+            int newVelocity = Math.max(0, Math.min(KinematicsTable.MAX_SPEED, velocity + StateEncoder.acceleration(action)));
+            byte outcome = kinematics.outcome(cell, newDirection, newVelocity);
+
+            // Il traguardo attraversato conta prima della cella di atterraggio, come in GameEngine
+            if (finishLine.crossing(kinematics.x(cell), kinematics.y(cell), newDirection, newVelocity) > 0) {
+                update(state, action, -1f);
+                return step;
+            }
+            if (!CellType.isPassable(outcome)) {
+                update(state, action, crashPenalty);
+                return -step;
+            }
+
+            // Con velocità 0 il giocatore resta nella sua cella (che GameEngine considera occupata)
+            int newCell = kinematics.destination(cell, newDirection, newVelocity);
+            int newMask = StateEncoder.actionMask(
+                    inertiaManager.allowedDirectionMask(newVelocity, DirectionMask.direction(newDirection)));
+            int newState = StateEncoder.encode(newCell, newVelocity, newDirection);
+            int newAction = choose(newState, newMask, random, epsilon);
+
+            float next;
+            if (newAction < 0) {
+                next = 0f;
+            } else if (algorithm == Algorithm.SARSA) {
+                next = table.get(newState, newAction);
+            } else {
+                next = table.maxValue(newState, newMask);
+            }
+            update(state, action, (float) (-1.0 + gamma * next));
+
+            cell = newCell;
+            velocity = newVelocity;
+            direction = newDirection;
+            state = newState;
+            action = newAction;
+        }
+        return -maxSteps;
+    }
+
+    /**
+     * Sposta Q(stato, azione) verso il valore obiettivo.
+     */
+    private void update(int state, int action, float target) {
+        float q = table.get(state, action);
+        table.set(state, action, (float) (q + alpha * (target - q)));
+    }
+
+    /**
+     * Scelta epsilon-greedy tra le azioni della maschera.
+     */
+    private int choose(int state, int mask, SplittableRandom random, double epsilon) {
+        if (mask == 0) {
+            return -1;
+        }
+        if (random.nextDouble() < epsilon) {
+            int n = random.nextInt(Integer.bitCount(mask));
+            int m = mask;
+            for (int i = 0; i < n; i++) {
+                m &= m - 1;
+            }
+            return Integer.numberOfTrailingZeros(m);
+        }
+        return table.bestAction(state, mask);
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Addestramento interrotto", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante l'addestramento", e.getCause());
+        }
+    }
+
+    /**
+     * Statistiche di un addestramento.
+     */
+    public static final class TrainingStats {
+        private final int episodes;
+        private final long finished;
+        private final long finishedLate;
+        private final int lateEpisodes;
+        private final long steps;
+
+        TrainingStats(int episodes, long finished, long finishedLate, int lateEpisodes, long steps) {
+            this.episodes = episodes;
+            this.finished = finished;
+            this.finishedLate = finishedLate;
+            this.lateEpisodes = lateEpisodes;
+            this.steps = steps;
+        }
+
+        /**
+         * @return Numero di episodi eseguiti.
+         */
+        public int getEpisodes() {
+            return episodes;
+        }
+
+        /**
+         * @return Frazione di episodi terminati al traguardo.
+         */
+        public double getFinishRate() {
+            return episodes == 0 ? 0 : (double) finished / episodes;
+        }
+
+        /**
+         * @return Frazione di episodi terminati al traguardo nell'ultimo 10% dell'addestramento.
+         */
+        public double getLateFinishRate() {
+            return lateEpisodes == 0 ? 0 : (double) finishedLate / lateEpisodes;
+        }
+
+        /**
+         * @return Numero totale di turni simulati.
+         */
+        public long getSteps() {
+            return steps;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("episodi=%d, arrivi=%.1f%%, arrivi ultimo 10%%=%.1f%%, turni simulati=%d",
+                    episodes, 100 * getFinishRate(), 100 * getLateFinishRate(), steps);
+        }
+    }
+
+    /**
+     * Addestra una Q-table mappata su file, che può poi essere usata da un
+     * {@link VectorRace.Giocatori.QLearningPlayer}. Se il file esiste, l'addestramento riprende
+     * dai valori salvati.
+     * Uso: QLearningTrainer tracciato file episodi [Q_LEARNING|SARSA] [thread] [seed]
+     *
+     * @param args Parametri dell'addestramento.
+     * @throws IOException Se il tracciato o il file della tabella non sono accessibili.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Uso: QLearningTrainer tracciato file episodi [Q_LEARNING|SARSA] [thread] [seed]");
+            return;
+        }
+        ITrack track = TrackRegistry.getInstance().load(args[0]);
+        Path file = Paths.get(args[1]);
+        int episodes = Integer.parseInt(args[2]);
+        Algorithm algorithm = args.length > 3 ? Algorithm.valueOf(args[3]) : Algorithm.Q_LEARNING;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1L;
+
+        try (QTable table = QTable.map(file, track.getWidth(), track.getHeight())) {
+            QLearningTrainer trainer = new QLearningTrainer(track, table, algorithm);
+            TrainingStats stats = trainer.train(episodes, threads, seed);
+            System.out.println("Addestramento completato: " + stats);
+        }
+    }
+}
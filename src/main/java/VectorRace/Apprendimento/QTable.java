@@ -0,0 +1,328 @@
+package VectorRace.Apprendimento;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * QTable conserva i valori Q(stato, azione) di un tracciato come float fuori dallo heap:
+ * in buffer diretti ({@link #allocate(int, int)}) oppure in un file mappato in memoria
+ * ({@link #map(Path, int, int)}), così anche tracciati molto grandi non occupano heap.
+ * <p>
+ * La tabella è divisa in segmenti di al massimo 1 GiB (un ByteBuffer è limitato a 2 GiB).
+ * Letture e scritture usano accessi assoluti, che non modificano lo stato del buffer:
+ * più thread possono aggiornare la tabella senza lock (stile Hogwild), accettando che
+ * aggiornamenti concorrenti sullo stesso valore possano sovrascriversi.
+ * <p>
+ * Formato del file: intestazione di {@link #HEADER_BYTES} byte (magic, versione, stati,
+ * azioni, larghezza e altezza del tracciato) seguita dai valori, stato per stato.
+ */
+public final class QTable implements AutoCloseable {
+
+    /**
+     * Dimensione dell'intestazione del file.
+     */
+    public static final int HEADER_BYTES = 32;
+
+    private static final int MAGIC = 0x56525154; // "VRQT"
+    private static final int VERSION = 1;
+
+    /**
+     * Dimensione massima di un segmento in byte.
+     */
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final int width;
+    private final int height;
+    private final int states;
+    private final int actions;
+
+    /**
+     * Numero di bit dell'indice di stato all'interno di un segmento.
+     */
+    private final int segmentShift;
+    private final int segmentMask;
+    private final ByteBuffer[] segments;
+
+    /**
+     * Canale del file mappato, o null per una tabella in memoria.
+     */
+    private final FileChannel channel;
+
+    private QTable(int width, int height, int states, int actions, FileChannel channel, boolean readOnly)
+            throws IOException {
+        this.width = width;
+        this.height = height;
+        this.states = states;
+        this.actions = actions;
+        this.channel = channel;
+
+        int statesPerSegment = Integer.highestOneBit((int) Math.min(Integer.MAX_VALUE,
+                MAX_SEGMENT_BYTES / ((long) actions * Float.BYTES)));
+        this.segmentShift = Integer.numberOfTrailingZeros(statesPerSegment);
+        this.segmentMask = statesPerSegment - 1;
+
+        int count = (int) (((long) states + statesPerSegment - 1) / statesPerSegment);
+        this.segments = new ByteBuffer[Math.max(1, count)];
+        long segmentBytes = (long) statesPerSegment * actions * Float.BYTES;
+        long total = (long) states * actions * Float.BYTES;
+        for (int i = 0; i < segments.length; i++) {
+            long start = i * segmentBytes;
+            int size = (int) Math.min(segmentBytes, total - start);
+            ByteBuffer segment;
+            if (channel == null) {
+                segment = ByteBuffer.allocateDirect(size);
+            } else {
+                segment = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE,
+                        HEADER_BYTES + start, size);
+            }
+            segments[i] = segment.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Crea una tabella in memoria diretta (fuori dallo heap), inizializzata a zero.
+     *
+     * @param width  Larghezza del tracciato.
+     * @param height Altezza del tracciato.
+     * @return La nuova tabella.
+     */
+    public static QTable allocate(int width, int height) {
+        try {
+            return new QTable(width, height, StateEncoder.stateCount((long) width * height),
+                    StateEncoder.ACTIONS, null, false);
+        } catch (IOException e) {
+            // Non si verifica: nessun file coinvolto
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Apre in lettura e scrittura una tabella mappata su file, creandolo (con valori a zero)
+     * se non esiste. Se il file esiste deve riferirsi a un tracciato delle stesse dimensioni.
+     *
+     * @param file   File della tabella.
+     * @param width  Larghezza del tracciato.
+     * @param height Altezza del tracciato.
+     * @return La tabella mappata.
+     * @throws IOException Se il file non può essere creato o non è compatibile.
+     */
+    public static QTable map(Path file, int width, int height) throws IOException {
+        int states = StateEncoder.stateCount((long) width * height);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                writeHeader(channel, states, StateEncoder.ACTIONS, width, height);
+            } else {
+                int[] header = readHeader(channel);
+                if (header[2] != width || header[3] != height) {
+                    throw new IOException("Q-table " + file + " creata per un tracciato "
+                            + header[2] + "x" + header[3] + ", non " + width + "x" + height);
+                }
+            }
+            return new QTable(width, height, states, StateEncoder.ACTIONS, channel, false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Apre in sola lettura una tabella salvata su file (es. per un {@link VectorRace.Giocatori.QLearningPlayer}).
+     *
+     * @param file File della tabella.
+     * @return La tabella mappata in sola lettura.
+     * @throws IOException Se il file non esiste o non è una Q-table valida.
+     */
+    public static QTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            int[] header = readHeader(channel);
+            return new QTable(header[2], header[3], header[0], header[1], channel, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Legge un valore.
+     *
+     * @param state  Stato codificato.
+     * @param action Azione codificata.
+     * @return Il valore Q.
+     */
+    public float get(int state, int action) {
+        return segments[state >>> segmentShift].getFloat(offset(state, action));
+    }
+
+    /**
+     * Scrive un valore.
+     *
+     * @param state  Stato codificato.
+     * @param action Azione codificata.
+     * @param value  Nuovo valore Q.
+     */
+    public void set(int state, int action, float value) {
+        segments[state >>> segmentShift].putFloat(offset(state, action), value);
+    }
+
+    /**
+     * Restituisce l'azione con il valore più alto tra quelle della maschera
+     * (a parità di valore, quella con indice minore).
+     *
+     * @param state      Stato codificato.
+     * @param actionMask Maschera delle azioni ammesse.
+     * @return L'azione migliore, o -1 se la maschera è vuota.
+     */
+    public int bestAction(int state, int actionMask) {
+        ByteBuffer segment = segments[state >>> segmentShift];
+        int base = offset(state, 0);
+        int best = -1;
+        float bestValue = Float.NEGATIVE_INFINITY;
+        for (int m = actionMask; m != 0; m &= m - 1) {
+            int action = Integer.numberOfTrailingZeros(m);
+            float value = segment.getFloat(base + action * Float.BYTES);
+            if (best < 0 || value > bestValue) {
+                best = action;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Valore massimo tra le azioni della maschera.
+     *
+     * @param state      Stato codificato.
+     * @param actionMask Maschera delle azioni ammesse.
+     * @return Il valore massimo, o 0 se la maschera è vuota.
+     */
+    public float maxValue(int state, int actionMask) {
+        int best = bestAction(state, actionMask);
+        return best < 0 ? 0f : get(state, best);
+    }
+
+    /**
+     * Salva la tabella (intestazione e valori) su file, sovrascrivendolo.
+     *
+     * @param file File di destinazione.
+     * @throws IOException In caso di errore di scrittura.
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, states, actions, width, height);
+            long position = HEADER_BYTES;
+            for (ByteBuffer segment : segments) {
+                ByteBuffer view = segment.duplicate();
+                view.clear();
+                while (view.hasRemaining()) {
+                    position += out.write(view, position);
+                }
+            }
+        }
+    }
+
+    /**
+     * Per una tabella mappata, forza la scrittura su disco delle modifiche.
+     */
+    public void force() {
+        if (channel != null) {
+            for (ByteBuffer segment : segments) {
+                if (segment instanceof MappedByteBuffer && !segment.isReadOnly()) {
+                    ((MappedByteBuffer) segment).force();
+                }
+            }
+        }
+    }
+
+    /**
+     * Scrive le modifiche su disco (se mappata) e chiude il file. La memoria mappata
+     * viene rilasciata dal garbage collector quando la tabella non è più raggiungibile.
+     *
+     * @throws IOException In caso di errore nella chiusura del file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+        }
+    }
+
+    /**
+     * @return Numero di stati.
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * @return Numero di azioni per stato.
+     */
+    public int getActions() {
+        return actions;
+    }
+
+    /**
+     * @return Larghezza del tracciato della tabella.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Altezza del tracciato della tabella.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    private int offset(int state, int action) {
+        return ((state & segmentMask) * actions + action) * Float.BYTES;
+    }
+
+    private static void writeHeader(FileChannel channel, int states, int actions, int width, int height)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(states).putInt(actions).putInt(width).putInt(height);
+        header.clear();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Legge l'intestazione e restituisce {stati, azioni, larghezza, altezza}.
+     */
+    private static int[] readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Q-table troncata: intestazione incompleta");
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("File non riconosciuto come Q-table");
+        }
+        int states = header.getInt();
+        int actions = header.getInt();
+        int width = header.getInt();
+        int height = header.getInt();
+        if (actions != StateEncoder.ACTIONS || states != StateEncoder.stateCount((long) width * height)) {
+            throw new IOException("Intestazione della Q-table non coerente");
+        }
+        long expected = HEADER_BYTES + (long) states * actions * Float.BYTES;
+        if (channel.size() < expected) {
+            throw new IOException("Q-table troncata: attesi " + expected + " byte, trovati " + channel.size());
+        }
+        return new int[]{states, actions, width, height};
+    }
+}
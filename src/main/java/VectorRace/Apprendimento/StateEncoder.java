@@ -0,0 +1,104 @@
+package VectorRace.Apprendimento;
+
+import VectorRace.Posizione.KinematicsTable;
+
+/**
+ * StateEncoder definisce la codifica intera di stati e azioni usata dalla {@link QTable}.
+ * <p>
+ * Uno stato è la terna (cella, velocità, direzione precedente):
+ * stato = (cella * SPEEDS + velocità) * 8 + direzione. Le caratteristiche locali
+ * (ostacoli vicini) sono già determinate dalla cella, quindi in una tabella non
+ * aggiungerebbero informazione e non vengono codificate.
+ * <p>
+ * Un'azione è la coppia (direzione, accelerazione): azione = direzione * 3 + (accelerazione + 1),
+ * per un totale di {@link #ACTIONS} azioni.
+ */
+public final class StateEncoder {
+
+    /**
+     * Velocità possibili (da 0 a KinematicsTable.MAX_SPEED).
+     */
+    public static final int SPEEDS = KinematicsTable.MAX_SPEED + 1;
+
+    /**
+     * Stati per cella: velocità per direzione precedente.
+     */
+    public static final int STATES_PER_CELL = SPEEDS * 8;
+
+    /**
+     * Numero di azioni: 8 direzioni per 3 accelerazioni (-1, 0, +1).
+     */
+    public static final int ACTIONS = 8 * 3;
+
+    private StateEncoder() {
+    }
+
+    /**
+     * Numero di stati per un tracciato con il numero di celle indicato.
+     *
+     * @param cells Numero di celle del tracciato (width * height).
+     * @return Numero di stati.
+     * @throws IllegalArgumentException se gli stati non sono rappresentabili con un int.
+     */
+    public static int stateCount(long cells) {
+        long states = cells * STATES_PER_CELL;
+        if (states > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tracciato troppo grande per una Q-table: " + cells + " celle");
+        }
+        return (int) states;
+    }
+
+    /**
+     * Codifica uno stato.
+     *
+     * @param cell      Indice della cella (y * width + x).
+     * @param velocity  Velocità corrente (0..3).
+     * @param direction Ordinale della direzione precedente.
+     * @return Stato codificato.
+     */
+    public static int encode(int cell, int velocity, int direction) {
+        return (cell * SPEEDS + velocity) * 8 + direction;
+    }
+
+    /**
+     * Codifica un'azione.
+     *
+     * @param direction    Ordinale della direzione.
+     * @param acceleration Accelerazione (-1, 0, +1).
+     * @return Azione codificata.
+     */
+    public static int action(int direction, int acceleration) {
+        return direction * 3 + acceleration + 1;
+    }
+
+    /**
+     * @param action Azione codificata.
+     * @return Ordinale della direzione dell'azione.
+     */
+    public static int direction(int action) {
+        return action / 3;
+    }
+
+    /**
+     * @param action Azione codificata.
+     * @return Accelerazione dell'azione (-1, 0, +1).
+     */
+    public static int acceleration(int action) {
+        return action % 3 - 1;
+    }
+
+    /**
+     * Converte una maschera di direzioni nella maschera delle azioni corrispondenti
+     * (le tre accelerazioni di ogni direzione ammessa).
+     *
+     * @param directionMask Maschera di direzioni ({@link VectorRace.Posizione.DirectionMask}).
+     * @return Maschera di azioni (bit i = azione i).
+     */
+    public static int actionMask(int directionMask) {
+        int mask = 0;
+        for (int m = directionMask & 0xFF; m != 0; m &= m - 1) {
+            mask |= 0b111 << (Integer.numberOfTrailingZeros(m) * 3);
+        }
+        return mask;
+    }
+}
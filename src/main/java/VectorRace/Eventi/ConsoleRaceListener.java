@@ -0,0 +1,148 @@
+package VectorRace.Eventi;
+
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Position;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * ConsoleRaceListener stampa l'andamento della gara con gli stessi messaggi
+ * che GameEngine scriveva direttamente su console: inizio turno, tracciato e stato
+ * dei giocatori dopo ogni spostamento, collisioni, eliminazioni, arrivo e fine gara.
+ * <p>
+ * Con verbose attivo GameEngine lo invoca direttamente sul thread della gara, così la stampa
+ * resta sincrona con i turni e non perde eventi; registrato con addListener viene invece
+ * eseguito sul thread consumatore di {@link RaceEventBus}.
+ */
+public class ConsoleRaceListener implements RaceListener {
+
+    private final ITrack track;
+    private final PrintStream out;
+
+    /**
+     * Crea un listener che stampa su System.out.
+     *
+     * @param track Tracciato della gara (usato per disegnare la plancia).
+     */
+    public ConsoleRaceListener(ITrack track) {
+        this(track, System.out);
+    }
+
+    /**
+     * Crea un listener che stampa sullo stream indicato.
+     *
+     * @param track Tracciato della gara (usato per disegnare la plancia).
+     * @param out   Stream di destinazione.
+     */
+    public ConsoleRaceListener(ITrack track, PrintStream out) {
+        this.track = track;
+        this.out = out;
+    }
+
+    /**
+     * Formatta e stampa un evento.
+     *
+     * @param event Evento ricevuto.
+     */
+    @Override
+    public void onEvent(RaceEvent event) {
+        switch (event.getType()) {
+            case TURN_STARTED:
+                out.println("Turno: " + event.getTurn());
+                break;
+            case MOVED:
+                out.print(render(track, ((RaceEvent.Moved) event).getStandings()));
+                break;
+            case STUCK:
+                out.println(((RaceEvent.Stuck) event).getPlayer() + " non ha direzioni sicure per muoversi.");
+                break;
+            case COLLIDED:
+                out.println("Posizione occupata da un altro giocatore. "
+                        + ((RaceEvent.Collided) event).getPlayer() + " salta il turno.");
+                break;
+            case ELIMINATED:
+                out.println(((RaceEvent.Eliminated) event).getPlayer()
+                        + " ha colpito un ostacolo ed è eliminato dal gioco!");
+                break;
+            case FINISHED:
+                out.println(((RaceEvent.Finished) event).getPlayer() + " ha raggiunto il traguardo!");
+                break;
+            case RACE_ENDED:
+                RaceEvent.RaceEnded ended = (RaceEvent.RaceEnded) event;
+                if (ended.getReason() == RaceEvent.RaceEnded.Reason.ALL_ELIMINATED) {
+                    out.println("Tutti i giocatori sono stati eliminati. La partita finisce.");
+                } else if (ended.getReason() == RaceEvent.RaceEnded.Reason.TURN_LIMIT) {
+                    out.println("Limite di " + ended.getMaxTurns() + " turni raggiunto. La partita termina.");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Segnala gli eventi eventualmente persi e svuota lo stream.
+     *
+     * @param dropped Numero di eventi scartati.
+     */
+    @Override
+    public void onClose(long dropped) {
+        if (dropped > 0) {
+            out.println("(" + dropped + " eventi di gara non mostrati: buffer pieno)");
+        }
+        out.flush();
+    }
+
+    /**
+     * Disegna il tracciato riga per riga, sostituendo le celle occupate con il simbolo
+     * del giocatore, seguito dallo stato riepilogativo dei giocatori
+     * (nome, velocità, posizione, direzione).
+     *
+     * @param track     Tracciato da disegnare.
+     * @param standings Stato dei giocatori.
+     * @return Il testo da stampare, già terminato da un separatore.
+     */
+    public static String render(ITrack track, List<PlayerSnapshot> standings) {
+        StringBuilder sb = new StringBuilder((track.getWidth() + 1) * track.getHeight() + 64 * standings.size() + 128);
+        List<Position> starts = track.getAllStartPositions();
+
+        // Stampa del tracciato, riga per riga
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                Position pos = new Position(x, y);
+
+                // Carattere che rappresenta la cella: Start (S), Finish (F) o il contenuto del tracciato
+                char cell;
+                if (starts.contains(pos)) {
+                    cell = 'S';
+                } else if (track.isFinish(pos)) {
+                    cell = 'F';
+                } else {
+                    cell = track.getCell(pos);
+                }
+
+                // Se un giocatore è presente nella cella, si usa il suo simbolo
+                for (PlayerSnapshot player : standings) {
+                    if (player.getPosition().equals(pos)) {
+                        cell = player.getSymbol();
+                        break;
+                    }
+                }
+                sb.append(cell);
+            }
+            sb.append(System.lineSeparator());
+        }
+
+        // Separatore e stato dei giocatori
+        sb.append(System.lineSeparator()).append("Stato dei giocatori:").append(System.lineSeparator());
+        for (PlayerSnapshot player : standings) {
+            Position pos = player.getPosition();
+            String directionStr = (player.getDirection() != null) ? player.getDirection().toString() : "N/D";
+            sb.append(String.format("%s - Velocità: %d, Posizione: (%d, %d), Direzione: %s%n",
+                    player.getName(), player.getVelocity(), pos.getX(), pos.getY(), directionStr));
+        }
+        sb.append("--------------------------------------------------").append(System.lineSeparator());
+        return sb.toString();
+    }
+}
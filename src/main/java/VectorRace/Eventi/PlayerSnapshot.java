@@ -0,0 +1,98 @@
+package VectorRace.Eventi;
+
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+/**
+ * PlayerSnapshot è una fotografia immutabile dello stato di un giocatore in un certo istante:
+ * può essere passata a un altro thread (es. il consumatore degli eventi) senza
+ * che i valori cambino mentre la gara prosegue.
+ */
+public final class PlayerSnapshot {
+
+    private final String name;
+    private final char symbol;
+    private final Position position;
+    private final int velocity;
+    private final VectorDirection.CardinalDirection direction;
+
+    /**
+     * Costruttore di PlayerSnapshot.
+     *
+     * @param name      Nome del giocatore.
+     * @param symbol    Simbolo con cui il giocatore viene disegnato sul tracciato.
+     * @param position  Posizione del giocatore.
+     * @param velocity  Velocità del giocatore.
+     * @param direction Ultima direzione del giocatore (può essere null).
+     */
+    public PlayerSnapshot(String name, char symbol, Position position, int velocity,
+                          VectorDirection.CardinalDirection direction) {
+        this.name = name;
+        this.symbol = symbol;
+        this.position = position;
+        this.velocity = velocity;
+        this.direction = direction;
+    }
+
+    /**
+     * Crea la fotografia dello stato attuale di un giocatore.
+     * Per un BasePlayer usa il nome e la sua iniziale come simbolo,
+     * altrimenti "Giocatore" e "P" (come la visualizzazione di GameBoard).
+     *
+     * @param player    Giocatore da fotografare.
+     * @param direction Ultima direzione del giocatore (può essere null).
+     * @return La fotografia dello stato del giocatore.
+     */
+    public static PlayerSnapshot of(IPlayer player, VectorDirection.CardinalDirection direction) {
+        String name = nameOf(player);
+        char symbol = (player instanceof BasePlayer) ? name.charAt(0) : 'P';
+        return new PlayerSnapshot(name, symbol, player.getCurrentPosition(), player.getVelocity(), direction);
+    }
+
+    /**
+     * Restituisce il nome da mostrare per un giocatore.
+     *
+     * @param player Giocatore.
+     * @return Il nome se è un BasePlayer, "Giocatore" altrimenti.
+     */
+    public static String nameOf(IPlayer player) {
+        return (player instanceof BasePlayer) ? ((BasePlayer) player).getName() : "Giocatore";
+    }
+
+    /**
+     * @return Il nome del giocatore.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Il simbolo del giocatore sul tracciato.
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return La posizione del giocatore.
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * @return La velocità del giocatore.
+     */
+    public int getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * @return L'ultima direzione del giocatore, o null se non nota.
+     */
+    public VectorDirection.CardinalDirection getDirection() {
+        return direction;
+    }
+}
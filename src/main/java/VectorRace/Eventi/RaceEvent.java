@@ -0,0 +1,286 @@
+package VectorRace.Eventi;
+
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+import java.util.List;
+
+/**
+ * RaceEvent è la base degli eventi pubblicati da GameEngine durante una gara.
+ * Ogni evento è immutabile e contiene solo valori già calcolati (nomi, posizioni,
+ * fotografie dei giocatori), così può essere elaborato su un altro thread mentre
+ * la gara prosegue.
+ * <p>
+ * I tipi concreti sono classi annidate; {@link #getType()} permette ai listener
+ * di distinguerli con uno switch senza usare instanceof.
+ */
+public abstract class RaceEvent {
+
+    /**
+     * Tipi di evento di gara.
+     */
+    public enum Type {
+        TURN_STARTED, MOVED, STUCK, COLLIDED, ELIMINATED, FINISHED, RACE_ENDED
+    }
+
+    /**
+     * Turno in cui è avvenuto l'evento.
+     */
+    private final int turn;
+
+    /**
+     * Costruttore di RaceEvent.
+     *
+     * @param turn Turno in cui è avvenuto l'evento.
+     */
+    protected RaceEvent(int turn) {
+        this.turn = turn;
+    }
+
+    /**
+     * @return Il turno in cui è avvenuto l'evento.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return Il tipo dell'evento.
+     */
+    public abstract Type getType();
+
+    /**
+     * Base degli eventi che riguardano un singolo giocatore.
+     */
+    public abstract static class PlayerEvent extends RaceEvent {
+        private final String player;
+        private final Position position;
+
+        /**
+         * @param turn     Turno dell'evento.
+         * @param player   Nome del giocatore coinvolto.
+         * @param position Posizione rilevante per l'evento (destinazione, ostacolo, ...).
+         */
+        protected PlayerEvent(int turn, String player, Position position) {
+            super(turn);
+            this.player = player;
+            this.position = position;
+        }
+
+        /**
+         * @return Il nome del giocatore coinvolto.
+         */
+        public String getPlayer() {
+            return player;
+        }
+
+        /**
+         * @return La posizione rilevante per l'evento.
+         */
+        public Position getPosition() {
+            return position;
+        }
+    }
+
+    /**
+     * Inizio di un nuovo turno.
+     */
+    public static final class TurnStarted extends RaceEvent {
+        /**
+         * @param turn Numero del turno iniziato.
+         */
+        public TurnStarted(int turn) {
+            super(turn);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.TURN_STARTED;
+        }
+    }
+
+    /**
+     * Un giocatore si è spostato in una nuova cella libera.
+     * Contiene anche la fotografia di tutti i giocatori in gara dopo lo spostamento.
+     */
+    public static final class Moved extends PlayerEvent {
+        private final Position from;
+        private final int velocity;
+        private final VectorDirection.CardinalDirection direction;
+        private final List<PlayerSnapshot> standings;
+
+        /**
+         * @param turn      Turno dell'evento.
+         * @param player    Nome del giocatore.
+         * @param from      Posizione di partenza.
+         * @param to        Posizione di arrivo.
+         * @param velocity  Velocità dopo l'accelerazione.
+         * @param direction Direzione scelta.
+         * @param standings Stato di tutti i giocatori dopo lo spostamento.
+         */
+        public Moved(int turn, String player, Position from, Position to, int velocity,
+                     VectorDirection.CardinalDirection direction, List<PlayerSnapshot> standings) {
+            super(turn, player, to);
+            this.from = from;
+            this.velocity = velocity;
+            this.direction = direction;
+            this.standings = List.copyOf(standings);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.MOVED;
+        }
+
+        /**
+         * @return La posizione di partenza.
+         */
+        public Position getFrom() {
+            return from;
+        }
+
+        /**
+         * @return La velocità dopo l'accelerazione.
+         */
+        public int getVelocity() {
+            return velocity;
+        }
+
+        /**
+         * @return La direzione scelta.
+         */
+        public VectorDirection.CardinalDirection getDirection() {
+            return direction;
+        }
+
+        /**
+         * @return Lo stato (immutabile) di tutti i giocatori dopo lo spostamento.
+         */
+        public List<PlayerSnapshot> getStandings() {
+            return standings;
+        }
+    }
+
+    /**
+     * Un giocatore non ha direzioni sicure e resta fermo.
+     */
+    public static final class Stuck extends PlayerEvent {
+        /**
+         * @param turn     Turno dell'evento.
+         * @param player   Nome del giocatore.
+         * @param position Posizione in cui resta fermo.
+         */
+        public Stuck(int turn, String player, Position position) {
+            super(turn, player, position);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.STUCK;
+        }
+    }
+
+    /**
+     * Un giocatore ha tentato di spostarsi in una cella occupata da un altro giocatore
+     * e salta il turno.
+     */
+    public static final class Collided extends PlayerEvent {
+        /**
+         * @param turn   Turno dell'evento.
+         * @param player Nome del giocatore.
+         * @param target Cella occupata.
+         */
+        public Collided(int turn, String player, Position target) {
+            super(turn, player, target);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.COLLIDED;
+        }
+    }
+
+    /**
+     * Un giocatore ha colpito un ostacolo (o è uscito dal tracciato) ed è eliminato.
+     */
+    public static final class Eliminated extends PlayerEvent {
+        /**
+         * @param turn   Turno dell'evento.
+         * @param player Nome del giocatore.
+         * @param target Cella dell'urto.
+         */
+        public Eliminated(int turn, String player, Position target) {
+            super(turn, player, target);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.ELIMINATED;
+        }
+    }
+
+    /**
+     * Un giocatore ha raggiunto il traguardo e vince la gara.
+     */
+    public static final class Finished extends PlayerEvent {
+        /**
+         * @param turn   Turno dell'evento.
+         * @param player Nome del vincitore.
+         * @param target Cella del traguardo.
+         */
+        public Finished(int turn, String player, Position target) {
+            super(turn, player, target);
+        }
+
+        @Override
+        public Type getType() {
+            return Type.FINISHED;
+        }
+    }
+
+    /**
+     * Fine della gara: è sempre l'ultimo evento pubblicato.
+     */
+    public static final class RaceEnded extends RaceEvent {
+
+        /**
+         * Motivo della fine della gara.
+         */
+        public enum Reason {
+            FINISHED, ALL_ELIMINATED, TURN_LIMIT
+        }
+
+        private final Reason reason;
+        private final int maxTurns;
+
+        /**
+         * @param turn     Ultimo turno giocato.
+         * @param reason   Motivo della fine della gara.
+         * @param maxTurns Limite di turni della gara.
+         */
+        public RaceEnded(int turn, Reason reason, int maxTurns) {
+            super(turn);
+            this.reason = reason;
+            this.maxTurns = maxTurns;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.RACE_ENDED;
+        }
+
+        /**
+         * @return Il motivo della fine della gara.
+         */
+        public Reason getReason() {
+            return reason;
+        }
+
+        /**
+         * @return Il limite di turni della gara.
+         */
+        public int getMaxTurns() {
+            return maxTurns;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package VectorRace.Eventi;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RaceEventBus consegna gli eventi di gara ai {@link RaceListener} tramite un
+ * buffer circolare limitato e senza lock, svuotato da un thread consumatore dedicato.
+ * <p>
+ * Il buffer è a produttore singolo (il thread della gara) e consumatore singolo:
+ * {@link #publish(RaceEvent)} non si blocca mai. Se il buffer è pieno l'evento
+ * viene scartato e conteggiato in {@link #getDropped()}, così la gara non aspetta
+ * mai la console o un file. Il consumatore, quando non trova eventi, si sospende
+ * con LockSupport e viene risvegliato dal produttore solo se necessario.
+ */
+public final class RaceEventBus implements AutoCloseable {
+
+    /**
+     * Capacità di default del buffer (numero di eventi).
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final RaceEvent[] buffer;
+    private final int mask;
+    private final List<RaceListener> listeners;
+
+    /**
+     * Prossima posizione da scrivere (avanzata solo dal produttore).
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Prossima posizione da leggere (avanzata solo dal consumatore).
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Eventi scartati perché il buffer era pieno (scritto solo dal produttore).
+     */
+    private volatile long dropped;
+
+    /**
+     * true mentre il consumatore è (o sta per essere) sospeso in attesa di eventi.
+     */
+    private volatile boolean sleeping;
+
+    private volatile boolean running = true;
+    private final Thread consumer;
+
+    /**
+     * Crea il bus con la capacità di default e avvia il thread consumatore.
+     *
+     * @param listeners Listener a cui consegnare gli eventi.
+     */
+    public RaceEventBus(List<RaceListener> listeners) {
+        this(listeners, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Crea il bus e avvia il thread consumatore.
+     *
+     * @param listeners Listener a cui consegnare gli eventi.
+     * @param capacity  Capacità minima del buffer (arrotondata alla potenza di 2 successiva).
+     */
+    public RaceEventBus(List<RaceListener> listeners, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacità non valida: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new RaceEvent[size];
+        this.mask = size - 1;
+        this.listeners = List.copyOf(listeners);
+        this.consumer = new Thread(this::consume, "race-events");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Pubblica un evento senza bloccarsi. Deve essere invocato sempre dallo stesso thread.
+     *
+     * @param event Evento da pubblicare.
+     * @return true se l'evento è stato accodato, false se è stato scartato (buffer pieno o bus chiuso).
+     */
+    public boolean publish(RaceEvent event) {
+        long t = tail.get();
+        if (!running || t - head.get() >= buffer.length) {
+            dropped++;
+            return false;
+        }
+        buffer[(int) t & mask] = event;
+        // lazySet rende visibile lo slot al consumatore prima del nuovo tail
+        tail.lazySet(t + 1);
+        if (sleeping) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Numero di eventi scartati finora perché il buffer era pieno.
+     *
+     * @return Eventi scartati.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Capacità effettiva del buffer.
+     *
+     * @return Numero massimo di eventi in attesa.
+     */
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Chiude il bus: il consumatore consegna tutti gli eventi già accodati,
+     * notifica {@link RaceListener#onClose(long)} e termina. Il metodo attende
+     * la fine del consumatore, quindi al ritorno l'output dei listener è completo.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ciclo del thread consumatore: legge gli eventi in ordine e li consegna ai listener.
+     */
+    private void consume() {
+        while (true) {
+            long h = head.get();
+            if (h == tail.get()) {
+                if (!running && h == tail.get()) {
+                    break;
+                }
+                // Segnala che sta per sospendersi e ricontrolla, per non perdere un risveglio
+                sleeping = true;
+                if (h == tail.get() && running) {
+                    LockSupport.parkNanos(this, 1_000_000L);
+                }
+                sleeping = false;
+                continue;
+            }
+            int slot = (int) h & mask;
+            RaceEvent event = buffer[slot];
+            buffer[slot] = null;
+            head.lazySet(h + 1);
+            dispatch(event);
+        }
+        for (RaceListener listener : listeners) {
+            try {
+                listener.onClose(dropped);
+            } catch (RuntimeException e) {
+                System.err.println("Errore nel listener " + listener + ": " + e);
+            }
+        }
+    }
+
+    /**
+     * Consegna un evento a tutti i listener; l'errore di un listener non blocca gli altri.
+     */
+    private void dispatch(RaceEvent event) {
+        for (RaceListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (RuntimeException e) {
+                System.err.println("Errore nel listener " + listener + ": " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package VectorRace.Eventi;
+
+/**
+ * RaceListener riceve gli eventi di gara pubblicati da GameEngine.
+ * <p>
+ * I metodi vengono invocati dal thread consumatore di {@link RaceEventBus},
+ * mai dal thread che esegue la gara: un listener lento (es. output su file)
+ * non rallenta i turni. Fa eccezione la console di GameEngine in modalità verbose,
+ * invocata in modo sincrono (vedi {@link ConsoleRaceListener}).
+ * Gli eventi arrivano nello stesso ordine in cui sono stati pubblicati.
+ */
+public interface RaceListener {
+
+    /**
+     * Elabora un evento di gara.
+     *
+     * @param event Evento ricevuto.
+     */
+    void onEvent(RaceEvent event);
+
+    /**
+     * Invocato quando il bus viene chiuso, dopo l'ultimo evento.
+     *
+     * @param dropped Numero di eventi scartati perché il buffer era pieno.
+     */
+    default void onClose(long dropped) {
+    }
+}
@@ -0,0 +1,411 @@
+package VectorRace.Eventi;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RacePublisher espone una gara come {@link Flow.Publisher} degli eventi immutabili
+ * pubblicati da GameEngine ({@link RaceEvent}), a cui possono abbonarsi in qualsiasi momento
+ * più consumatori (log, interfacce, statistiche, registrazioni) anche durante la gara.
+ * <p>
+ * Ogni abbonato ha un proprio buffer circolare limitato, riempito dal thread della gara e
+ * svuotato da un task sull'{@link Executor} del publisher, che consegna gli eventi solo nei
+ * limiti della domanda ({@link Flow.Subscription#request(long)}). Quando il buffer è pieno,
+ * perché l'abbonato è lento o non chiede altri eventi, si applica la {@link Policy} scelta
+ * dall'abbonato: solo {@link Policy#BLOCK} può rallentare la gara, le altre scartano eventi
+ * e li conteggiano in {@link #getDropped()}.
+ * <p>
+ * Un publisher serve una sola gara: alla fine della gara il motore lo chiude con
+ * {@link #close()} e gli abbonati ricevono onComplete dopo gli eventi ancora nel buffer.
+ * Chi si abbona a un publisher già chiuso riceve subito onComplete.
+ */
+public final class RacePublisher implements Flow.Publisher<RaceEvent>, AutoCloseable {
+
+    /**
+     * Comportamento di un abbonato con il buffer pieno.
+     */
+    public enum Policy {
+        /**
+         * La gara attende che l'abbonato liberi spazio: nessun evento viene perso.
+         */
+        BLOCK,
+        /**
+         * Il nuovo evento viene scartato: l'abbonato riceve i primi eventi in ordine.
+         */
+        DROP,
+        /**
+         * L'evento più vecchio nel buffer viene scartato per fare posto al nuovo:
+         * l'abbonato riceve sempre gli eventi più recenti.
+         */
+        LATEST
+    }
+
+    /**
+     * Capacità di default del buffer di un abbonato (numero di eventi).
+     */
+    public static final int DEFAULT_CAPACITY = Flow.defaultBufferSize();
+
+    /**
+     * Esecutore dei task di consegna.
+     */
+    private final Executor executor;
+
+    /**
+     * Abbonamenti attivi, sostituiti in blocco a ogni modifica: il thread della gara
+     * li scorre senza lock e senza iteratori.
+     */
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    private volatile boolean closed;
+
+    /**
+     * Eventi scartati da tutti gli abbonati.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Crea un publisher che consegna gli eventi sul pool comune, o su un thread per
+     * abbonato se il pool comune non ha parallelismo (come SubmissionPublisher).
+     */
+    public RacePublisher() {
+        this(ForkJoinPool.getCommonPoolParallelism() > 1 ? ForkJoinPool.commonPool() : task -> {
+            Thread t = new Thread(task, "race-flow");
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+
+    /**
+     * Crea un publisher che consegna gli eventi con l'esecutore indicato.
+     *
+     * @param executor Esecutore dei task di consegna.
+     */
+    public RacePublisher(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Abbona un consumatore con la politica {@link Policy#DROP} e la capacità di default.
+     *
+     * @param subscriber Consumatore degli eventi.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super RaceEvent> subscriber) {
+        subscribe(subscriber, Policy.DROP, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Abbona un consumatore con la politica e la capacità di buffer indicate.
+     * <p>
+     * onSubscribe viene chiamato prima di ogni altro segnale (regola 1.9 di Reactive Streams):
+     * l'abbonamento entra tra quelli attivi solo al suo ritorno, quindi gli eventi pubblicati
+     * nel frattempo non lo riguardano, e le consegne richieste dentro onSubscribe partono dopo.
+     *
+     * @param subscriber Consumatore degli eventi.
+     * @param policy     Comportamento con il buffer pieno.
+     * @param capacity   Capacità minima del buffer (arrotondata alla potenza di 2 successiva).
+     */
+    public void subscribe(Flow.Subscriber<? super RaceEvent> subscriber, Policy policy, int capacity) {
+        if (subscriber == null || policy == null) {
+            throw new NullPointerException();
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacità non valida: " + capacity);
+        }
+        Subscription subscription = new Subscription(subscriber, policy, capacity);
+        // Il contatore di lavoro a 1 trattiene le consegne richieste durante onSubscribe
+        subscription.work.set(1);
+        subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            // Un abbonamento cancellato dentro onSubscribe non viene registrato
+            if (!subscription.cancelled) {
+                if (!closed) {
+                    Subscription[] current = subscriptions;
+                    Subscription[] next = Arrays.copyOf(current, current.length + 1);
+                    next[current.length] = subscription;
+                    subscriptions = next;
+                } else {
+                    subscription.done = true;
+                }
+            }
+        }
+        subscription.start();
+    }
+
+    /**
+     * Pubblica un evento a tutti gli abbonati. Deve essere invocato sempre dallo stesso thread
+     * (quello della gara); si blocca solo se un abbonato con {@link Policy#BLOCK} ha il buffer pieno.
+     *
+     * @param event Evento da pubblicare.
+     */
+    public void publish(RaceEvent event) {
+        Subscription[] current = subscriptions;
+        for (Subscription subscription : current) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Chiude il publisher: gli abbonati ricevono onComplete dopo gli eventi già nel buffer
+     * e gli eventi pubblicati in seguito vengono ignorati.
+     */
+    @Override
+    public void close() {
+        Subscription[] current;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            current = subscriptions;
+            subscriptions = new Subscription[0];
+        }
+        for (Subscription subscription : current) {
+            subscription.done = true;
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * @return true se il publisher è stato chiuso.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return Numero di abbonamenti attivi.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+
+    /**
+     * Numero di eventi scartati finora da tutti gli abbonati per il buffer pieno.
+     *
+     * @return Eventi scartati.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Toglie un abbonamento cancellato dall'elenco degli attivi.
+     */
+    private synchronized void remove(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] next = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, next.length - i);
+                subscriptions = next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Abbonamento di un consumatore: buffer circolare a produttore singolo (il thread della gara)
+     * e consegna serializzata da un contatore di lavoro, così un solo task alla volta chiama
+     * il consumatore. L'inizio del buffer avanza con un CAS sia quando il consumatore prende
+     * un evento sia quando {@link Policy#LATEST} scarta il più vecchio.
+     */
+    private final class Subscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super RaceEvent> subscriber;
+        private final Policy policy;
+        private final AtomicReferenceArray<RaceEvent> buffer;
+        private final int mask;
+
+        /**
+         * Prossima posizione da scrivere (avanzata solo dal produttore).
+         */
+        private final AtomicLong tail = new AtomicLong();
+
+        /**
+         * Prossima posizione da leggere.
+         */
+        private final AtomicLong head = new AtomicLong();
+
+        /**
+         * Eventi richiesti e non ancora consegnati (Long.MAX_VALUE = illimitati).
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * Richieste di consegna pendenti: il task viene avviato solo passando da 0 a 1.
+         */
+        private final AtomicInteger work = new AtomicInteger();
+
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        /**
+         * Thread della gara in attesa di spazio nel buffer ({@link Policy#BLOCK}), o null.
+         */
+        private volatile Thread waiting;
+
+        /**
+         * Errore da segnalare al consumatore (richiesta non valida), o null.
+         */
+        private volatile Throwable error;
+
+        Subscription(Flow.Subscriber<? super RaceEvent> subscriber, Policy policy, int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.buffer = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Richiesta non valida: " + n);
+            } else {
+                requested.getAndAccumulate(n, (current, add) -> {
+                    long sum = current + add;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                remove(this);
+                LockSupport.unpark(waiting);
+            }
+        }
+
+        /**
+         * Accoda un evento applicando la politica dell'abbonato se il buffer è pieno.
+         */
+        void offer(RaceEvent event) {
+            if (cancelled) {
+                return;
+            }
+            long t = tail.get();
+            while (t - head.get() >= buffer.length()) {
+                if (policy == Policy.DROP) {
+                    dropped.incrementAndGet();
+                    return;
+                } else if (policy == Policy.LATEST) {
+                    long h = head.get();
+                    if (t - h >= buffer.length() && head.compareAndSet(h, h + 1)) {
+                        dropped.incrementAndGet();
+                    }
+                } else {
+                    // Segnala l'attesa e ricontrolla, per non perdere un risveglio del consumatore
+                    waiting = Thread.currentThread();
+                    if (t - head.get() >= buffer.length() && !cancelled) {
+                        LockSupport.parkNanos(this, 1_000_000L);
+                    }
+                    waiting = null;
+                    if (cancelled) {
+                        return;
+                    }
+                }
+            }
+            buffer.set((int) t & mask, event);
+            tail.set(t + 1);
+            // Senza domanda non serve avviare la consegna: ci pensa la prossima request
+            if (requested.get() != 0) {
+                schedule();
+            }
+        }
+
+        /**
+         * Avvia il task di consegna, se non è già in corso.
+         */
+        void schedule() {
+            if (work.getAndIncrement() == 0) {
+                start();
+            }
+        }
+
+        /**
+         * Affida il task di consegna all'esecutore; il contatore di lavoro vale già almeno 1.
+         */
+        void start() {
+            try {
+                executor.execute(this);
+            } catch (RuntimeException e) {
+                // Esecutore non disponibile: l'abbonato non riceverà altri eventi
+                cancelled = true;
+                remove(this);
+                subscriber.onError(e);
+            }
+        }
+
+        /**
+         * Task di consegna: invia gli eventi richiesti, poi onComplete o onError se necessario.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                long demand = requested.get();
+                long delivered = 0;
+                while (delivered != demand && !cancelled) {
+                    RaceEvent event = poll();
+                    if (event == null) {
+                        break;
+                    }
+                    try {
+                        subscriber.onNext(event);
+                    } catch (RuntimeException e) {
+                        System.err.println("Errore nell'abbonato " + subscriber + ": " + e);
+                        cancel();
+                    }
+                    delivered++;
+                }
+                if (delivered != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-delivered);
+                }
+                if (!cancelled) {
+                    Throwable failure = error;
+                    if (failure != null) {
+                        cancel();
+                        subscriber.onError(failure);
+                    } else if (done && head.get() == tail.get()) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                    }
+                }
+                missed = work.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Prende l'evento più vecchio del buffer, o null se il buffer è vuoto.
+         */
+        private RaceEvent poll() {
+            while (true) {
+                long h = head.get();
+                if (h == tail.get()) {
+                    return null;
+                }
+                int slot = (int) h & mask;
+                RaceEvent event = buffer.get(slot);
+                // Il CAS fallisce se nel frattempo il produttore ha scartato questo evento (LATEST)
+                if (head.compareAndSet(h, h + 1)) {
+                    buffer.compareAndSet(slot, event, null);
+                    LockSupport.unpark(waiting);
+                    return event;
+                }
+            }
+        }
+    }
+}
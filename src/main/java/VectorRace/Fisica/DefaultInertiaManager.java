@@ -1,26 +1,45 @@
 package VectorRace.Fisica;
 
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.VectorDirection;
 
 import java.util.*;
 
 /**
- * DefaultInertiaManager  unimplementazione base di IInertiaManager che,
- * in base alla velocit corrente e alla direzione precedente,
+ * DefaultInertiaManager è un’implementazione base di IInertiaManager che,
+ * in base alla velocità corrente e alla direzione precedente,
  * limita le direzioni disponibili per il turno successivo.
  *
- * La logica si basa su soglie di velocit:
- * - velocit <= 1: si possono scegliere tutte le direzioni.
- * - velocit == 2: si limita la scelta a direzioni entro 90 rispetto alla direzione precedente.
- * - velocit >= 3: si limita la scelta a direzioni entro 45 rispetto alla direzione precedente.
+ * La logica si basa su soglie di velocità:
+ * - velocità <= 1: si possono scegliere tutte le direzioni.
+ * - velocità == 2: si limita la scelta a direzioni entro ±90° rispetto alla direzione precedente.
+ * - velocità >= 3: si limita la scelta a direzioni entro ±45° rispetto alla direzione precedente.
  */
 public class DefaultInertiaManager implements IInertiaManager {
 
+    /**
+     * Maschere precalcolate delle direzioni ammesse entro ±90° (velocità 2)
+     * e ±45° (velocità >= 3), indicizzate per ordinale della direzione precedente.
+     */
+    private final int[] masksWithin90 = new int[8];
+    private final int[] masksWithin45 = new int[8];
+
+    /**
+     * Costruttore di DefaultInertiaManager: precalcola le maschere di direzioni
+     * usate da {@link #allowedDirectionMask(int, VectorDirection.CardinalDirection)}.
+     */
+    public DefaultInertiaManager() {
+        for (VectorDirection.CardinalDirection dir : VectorDirection.CardinalDirection.values()) {
+            masksWithin90[dir.ordinal()] = DirectionMask.of(getDirectionsWithinAngle(dir, 90));
+            masksWithin45[dir.ordinal()] = DirectionMask.of(getDirectionsWithinAngle(dir, 45));
+        }
+    }
+
     /**
      * Restituisce la lista di direzioni cardinale ammesse,
-     * calcolate in base alla velocit e alla direzione precedente.
+     * calcolate in base alla velocità e alla direzione precedente.
      *
-     * @param currentVelocity       Velocit corrente del giocatore.
+     * @param currentVelocity       Velocità corrente del giocatore.
      * @param previousDirection     Direzione seguita dal giocatore al turno precedente.
      * @return Lista di direzioni consentite.
      */
@@ -29,33 +48,52 @@ public class DefaultInertiaManager implements IInertiaManager {
         // Lista delle direzioni finali ammesse
         List<VectorDirection.CardinalDirection> directions = new ArrayList<>();
 
-        // Se la velocit  0 o 1, consentiamo tutte le direzioni possibili
+        // Se la velocità è 0 o 1, consentiamo tutte le direzioni possibili
         if (currentVelocity <= 1) {
             directions.addAll(Arrays.asList(VectorDirection.CardinalDirection.values()));
         }
-        // Se la velocit  esattamente 2, limitiamo a 90 dalla direzione precedente
+        // Se la velocità è esattamente 2, limitiamo a ±90° dalla direzione precedente
         else if (currentVelocity == 2) {
             directions.addAll(getDirectionsWithinAngle(previousDirection, 90));
         }
-        // Se la velocit  3 o superiore, limitiamo a 45 dalla direzione precedente
+        // Se la velocità è 3 o superiore, limitiamo a ±45° dalla direzione precedente
         else if (currentVelocity >= 3) {
             directions.addAll(getDirectionsWithinAngle(previousDirection, 45));
         }
         return directions;
     }
 
+    /**
+     * Restituisce le direzioni ammesse come maschera a 8 bit, con le stesse regole
+     * di {@link #allowedDirections(int, VectorDirection.CardinalDirection)} ma tramite
+     * una lettura nelle tabelle precalcolate, senza allocazioni.
+     *
+     * @param currentVelocity   Velocità corrente del giocatore.
+     * @param previousDirection Direzione seguita dal giocatore al turno precedente.
+     * @return Maschera delle direzioni consentite.
+     */
+    @Override
+    public int allowedDirectionMask(int currentVelocity, VectorDirection.CardinalDirection previousDirection) {
+        if (currentVelocity <= 1) {
+            return DirectionMask.ALL;
+        }
+        return (currentVelocity == 2)
+                ? masksWithin90[previousDirection.ordinal()]
+                : masksWithin45[previousDirection.ordinal()];
+    }
+
     /**
      * Restituisce tutte le direzioni la cui differenza angolare rispetto a baseDir
      * rientra in un determinato range (angleRange), valutato in gradi.
      *
-     * @param baseDir     Direzione di base da cui calcolare langolo.
-     * @param angleRange  Intervallo di gradi consentito (es. 45 o 90).
-     * @return Lista di direzioni entro langolo specificato rispetto a baseDir.
+     * @param baseDir     Direzione di base da cui calcolare l’angolo.
+     * @param angleRange  Intervallo di gradi consentito (es. 45° o 90°).
+     * @return Lista di direzioni entro l’angolo specificato rispetto a baseDir.
      */
     private List<VectorDirection.CardinalDirection> getDirectionsWithinAngle(VectorDirection.CardinalDirection baseDir, int angleRange) {
         List<VectorDirection.CardinalDirection> nearby = new ArrayList<>();
 
-        // Mappa di direzioni -> angoli (riferiti allasse orizzontale, in senso orario/antiorario)
+        // Mappa di direzioni -> angoli (riferiti all’asse orizzontale, in senso orario/antiorario)
         Map<VectorDirection.CardinalDirection, Double> directionAngles = new HashMap<>();
         for (VectorDirection.CardinalDirection dir : VectorDirection.CardinalDirection.values()) {
             directionAngles.put(dir, getAngle(dir));
@@ -64,12 +102,12 @@ public class DefaultInertiaManager implements IInertiaManager {
         // Angolo di base corrispondente alla direzione precedente
         double baseAngle = directionAngles.get(baseDir);
 
-        // Per ciascuna direzione, confronta langolo con quello di base e calcola la differenza
+        // Per ciascuna direzione, confronta l’angolo con quello di base e calcola la differenza
         for (VectorDirection.CardinalDirection dir : VectorDirection.CardinalDirection.values()) {
             double angle = directionAngles.get(dir);
             double diff = Math.abs(baseAngle - angle);
 
-            // Minimizziamo la differenza, tenendo conto che langolo pu "avvolgersi" intorno a 360
+            // Minimizziamo la differenza, tenendo conto che l’angolo può "avvolgersi" intorno a 360°
             diff = Math.min(diff, 360 - diff);
 
             // Se la differenza rientra nel range specificato, aggiungiamo la direzione alla lista
@@ -81,10 +119,10 @@ public class DefaultInertiaManager implements IInertiaManager {
     }
 
     /**
-     * Restituisce langolo associato a una direzione cardinale, espresso in gradi,
+     * Restituisce l’angolo associato a una direzione cardinale, espresso in gradi,
      * con la convenzione:
-     *   E = 0, NE = 45, N = 90, NW = 135, W = 180,
-     *   SW = 225, S = 270, SE = 315.
+     *   E = 0°, NE = 45°, N = 90°, NW = 135°, W = 180°,
+     *   SW = 225°, S = 270°, SE = 315°.
      *
      * @param dir Direzione cardinale.
      * @return Angolo corrispondente in gradi (tra 0 e 360).
@@ -1,5 +1,6 @@
 package VectorRace.Fisica;
 
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.VectorDirection;
 
 import java.util.List;
@@ -7,23 +8,39 @@ import java.util.List;
 /**
  * Interfaccia che definisce le regole di "inerzia" per i movimenti dei giocatori.
  * <p>
- * In molti giochi, la direzione attuale e la velocit influenzano le direzioni
- * che il giocatore pu intraprendere nel turno successivo. IInertiaManager si
+ * In molti giochi, la direzione attuale e la velocità influenzano le direzioni
+ * che il giocatore può intraprendere nel turno successivo. IInertiaManager si
  * occupa proprio di determinare quali direzioni siano ammesse date queste condizioni.
  *
  * Implementazioni diverse di IInertiaManager potrebbero introdurre meccaniche
- * personalizzate, ad esempio restrizioni pi o meno severe in base alla velocit.
+ * personalizzate, ad esempio restrizioni più o meno severe in base alla velocità.
  */
 public interface IInertiaManager {
 
     /**
      * Restituisce l'elenco di direzioni cardinale consentite per il giocatore,
-     * data la sua velocit corrente e la direzione che stava seguendo nel turno precedente.
+     * data la sua velocità corrente e la direzione che stava seguendo nel turno precedente.
      *
-     * @param currentVelocity      Velocit attuale del giocatore.
+     * @param currentVelocity      Velocità attuale del giocatore.
      * @param previousDirection    Direzione seguita al turno precedente.
      * @return Lista di direzioni ammesse per il turno in corso.
      */
     List<VectorDirection.CardinalDirection> allowedDirections(int currentVelocity,
                                                               VectorDirection.CardinalDirection previousDirection);
+
+    /**
+     * Variante primitiva di {@link #allowedDirections(int, VectorDirection.CardinalDirection)}:
+     * restituisce le direzioni ammesse come maschera a 8 bit (vedi {@link DirectionMask}).
+     * <p>
+     * L'implementazione di default converte la lista restituita da allowedDirections;
+     * le implementazioni che vengono interrogate a ogni turno dovrebbero ridefinirla
+     * per evitare allocazioni.
+     *
+     * @param currentVelocity   Velocità attuale del giocatore.
+     * @param previousDirection Direzione seguita al turno precedente.
+     * @return Maschera delle direzioni ammesse per il turno in corso.
+     */
+    default int allowedDirectionMask(int currentVelocity, VectorDirection.CardinalDirection previousDirection) {
+        return DirectionMask.of(allowedDirections(currentVelocity, previousDirection));
+    }
 }
@@ -3,8 +3,8 @@ package VectorRace.Fisica;
 import VectorRace.Posizione.Position;
 
 /**
- * SimpleVelocityCalculator  unimplementazione di IVelocityCalculator
- * che calcola la velocit come la massima differenza tra le coordinate
+ * SimpleVelocityCalculator è un’implementazione di IVelocityCalculator
+ * che calcola la velocità come la massima differenza tra le coordinate
  * X e Y di due posizioni.
  * <p>
  * In pratica, usa:
@@ -12,13 +12,13 @@ import VectorRace.Posizione.Position;
  *   velocity = max(|?x|, |?y|)
  * </pre>
  * Si tratta di una metrica comunemente detta "Chebyshev distance",
- * spesso usata quando il movimento pu avvenire sia in diagonale
+ * spesso usata quando il movimento può avvenire sia in diagonale
  * che orizzontalmente/verticalmente in un singolo passo.
  */
 public class SimpleVelocityCalculator implements IVelocityCalculator {
 
     /**
-     * Calcola la velocit come la massima differenza in valore assoluto
+     * Calcola la velocità come la massima differenza in valore assoluto
      * tra le coordinate x e y delle due posizioni.
      *
      * @param pos1 Prima posizione.
@@ -0,0 +1,172 @@
+package VectorRace.Fisica;
+
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.KinematicsTable;
+
+/**
+ * VectorPhysics implementa la fisica classica del racetrack: l'auto ha una velocità
+ * vettoriale (vx, vy) e a ogni turno ciascuna componente può cambiare di -1, 0 o +1;
+ * poi l'auto si sposta di (vx, vy). Lo spostamento è valido solo se tutto il segmento
+ * percorso resta su celle libere: il primo ostacolo (o l'uscita dal tracciato) incontrato
+ * lungo il segmento ferma l'auto, mentre attraversare un traguardo conclude la gara.
+ * <p>
+ * I limiti di velocità sono configurabili: un massimo per componente e, facoltativamente,
+ * un massimo sulla velocità euclidea. Gli stati sono codificati con {@link VectorState}
+ * e le 9 accelerazioni possibili sono numerate da 0 a 8: azione = (ay + 1) * 3 + (ax + 1).
+ */
+public final class VectorPhysics {
+
+    /**
+     * Numero di accelerazioni possibili (3 per asse).
+     */
+    public static final int ACTIONS = 9;
+
+    /**
+     * Azione che mantiene la velocità invariata.
+     */
+    public static final int COAST = 4;
+
+    private final int maxAxisSpeed;
+    private final int maxSpeedSquared;
+
+    /**
+     * Crea una fisica con il solo limite per componente.
+     *
+     * @param maxAxisSpeed Valore assoluto massimo di vx e vy.
+     */
+    public VectorPhysics(int maxAxisSpeed) {
+        this(maxAxisSpeed, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Crea una fisica con limite per componente e limite sulla velocità euclidea.
+     *
+     * @param maxAxisSpeed    Valore assoluto massimo di vx e vy.
+     * @param maxSpeedSquared Valore massimo di vx^2 + vy^2.
+     */
+    public VectorPhysics(int maxAxisSpeed, int maxSpeedSquared) {
+        if (maxAxisSpeed < 1 || maxAxisSpeed > VectorState.MAX_VELOCITY) {
+            throw new IllegalArgumentException("Limite di velocità non valido: " + maxAxisSpeed);
+        }
+        if (maxSpeedSquared < 1) {
+            throw new IllegalArgumentException("Limite di velocità euclidea non valido: " + maxSpeedSquared);
+        }
+        this.maxAxisSpeed = maxAxisSpeed;
+        this.maxSpeedSquared = maxSpeedSquared;
+    }
+
+    /**
+     * Codifica un'accelerazione.
+     *
+     * @param ax Accelerazione lungo x (-1, 0, +1).
+     * @param ay Accelerazione lungo y (-1, 0, +1).
+     * @return Azione (0..8).
+     */
+    public static int action(int ax, int ay) {
+        return (ay + 1) * 3 + ax + 1;
+    }
+
+    /**
+     * @param action Azione (0..8).
+     * @return Accelerazione lungo x.
+     */
+    public static int ax(int action) {
+        return action % 3 - 1;
+    }
+
+    /**
+     * @param action Azione (0..8).
+     * @return Accelerazione lungo y.
+     */
+    public static int ay(int action) {
+        return action / 3 - 1;
+    }
+
+    /**
+     * Maschera delle azioni (bit i = azione i) la cui velocità risultante rispetta i limiti.
+     * Se lo stato corrente rispetta i limiti, {@link #COAST} è sempre ammessa.
+     *
+     * @param state Stato codificato.
+     * @return Maschera a 9 bit delle azioni ammesse.
+     */
+    public int allowedActions(long state) {
+        int vx = VectorState.vx(state);
+        int vy = VectorState.vy(state);
+        int mask = 0;
+        for (int a = 0; a < ACTIONS; a++) {
+            if (withinLimits(vx + ax(a), vy + ay(a))) {
+                mask |= 1 << a;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Applica un'accelerazione e sposta l'auto, senza controllare il tracciato.
+     * Se la velocità risultante supera i limiti, ogni componente viene limitata al
+     * massimo per asse e, se serve ancora, l'accelerazione viene ignorata.
+     *
+     * @param state  Stato codificato.
+     * @param action Azione (0..8).
+     * @return Il nuovo stato.
+     */
+    public long next(long state, int action) {
+        int vx = VectorState.vx(state);
+        int vy = VectorState.vy(state);
+        int nvx = Math.max(-maxAxisSpeed, Math.min(maxAxisSpeed, vx + ax(action)));
+        int nvy = Math.max(-maxAxisSpeed, Math.min(maxAxisSpeed, vy + ay(action)));
+        if (!withinLimits(nvx, nvy)) {
+            nvx = vx;
+            nvy = vy;
+        }
+        return VectorState.pack(VectorState.x(state) + nvx, VectorState.y(state) + nvy, nvx, nvy);
+    }
+
+    /**
+     * Percorre il segmento da from alla posizione di to e si ferma alla prima cella
+     * non libera (ostacolo, fuori dal tracciato o traguardo). Le celle del segmento sono
+     * quelle ottenute arrotondando i punti intermedi a passo unitario lungo l'asse dominante.
+     *
+     * @param kinematics Tabella del tracciato.
+     * @param from       Stato di partenza.
+     * @param to         Stato di arrivo (con la velocità del movimento).
+     * @return to se tutto il segmento è libero, altrimenti lo stato posizionato sulla prima
+     * cella non libera (con la velocità di to); il tipo si ricava con
+     * {@link KinematicsTable#typeAt(int, int)}.
+     */
+    public static long travel(KinematicsTable kinematics, long from, long to) {
+        int x0 = VectorState.x(from);
+        int y0 = VectorState.y(from);
+        int dx = VectorState.x(to) - x0;
+        int dy = VectorState.y(to) - y0;
+        int steps = Math.max(Math.abs(dx), Math.abs(dy));
+        for (int t = 1; t <= steps; t++) {
+            // Arrotondamento di x0 + dx * t / steps, con le metà verso +infinito
+            int x = x0 + Math.floorDiv(2 * dx * t + steps, 2 * steps);
+            int y = y0 + Math.floorDiv(2 * dy * t + steps, 2 * steps);
+            if (kinematics.typeAt(x, y) != CellType.FREE) {
+                return VectorState.pack(x, y, VectorState.vx(to), VectorState.vy(to));
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @return Valore assoluto massimo di ciascuna componente della velocità.
+     */
+    public int getMaxAxisSpeed() {
+        return maxAxisSpeed;
+    }
+
+    /**
+     * @return Valore massimo di vx^2 + vy^2 (Integer.MAX_VALUE se non limitato).
+     */
+    public int getMaxSpeedSquared() {
+        return maxSpeedSquared;
+    }
+
+    private boolean withinLimits(int vx, int vy) {
+        return Math.abs(vx) <= maxAxisSpeed && Math.abs(vy) <= maxAxisSpeed
+                && vx * vx + vy * vy <= maxSpeedSquared;
+    }
+}
@@ -0,0 +1,97 @@
+package VectorRace.Fisica;
+
+/**
+ * VectorState codifica in un solo long lo stato completo di un'auto nella fisica
+ * vettoriale ({@link VectorPhysics}): posizione (x, y) e velocità (vx, vy).
+ * <p>
+ * Disposizione dei bit, dal più significativo:
+ * <pre>
+ *   x: 24 bit | y: 24 bit | vx: 8 bit | vy: 8 bit
+ * </pre>
+ * Tutti i campi sono con segno (complemento a due), quindi anche le coordinate fuori dal
+ * tracciato e le velocità negative sono rappresentabili. Gli stati si possono usare
+ * direttamente come chiavi in tabelle primitive, cache e file, senza oggetti.
+ */
+public final class VectorState {
+
+    /**
+     * Coordinata massima rappresentabile (in valore assoluto, circa 8 milioni).
+     */
+    public static final int MAX_COORDINATE = (1 << 23) - 1;
+
+    /**
+     * Componente di velocità massima rappresentabile (in valore assoluto).
+     */
+    public static final int MAX_VELOCITY = 127;
+
+    private VectorState() {
+    }
+
+    /**
+     * Codifica uno stato.
+     *
+     * @param x  Coordinata x.
+     * @param y  Coordinata y.
+     * @param vx Velocità lungo x.
+     * @param vy Velocità lungo y.
+     * @return Stato codificato.
+     */
+    public static long pack(int x, int y, int vx, int vy) {
+        return ((long) x << 40)
+                | (((long) y & 0xFFFFFFL) << 16)
+                | ((long) (vx & 0xFF) << 8)
+                | (vy & 0xFF);
+    }
+
+    /**
+     * @param state Stato codificato.
+     * @return Coordinata x.
+     */
+    public static int x(long state) {
+        return (int) (state >> 40);
+    }
+
+    /**
+     * @param state Stato codificato.
+     * @return Coordinata y.
+     */
+    public static int y(long state) {
+        return (int) (state << 24 >> 40);
+    }
+
+    /**
+     * @param state Stato codificato.
+     * @return Velocità lungo x.
+     */
+    public static int vx(long state) {
+        return (byte) (state >> 8);
+    }
+
+    /**
+     * @param state Stato codificato.
+     * @return Velocità lungo y.
+     */
+    public static int vy(long state) {
+        return (byte) state;
+    }
+
+    /**
+     * Restituisce lo stato con la stessa posizione e velocità nulla.
+     *
+     * @param state Stato codificato.
+     * @return Stato fermo nella stessa posizione.
+     */
+    public static long stopped(long state) {
+        return state & ~0xFFFFL;
+    }
+
+    /**
+     * Rappresentazione leggibile di uno stato, es. (3,5) v=(1,-2).
+     *
+     * @param state Stato codificato.
+     * @return Stringa descrittiva.
+     */
+    public static String toString(long state) {
+        return "(" + x(state) + "," + y(state) + ") v=(" + vx(state) + "," + vy(state) + ")";
+    }
+}
@@ -1,22 +1,21 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
  * La classe AggressiveBot estende BasePlayer e rappresenta
  * un giocatore "aggressivo" all'interno del gioco VectorRace.
  * - Sceglie una direzione casuale fra quelle disponibili.
- * - Accelera fino a raggiungere una determinata velocit (soglia = 3).
+ * - Accelera fino a raggiungere una determinata velocità (soglia = 3).
  */
 public class AggressiveBot extends BasePlayer {
 
     // Istanza di Random usata per selezionare le direzioni in modo aleatorio.
-    private Random random = new Random();
+    private final Random random;
 
     /**
      * Costruttore di AggressiveBot.
@@ -24,8 +23,19 @@ public class AggressiveBot extends BasePlayer {
      * @param start Posizione di partenza del bot.
      */
     public AggressiveBot(String name, Position start) {
+        this(name, start, new Random());
+    }
+
+    /**
+     * Costruttore di AggressiveBot con generatore casuale esplicito (per gare riproducibili).
+     * @param name Nome del bot.
+     * @param start Posizione di partenza del bot.
+     * @param random Generatore casuale usato per direzioni e accelerazioni.
+     */
+    public AggressiveBot(String name, Position start, Random random) {
         // Richiama il costruttore della superclasse (BasePlayer).
         super(name, start);
+        this.random = random;
     }
 
     /**
@@ -35,19 +45,29 @@ public class AggressiveBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Copia tutte le direzioni ammesse in una lista.
-        List<VectorDirection.CardinalDirection> options = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            options.add(dir);
+        // Converte le direzioni in maschera e delega alla variante primitiva.
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Sceglie una direzione in modo casuale tra quelle presenti nella maschera, senza allocazioni.
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return Una delle direzioni ammesse, selezionata casualmente (null se la maschera è vuota).
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        int count = DirectionMask.count(allowedMask);
+        if (count == 0) {
+            return null;
         }
-        // Seleziona in modo casuale un indice tra gli elementi della lista.
-        return options.get(random.nextInt(options.size()));
+        // Seleziona in modo casuale un indice tra le direzioni ammesse.
+        return DirectionMask.direction(DirectionMask.nth(allowedMask, random.nextInt(count)));
     }
 
     /**
-     * Sceglie l'accelerazione con una logica pi elaborata:
-     * - Se la velocit < 2, accelera di 1.
-     * - Se la velocit >= 2, con probabilit del 70% accelera di 1,
+     * Sceglie l'accelerazione con una logica più elaborata:
+     * - Se la velocità < 2, accelera di 1.
+     * - Se la velocità >= 2, con probabilità del 70% accelera di 1,
      *   altrimenti decelera di 1 (comportamento aggressivo ma non sempre al massimo).
      */
     @Override
@@ -57,7 +77,7 @@ public class AggressiveBot extends BasePlayer {
             // Sotto 2, accelera sempre
             return 1;
         } else {
-            // Se >= 2, accelera con probabilit 70%, altrimenti decelera
+            // Se >= 2, accelera con probabilità 70%, altrimenti decelera
             double roll = random.nextDouble(); // valore tra 0.0 e 1.0
             if (roll < 0.7) {
                 return 1;  // accelera
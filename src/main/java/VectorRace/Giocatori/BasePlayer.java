@@ -3,9 +3,9 @@ package VectorRace.Giocatori;
 import VectorRace.Posizione.Position;
 
 /**
- * BasePlayer fornisce unimplementazione parziale dellinterfaccia IPlayer.
- *  una classe astratta, quindi non pu essere istanziata direttamente,
- * ma serve come base per le varie tipologie di giocatori (bot o umani).
+ * BasePlayer fornisce un’implementazione parziale dell’interfaccia IPlayer.
+ * È una classe astratta, quindi non può essere istanziata direttamente,
+ * ma serve come “base” per le varie tipologie di giocatori (bot o umani).
  */
 public abstract class BasePlayer implements IPlayer {
 
@@ -20,13 +20,13 @@ public abstract class BasePlayer implements IPlayer {
     protected Position currentPosition;
 
     /**
-     * Velocit attuale del giocatore, con un limite minimo di 0 e massimo di 3.
+     * Velocità attuale del giocatore, con un limite minimo di 0 e massimo di 3.
      */
     protected int velocity;
 
     /**
      * Costruttore di BasePlayer.
-     * Inizializza il nome, la posizione corrente e imposta la velocit di base a 0.
+     * Inizializza il nome, la posizione corrente e imposta la velocità di base a 0.
      *
      * @param name  Nome del giocatore.
      * @param start Posizione di partenza.
@@ -67,9 +67,9 @@ public abstract class BasePlayer implements IPlayer {
     }
 
     /**
-     * Restituisce la velocit attuale del giocatore (implementazione di IPlayer).
+     * Restituisce la velocità attuale del giocatore (implementazione di IPlayer).
      *
-     * @return Valore di velocit.
+     * @return Valore di velocità.
      */
     @Override
     public int getVelocity() {
@@ -77,17 +77,17 @@ public abstract class BasePlayer implements IPlayer {
     }
 
     /**
-     * Imposta la velocit del giocatore (implementazione di IPlayer),
+     * Imposta la velocità del giocatore (implementazione di IPlayer),
      * applicando un vincolo minimo (0) e massimo (3) per evitare
-     * velocit negative o troppo elevate.
+     * velocità negative o troppo elevate.
      *
-     * @param velocity Nuova velocit da assegnare (verr clampata tra 0 e 3).
+     * @param velocity Nuova velocità da assegnare (verrà “clampata” tra 0 e 3).
      */
     @Override
     public void setVelocity(int velocity) {
-        // Se la velocit proposta  negativa, viene impostata a 0.
+        // Se la velocità proposta è negativa, viene impostata a 0.
         if (velocity < 0) velocity = 0;
-            // Se la velocit proposta supera 3, viene impostata a 3.
+            // Se la velocità proposta supera 3, viene impostata a 3.
         else if (velocity > 3) velocity = 3;
 
         this.velocity = velocity;
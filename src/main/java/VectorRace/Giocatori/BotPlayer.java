@@ -1,15 +1,14 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
- * BotPlayer  una semplice implementazione di un bot che sceglie
- * una direzione e unaccelerazione in modo completamente casuale.
+ * BotPlayer è una semplice implementazione di un bot che sceglie
+ * una direzione e un’accelerazione in modo completamente casuale.
  */
 public class BotPlayer extends BasePlayer {
 
@@ -38,20 +37,30 @@ public class BotPlayer extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Trasforma l'Iterable in una List per semplificare la selezione casuale.
-        List<VectorDirection.CardinalDirection> options = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            options.add(dir);
-        }
+        // Converte le direzioni in maschera e delega alla variante primitiva.
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
 
-        // Sceglie e restituisce una direzione casuale dalla lista.
-        return options.get(random.nextInt(options.size()));
+    /**
+     * Sceglie casualmente una direzione fra quelle presenti nella maschera, senza allocazioni.
+     *
+     * @param allowedMask Maschera delle direzioni ammesse in questo turno.
+     * @return Una direzione selezionata a caso, o null se la maschera è vuota.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        int count = DirectionMask.count(allowedMask);
+        if (count == 0) {
+            return null;
+        }
+        // Sceglie e restituisce la n-esima direzione ammessa, con n casuale.
+        return DirectionMask.direction(DirectionMask.nth(allowedMask, random.nextInt(count)));
     }
 
     /**
-     * Sceglie in modo casuale l'accelerazione, che pu essere -1, 0 o +1.
+     * Sceglie in modo casuale l'accelerazione, che può essere -1, 0 o +1.
      *
-     * @return Intero rappresentante la variazione di velocit (da -1 a +1).
+     * @return Intero rappresentante la variazione di velocità (da -1 a +1).
      */
     @Override
     public int chooseAcceleration() {
@@ -1,11 +1,12 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Motore.MoveOutcomes;
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -18,27 +19,61 @@ public class DefensiveBot extends BasePlayer {
 
     /**
      * Generatore di numeri casuali per scegliere
-     * in modo aleatorio tra pi opzioni.
+     * in modo aleatorio tra più opzioni.
      */
-    private Random random = new Random();
+    private final Random random;
 
     /**
      * Riferimento al tracciato di gioco, usato per
-     * verificare se una cella  libera o occupata/ostacolo.
+     * verificare se una cella è libera o occupata/ostacolo.
      */
     private ITrack track;
 
     /**
-     * Costruttore di DefensiveBot.
+     * Velocità di crociera: il bot decelera sopra questa soglia e accelera sotto.
+     * Con il valore di default (0) il bot tende sempre a fermarsi.
+     */
+    private final int cruiseVelocity;
+
+    /**
+     * Costruttore di DefensiveBot (velocità di crociera 0).
      *
      * @param name  Nome del bot.
      * @param start Posizione di partenza sul tracciato.
      * @param track Riferimento al tracciato di gioco.
      */
     public DefensiveBot(String name, Position start, ITrack track) {
+        this(name, start, track, 0);
+    }
+
+    /**
+     * Costruttore di DefensiveBot con velocità di crociera configurabile.
+     *
+     * @param name           Nome del bot.
+     * @param start          Posizione di partenza sul tracciato.
+     * @param track          Riferimento al tracciato di gioco.
+     * @param cruiseVelocity Velocità che il bot cerca di mantenere.
+     */
+    public DefensiveBot(String name, Position start, ITrack track, int cruiseVelocity) {
+        this(name, start, track, cruiseVelocity, new Random());
+    }
+
+    /**
+     * Costruttore completo di DefensiveBot, con generatore casuale esplicito
+     * (utile per gare riproducibili a partire da un seed).
+     *
+     * @param name           Nome del bot.
+     * @param start          Posizione di partenza sul tracciato.
+     * @param track          Riferimento al tracciato di gioco.
+     * @param cruiseVelocity Velocità che il bot cerca di mantenere.
+     * @param random         Generatore di numeri casuali da usare.
+     */
+    public DefensiveBot(String name, Position start, ITrack track, int cruiseVelocity, Random random) {
         // Richiama il costruttore della superclasse.
         super(name, start);
         this.track = track;
+        this.cruiseVelocity = cruiseVelocity;
+        this.random = random;
     }
 
     /**
@@ -54,73 +89,64 @@ public class DefensiveBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Trova le direzioni "sicure" (che portano a una cella libera).
-        List<VectorDirection.CardinalDirection> safeDirections = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            // Calcola la prossima posizione in base alla direzione.
-            Position nextPos = getNextPosition(this.currentPosition, dir);
-            // Se la cella  libera, aggiunge la direzione alla lista delle sicure.
-            if (track.isFree(nextPos)) {
-                safeDirections.add(dir);
-            }
-        }
-
-        // Se ci sono direzioni sicure, scegline una casualmente.
-        if (!safeDirections.isEmpty()) {
-            return safeDirections.get(random.nextInt(safeDirections.size()));
-        }
+        // Converte le direzioni in maschera e delega alla variante primitiva.
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
 
-        // Se non ci sono direzioni sicure,
-        // o si sceglie a caso tra quelle consentite,
-        // o si pu decidere di non muoversi (null).
-        List<VectorDirection.CardinalDirection> options = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            options.add(dir);
-        }
+    /**
+     * Variante primitiva di {@link #chooseDirection(Iterable)}, con la stessa strategia
+     * difensiva ma senza allocazioni: le direzioni sicure vengono raccolte in una maschera.
+     *
+     * @param allowedMask Maschera delle direzioni possibili in questo turno.
+     * @return La direzione selezionata o null (se decide di non muoversi).
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        // Direzioni "sicure": quelle consentite in cui la cella a un passo è libera
+        // (una sola lettura della tabella cinematica del tracciato).
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int safeMask = allowedMask & kinematics.passableMask(kinematics.index(currentPosition), 1);
 
-        // Restituisce null se non ci sono direzioni disponibili,
-        // altrimenti sceglie casualmente tra quelle rimaste.
-        return options.isEmpty() ? null : options.get(random.nextInt(options.size()));
+        // Se ci sono direzioni sicure, scegline una casualmente;
+        // altrimenti si sceglie a caso tra quelle consentite,
+        // o non ci si muove (null) se non ce ne sono.
+        int options = (safeMask != 0) ? safeMask : allowedMask;
+        int count = DirectionMask.count(options);
+        return (count == 0) ? null : DirectionMask.direction(DirectionMask.nth(options, random.nextInt(count)));
     }
 
     /**
-     * Sceglie l'accelerazione con una strategia difensiva:
-     * - Se la velocit  superiore a 0, decelera di 1.
-     * - Se la velocit  gi a 0, non accelera (0).
+     * Variante di {@link #chooseDirection(int)} che usa gli esiti calcolati dal motore:
+     * le direzioni sicure sono quelle che, con l'accelerazione del bot, arrivano su una
+     * cella libera o attraversano il traguardo; senza direzioni sicure sceglie a caso
+     * tra quelle consentite.
      *
-     * @return -1 se la velocit > 0, altrimenti 0.
+     * @param outcomes Esiti delle mosse del turno.
+     * @return La direzione selezionata o null (se decide di non muoversi).
      */
     @Override
-    public int chooseAcceleration() {
-        // Se la velocit  positiva, decelera di 1; altrimenti rimane invariata.
-        return (this.getVelocity() > 0) ? -1 : 0;
+    public VectorDirection.CardinalDirection chooseDirection(MoveOutcomes outcomes) {
+        int safeMask = outcomes.safeDirections(chooseAcceleration());
+        int options = (safeMask != 0) ? safeMask : outcomes.getAllowedMask();
+        int count = DirectionMask.count(options);
+        return (count == 0) ? null : DirectionMask.direction(DirectionMask.nth(options, random.nextInt(count)));
     }
 
     /**
-     * Calcola la prossima posizione sulla base della direzione specificata.
+     * Sceglie l'accelerazione con una strategia difensiva:
+     * - Se la velocità è superiore alla velocità di crociera, decelera di 1.
+     * - Se è inferiore, accelera di 1.
+     * - Altrimenti mantiene la velocità (0).
      *
-     * @param current   Posizione attuale.
-     * @param direction Direzione cardinale (N, NE, E, SE, S, SW, W, NW).
-     * @return La nuova posizione (x,y) dopo essersi spostati
-     *         di una cella nella direzione indicata.
+     * @return -1, 0 o +1 a seconda della velocità corrente.
      */
-    private Position getNextPosition(Position current, VectorDirection.CardinalDirection direction) {
-        int x = current.getX();
-        int y = current.getY();
-
-        // Aggiorna (x, y) secondo la direzione.
-        switch (direction) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
+    @Override
+    public int chooseAcceleration() {
+        // Sopra la velocità di crociera decelera, sotto accelera, altrimenti rimane invariata.
+        int velocity = this.getVelocity();
+        if (velocity > cruiseVelocity) {
+            return -1;
         }
-
-        // Ritorna la nuova posizione.
-        return new Position(x, y);
+        return (velocity < cruiseVelocity) ? 1 : 0;
     }
 }
@@ -1,30 +1,34 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Motore.MoveOutcomes;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.DistanceField;
 import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
  * GreedyBot rappresenta un bot "goloso" (o avido) che sceglie la direzione
- * cercando di avvicinarsi il pi possibile al traguardo e allo stesso tempo
+ * cercando di avvicinarsi il più possibile al traguardo e allo stesso tempo
  * restando lontano dagli ostacoli.
  *
- * - Se non c' un traguardo definito, si comporta come un bot casuale "sicuro".
- * - Quando c' un traguardo, valuta ciascuna direzione sicura
+ * - Se non c'è un traguardo raggiungibile, si comporta come un bot casuale "sicuro".
+ * - Quando c'è un traguardo, valuta ciascuna direzione sicura
  *   combinando due fattori:
- *       1. Distanza Manhattan dal traguardo (pi  piccola, meglio ).
- *       2. Distanza fino al prossimo ostacolo nella direzione scelta (pi  grande, meglio ).
+ *       1. Distanza dal traguardo più vicino, aggirando gli ostacoli ({@link DistanceField}):
+ *          più è piccola, meglio è.
+ *       2. Distanza fino al prossimo ostacolo nella direzione scelta (più è grande, meglio è).
  */
 public class GreedyBot extends BasePlayer {
 
     /**
-     * Generatore di numeri casuali per scelte aleatorie nelle situazioni di parit.
+     * Generatore di numeri casuali per scelte aleatorie nelle situazioni di parità.
      */
-    private Random random = new Random();
+    private final Random random;
 
     /**
      * Riferimento al tracciato (ITrack) su cui si muove il bot.
@@ -32,60 +36,141 @@ public class GreedyBot extends BasePlayer {
     private ITrack track;
 
     /**
-     * Costruttore di GreedyBot.
+     * Peso della distanza dal traguardo rispetto alla distanza dal prossimo ostacolo.
+     */
+    private final double alfa;
+
+    /**
+     * Costruttore di GreedyBot con peso di default (alfa = 1.0).
      *
      * @param name  Nome del bot.
      * @param start Posizione di partenza.
      * @param track Riferimento al tracciato di gioco.
      */
     public GreedyBot(String name, Position start, ITrack track) {
+        this(name, start, track, 1.0);
+    }
+
+    /**
+     * Costruttore di GreedyBot con peso configurabile.
+     *
+     * @param name  Nome del bot.
+     * @param start Posizione di partenza.
+     * @param track Riferimento al tracciato di gioco.
+     * @param alfa  Peso della distanza dal traguardo nello score di ogni direzione.
+     */
+    public GreedyBot(String name, Position start, ITrack track, double alfa) {
+        this(name, start, track, alfa, new Random());
+    }
+
+    /**
+     * Costruttore completo di GreedyBot, con generatore casuale esplicito
+     * (utile per gare riproducibili a partire da un seed).
+     *
+     * @param name   Nome del bot.
+     * @param start  Posizione di partenza.
+     * @param track  Riferimento al tracciato di gioco.
+     * @param alfa   Peso della distanza dal traguardo nello score di ogni direzione.
+     * @param random Generatore di numeri casuali da usare.
+     */
+    public GreedyBot(String name, Position start, ITrack track, double alfa, Random random) {
         super(name, start);
         this.track = track;
+        this.alfa = alfa;
+        this.random = random;
     }
 
     /**
      * Sceglie la direzione in base a un mix di:
-     * - Distanza dal traguardo (obiettivo: ridurla il pi possibile).
-     * - Distanza dal prossimo ostacolo (obiettivo: mantenerla il pi ampia possibile).
+     * - Distanza dal traguardo (obiettivo: ridurla il più possibile).
+     * - Distanza dal prossimo ostacolo (obiettivo: mantenerla il più ampia possibile).
      *
-     * Se non esiste un traguardo definito, sceglie casualmente una direzione "sicura" (senza ostacoli immediati).
+     * Se il traguardo non è raggiungibile dalla posizione attuale, sceglie casualmente una direzione "sicura" (senza ostacoli immediati).
      *
      * @param allowedDirections Le direzioni consentite in questo turno.
-     * @return La direzione selezionata dal bot, oppure null se nessuna  sicura.
+     * @return La direzione selezionata dal bot, oppure null se nessuna è sicura.
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        Position finish = track.getFinishPosition();
-        // Se non esiste una posizione di traguardo, comportati come bot casuale sicuro.
-        if (finish == null) {
-            return randomSafeDirection(allowedDirections);
+        // Converte le direzioni in maschera e delega alla variante primitiva.
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Variante primitiva di {@link #chooseDirection(Iterable)}: valuta le direzioni
+     * presenti nella maschera lavorando solo su coordinate intere, senza allocazioni.
+     * Senza gli esiti del motore considera sicura una direzione se la cella a un passo è libera.
+     *
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return La direzione selezionata dal bot, oppure null se nessuna è sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int cell = kinematics.index(currentPosition);
+        return chooseAmong(allowedMask & kinematics.passableMask(cell, 1), 1);
+    }
+
+    /**
+     * Variante di {@link #chooseDirection(int)} che usa gli esiti calcolati dal motore:
+     * se una direzione attraversa il traguardo la sceglie, altrimenti valuta solo le direzioni
+     * che, con l'accelerazione del bot, arrivano su una cella libera, nel punto in cui arrivano.
+     *
+     * @param outcomes Esiti delle mosse del turno.
+     * @return La direzione selezionata dal bot, oppure null se nessuna è sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(MoveOutcomes outcomes) {
+        int acceleration = chooseAcceleration();
+        int finish = outcomes.directions(acceleration, MoveOutcomes.FINISH);
+        if (finish != 0) {
+            return DirectionMask.direction(Integer.numberOfTrailingZeros(finish));
         }
+        int step = Math.max(0, Math.min(velocity + acceleration, KinematicsTable.MAX_SPEED));
+        return chooseAmong(outcomes.directions(acceleration, MoveOutcomes.FREE), step);
+    }
 
-        VectorDirection.CardinalDirection bestDirection = null;
+    /**
+     * Sceglie tra le direzioni sicure quella con lo score migliore, valutando la cella
+     * di arrivo dopo il passo indicato.
+     *
+     * @param safeMask Maschera delle direzioni sicure.
+     * @param step     Numero di celle percorse dalla mossa.
+     * @return La direzione selezionata, oppure null se nessuna è sicura.
+     */
+    private VectorDirection.CardinalDirection chooseAmong(int safeMask, int step) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        DistanceField field = DistanceField.of(track);
+        int cell = kinematics.index(currentPosition);
+        // Se nessun traguardo è raggiungibile da qui, comportati come bot casuale sicuro.
+        if (field.distance(cell) == DistanceField.UNREACHABLE) {
+            return randomDirection(safeMask);
+        }
+
+        int bestDirection = -1;
         double bestScore = Double.NEGATIVE_INFINITY;
 
-        // Valuta ogni direzione consentita
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            Position nextPos = getNextPosition(this.currentPosition, dir);
+        // Valuta ogni direzione sicura
+        for (int m = safeMask; m != 0; m &= m - 1) {
+            int dir = Integer.numberOfTrailingZeros(m);
+            int next = kinematics.destination(cell, dir, step);
 
-            // Salta la direzione se la cella non  libera
-            if (!track.isFree(nextPos)) {
-                continue;
+            // Distanza dal traguardo più vicino; una cella da cui il traguardo non è
+            // raggiungibile vale come una cella lontanissima.
+            int distanceToFinish = field.distance(next);
+            if (distanceToFinish == DistanceField.UNREACHABLE) {
+                distanceToFinish = field.getWidth() * field.getHeight();
             }
 
-            // Distanza dal traguardo (Manhattan)
-            int distanceToFinish = manhattanDistance(nextPos, finish);
-
             // Distanza fino al prossimo ostacolo in questa direzione
-            int distanceToObstacle = distanceToNextObstacle(nextPos, dir);
+            int distanceToObstacle = distanceToNextObstacle(kinematics, next, dir);
 
             // Calcola uno "score" combinando la vicinanza al traguardo (meglio se piccola)
             // e la lontananza dal prossimo ostacolo (meglio se grande).
-            // Qui usiamo un peso (alfa) per bilanciare i due fattori.
-            double alfa = 1.0;
-            // Pi il traguardo  vicino, pi il valore (distanceToFinish)  piccolo,
+            // Il peso alfa (configurabile) bilancia i due fattori.
+            // Più il traguardo è vicino, più il valore (distanceToFinish) è piccolo,
             // quindi il punteggio deve essere inversamente proporzionale.
-            // Pi l'ostacolo  lontano, pi distanceToObstacle  grande, quindi positivo.
+            // Più l'ostacolo è lontano, più distanceToObstacle è grande, quindi positivo.
             double score = (-alfa * distanceToFinish) + distanceToObstacle;
 
             // Mantiene in memoria la direzione con punteggio migliore
@@ -96,13 +181,13 @@ public class GreedyBot extends BasePlayer {
         }
 
         // Se non ha trovato alcuna direzione valida, non si muove (null).
-        return (bestDirection != null) ? bestDirection : null;
+        return (bestDirection >= 0) ? DirectionMask.direction(bestDirection) : null;
     }
 
     /**
      * Strategia di accelerazione semplice: cerca sempre di accelerare se possibile.
      *
-     * @return 1, per indicare l'intenzione di incrementare la velocit di un'unit.
+     * @return 1, per indicare l'intenzione di incrementare la velocità di un'unità.
      */
     @Override
     public int chooseAcceleration() {
@@ -110,91 +195,35 @@ public class GreedyBot extends BasePlayer {
     }
 
     /**
-     * Se non  definito alcun traguardo, sceglie in modo casuale una direzione
-     * che non porti immediatamente a un ostacolo.
+     * Se nessun traguardo è raggiungibile, sceglie in modo casuale una direzione sicura.
      *
-     * @param allowedDirections Direzioni consentite in questo turno.
+     * @param safeMask Maschera delle direzioni sicure in questo turno.
      * @return Una direzione "sicura" scelta a caso, o null se non ce ne sono.
      */
-    private VectorDirection.CardinalDirection randomSafeDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        List<VectorDirection.CardinalDirection> safeDirs = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            Position nextPos = getNextPosition(this.currentPosition, dir);
-            // Aggiunge la direzione se porta a una cella libera
-            if (track.isFree(nextPos)) {
-                safeDirs.add(dir);
-            }
-        }
-        // Se non ci sono direzioni sicure, ritorna null
-        return safeDirs.isEmpty() ? null : safeDirs.get(random.nextInt(safeDirs.size()));
-    }
-
-    /**
-     * Calcola la distanza Manhattan tra due posizioni,
-     * cio la somma della differenza assoluta sulle coordinate x e y.
-     *
-     * @param p1 Prima posizione.
-     * @param p2 Seconda posizione.
-     * @return Distanza Manhattan tra p1 e p2.
-     */
-    private int manhattanDistance(Position p1, Position p2) {
-        return Math.abs(p1.getX() - p2.getX()) + Math.abs(p1.getY() - p2.getY());
+    private VectorDirection.CardinalDirection randomDirection(int safeMask) {
+        int count = DirectionMask.count(safeMask);
+        return (count == 0) ? null : DirectionMask.direction(DirectionMask.nth(safeMask, random.nextInt(count)));
     }
 
     /**
      * Calcola la distanza (in celle) fino al prossimo ostacolo nella direzione specificata,
      * partendo da una posizione iniziale.
      *
-     * @param start     Posizione di partenza.
-     * @param direction Direzione da seguire.
+     * @param kinematics Tabella cinematica del tracciato.
+     * @param cell       Indice della cella di partenza.
+     * @param dir        Ordinale della direzione da seguire.
      * @return Numero di celle "libere" prima di incontrare un ostacolo o uscire dai confini.
      */
-    private int distanceToNextObstacle(Position start, VectorDirection.CardinalDirection direction) {
+    private int distanceToNextObstacle(KinematicsTable kinematics, int cell, int dir) {
         int distance = 0;
-        Position current = start;
-
-        while (true) {
-            // Calcola la prossima cella nella direzione scelta
-            Position next = getNextPosition(current, direction);
-
-            // Controlla se  fuori dai confini
-            boolean outOfBounds = next.getX() < 0 || next.getX() >= track.getWidth()
-                    || next.getY() < 0 || next.getY() >= track.getHeight();
-            // Se siamo fuori dal tracciato o la cella non  libera, interrompe il conteggio.
-            if (outOfBounds || !track.isFree(next)) {
-                break;
-            }
 
+        // Avanza di una cella alla volta finché la cella successiva è percorribile
+        // (la tabella segnala come non percorribili anche le celle fuori dai confini).
+        while (CellType.isPassable(kinematics.outcome(cell, dir, 1))) {
+            cell = kinematics.destination(cell, dir, 1);
             distance++;
-            current = next;
         }
 
         return distance;
     }
-
-    /**
-     * Restituisce la nuova posizione spostandosi di una cella in
-     * una delle direzioni cardinali.
-     *
-     * @param current   Posizione di partenza.
-     * @param direction Direzione (N, NE, E, SE, S, SW, W, NW).
-     * @return          Nuova posizione dopo essersi spostati di una cella.
-     */
-    private Position getNextPosition(Position current, VectorDirection.CardinalDirection direction) {
-        int x = current.getX();
-        int y = current.getY();
-
-        switch (direction) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
-        }
-
-        return new Position(x, y);
-    }
 }
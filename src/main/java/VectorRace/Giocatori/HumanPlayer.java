@@ -30,10 +30,10 @@ public class HumanPlayer extends BasePlayer {
     /**
      * Permette di scegliere una direzione digitandone il nome da tastiera.
      * Verifica che la direzione inserita sia effettivamente tra quelle consentite.
-     * Se l'input  errato, richiede nuovamente la direzione.
+     * Se l'input è errato, richiede nuovamente la direzione.
      *
      * @param allowedDirections Insieme delle direzioni ammesse in questo turno.
-     * @return La direzione scelta dallutente, se valida.
+     * @return La direzione scelta dall’utente, se valida.
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
@@ -43,17 +43,17 @@ public class HumanPlayer extends BasePlayer {
         String input = scanner.nextLine().toUpperCase();
 
         try {
-            // Tenta di convertire linput in una delle enum cardinali.
+            // Tenta di convertire l’input in una delle enum cardinali.
             VectorDirection.CardinalDirection chosen = VectorDirection.CardinalDirection.valueOf(input);
 
-            // Verifica se la direzione scelta  effettivamente consentita.
+            // Verifica se la direzione scelta è effettivamente consentita.
             for (VectorDirection.CardinalDirection dir : allowedDirections) {
                 if (dir == chosen) {
                     return chosen;
                 }
             }
         } catch (IllegalArgumentException e) {
-            // Se linput non  una direzione valida, ignora e richiede un nuovo inserimento.
+            // Se l’input non è una direzione valida, ignora e richiede un nuovo inserimento.
         }
 
         System.out.println("Direzione non valida. Riprova.");
@@ -62,17 +62,17 @@ public class HumanPlayer extends BasePlayer {
 
     /**
      * Permette di scegliere l'accelerazione inserendo un valore intero (-1, 0 o +1) da tastiera.
-     * Se linput non  valido, ripete la richiesta.
+     * Se l’input non è valido, ripete la richiesta.
      *
-     * @return L'accelerazione desiderata: -1 (decelerazione), 0 (velocit costante) o +1 (accelerazione).
+     * @return L'accelerazione desiderata: -1 (decelerazione), 0 (velocità costante) o +1 (accelerazione).
      */
     @Override
     public int chooseAcceleration() {
         System.out.println("Inserisci decisione: -1 per decelerare, 0 per costante, +1 per accelerare");
         int decision = scanner.nextInt();
-        scanner.nextLine(); // Consuma leventuale newline residuo
+        scanner.nextLine(); // Consuma l’eventuale newline residuo
 
-        // Controlla validit dell'input.
+        // Controlla validità dell'input.
         if (decision < -1 || decision > 1) {
             System.out.println("Input non valido. Riprova.");
             return chooseAcceleration();
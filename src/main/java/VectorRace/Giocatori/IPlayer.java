@@ -1,5 +1,7 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Motore.MoveOutcomes;
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
@@ -7,9 +9,9 @@ import VectorRace.Posizione.VectorDirection;
  * L'interfaccia IPlayer definisce le operazioni di base richieste
  * a un "giocatore" (umano o bot) all'interno del gioco VectorRace.
  * <p>
- * Un'implementazione tipica includer:
+ * Un'implementazione tipica includerà:
  * - gestione della posizione corrente;
- * - gestione della velocit;
+ * - gestione della velocità;
  * - logica di scelta della direzione e dell'accelerazione.
  */
 public interface IPlayer {
@@ -29,16 +31,16 @@ public interface IPlayer {
     void setCurrentPosition(Position position);
 
     /**
-     * Restituisce la velocit attuale del giocatore.
+     * Restituisce la velocità attuale del giocatore.
      *
-     * @return Valore intero della velocit.
+     * @return Valore intero della velocità.
      */
     int getVelocity();
 
     /**
-     * Imposta la velocit del giocatore.
+     * Imposta la velocità del giocatore.
      *
-     * @param velocity Nuovo valore di velocit.
+     * @param velocity Nuovo valore di velocità.
      */
     void setVelocity(int velocity);
 
@@ -52,9 +54,39 @@ public interface IPlayer {
     VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections);
 
     /**
-     * Sceglie l'accelerazione (variazione di velocit).
+     * Variante primitiva di {@link #chooseDirection(Iterable)}: le direzioni consentite
+     * sono passate come maschera a 8 bit (vedi {@link DirectionMask}).
+     * <p>
+     * L'implementazione di default converte la maschera in una lista e delega a
+     * {@link #chooseDirection(Iterable)}, così le implementazioni esistenti continuano
+     * a funzionare; i bot che vogliono decidere senza allocazioni la ridefiniscono.
+     *
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return La direzione selezionata per il turno (o null per non muoversi).
+     */
+    default VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        return chooseDirection(DirectionMask.toList(allowedMask));
+    }
+
+    /**
+     * Variante di {@link #chooseDirection(int)} che riceve anche l'esito reale di ogni mossa
+     * ammessa (direzione e accelerazione), calcolato dal motore con le sue stesse regole.
+     * <p>
+     * È il metodo invocato da GameEngine a ogni turno. L'implementazione di default delega a
+     * {@link #chooseDirection(int)} con le direzioni ammesse; i bot che verificano la sicurezza
+     * delle mosse la ridefiniscono invece di interrogare il tracciato.
+     *
+     * @param outcomes Esiti delle mosse del turno (validi solo durante la chiamata).
+     * @return La direzione selezionata per il turno (o null per non muoversi).
+     */
+    default VectorDirection.CardinalDirection chooseDirection(MoveOutcomes outcomes) {
+        return chooseDirection(outcomes.getAllowedMask());
+    }
+
+    /**
+     * Sceglie l'accelerazione (variazione di velocità).
      * Il contratto prevede tre valori possibili:
-     * -1 (decelerazione), 0 (mantieni la velocit), +1 (aumenta la velocit).
+     * -1 (decelerazione), 0 (mantieni la velocità), +1 (aumenta la velocità).
      *
      * @return Un intero compreso tra -1 e +1.
      */
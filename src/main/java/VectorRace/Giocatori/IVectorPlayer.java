@@ -0,0 +1,24 @@
+package VectorRace.Giocatori;
+
+/**
+ * IVectorPlayer è un giocatore che sa guidare con la fisica vettoriale
+ * ({@link VectorRace.Fisica.VectorPhysics}): invece di una direzione e di una variazione
+ * di velocità scalare, sceglie a ogni turno l'accelerazione (ax, ay) da applicare
+ * alla propria velocità vettoriale.
+ * <p>
+ * Quando la fisica vettoriale è attiva, GameEngine invoca {@link #chooseVectorAction(long, int)}
+ * al posto di chooseDirection e chooseAcceleration; i giocatori che non implementano
+ * questa interfaccia vengono adattati dal motore.
+ */
+public interface IVectorPlayer extends IPlayer {
+
+    /**
+     * Sceglie l'accelerazione del turno.
+     *
+     * @param state          Stato corrente codificato con {@link VectorRace.Fisica.VectorState}.
+     * @param allowedActions Maschera delle azioni ammesse dai limiti di velocità (bit i = azione i).
+     * @return L'azione scelta (vedi {@link VectorRace.Fisica.VectorPhysics#action(int, int)}),
+     * o -1 per non muoversi.
+     */
+    int chooseVectorAction(long state, int allowedActions);
+}
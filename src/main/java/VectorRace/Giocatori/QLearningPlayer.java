@@ -0,0 +1,100 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Apprendimento.QTable;
+import VectorRace.Apprendimento.StateEncoder;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+/**
+ * QLearningPlayer è un bot che gioca seguendo una {@link QTable} addestrata
+ * (vedi {@link VectorRace.Apprendimento.QLearningTrainer}).
+ * <p>
+ * A ogni turno codifica lo stato (cella, velocità, direzione precedente) e sceglie,
+ * tra le azioni compatibili con le direzioni ammesse, quella con il valore più alto:
+ * la direzione viene restituita da chooseDirection, l'accelerazione della stessa
+ * azione da chooseAcceleration.
+ */
+public class QLearningPlayer extends BasePlayer {
+
+    /**
+     * Riferimento al tracciato di gioco.
+     */
+    private final ITrack track;
+
+    /**
+     * Tabella dei valori appresi (può essere condivisa tra più giocatori).
+     */
+    private final QTable table;
+
+    /**
+     * Ordinale dell'ultima direzione scelta (E all'inizio, come in GameEngine).
+     */
+    private int lastDirection = VectorDirection.CardinalDirection.E.ordinal();
+
+    /**
+     * Accelerazione dell'ultima azione scelta, restituita da chooseAcceleration.
+     */
+    private int pendingAcceleration;
+
+    /**
+     * Costruttore di QLearningPlayer.
+     *
+     * @param name  Nome del giocatore.
+     * @param start Posizione di partenza.
+     * @param track Tracciato di gioco.
+     * @param table Tabella addestrata su un tracciato delle stesse dimensioni.
+     */
+    public QLearningPlayer(String name, Position start, ITrack track, QTable table) {
+        super(name, start);
+        if (table.getWidth() != track.getWidth() || table.getHeight() != track.getHeight()) {
+            throw new IllegalArgumentException("La Q-table non corrisponde alle dimensioni del tracciato");
+        }
+        this.track = track;
+        this.table = table;
+    }
+
+    /**
+     * Sceglie la direzione dell'azione migliore tra quelle consentite.
+     *
+     * @param allowedDirections Le direzioni consentite in questo turno.
+     * @return La direzione scelta, o null se non ce ne sono.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Sceglie la direzione dell'azione migliore tra quelle della maschera
+     * e memorizza l'accelerazione della stessa azione.
+     *
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return La direzione scelta, o null se la maschera è vuota.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int state = StateEncoder.encode(kinematics.index(currentPosition), velocity, lastDirection);
+        int action = table.bestAction(state, StateEncoder.actionMask(allowedMask));
+        if (action < 0) {
+            pendingAcceleration = 0;
+            return null;
+        }
+        lastDirection = StateEncoder.direction(action);
+        pendingAcceleration = StateEncoder.acceleration(action);
+        return DirectionMask.direction(lastDirection);
+    }
+
+    /**
+     * Restituisce l'accelerazione dell'azione scelta in questo turno.
+     *
+     * @return -1, 0 o +1.
+     */
+    @Override
+    public int chooseAcceleration() {
+        return pendingAcceleration;
+    }
+}
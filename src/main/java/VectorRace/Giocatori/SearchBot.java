@@ -0,0 +1,438 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Motore.MoveOutcomes;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.FinishLineIndex;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.MoveCostField;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Ricerca.TranspositionTable;
+
+/**
+ * SearchBot è un bot "anytime" che a ogni turno esplora i turni futuri con una ricerca
+ * in profondità ad approfondimento iterativo (profondità 1, 2, 3, ...) entro un budget
+ * di tempo in nanosecondi, e gioca la prima mossa del miglior percorso trovato
+ * dall'ultima iterazione completata.
+ * <p>
+ * Il costo di un percorso è misurato in celle: ogni turno vale {@link #TURN_COST}
+ * (la velocità massima) e al termine del percorso si aggiunge il costo minimo per arrivare al
+ * traguardo ({@link MoveCostField}); un percorso che attraversa il traguardo costa i soli turni
+ * impiegati più le celle percorse nell'ultimo. Il costo minimo segue le mosse reali, che a
+ * velocità 2 e 3 scavalcano gli ostacoli, quindi non sovrastima mai il costo rimasto: i rami
+ * che non possono migliorare il miglior costo trovato vengono potati senza perdere il percorso
+ * migliore, e si scartano solo gli atterraggi da cui il traguardo è davvero irraggiungibile.
+ * <p>
+ * Ogni iterazione ordina le mosse partendo dalla migliore dell'iterazione precedente,
+ * memorizzata per ogni stato in una {@link TranspositionTable}, che serve anche a non
+ * espandere due volte lo stesso stato (posizione, velocità, direzione) nella stessa iterazione.
+ * La prima iterazione viene sempre completata, quindi una mossa è sempre pronta; le
+ * successive si interrompono allo scadere del budget, controllato ogni {@link #CLOCK_INTERVAL}
+ * nodi, e più tempo significa percorsi valutati più in profondità.
+ * <p>
+ * Lo stato della ricerca vive in pile di array primitivi allocate alla costruzione, quindi
+ * una decisione non alloca memoria. Gli altri giocatori sono considerati solo nel turno
+ * corrente, attraverso gli esiti calcolati dal motore ({@link MoveOutcomes}).
+ */
+public class SearchBot extends BasePlayer {
+
+    /**
+     * Costo di un turno, in celle: la distanza massima percorribile in un turno.
+     */
+    public static final int TURN_COST = KinematicsTable.MAX_SPEED;
+
+    /**
+     * Profondità massima di default, in turni.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 32;
+
+    /**
+     * Memoria di default della tabella delle trasposizioni, in MiB.
+     */
+    public static final int DEFAULT_TABLE_MEGABYTES = 4;
+
+    /**
+     * Nodi espansi tra due letture dell'orologio.
+     */
+    public static final int CLOCK_INTERVAL = 256;
+
+    /**
+     * Mosse per stato (8 direzioni x 3 accelerazioni), indicizzate come {@link MoveOutcomes#index(int, int)}.
+     */
+    private static final int MOVES = MoveOutcomes.MOVES;
+
+    /**
+     * Costo di un percorso non ancora trovato.
+     */
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    /**
+     * Cella di arrivo fittizia delle mosse che attraversano il traguardo.
+     */
+    private static final int FINISHED = -1;
+
+    private final KinematicsTable kinematics;
+    private final FinishLineIndex finishLine;
+    private final MoveCostField field;
+    private final IInertiaManager inertiaManager;
+    private final TranspositionTable table;
+    private final long budgetNanos;
+    private final int maxDepth;
+
+    // Pile della ricerca, una voce per livello (turno futuro)
+    private final int[] cells;
+    private final int[] velocities;
+    private final long[] keys;
+    private final int[] counts;
+    private final int[] cursors;
+    private final int[] current;
+    private final int[] hints;
+    private final int[] bestMoves;
+
+    // Liste delle mosse di ogni livello, MOVES voci per livello
+    private final int[] moves;
+    private final int[] costs;
+    private final int[] landings;
+
+    /**
+     * Miglior costo trovato dall'iterazione in corso.
+     */
+    private int bestCost;
+
+    /**
+     * Prima mossa del miglior percorso dell'iterazione in corso.
+     */
+    private int iterationMove;
+
+    /**
+     * Contrassegno dell'iterazione in corso nella tabella delle trasposizioni.
+     */
+    private int stamp;
+
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+
+    /**
+     * Direzione dell'ultima mossa (il motore parte da E).
+     */
+    private VectorDirection.CardinalDirection lastDirection = VectorDirection.CardinalDirection.E;
+
+    /**
+     * Accelerazione della mossa scelta in questo turno.
+     */
+    private int acceleration;
+
+    private int lastDepth;
+    private long lastNodes;
+
+    /**
+     * Costruttore di SearchBot con inerzia, profondità e tabella di default.
+     *
+     * @param name        Nome del bot.
+     * @param start       Posizione di partenza.
+     * @param track       Tracciato di gioco.
+     * @param budgetNanos Tempo massimo di ricerca per decisione, in nanosecondi.
+     */
+    public SearchBot(String name, Position start, ITrack track, long budgetNanos) {
+        this(name, start, track, budgetNanos, new DefaultInertiaManager(), DEFAULT_MAX_DEPTH,
+                TranspositionTable.ofMegabytes(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Costruttore completo di SearchBot.
+     *
+     * @param name           Nome del bot.
+     * @param start          Posizione di partenza.
+     * @param track          Tracciato di gioco.
+     * @param budgetNanos    Tempo massimo di ricerca per decisione, in nanosecondi.
+     * @param inertiaManager Regole di inerzia usate per le mosse dei turni futuri
+     *                       (le stesse del motore).
+     * @param maxDepth       Profondità massima della ricerca, in turni.
+     * @param table          Tabella delle trasposizioni del bot (non condivisa con altri bot).
+     */
+    public SearchBot(String name, Position start, ITrack track, long budgetNanos,
+                     IInertiaManager inertiaManager, int maxDepth, TranspositionTable table) {
+        super(name, start);
+        if (maxDepth < 1 || maxDepth > TranspositionTable.MAX_DEPTH) {
+            throw new IllegalArgumentException("Profondità non valida: " + maxDepth);
+        }
+        this.kinematics = KinematicsTable.of(track);
+        this.finishLine = FinishLineIndex.of(track);
+        this.field = MoveCostField.of(track);
+        this.inertiaManager = inertiaManager;
+        this.table = table;
+        this.budgetNanos = budgetNanos;
+        this.maxDepth = maxDepth;
+
+        this.cells = new int[maxDepth + 1];
+        this.velocities = new int[maxDepth + 1];
+        this.keys = new long[maxDepth + 1];
+        this.counts = new int[maxDepth + 1];
+        this.cursors = new int[maxDepth + 1];
+        this.current = new int[maxDepth + 1];
+        this.hints = new int[maxDepth + 1];
+        this.bestMoves = new int[maxDepth + 1];
+        this.moves = new int[maxDepth * MOVES];
+        this.costs = new int[maxDepth * MOVES];
+        this.landings = new int[maxDepth * MOVES];
+    }
+
+    /**
+     * Sceglie la direzione della prima mossa del miglior percorso trovato.
+     *
+     * @param allowedDirections Le direzioni consentite in questo turno.
+     * @return La direzione scelta, oppure null se nessuna mossa è sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Variante primitiva di {@link #chooseDirection(Iterable)}: senza gli esiti del motore
+     * considera sicure le mosse che atterrano su una cella percorribile del tracciato.
+     *
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return La direzione scelta, oppure null se nessuna mossa è sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        return decide(allowedMask, null);
+    }
+
+    /**
+     * Variante di {@link #chooseDirection(int)} che nel turno corrente scarta anche le mosse
+     * verso celle occupate, usando gli esiti calcolati dal motore.
+     *
+     * @param outcomes Esiti delle mosse del turno.
+     * @return La direzione scelta, oppure null se nessuna mossa è sicura.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(MoveOutcomes outcomes) {
+        return decide(outcomes.getAllowedMask(), outcomes);
+    }
+
+    /**
+     * Restituisce l'accelerazione della mossa scelta nel turno corrente.
+     *
+     * @return -1, 0 oppure +1.
+     */
+    @Override
+    public int chooseAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * @return La profondità dell'ultima iterazione completata nell'ultima decisione, in turni.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * @return I nodi espansi nell'ultima decisione.
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Approfondimento iterativo: esegue ricerche di profondità crescente finché il budget
+     * non scade, un percorso raggiunge il traguardo o si arriva alla profondità massima.
+     */
+    private VectorDirection.CardinalDirection decide(int allowedMask, MoveOutcomes outcomes) {
+        deadline = System.nanoTime() + budgetNanos;
+        nodes = 0;
+        aborted = false;
+        table.newSearch();
+
+        cells[0] = kinematics.index(currentPosition);
+        velocities[0] = velocity;
+        keys[0] = key(cells[0], velocity, lastDirection.ordinal());
+
+        // La prima iterazione parte dalla mossa memorizzata nella decisione precedente, se c'è
+        long data = table.probe(keys[0]);
+        int chosen = (data != TranspositionTable.MISS) ? TranspositionTable.move(data) : TranspositionTable.NO_MOVE;
+        int depth = 0;
+        for (int limit = 1; limit <= maxDepth; limit++) {
+            // La prima iterazione viene sempre completata, per avere una mossa pronta
+            if (limit > 1 && System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            int cost = search(limit, allowedMask, outcomes, chosen);
+            if (aborted) {
+                break;
+            }
+            chosen = iterationMove;
+            depth = limit;
+            // Un percorso fino al traguardo è il più breve possibile; senza percorsi non c'è altro da cercare
+            if (cost == INFINITE || cost <= limit * TURN_COST) {
+                break;
+            }
+        }
+        lastDepth = depth;
+        lastNodes = nodes;
+
+        if (chosen == TranspositionTable.NO_MOVE) {
+            acceleration = 0;
+            return null;
+        }
+        acceleration = chosen % 3 - 1;
+        lastDirection = DirectionMask.direction(chosen / 3);
+        return lastDirection;
+    }
+
+    /**
+     * Ricerca in profondità limitata a {@code limit} turni, con pile esplicite invece della ricorsione.
+     *
+     * @return Il costo del miglior percorso trovato, o {@link #INFINITE} se non ce ne sono.
+     */
+    private int search(int limit, int allowedMask, MoveOutcomes outcomes, int rootHint) {
+        stamp++;
+        bestCost = INFINITE;
+        iterationMove = TranspositionTable.NO_MOVE;
+        hints[0] = rootHint;
+        table.store(keys[0], stamp, 0, TranspositionTable.EXACT, rootHint);
+        generate(0, allowedMask, outcomes, rootHint);
+
+        int ply = 0;
+        while (ply >= 0) {
+            if (cursors[ply] == counts[ply]) {
+                // Livello esaurito: memorizza la mossa migliore per l'iterazione successiva
+                int best = bestMoves[ply] != TranspositionTable.NO_MOVE ? bestMoves[ply] : hints[ply];
+                table.store(keys[ply], stamp, ply, TranspositionTable.EXACT, best);
+                ply--;
+                continue;
+            }
+            int slot = ply * MOVES + cursors[ply]++;
+            int move = moves[slot];
+            int cost = costs[slot];
+            current[ply] = move;
+            if (cost >= bestCost) {
+                continue;
+            }
+            int landing = landings[slot];
+            if (landing == FINISHED || ply + 1 == limit) {
+                improve(cost, ply);
+                continue;
+            }
+
+            int child = ply + 1;
+            int dir = move / 3;
+            int speed = clampSpeed(velocities[ply] + move % 3 - 1);
+            long key = key(landing, speed, dir);
+            long data = table.probe(key);
+            // Stato già espanso in questa iterazione con meno turni alle spalle
+            if (data != TranspositionTable.MISS && TranspositionTable.value(data) == stamp
+                    && TranspositionTable.depth(data) <= child) {
+                continue;
+            }
+            int hint = (data != TranspositionTable.MISS) ? TranspositionTable.move(data) : TranspositionTable.NO_MOVE;
+            table.store(key, stamp, child, TranspositionTable.EXACT, hint);
+
+            cells[child] = landing;
+            velocities[child] = speed;
+            keys[child] = key;
+            hints[child] = hint;
+            ply = child;
+            generate(ply, inertiaManager.allowedDirectionMask(speed, DirectionMask.direction(dir)), null, hint);
+
+            if (++nodes % CLOCK_INTERVAL == 0 && limit > 1 && System.nanoTime() - deadline >= 0) {
+                aborted = true;
+                return bestCost;
+            }
+        }
+        return bestCost;
+    }
+
+    /**
+     * Registra un percorso migliore: la sua prima mossa e, per ogni livello aperto,
+     * la mossa che vi conduce.
+     */
+    private void improve(int cost, int ply) {
+        bestCost = cost;
+        iterationMove = current[0];
+        for (int p = 0; p <= ply; p++) {
+            bestMoves[p] = current[p];
+        }
+    }
+
+    /**
+     * Genera le mosse sicure dello stato del livello indicato, ordinate per costo crescente,
+     * con la mossa suggerita dall'iterazione precedente in testa.
+     * Le mosse che non spostano il giocatore sono escluse.
+     */
+    private void generate(int ply, int allowedMask, MoveOutcomes outcomes, int hint) {
+        int cell = cells[ply];
+        int x = kinematics.x(cell);
+        int y = kinematics.y(cell);
+        int velocity = velocities[ply];
+        int base = ply * MOVES;
+        int spent = ply * TURN_COST;
+        int count = 0;
+        for (int m = allowedMask; m != 0; m &= m - 1) {
+            int dir = Integer.numberOfTrailingZeros(m);
+            for (int a = -1; a <= 1; a++) {
+                int speed = clampSpeed(velocity + a);
+                // Velocità nulla, o uguale a quella dell'accelerazione precedente per il limite massimo
+                if (speed == 0 || (a == 1 && speed == velocity)) {
+                    continue;
+                }
+                int move = MoveOutcomes.index(dir, a);
+                int landing;
+                int cost;
+                int crossed = finishLine.crossing(x, y, dir, speed);
+                if (crossed > 0) {
+                    landing = FINISHED;
+                    cost = spent + crossed;
+                } else {
+                    if (!CellType.isPassable(kinematics.outcome(cell, dir, speed))) {
+                        continue;
+                    }
+                    landing = kinematics.destination(cell, dir, speed);
+                    int remaining = field.cost(landing);
+                    if (remaining == MoveCostField.UNREACHABLE) {
+                        continue;
+                    }
+                    cost = spent + TURN_COST + remaining;
+                }
+                if (outcomes != null && outcomes.outcome(dir, a) != MoveOutcomes.FREE
+                        && outcomes.outcome(dir, a) != MoveOutcomes.FINISH) {
+                    continue;
+                }
+                // Inserimento ordinato per costo; la mossa suggerita precede tutte le altre
+                int key = (move == hint) ? Integer.MIN_VALUE : cost;
+                int i = count++;
+                while (i > 0 && sortKey(base + i - 1, hint) > key) {
+                    moves[base + i] = moves[base + i - 1];
+                    costs[base + i] = costs[base + i - 1];
+                    landings[base + i] = landings[base + i - 1];
+                    i--;
+                }
+                moves[base + i] = move;
+                costs[base + i] = cost;
+                landings[base + i] = landing;
+            }
+        }
+        counts[ply] = count;
+        cursors[ply] = 0;
+        bestMoves[ply] = TranspositionTable.NO_MOVE;
+    }
+
+    private int sortKey(int slot, int hint) {
+        return (moves[slot] == hint) ? Integer.MIN_VALUE : costs[slot];
+    }
+
+    private long key(int cell, int speed, int dir) {
+        return TranspositionTable.stateKey(kinematics.x(cell), kinematics.y(cell), speed, dir, 0);
+    }
+
+    private static int clampSpeed(int speed) {
+        return Math.max(0, Math.min(speed, KinematicsTable.MAX_SPEED));
+    }
+}
@@ -1,42 +1,76 @@
 package VectorRace.Giocatori;
 
+import VectorRace.Motore.MoveOutcomes;
+import VectorRace.Posizione.DirectionMask;
 import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
- * SpeedControlBot  un bot che cerca una direzione sicura in modo casuale
- * ma controlla la velocit in modo da non superare un certo limite (3).
- * - Se la velocit  sotto 3, accelera.
- * - Se la velocit  3 o pi, decelera.
+ * SpeedControlBot è un bot che cerca una direzione sicura in modo casuale
+ * ma controlla la velocità in modo da non superare un certo limite (di default 3).
+ * - Se la velocità è sotto il limite, accelera.
+ * - Se la velocità è pari o superiore al limite, decelera.
  */
 public class SpeedControlBot extends BasePlayer {
 
     /**
-     * Generatore di numeri casuali per la scelta tra pi opzioni sicure.
+     * Generatore di numeri casuali per la scelta tra più opzioni sicure.
      */
-    private Random random = new Random();
+    private final Random random;
 
     /**
      * Riferimento al tracciato di gioco (ITrack), utilizzato per controllare
-     * se una posizione  libera o meno.
+     * se una posizione è libera o meno.
      */
     private ITrack track;
 
     /**
-     * Costruttore di SpeedControlBot.
+     * Soglia di velocità: sotto di essa il bot accelera, altrimenti decelera.
+     */
+    private final int maxVelocity;
+
+    /**
+     * Costruttore di SpeedControlBot (soglia di velocità 3).
      *
      * @param name  Nome del bot.
      * @param start Posizione di partenza sul tracciato.
      * @param track Il tracciato di gioco (implementazione di ITrack).
      */
     public SpeedControlBot(String name, Position start, ITrack track) {
+        this(name, start, track, 3);
+    }
+
+    /**
+     * Costruttore di SpeedControlBot con soglia di velocità configurabile.
+     *
+     * @param name        Nome del bot.
+     * @param start       Posizione di partenza sul tracciato.
+     * @param track       Il tracciato di gioco (implementazione di ITrack).
+     * @param maxVelocity Velocità oltre la quale il bot smette di accelerare.
+     */
+    public SpeedControlBot(String name, Position start, ITrack track, int maxVelocity) {
+        this(name, start, track, maxVelocity, new Random());
+    }
+
+    /**
+     * Costruttore completo di SpeedControlBot, con generatore casuale esplicito
+     * (utile per gare riproducibili a partire da un seed).
+     *
+     * @param name        Nome del bot.
+     * @param start       Posizione di partenza sul tracciato.
+     * @param track       Il tracciato di gioco (implementazione di ITrack).
+     * @param maxVelocity Velocità oltre la quale il bot smette di accelerare.
+     * @param random      Generatore di numeri casuali da usare.
+     */
+    public SpeedControlBot(String name, Position start, ITrack track, int maxVelocity, Random random) {
         super(name, start);
         this.track = track;
+        this.maxVelocity = maxVelocity;
+        this.random = random;
     }
 
     /**
@@ -48,67 +82,60 @@ public class SpeedControlBot extends BasePlayer {
      */
     @Override
     public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
-        // Raccoglie in una lista tutte le direzioni consentite
-        // che portano a una cella libera.
-        List<VectorDirection.CardinalDirection> safeDirs = new ArrayList<>();
-        for (VectorDirection.CardinalDirection dir : allowedDirections) {
-            // Calcola la posizione futura in base alla direzione.
-            Position nextPos = getNextPosition(this.currentPosition, dir);
+        // Converte le direzioni in maschera e delega alla variante primitiva.
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
 
-            // Se la posizione  libera sul tracciato, la aggiunge alle direzioni sicure.
-            if (track.isFree(nextPos)) {
-                safeDirs.add(dir);
-            }
-        }
+    /**
+     * Variante primitiva di {@link #chooseDirection(Iterable)}: raccoglie le direzioni
+     * sicure in una maschera e ne sceglie una a caso, senza allocazioni.
+     *
+     * @param allowedMask Maschera delle direzioni permesse in questo turno.
+     * @return Una direzione sicura (random) o null se non ne esistono.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        // Direzioni "sicure": quelle consentite in cui la cella a un passo è libera
+        // (una sola lettura della tabella cinematica del tracciato).
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int safeMask = allowedMask & kinematics.passableMask(kinematics.index(currentPosition), 1);
 
         // Se non ci sono direzioni sicure, restituisce null (non si muove).
         // Altrimenti, sceglie a caso fra quelle disponibili.
-        return safeDirs.isEmpty() ? null : safeDirs.get(random.nextInt(safeDirs.size()));
+        int count = DirectionMask.count(safeMask);
+        return (count == 0) ? null : DirectionMask.direction(DirectionMask.nth(safeMask, random.nextInt(count)));
     }
 
     /**
-     * Determina l'accelerazione in base alla velocit corrente:
-     * se inferiore a 3, accelera di 1;
-     * se uguale o superiore a 3, decelera di 1.
+     * Variante di {@link #chooseDirection(int)} che usa gli esiti calcolati dal motore:
+     * sceglie a caso tra le direzioni che, con l'accelerazione del bot, arrivano su una
+     * cella libera o attraversano il traguardo.
      *
-     * @return 1 (accelerazione) o -1 (decelerazione).
+     * @param outcomes Esiti delle mosse del turno.
+     * @return Una direzione sicura (random) o null se non ne esistono.
      */
     @Override
-    public int chooseAcceleration() {
-        // Confronta la velocit corrente con la soglia 3.
-        // Se < 3, accelera (1); altrimenti, decelera (-1).
-        if (this.getVelocity() < 3) {
-            return 1;  // accelerazione
-        } else {
-            return -1; // decelerazione
-        }
+    public VectorDirection.CardinalDirection chooseDirection(MoveOutcomes outcomes) {
+        int safeMask = outcomes.safeDirections(chooseAcceleration());
+        int count = DirectionMask.count(safeMask);
+        return (count == 0) ? null : DirectionMask.direction(DirectionMask.nth(safeMask, random.nextInt(count)));
     }
 
     /**
-     * Calcola la nuova posizione spostandosi di una cella
-     * nella direzione specificata.
+     * Determina l'accelerazione in base alla velocità corrente:
+     * se inferiore alla soglia, accelera di 1;
+     * se uguale o superiore alla soglia, decelera di 1.
      *
-     * @param current   Posizione attuale.
-     * @param direction Direzione cardinale (N, NE, E, SE, S, SW, W, NW).
-     * @return La prossima posizione dopo essersi spostati di una cella.
+     * @return 1 (accelerazione) o -1 (decelerazione).
      */
-    private Position getNextPosition(Position current, VectorDirection.CardinalDirection direction) {
-        int x = current.getX();
-        int y = current.getY();
-
-        // Aggiorna (x, y) secondo la direzione scelta.
-        switch (direction) {
-            case N:  y -= 1; break;
-            case NE: x += 1; y -= 1; break;
-            case E:  x += 1; break;
-            case SE: x += 1; y += 1; break;
-            case S:  y += 1; break;
-            case SW: x -= 1; y += 1; break;
-            case W:  x -= 1; break;
-            case NW: x -= 1; y -= 1; break;
+    @Override
+    public int chooseAcceleration() {
+        // Confronta la velocità corrente con la soglia.
+        // Se inferiore, accelera (1); altrimenti, decelera (-1).
+        if (this.getVelocity() < maxVelocity) {
+            return 1;  // accelerazione
+        } else {
+            return -1; // decelerazione
         }
-
-        // Restituisce la nuova posizione.
-        return new Position(x, y);
     }
 }
@@ -0,0 +1,97 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Ricerca.CooperativePlanner;
+
+/**
+ * TeamBot è un bot che corre in squadra con altri TeamBot: tutti i bot della squadra
+ * condividono un {@link CooperativePlanner}, che pianifica i loro percorsi per alcuni turni
+ * in avanti e prenota le celle attraversate, così i bot della squadra non si bloccano a vicenda.
+ * <p>
+ * Il bot conta i turni da solo (il motore gli chiede una direzione a ogni turno) e ricorda
+ * la direzione dell'ultima mossa, che insieme alla velocità determina le mosse ammesse
+ * dall'inerzia nei turni successivi. Senza mosse sicure resta fermo.
+ */
+public class TeamBot extends BasePlayer {
+
+    /**
+     * Planner condiviso dalla squadra.
+     */
+    private final CooperativePlanner planner;
+
+    /**
+     * Identificativo del bot nel planner.
+     */
+    private final int id;
+
+    /**
+     * Turno corrente, contato dal bot.
+     */
+    private int turn;
+
+    /**
+     * Direzione dell'ultima mossa (il motore parte da E).
+     */
+    private VectorDirection.CardinalDirection lastDirection = VectorDirection.CardinalDirection.E;
+
+    /**
+     * Accelerazione della mossa scelta in questo turno.
+     */
+    private int acceleration;
+
+    /**
+     * Costruttore di TeamBot.
+     *
+     * @param name    Nome del bot.
+     * @param start   Posizione di partenza.
+     * @param planner Planner condiviso dalla squadra (uno per gara).
+     */
+    public TeamBot(String name, Position start, CooperativePlanner planner) {
+        super(name, start);
+        this.planner = planner;
+        this.id = planner.join();
+    }
+
+    /**
+     * Sceglie la direzione indicata dal piano della squadra.
+     *
+     * @param allowedDirections Le direzioni consentite in questo turno.
+     * @return La direzione pianificata, oppure null se non esistono mosse sicure.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Variante primitiva di {@link #chooseDirection(Iterable)}: chiede al planner la mossa
+     * del turno, che contiene anche l'accelerazione restituita da {@link #chooseAcceleration()}.
+     *
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return La direzione pianificata, oppure null se non esistono mosse sicure.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        turn++;
+        int move = planner.nextMove(id, currentPosition, velocity, lastDirection.ordinal(), allowedMask, turn);
+        if (move == CooperativePlanner.NO_MOVE) {
+            acceleration = 0;
+            return null;
+        }
+        acceleration = CooperativePlanner.acceleration(move);
+        lastDirection = DirectionMask.direction(CooperativePlanner.direction(move));
+        return lastDirection;
+    }
+
+    /**
+     * Restituisce l'accelerazione pianificata per il turno corrente.
+     *
+     * @return -1, 0 oppure +1.
+     */
+    @Override
+    public int chooseAcceleration() {
+        return acceleration;
+    }
+}
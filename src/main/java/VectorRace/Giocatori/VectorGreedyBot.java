@@ -0,0 +1,165 @@
+package VectorRace.Giocatori;
+
+import VectorRace.Fisica.VectorPhysics;
+import VectorRace.Fisica.VectorState;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * VectorGreedyBot è un bot per la fisica vettoriale: tra le accelerazioni ammesse
+ * sceglie quella che porta più vicino a un traguardo (distanza di Chebyshev),
+ * scartando le mosse che urtano un ostacolo e quelle dopo le quali nessuna
+ * accelerazione evita l'urto al turno successivo. Se una mossa attraversa
+ * un traguardo, la sceglie subito. Le parità vengono risolte a caso.
+ * <p>
+ * Con la fisica classica a velocità scalare si comporta come un bot goloso
+ * che si muove verso il traguardo a un passo alla volta.
+ */
+public class VectorGreedyBot extends BasePlayer implements IVectorPlayer {
+
+    private final ITrack track;
+    private final VectorPhysics physics;
+    private final Random random;
+
+    /**
+     * Coordinate dei traguardi.
+     */
+    private final int[] finishX;
+    private final int[] finishY;
+
+    /**
+     * Costruttore di VectorGreedyBot.
+     *
+     * @param name    Nome del bot.
+     * @param start   Posizione di partenza.
+     * @param track   Tracciato di gioco.
+     * @param physics Fisica vettoriale usata per prevedere le mosse.
+     * @param random  Generatore casuale per le parità.
+     */
+    public VectorGreedyBot(String name, Position start, ITrack track, VectorPhysics physics, Random random) {
+        super(name, start);
+        this.track = track;
+        this.physics = physics;
+        this.random = random;
+        List<Position> finishes = track.getAllFinishPositions();
+        this.finishX = new int[finishes.size()];
+        this.finishY = new int[finishes.size()];
+        for (int i = 0; i < finishes.size(); i++) {
+            finishX[i] = finishes.get(i).getX();
+            finishY[i] = finishes.get(i).getY();
+        }
+    }
+
+    /**
+     * Sceglie l'accelerazione che avvicina di più al traguardo senza urti.
+     *
+     * @param state          Stato corrente codificato.
+     * @param allowedActions Maschera delle azioni ammesse.
+     * @return L'azione scelta, o -1 se ogni azione porta a un urto.
+     */
+    @Override
+    public int chooseVectorAction(long state, int allowedActions) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int m = allowedActions; m != 0; m &= m - 1) {
+            int action = Integer.numberOfTrailingZeros(m);
+            long next = physics.next(state, action);
+            long stop = VectorPhysics.travel(kinematics, state, next);
+            byte type = kinematics.typeAt(VectorState.x(stop), VectorState.y(stop));
+            if (type == CellType.FINISH) {
+                return action;
+            }
+            if (stop != next || !hasSafeFollowUp(kinematics, next)) {
+                continue;
+            }
+            int distance = distanceToFinish(VectorState.x(next), VectorState.y(next));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = action;
+                ties = 1;
+            } else if (distance == bestDistance && random.nextInt(++ties) == 0) {
+                best = action;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Con la fisica scalare sceglie la direzione a un passo che avvicina di più al traguardo.
+     *
+     * @param allowedDirections Le direzioni consentite in questo turno.
+     * @return La direzione scelta, o null se nessuna è percorribile.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+        return chooseDirection(DirectionMask.of(allowedDirections));
+    }
+
+    /**
+     * Variante a maschera di {@link #chooseDirection(Iterable)}.
+     *
+     * @param allowedMask Maschera delle direzioni consentite in questo turno.
+     * @return La direzione scelta, o null se nessuna è percorribile.
+     */
+    @Override
+    public VectorDirection.CardinalDirection chooseDirection(int allowedMask) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int cell = kinematics.index(currentPosition);
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int m = allowedMask & kinematics.passableMask(cell, 1); m != 0; m &= m - 1) {
+            int dir = Integer.numberOfTrailingZeros(m);
+            int next = kinematics.destination(cell, dir, 1);
+            int distance = distanceToFinish(kinematics.x(next), kinematics.y(next));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = dir;
+            }
+        }
+        return (best >= 0) ? DirectionMask.direction(best) : null;
+    }
+
+    /**
+     * Con la fisica scalare procede a un passo per turno.
+     *
+     * @return Accelerazione che porta (o mantiene) la velocità a 1.
+     */
+    @Override
+    public int chooseAcceleration() {
+        return Integer.signum(1 - velocity);
+    }
+
+    /**
+     * Indica se dallo stato esiste almeno un'accelerazione che non porta a un urto.
+     */
+    private boolean hasSafeFollowUp(KinematicsTable kinematics, long state) {
+        for (int m = physics.allowedActions(state); m != 0; m &= m - 1) {
+            long next = physics.next(state, Integer.numberOfTrailingZeros(m));
+            long stop = VectorPhysics.travel(kinematics, state, next);
+            if (stop == next || kinematics.typeAt(VectorState.x(stop), VectorState.y(stop)) == CellType.FINISH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distanza di Chebyshev dal traguardo più vicino.
+     */
+    private int distanceToFinish(int x, int y) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < finishX.length; i++) {
+            min = Math.min(min, Math.max(Math.abs(x - finishX[i]), Math.abs(y - finishY[i])));
+        }
+        return min;
+    }
+}
@@ -7,7 +7,6 @@ import VectorRace.Fisica.SimpleVelocityCalculator;
 import VectorRace.Giocatori.*;
 import VectorRace.Motore.GameBoard;
 import VectorRace.Motore.GameEngine;
-import VectorRace.Posizione.ITrack;
 import VectorRace.Posizione.Track;
 
 import java.io.IOException;
@@ -16,7 +15,7 @@ import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
-        ITrack track = new Track();
+        Track track = new Track();
         try {
             track.loadFromFile("track.txt");
         } catch (IOException e) {
@@ -0,0 +1,20 @@
+package VectorRace.Motore;
+
+import VectorRace.Giocatori.IPlayer;
+
+/**
+ * DecisionRecorder riceve dal {@link GameEngine} il tempo impiegato da ogni giocatore
+ * per decidere la mossa di un turno (scelta della direzione e dell'accelerazione).
+ * Viene invocato sul thread della gara, quindi deve essere veloce e non bloccante.
+ */
+@FunctionalInterface
+public interface DecisionRecorder {
+
+    /**
+     * Registra la durata di una decisione.
+     *
+     * @param player Giocatore che ha deciso.
+     * @param nanos  Durata della decisione in nanosecondi.
+     */
+    void record(IPlayer player, long nanos);
+}
@@ -1,13 +1,17 @@
 package VectorRace.Motore;
 
-import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Eventi.ConsoleRaceListener;
+import VectorRace.Eventi.PlayerSnapshot;
 import VectorRace.Giocatori.IPlayer;
+import VectorRace.Posizione.CellType;
 import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.PackedPosition;
 import VectorRace.Posizione.Position;
-import VectorRace.Posizione.Track;
 import VectorRace.Posizione.VectorDirection;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.List;
 
@@ -15,7 +19,7 @@ import java.util.List;
  * GameBoard rappresenta la "plancia" di gioco, gestendo la posizione dei giocatori
  * e i riferimenti al tracciato. Si occupa di:
  * - Assegnare posizioni di partenza ai giocatori.
- * - Verificare se una cella  libera, contiene un ostacolo o rappresenta il traguardo.
+ * - Verificare se una cella è libera, contiene un ostacolo o rappresenta il traguardo.
  * - Aggiornare la posizione dei giocatori.
  * - Visualizzare lo stato corrente di gioco.
  */
@@ -27,13 +31,25 @@ public class GameBoard {
     private ITrack track;
 
     /**
-     * Mappa che associa un giocatore (IPlayer) alla sua posizione corrente (Position).
+     * Giocatori indicizzati per slot: ogni giocatore riceve, quando entra,
+     * il primo indice libero (0, 1, 2, ...).
      */
-    private Map<IPlayer, Position> playerPositions;
+    private IPlayer[] slotPlayers = new IPlayer[4];
+
+    /**
+     * Coordinate correnti dei giocatori, indicizzate per slot (array paralleli a slotPlayers).
+     */
+    private int[] slotX = new int[4];
+    private int[] slotY = new int[4];
+
+    /**
+     * Numero di slot assegnati.
+     */
+    private int slotCount;
 
     /**
      * Indice della prossima posizione di partenza disponibile
-     * (usato quando il tracciato fornisce pi posizioni di start).
+     * (usato quando il tracciato fornisce più posizioni di start).
      */
     private int nextStartIndex = 0;
 
@@ -44,48 +60,86 @@ public class GameBoard {
      */
     public GameBoard(ITrack track) {
         this.track = track;
-        this.playerPositions = new HashMap<>();
     }
 
     /**
      * Aggiunge un nuovo giocatore alla partita, assegnandogli una posizione di partenza.
-     * Se track  un'istanza di Track, usa getAllStartPositions() per ottenere pi posizioni.
-     * Se invece  una generica implementazione di ITrack, usa getStartPosition() come fallback.
+     * Usa getAllStartPositions() del tracciato per distribuire i giocatori sulle
+     * diverse posizioni di start (per un ITrack generico coincide con getStartPosition()).
      *
      * @param player Il nuovo giocatore da aggiungere.
+     * @return Lo slot assegnato al giocatore.
      */
-    public void addPlayer(IPlayer player) {
+    public int addPlayer(IPlayer player) {
         Position start;
 
-        // Verifica se track  un'istanza concreta di Track (che potrebbe avere pi start)
-        if (track instanceof Track) {
-            // Ottiene la lista di tutte le posizioni di partenza dal tracciato
-            List<Position> starts = ((Track) track).getAllStartPositions();
-
-            // Se c' ancora una posizione di partenza non assegnata
-            if (nextStartIndex < starts.size()) {
-                start = starts.get(nextStartIndex++);
-            } else {
-                // Se esauriamo le posizioni di partenza, usiamo l'ultima disponibile
-                // (o si potrebbe decidere di gestire un errore o un'eccezione)
-                start = starts.get(starts.size() - 1);
-            }
+        // Ottiene la lista di tutte le posizioni di partenza dal tracciato
+        List<Position> starts = track.getAllStartPositions();
+
+        // Se c'è ancora una posizione di partenza non assegnata
+        if (nextStartIndex < starts.size()) {
+            start = starts.get(nextStartIndex++);
         } else {
-            // Fallback per un ITrack generico
-            start = track.getStartPosition();
+            // Se esauriamo le posizioni di partenza, usiamo l'ultima disponibile
+            // (o si potrebbe decidere di gestire un errore o un'eccezione)
+            start = starts.get(starts.size() - 1);
         }
 
-        // Imposta la posizione iniziale del giocatore e lo aggiunge alla mappa
+        // Imposta la posizione iniziale del giocatore e gli assegna il primo slot libero
         player.setCurrentPosition(start);
-        playerPositions.put(player, start);
+        if (slotCount == slotPlayers.length) {
+            int capacity = slotCount * 2;
+            slotPlayers = Arrays.copyOf(slotPlayers, capacity);
+            slotX = Arrays.copyOf(slotX, capacity);
+            slotY = Arrays.copyOf(slotY, capacity);
+        }
+        int slot = slotCount++;
+        slotPlayers[slot] = player;
+        slotX[slot] = start.getX();
+        slotY[slot] = start.getY();
+        return slot;
+    }
+
+    /**
+     * Numero di slot assegnati (giocatori aggiunti alla plancia).
+     *
+     * @return Numero di slot.
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Restituisce il giocatore di uno slot.
+     *
+     * @param slot Slot del giocatore.
+     * @return Il giocatore.
+     */
+    public IPlayer getPlayer(int slot) {
+        return slotPlayers[slot];
+    }
+
+    /**
+     * Restituisce lo slot di un giocatore (ricerca lineare per identità).
+     *
+     * @param player Giocatore da cercare.
+     * @return Lo slot del giocatore, o -1 se non è sulla plancia.
+     */
+    public int slotOf(IPlayer player) {
+        for (int i = 0; i < slotCount; i++) {
+            if (slotPlayers[i] == player) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
-     * Controlla se la posizione  libera, ossia non occupata da ostacoli
-     * e non gi occupata da un altro giocatore.
+     * Controlla se la posizione è libera, ossia non occupata da ostacoli
+     * e non già occupata da un altro giocatore.
      *
      * @param pos La posizione da verificare.
-     * @return true se la posizione  libera, false altrimenti.
+     * @return true se la posizione è libera, false altrimenti.
      */
     public boolean isFree(Position pos) {
         return track.isFree(pos) && !isOccupied(pos);
@@ -95,7 +149,7 @@ public class GameBoard {
      * Controlla se la posizione rappresenta un ostacolo sul tracciato.
      *
      * @param pos La posizione da verificare.
-     * @return true se c' un ostacolo, false altrimenti.
+     * @return true se c'è un ostacolo, false altrimenti.
      */
     public boolean isObstacle(Position pos) {
         return track.isObstacle(pos);
@@ -105,31 +159,144 @@ public class GameBoard {
      * Controlla se la posizione rappresenta il traguardo sul tracciato.
      *
      * @param pos La posizione da verificare.
-     * @return true se  il traguardo, false altrimenti.
+     * @return true se è il traguardo, false altrimenti.
      */
     public boolean isFinish(Position pos) {
         return track.isFinish(pos);
     }
 
     /**
-     * Verifica se la posizione  gi occupata da un giocatore (anche se  libera sul tracciato).
+     * Verifica se la posizione è già occupata da un giocatore (anche se è libera sul tracciato).
      *
      * @param pos La posizione da verificare.
-     * @return true se la posizione  occupata da un giocatore, false altrimenti.
+     * @return true se la posizione è occupata da un giocatore, false altrimenti.
      */
     private boolean isOccupied(Position pos) {
-        // Controlla se qualcuno dei giocatori ha la stessa posizione
-        return playerPositions.values().stream().anyMatch(p -> p.equals(pos));
+        return isOccupied(pos.getX(), pos.getY());
+    }
+
+    /**
+     * Verifica se la cella alle coordinate indicate è occupata da un giocatore,
+     * senza allocare una Position: scorre in sequenza gli array delle coordinate.
+     * Un giocatore eliminato resta sulla plancia nella sua ultima posizione.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se un giocatore occupa la cella, false altrimenti.
+     */
+    public boolean isOccupied(int x, int y) {
+        for (int i = 0; i < slotCount; i++) {
+            if (slotX[i] == x && slotY[i] == y) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Interroga a blocchi le classi di più celle del tracciato (vedi {@link ITrack#getCellTypes}).
+     *
+     * @param packed Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset Indice della prima coordinata da interrogare.
+     * @param count  Numero di celle da interrogare.
+     * @param types  Destinazione delle classi ({@link CellType}, almeno count elementi).
+     */
+    public void getCellTypes(int[] packed, int offset, int count, byte[] types) {
+        track.getCellTypes(packed, offset, count, types);
+    }
+
+    /**
+     * Variante a blocchi di {@link #isOccupied(int, int)} per fino a 64 celle: una passata
+     * sulle coordinate per ogni giocatore, confrontate spacchettate così che un giocatore oltre
+     * i 16 bit di {@link PackedPosition} non coincida mai per troncamento con una cella interrogata.
+     *
+     * @param packed Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset Indice della prima coordinata da interrogare.
+     * @param count  Numero di celle da interrogare (al massimo 64).
+     * @return Maschera con il bit i acceso se un giocatore occupa la cella packed[offset + i].
+     */
+    public long occupiedMask(int[] packed, int offset, int count) {
+        if (count > Long.SIZE) {
+            throw new IllegalArgumentException("Al massimo " + Long.SIZE + " celle per maschera: " + count);
+        }
+        long mask = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int x = slotX[slot];
+            int y = slotY[slot];
+            for (int i = 0; i < count; i++) {
+                int p = packed[offset + i];
+                if (PackedPosition.x(p) == x && PackedPosition.y(p) == y) {
+                    mask |= 1L << i;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Variante di {@link #occupiedMask} per indici di cella (y * width + x, come
+     * {@link KinematicsTable}), valida per tracciati di qualunque dimensione.
+     *
+     * @param cells  Indici delle celle.
+     * @param offset Indice della prima cella da interrogare.
+     * @param count  Numero di celle da interrogare (al massimo 64).
+     * @return Maschera con il bit i acceso se un giocatore occupa la cella cells[offset + i].
+     */
+    public long occupiedCellMask(int[] cells, int offset, int count) {
+        if (count > Long.SIZE) {
+            throw new IllegalArgumentException("Al massimo " + Long.SIZE + " celle per maschera: " + count);
+        }
+        int width = track.getWidth();
+        long mask = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int occupied = slotY[slot] * width + slotX[slot];
+            for (int i = 0; i < count; i++) {
+                if (cells[offset + i] == occupied) {
+                    mask |= 1L << i;
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Variante a blocchi di {@link #isFree(Position)} per fino a 64 celle: una sola
+     * interrogazione del tracciato e una di {@link #occupiedMask}.
+     *
+     * @param packed Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset Indice della prima coordinata da interrogare.
+     * @param count  Numero di celle da interrogare (al massimo 64).
+     * @return Maschera con il bit i acceso se la cella packed[offset + i] è percorribile e libera.
+     */
+    public long freeMask(int[] packed, int offset, int count) {
+        long passable = track.cellMask(packed, offset, count, CellType.PASSABLE_CLASSES);
+        return passable & ~occupiedMask(packed, offset, count);
     }
 
     /**
-     * Aggiorna la posizione di uno specifico giocatore nella mappa interna.
+     * Aggiorna la posizione di uno specifico giocatore, già aggiunto con {@link #addPlayer(IPlayer)}.
      *
      * @param player Il giocatore di cui aggiornare la posizione.
      * @param newPos La nuova posizione.
+     * @throws IllegalArgumentException Se il giocatore non è sulla plancia.
      */
     public void updatePlayerPosition(IPlayer player, Position newPos) {
-        playerPositions.put(player, newPos);
+        int slot = slotOf(player);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Giocatore non presente sulla plancia: " + PlayerSnapshot.nameOf(player));
+        }
+        updatePlayerPosition(slot, newPos);
+    }
+
+    /**
+     * Aggiorna la posizione del giocatore di uno slot.
+     *
+     * @param slot   Slot del giocatore.
+     * @param newPos La nuova posizione.
+     */
+    public void updatePlayerPosition(int slot, Position newPos) {
+        slotX[slot] = newPos.getX();
+        slotY[slot] = newPos.getY();
     }
 
     /**
@@ -142,77 +309,36 @@ public class GameBoard {
     }
 
     /**
-     * Visualizza la situazione corrente del gioco:
-     * - Stampa riga per riga il tracciato, sostituendo i caratteri delle celle
-     *   con il simbolo del giocatore se  presente.
-     * - Stampa poi uno stato riepilogativo dei giocatori (nome, velocit, posizione, direzione).
+     * Fotografa lo stato attuale dei giocatori (nome, simbolo, posizione, velocità, direzione),
+     * in una forma immutabile che può essere passata ai listener degli eventi di gara.
      *
      * @param players Lista dei giocatori attivi.
      * @param previousDirections Mappa che collega ogni giocatore
      *                           alla sua direzione al turno precedente.
+     * @return Lista delle fotografie, nello stesso ordine dei giocatori.
      */
-    public void display(List<IPlayer> players, Map<IPlayer, VectorDirection.CardinalDirection> previousDirections) {
-        // Stampa del tracciato, riga per riga
-        for (int y = 0; y < track.getHeight(); y++) {
-            for (int x = 0; x < track.getWidth(); x++) {
-                Position pos = new Position(x, y);
-
-                // Carattere che rappresenta la cella
-                char cell;
-
-                // Se track  un'istanza di Track,
-                // controlliamo in modo specifico Start (S) e Finish (F)
-                if (track instanceof Track) {
-                    Track t = (Track) track;
-                    if (t.getAllStartPositions().contains(pos)) {
-                        cell = 'S';   // Indichiamo posizione di partenza
-                    } else if (t.getAllFinishPositions().contains(pos)) {
-                        cell = 'F';   // Indichiamo traguardo
-                    } else {
-                        cell = t.getCell(pos);
-                    }
-                } else {
-                    cell = track.getCell(pos);
-                }
-
-                // Verifica se un giocatore  presente nella cella
-                String playerSymbol = null;
-                for (IPlayer player : players) {
-                    if (player.getCurrentPosition().equals(pos)) {
-                        // Se il giocatore  un BasePlayer,
-                        // usiamo l'iniziale del suo nome come simbolo.
-                        // Altrimenti, di default "P".
-                        playerSymbol = (player instanceof BasePlayer)
-                                ? ((BasePlayer) player).getName().substring(0, 1)
-                                : "P";
-                        break;
-                    }
-                }
-
-                // Stampa il simbolo del giocatore o il carattere della cella
-                System.out.print(playerSymbol != null ? playerSymbol : cell);
-            }
-            // Fine di una riga
-            System.out.println();
-        }
-
-        // Separatore e stato dei giocatori
-        System.out.println("\nStato dei giocatori:");
+    public List<PlayerSnapshot> snapshot(List<IPlayer> players,
+                                         Map<IPlayer, VectorDirection.CardinalDirection> previousDirections) {
+        List<PlayerSnapshot> standings = new ArrayList<>(players.size());
         for (IPlayer player : players) {
-            // Mostra informazioni: nome, velocit, posizione e direzione precedente
-            String playerName = (player instanceof BasePlayer)
-                    ? ((BasePlayer) player).getName()
-                    : "Giocatore";
-            Position pos = player.getCurrentPosition();
-            int velocity = player.getVelocity();
-            VectorDirection.CardinalDirection direction = previousDirections.get(player);
-            String directionStr = (direction != null) ? direction.toString() : "N/D";
-
-            // Stampa formattata
-            System.out.printf("%s - Velocit: %d, Posizione: (%d, %d), Direzione: %s%n",
-                    playerName, velocity, pos.getX(), pos.getY(), directionStr);
+            standings.add(PlayerSnapshot.of(player, previousDirections.get(player)));
         }
+        return standings;
+    }
 
-        System.out.println("--------------------------------------------------");
+    /**
+     * Visualizza la situazione corrente del gioco:
+     * - Stampa riga per riga il tracciato, sostituendo i caratteri delle celle
+     *   con il simbolo del giocatore se è presente.
+     * - Stampa poi uno stato riepilogativo dei giocatori (nome, velocità, posizione, direzione).
+     * Durante la gara GameEngine produce lo stesso testo tramite gli eventi
+     * e {@link ConsoleRaceListener}.
+     *
+     * @param players Lista dei giocatori attivi.
+     * @param previousDirections Mappa che collega ogni giocatore
+     *                           alla sua direzione al turno precedente.
+     */
+    public void display(List<IPlayer> players, Map<IPlayer, VectorDirection.CardinalDirection> previousDirections) {
+        System.out.print(ConsoleRaceListener.render(track, snapshot(players, previousDirections)));
     }
 }
@@ -1,10 +1,22 @@
 package VectorRace.Motore;
 
+import VectorRace.Eventi.ConsoleRaceListener;
+import VectorRace.Eventi.PlayerSnapshot;
+import VectorRace.Eventi.RaceEvent;
+import VectorRace.Eventi.RaceEventBus;
+import VectorRace.Eventi.RaceListener;
+import VectorRace.Eventi.RacePublisher;
 import VectorRace.Fisica.IInertiaManager;
 import VectorRace.Fisica.IVelocityCalculator;
-import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Fisica.VectorPhysics;
+import VectorRace.Fisica.VectorState;
 import VectorRace.Giocatori.IPlayer;
+import VectorRace.Giocatori.IVectorPlayer;
 import VectorRace.Motore.GameBoard;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.FinishLineIndex;
+import VectorRace.Posizione.KinematicsTable;
 import VectorRace.Posizione.Position;
 import VectorRace.Posizione.VectorDirection;
 
@@ -14,7 +26,18 @@ import java.util.*;
  * GameEngine si occupa di gestire il flusso di gioco:
  * - Tiene traccia dei turni e di un limite massimo.
  * - Coordina i giocatori, gestisce spostamenti, controlla ostacoli e condizioni di vittoria.
- * - Visualizza lo stato del gioco dopo ogni azione.
+ * - Pubblica gli eventi di gara (turni, spostamenti, collisioni, arrivo) ai {@link RaceListener}.
+ *   La console (verbose) li stampa in modo sincrono sul thread della gara, così nessuna riga
+ *   va persa né si mescola con le richieste di input di HumanPlayer; i listener registrati
+ *   li ricevono da un thread separato ({@link RaceEventBus}), quindi il ciclo dei turni non li
+ *   attende mai. Se non c'è nessun destinatario non viene creato alcun evento.
+ * - Con {@link #setPublisher(RacePublisher)} espone gli stessi eventi come flusso reattivo
+ *   ({@link java.util.concurrent.Flow}), con una politica di backpressure per abbonato.
+ * - Con {@link #setVectorPhysics(VectorPhysics)} applica la fisica vettoriale classica
+ *   (velocità (vx, vy), accelerazione -1/0/+1 per asse, controllo dell'intero segmento
+ *   percorso) al posto di quella a velocità scalare e direzione cardinale.
+ * - Un giocatore vince appena il suo movimento attraversa una cella del traguardo,
+ *   anche se la cella di atterraggio la supera ({@link FinishLineIndex}).
  */
 public class GameEngine {
 
@@ -30,33 +53,127 @@ public class GameEngine {
     private GameBoard board;
 
     /**
-     * IVelocityCalculator (per calcolare velocit pi complesse).
+     * IVelocityCalculator (per calcolare velocità più complesse).
      */
     private IVelocityCalculator velocityCalculator;
 
     /**
      * IInertiaManager si occupa di determinare le possibili direzioni consentite
-     * a un giocatore in base alla sua velocit e direzione precedente.
+     * a un giocatore in base alla sua velocità e direzione precedente.
      */
     private IInertiaManager inertiaManager;
 
     /**
-     * Lista dei giocatori in partita (IPlayer).
+     * Tabella cinematica del tracciato: esito di ogni mossa (cella, direzione, velocità)
+     * precalcolato, così il controllo dell'atterraggio è una sola lettura.
      */
-    List<IPlayer> players;
+    private final KinematicsTable kinematics;
 
     /**
-     * Mappa per ricordare la direzione precedente di ogni giocatore,
+     * Indice delle celle del traguardo per righe, colonne e diagonali, per rilevare
+     * l'attraversamento del traguardo lungo tutto il movimento.
+     */
+    private final FinishLineIndex finishLine;
+
+    /**
+     * Esiti delle mosse del giocatore di turno, passati ai giocatori (un'istanza riusata).
+     */
+    private final MoveOutcomes moveOutcomes;
+
+    /**
+     * Giocatori indicizzati per slot: lo slot è quello assegnato da GameBoard
+     * quando il giocatore entra in partita (0, 1, 2, ...).
+     */
+    private IPlayer[] players = new IPlayer[4];
+
+    /**
+     * Direzione precedente di ogni giocatore, indicizzata per slot (array parallelo a players),
      * utile per calcolare le direzioni ammesse al turno successivo.
      */
-    private Map<IPlayer, VectorDirection.CardinalDirection> previousDirections;
+    private VectorDirection.CardinalDirection[] previousDirections = new VectorDirection.CardinalDirection[4];
+
+    /**
+     * Slot dei giocatori ancora in gara: un giocatore eliminato viene solo
+     * spento in questo insieme, senza modificare gli array.
+     */
+    private final BitSet alive = new BitSet();
+
+    /**
+     * Fisica vettoriale, o null per la fisica classica a velocità scalare.
+     */
+    private VectorPhysics vectorPhysics;
+
+    /**
+     * Stato vettoriale di ogni giocatore ({@link VectorState}), indicizzato per slot;
+     * usato solo con la fisica vettoriale.
+     */
+    private long[] vectorStates = new long[0];
+
+    /**
+     * Se true, il motore stampa a console l'andamento della gara (tramite un {@link ConsoleRaceListener});
+     * se false la gara viene eseguita in modo silenzioso (es. simulazioni in batch).
+     */
+    private boolean verbose = true;
+
+    /**
+     * Contatori per cella di visite, eliminazioni, blocchi e arrivi, o null se non richiesti.
+     */
+    private TrafficHeatmap heatmap;
+
+    /**
+     * Destinatario delle durate delle decisioni dei giocatori, o null se non richiesto:
+     * in quel caso le decisioni non vengono cronometrate.
+     */
+    private DecisionRecorder decisionRecorder;
+
+    /**
+     * Listener aggiuntivi registrati con {@link #addListener(RaceListener)}.
+     */
+    private final List<RaceListener> listeners = new ArrayList<>();
+
+    /**
+     * Bus degli eventi della gara in corso, o null se non c'è nessun listener registrato.
+     */
+    private RaceEventBus events;
+
+    /**
+     * Listener della console della gara in corso (se verbose), invocato direttamente
+     * sul thread della gara, o null.
+     */
+    private ConsoleRaceListener console;
+
+    /**
+     * Publisher reattivo della prossima gara, o null se non richiesto.
+     */
+    private RacePublisher publisher;
+
+    /**
+     * true durante una gara con almeno un destinatario degli eventi (console, bus o publisher):
+     * altrimenti nessun evento viene creato.
+     */
+    private boolean publishing;
+
+    /**
+     * Giocatore che ha raggiunto il traguardo, o null se nessuno ci è ancora arrivato.
+     */
+    private IPlayer winner;
+
+    /**
+     * Numero di giocatori eliminati per collisione con un ostacolo.
+     */
+    private int eliminated;
+
+    /**
+     * Giocatori eliminati, in ordine di eliminazione.
+     */
+    private final List<IPlayer> eliminatedPlayers = new ArrayList<>();
 
     /**
      * Costruttore di GameEngine.
      *
      * @param board             GameBoard per gestire posizioni e tracciato.
-     * @param velocityCalculator Oggetto per calcoli di velocit (se necessario).
-     * @param inertiaManager     Oggetto per determinare le direzioni ammesse in base a velocit e direzione precedente.
+     * @param velocityCalculator Oggetto per calcoli di velocità (se necessario).
+     * @param inertiaManager     Oggetto per determinare le direzioni ammesse in base a velocità e direzione precedente.
      * @param maxTurns          Limite massimo di turni.
      */
     public GameEngine(GameBoard board, IVelocityCalculator velocityCalculator,
@@ -64,54 +181,193 @@ public class GameEngine {
         this.board = board;
         this.velocityCalculator = velocityCalculator;
         this.inertiaManager = inertiaManager;
-        this.players = new ArrayList<>();
-        this.previousDirections = new HashMap<>();
+        this.kinematics = KinematicsTable.of(board.getTrack());
+        this.finishLine = FinishLineIndex.of(board.getTrack());
+        this.moveOutcomes = new MoveOutcomes(kinematics, finishLine, board);
         this.maxTurns = maxTurns;
     }
 
     /**
      * Aggiunge un nuovo giocatore alla partita, assegnandogli
-     * una posizione di partenza tramite GameBoard e memorizzandolo
-     * nella lista interna di players.
+     * una posizione di partenza e uno slot tramite GameBoard e memorizzandolo
+     * negli array interni indicizzati per slot.
      *
      * @param player Il giocatore da aggiungere.
      */
     public void addPlayer(IPlayer player) {
-        players.add(player);
-        board.addPlayer(player);
+        int slot = board.addPlayer(player);
+        if (slot >= players.length) {
+            int capacity = Math.max(slot + 1, players.length * 2);
+            players = Arrays.copyOf(players, capacity);
+            previousDirections = Arrays.copyOf(previousDirections, capacity);
+        }
+        players[slot] = player;
         // Imposta la direzione iniziale come Est (E) per default
-        previousDirections.put(player, VectorDirection.CardinalDirection.E);
+        previousDirections[slot] = VectorDirection.CardinalDirection.E;
+        alive.set(slot);
+    }
+
+    /**
+     * Abilita o disabilita le stampe a console durante la gara.
+     *
+     * @param verbose true per stampare l'andamento della gara, false per una gara silenziosa.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Attiva la fisica vettoriale per le gare successive: ogni giocatore parte fermo
+     * e a ogni turno sceglie un'accelerazione (ax, ay). I giocatori che implementano
+     * {@link IVectorPlayer} la scelgono direttamente; per gli altri la direzione scelta
+     * tra tutte le otto e l'accelerazione scalare vengono tradotte in (ax, ay):
+     * +1 accelera nella direzione scelta, 0 mantiene la velocità, -1 frena su entrambi gli assi.
+     * La velocità scalare del giocatore viene aggiornata con l'{@link IVelocityCalculator}.
+     *
+     * @param vectorPhysics Fisica vettoriale, o null per tornare a quella classica.
+     */
+    public void setVectorPhysics(VectorPhysics vectorPhysics) {
+        this.vectorPhysics = vectorPhysics;
+    }
+
+    /**
+     * Imposta la heatmap su cui registrare, cella per cella, visite, eliminazioni,
+     * mosse bloccate e arrivi. La registrazione avviene sul thread della gara,
+     * quindi la heatmap non deve essere condivisa con gare eseguite in parallelo.
+     *
+     * @param heatmap Heatmap delle dimensioni del tracciato, o null per disattivarla.
+     */
+    public void setHeatmap(TrafficHeatmap heatmap) {
+        this.heatmap = heatmap;
+    }
+
+    /**
+     * Imposta il destinatario dei tempi di decisione: a ogni turno viene cronometrata
+     * la scelta di direzione e accelerazione di ciascun giocatore. La registrazione
+     * avviene sul thread della gara.
+     *
+     * @param decisionRecorder Destinatario dei tempi, o null per disattivare il cronometro.
+     */
+    public void setDecisionRecorder(DecisionRecorder decisionRecorder) {
+        this.decisionRecorder = decisionRecorder;
+    }
+
+    /**
+     * Registra un listener che riceverà gli eventi delle gare successive.
+     * I listener vengono invocati da un thread dedicato, non da quello della gara:
+     * se il suo buffer è pieno gli eventi vengono scartati (vedi {@link RaceEventBus}).
+     *
+     * @param listener Listener da aggiungere.
+     */
+    public void addListener(RaceListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Imposta il publisher reattivo della prossima gara: riceve gli eventi direttamente dal
+     * thread della gara, senza passare dal bus dei listener, e viene chiuso alla fine della gara
+     * (gli abbonati ricevono onComplete). Serve un nuovo publisher per ogni gara.
+     *
+     * @param publisher Publisher degli eventi, o null per non pubblicarli.
+     */
+    public void setPublisher(RacePublisher publisher) {
+        this.publisher = publisher;
     }
 
     /**
      * Avvia la corsa, iterando sui turni fino al raggiungimento del maxTurns
-     * o finch non si stabilisce la fine della gara (es. tutti eliminati o uno ha vinto).
+     * o finché non si stabilisce la fine della gara (es. tutti eliminati o uno ha vinto),
+     * quindi termina l'applicazione.
      */
     public void startRace() {
+        runRace();
+
+        // Forza la terminazione dell'applicazione
+        System.exit(0);
+
+    }
+
+    /**
+     * Esegue la corsa come {@link #startRace()}, ma senza terminare l'applicazione,
+     * restituendo il risultato. Permette di eseguire molte gare nello stesso processo.
+     *
+     * @return Il {@link RaceResult} della gara.
+     */
+    public RaceResult runRace() {
         boolean raceFinished = false;
         int turn = 0;
+        int playerCount = alive.cardinality();
+        openEvents();
+        if (vectorPhysics != null) {
+            // Ogni giocatore parte fermo dalla propria posizione di partenza
+            vectorStates = new long[players.length];
+            for (int slot = alive.nextSetBit(0); slot >= 0; slot = alive.nextSetBit(slot + 1)) {
+                Position p = players[slot].getCurrentPosition();
+                vectorStates[slot] = VectorState.pack(p.getX(), p.getY(), 0, 0);
+            }
+        }
 
-        // Continua finch la gara non  finita o non superiamo i turni massimi.
+        // Continua finché la gara non è finita o non superiamo i turni massimi.
         while (!raceFinished && turn < maxTurns) {
             turn++;
             processTurn(turn);
 
+            // La gara finisce non appena un giocatore raggiunge il traguardo.
+            raceFinished = (winner != null);
+
             // Verifica se tutti i giocatori sono stati eliminati, condizione di fine gara.
-            if (players.isEmpty()) {
-                System.out.println("Tutti i giocatori sono stati eliminati. La partita finisce.");
+            if (alive.isEmpty()) {
                 break;
             }
         }
 
-        // Se non si  conclusa entro maxTurns, terminiamo la gara.
-        // Stampa il messaggio del limite max turni solo se ci sono ancora giocatori attivi.
-        if (!raceFinished && !players.isEmpty()) {
-            System.out.println("Limite di " + maxTurns + " turni raggiunto. La partita termina.");
+        // Pubblica il motivo della fine della gara e attende che i listener abbiano
+        // elaborato tutti gli eventi (es. prima di System.exit in startRace).
+        if (publishing) {
+            RaceEvent.RaceEnded.Reason reason = raceFinished ? RaceEvent.RaceEnded.Reason.FINISHED
+                    : alive.isEmpty() ? RaceEvent.RaceEnded.Reason.ALL_ELIMINATED
+                    : RaceEvent.RaceEnded.Reason.TURN_LIMIT;
+            publish(new RaceEvent.RaceEnded(turn, reason, maxTurns));
+            if (console != null) {
+                console.onClose(0);
+                console = null;
+            }
+            if (events != null) {
+                events.close();
+                events = null;
+            }
+            if (publisher != null) {
+                publisher.close();
+            }
+            publishing = false;
         }
 
-        // Forza la terminazione dell'applicazione
-        System.exit(0);
+        return new RaceResult(winner, turn, eliminated, playerCount, eliminatedPlayers);
+    }
 
+    /**
+     * Prepara i destinatari degli eventi della gara: la console se verbose e il bus
+     * solo se c'è almeno un listener registrato.
+     */
+    private void openEvents() {
+        console = verbose ? new ConsoleRaceListener(board.getTrack()) : null;
+        events = listeners.isEmpty() ? null : new RaceEventBus(listeners);
+        publishing = console != null || events != null || publisher != null;
+    }
+
+    /**
+     * Consegna un evento alla console, al bus dei listener e al publisher reattivo, se presenti.
+     */
+    private void publish(RaceEvent event) {
+        if (console != null) {
+            console.onEvent(event);
+        }
+        if (events != null) {
+            events.publish(event);
+        }
+        if (publisher != null) {
+            publisher.publish(event);
+        }
     }
 
     /**
@@ -120,123 +376,269 @@ public class GameEngine {
      * @param turn Numero del turno corrente.
      */
     private void processTurn(int turn) {
-        System.out.println("Turno: " + turn);
+        if (publishing) {
+            publish(new RaceEvent.TurnStarted(turn));
+        }
 
-        // Utilizziamo un iterator per poter rimuovere i giocatori eliminati durante il ciclo.
-        Iterator<IPlayer> iterator = players.iterator();
-        while (iterator.hasNext()) {
-            IPlayer player = iterator.next();
-            processPlayerTurn(player, iterator);
+        // Scorre in ordine gli slot dei giocatori ancora in gara; un giocatore eliminato
+        // durante il ciclo viene solo spento nel bitset.
+        for (int slot = alive.nextSetBit(0); slot >= 0 && winner == null; slot = alive.nextSetBit(slot + 1)) {
+            processPlayerTurn(slot, turn);
         }
     }
 
     /**
      *   Esegue le azioni di un singolo giocatore in un turno:
-     * - Calcola le direzioni consentite in base alla velocit e direzione precedente.
+     * - Calcola le direzioni consentite in base alla velocità e direzione precedente.
      * - Fa scegliere al giocatore la direzione.
-     * - Calcola l'accelerazione e aggiorna la velocit.
+     * - Calcola l'accelerazione e aggiorna la velocità.
      * - Determina la nuova posizione e verifica collisioni, ostacoli e traguardo.
      *
-     * @param player   Il giocatore da processare.
-     * @param iterator Literator sui giocatori, usato per eventuale rimozione (eliminazione).
+     * @param slot Slot del giocatore da processare.
+     * @param turn Numero del turno corrente (per gli eventi).
      */
-    private void processPlayerTurn(IPlayer player, Iterator<IPlayer> iterator) {
+    private void processPlayerTurn(int slot, int turn) {
+        if (vectorPhysics != null) {
+            processVectorTurn(slot, turn);
+            return;
+        }
+        IPlayer player = players[slot];
+        if (heatmap != null) {
+            heatmap.visit(kinematics.index(player.getCurrentPosition()));
+        }
+
         // Recupera la direzione precedente da previousDirections.
-        VectorDirection.CardinalDirection previousDirection = previousDirections.get(player);
+        VectorDirection.CardinalDirection previousDirection = previousDirections[slot];
 
-        // Calcola quali direzioni sono permesse in base all'inertiaManager.
-        List<VectorDirection.CardinalDirection> allowed =
-                inertiaManager.allowedDirections(player.getVelocity(), previousDirection);
+        // Calcola quali direzioni sono permesse in base all'inertiaManager,
+        // come maschera di bit per non allocare liste a ogni turno.
+        int allowed = inertiaManager.allowedDirectionMask(player.getVelocity(), previousDirection);
 
-        // Chiede al giocatore di scegliere una direzione tra quelle consentite.
-        VectorDirection.CardinalDirection chosenDirection = player.chooseDirection(allowed);
+        // Chiede al giocatore di scegliere una direzione tra quelle consentite, mettendogli
+        // a disposizione l'esito reale di ogni mossa (calcolato solo se lo interroga).
+        moveOutcomes.prepare(kinematics.index(player.getCurrentPosition()), player.getVelocity(), allowed);
+        long decisionStart = (decisionRecorder != null) ? System.nanoTime() : 0L;
+        VectorDirection.CardinalDirection chosenDirection = player.chooseDirection(moveOutcomes);
 
-        // Se il giocatore non pu o non vuole muoversi, stampa avviso e termina qui il suo turno.
+        // Se il giocatore non può o non vuole muoversi, lo segnala e termina qui il suo turno.
         if (chosenDirection == null) {
-            System.out.println(((BasePlayer)player).getName() + " non ha direzioni sicure per muoversi.");
+            if (decisionRecorder != null) {
+                decisionRecorder.record(player, System.nanoTime() - decisionStart);
+            }
+            if (publishing) {
+                publish(new RaceEvent.Stuck(turn, PlayerSnapshot.nameOf(player), player.getCurrentPosition()));
+            }
             return;
         }
 
         // Aggiorna la direzione precedente con quella scelta dal giocatore.
-        previousDirections.put(player, chosenDirection);
+        previousDirections[slot] = chosenDirection;
 
-        // Fa scegliere l'accelerazione e aggiorna la velocit del giocatore.
+        // Fa scegliere l'accelerazione e aggiorna la velocità del giocatore.
         int acceleration = player.chooseAcceleration();
+        if (decisionRecorder != null) {
+            decisionRecorder.record(player, System.nanoTime() - decisionStart);
+        }
         player.setVelocity(player.getVelocity() + acceleration);
 
-        // Calcola la nuova posizione in base alla direzione e alla velocit.
+        // Legge dalla tabella cinematica l'esito dell'atterraggio in base a direzione e velocità
+        // (spostamento limitato a un massimo di 3 celle per turno).
         Position currentPos = player.getCurrentPosition();
-        Position newPos = calculateNewPosition(currentPos, chosenDirection, player.getVelocity());
+        int step = Math.max(0, Math.min(player.getVelocity(), KinematicsTable.MAX_SPEED));
+        int dir = chosenDirection.ordinal();
+        int targetX = currentPos.getX() + step * DirectionMask.dx(dir);
+        int targetY = currentPos.getY() + step * DirectionMask.dy(dir);
+        int from = kinematics.index(currentPos);
+        byte outcome = kinematics.outcome(from, dir, step);
+
+        // Un movimento veloce può scavalcare il traguardo: la corsa finisce sulla prima
+        // cella del traguardo attraversata, prima di valutare la cella di atterraggio.
+        int crossed = finishLine.crossing(currentPos.getX(), currentPos.getY(), dir, step);
+        if (crossed > 0) {
+            winner = player;
+            if (heatmap != null) {
+                heatmap.finish(kinematics.destination(from, dir, crossed));
+            }
+            if (publishing) {
+                publish(new RaceEvent.Finished(turn, PlayerSnapshot.nameOf(player),
+                        new Position(currentPos.getX() + crossed * DirectionMask.dx(dir),
+                                currentPos.getY() + crossed * DirectionMask.dy(dir))));
+            }
+            return;
+        }
 
-        // Verifica se la nuova posizione  libera o se si  verificata una collisione/ostacolo.
-        if (!board.isFree(newPos)) {
-            handleCollision(player, newPos, iterator);
-        } else {
-            // Se la nuova posizione  un traguardo, il giocatore ha vinto.
-            if (board.isFinish(newPos)) {
-                System.out.println(((BasePlayer)player).getName() + " ha raggiunto il traguardo!");
-                return;
+        // Verifica se la nuova posizione è libera o se si è verificata una collisione/ostacolo.
+        if (!CellType.isPassable(outcome) || board.isOccupied(targetX, targetY)) {
+            if (heatmap != null) {
+                // L'eliminazione si registra sulla cella da cui parte la mossa fatale,
+                // il blocco sulla cella occupata.
+                if (CellType.isPassable(outcome)) {
+                    heatmap.blocked(kinematics.destination(from, dir, step));
+                } else {
+                    heatmap.crash(from);
+                }
             }
+            handleCollision(slot, new Position(targetX, targetY), turn);
+        } else {
+            Position newPos = new Position(targetX, targetY);
             // Aggiornamento della posizione sul board e sullo stato del giocatore.
-            board.updatePlayerPosition(player, newPos);
+            board.updatePlayerPosition(slot, newPos);
             player.setCurrentPosition(newPos);
 
-            // Mostra la situazione aggiornata del gioco (facoltativo).
-            board.display(players, previousDirections);
+            // Pubblica lo spostamento con la situazione aggiornata del gioco.
+            if (publishing) {
+                publish(new RaceEvent.Moved(turn, PlayerSnapshot.nameOf(player), currentPos, newPos,
+                        player.getVelocity(), chosenDirection, standings()));
+            }
         }
     }
 
     /**
-     * Gestisce la collisione di un giocatore con un ostacolo o con unaltra posizione occupata.
-     * Se  un ostacolo, elimina (rimuove) il giocatore dal gioco.
-     * Se  occupata da un altro giocatore, gestisce levento (es. riprova mossa o salta mossa).
+     * Esegue il turno di un giocatore con la fisica vettoriale: sceglie l'accelerazione,
+     * aggiorna la velocità e percorre il segmento fino alla nuova posizione. Il primo ostacolo
+     * lungo il segmento elimina il giocatore, il primo traguardo lo fa vincere; se la cella
+     * di arrivo è occupata da un altro giocatore resta fermo e la sua velocità si azzera.
      *
-     * @param player   Giocatore che ha subito la collisione.
-     * @param newPos   Posizione in cui avviene la collisione.
-     * @param iterator Iterator su players, per rimuovere eventualmente il giocatore.
+     * @param slot Slot del giocatore da processare.
+     * @param turn Numero del turno corrente (per gli eventi).
      */
-    private void handleCollision(IPlayer player, Position newPos, Iterator<IPlayer> iterator) {
-        // Se la posizione  un ostacolo, il giocatore viene eliminato dal gioco.
-        if (board.isObstacle(newPos)) {
-            System.out.println(((BasePlayer)player).getName() + " ha colpito un ostacolo ed  eliminato dal gioco!");
-            iterator.remove();
-            previousDirections.remove(player);
+    private void processVectorTurn(int slot, int turn) {
+        IPlayer player = players[slot];
+        long state = vectorStates[slot];
+        Position currentPos = player.getCurrentPosition();
+        int from = kinematics.index(currentPos);
+        if (heatmap != null) {
+            heatmap.visit(from);
+        }
+
+        long decisionStart = (decisionRecorder != null) ? System.nanoTime() : 0L;
+        int action = chooseVectorAction(player, state, vectorPhysics.allowedActions(state));
+        if (decisionRecorder != null) {
+            decisionRecorder.record(player, System.nanoTime() - decisionStart);
+        }
+        if (action < 0) {
+            if (publishing) {
+                publish(new RaceEvent.Stuck(turn, PlayerSnapshot.nameOf(player), currentPos));
+            }
+            return;
+        }
+
+        long next = vectorPhysics.next(state, action);
+        long stop = VectorPhysics.travel(kinematics, state, next);
+        int vx = VectorState.vx(next);
+        int vy = VectorState.vy(next);
+        if (vx != 0 || vy != 0) {
+            // Le direzioni cardinali hanno y crescente verso N, il tracciato verso S
+            previousDirections[slot] = VectorDirection.cardinalOf(vx, -vy);
+        }
+        Position stopPos = new Position(VectorState.x(stop), VectorState.y(stop));
+        byte outcome = kinematics.typeAt(stopPos.getX(), stopPos.getY());
+
+        if (!CellType.isPassable(outcome)) {
+            if (heatmap != null) {
+                heatmap.crash(from);
+            }
+            eliminate(slot, stopPos, turn);
+        } else if (outcome == CellType.FINISH) {
+            winner = player;
+            if (heatmap != null) {
+                heatmap.finish(kinematics.index(stopPos));
+            }
+            if (publishing) {
+                publish(new RaceEvent.Finished(turn, PlayerSnapshot.nameOf(player), stopPos));
+            }
+        } else if (!stopPos.equals(currentPos) && board.isOccupied(stopPos.getX(), stopPos.getY())) {
+            // Urto con un altro giocatore: resta fermo e perde la velocità
+            vectorStates[slot] = VectorState.stopped(state);
+            player.setVelocity(0);
+            if (heatmap != null) {
+                heatmap.blocked(kinematics.index(stopPos));
+            }
+            if (publishing) {
+                publish(new RaceEvent.Collided(turn, PlayerSnapshot.nameOf(player), stopPos));
+            }
         } else {
-            // Caso in cui la posizione  occupata da un altro giocatore.
-            System.out.println("Posizione occupata da un altro giocatore. " +
-                    ((BasePlayer)player).getName() + " salta il turno.");
+            vectorStates[slot] = next;
+            board.updatePlayerPosition(slot, stopPos);
+            player.setCurrentPosition(stopPos);
+            player.setVelocity(velocityCalculator.velocity(currentPos, stopPos));
+            if (publishing) {
+                publish(new RaceEvent.Moved(turn, PlayerSnapshot.nameOf(player), currentPos, stopPos,
+                        player.getVelocity(), previousDirections[slot], standings()));
+            }
         }
     }
 
     /**
-     * Calcola la nuova posizione di un giocatore in base a una direzione e a una velocit.
-     * Limita lo spostamento a un massimo di 3 celle per turno (Math.min(velocity, 3)).
+     * Chiede l'accelerazione vettoriale a un giocatore, adattando quelli che non
+     * implementano {@link IVectorPlayer} (vedi {@link #setVectorPhysics(VectorPhysics)}).
      *
-     * @param current   Posizione attuale del giocatore.
-     * @param direction Direzione cardinale selezionata.
-     * @param velocity  Velocit corrente del giocatore (passo di movimento).
-     * @return          La nuova posizione calcolata.
+     * @return L'azione scelta, o -1 se il giocatore non si muove.
      */
-    private Position calculateNewPosition(Position current,
-                                          VectorDirection.CardinalDirection direction,
-                                          int velocity) {
-        // Limitiamo lo spostamento a max 3 celle per non sforare il tracciato.
-        int step = Math.min(velocity, 3);
+    private int chooseVectorAction(IPlayer player, long state, int allowedActions) {
+        if (player instanceof IVectorPlayer) {
+            return ((IVectorPlayer) player).chooseVectorAction(state, allowedActions);
+        }
+        VectorDirection.CardinalDirection direction = player.chooseDirection(DirectionMask.ALL);
+        if (direction == null) {
+            return -1;
+        }
+        int acceleration = player.chooseAcceleration();
+        if (acceleration > 0) {
+            return VectorPhysics.action(DirectionMask.dx(direction.ordinal()), DirectionMask.dy(direction.ordinal()));
+        } else if (acceleration < 0) {
+            return VectorPhysics.action(-Integer.signum(VectorState.vx(state)), -Integer.signum(VectorState.vy(state)));
+        }
+        return VectorPhysics.COAST;
+    }
 
-        int x = current.getX();
-        int y = current.getY();
+    /**
+     * Gestisce la collisione di un giocatore con un ostacolo o con un’altra posizione occupata.
+     * Se è un ostacolo, elimina (rimuove) il giocatore dal gioco.
+     * Se è occupata da un altro giocatore, gestisce l’evento (es. riprova mossa o salta mossa).
+     *
+     * @param slot   Slot del giocatore che ha subito la collisione.
+     * @param newPos Posizione in cui avviene la collisione.
+     * @param turn   Numero del turno corrente (per gli eventi).
+     */
+    private void handleCollision(int slot, Position newPos, int turn) {
+        IPlayer player = players[slot];
+        // Se la posizione è un ostacolo, il giocatore viene eliminato dal gioco.
+        if (board.isObstacle(newPos)) {
+            eliminate(slot, newPos, turn);
+        } else if (publishing) {
+            // Caso in cui la posizione è occupata da un altro giocatore.
+            publish(new RaceEvent.Collided(turn, PlayerSnapshot.nameOf(player), newPos));
+        }
+    }
 
-        switch (direction) {
-            case N:  y -= step; break;
-            case NE: x += step; y -= step; break;
-            case E:  x += step; break;
-            case SE: x += step; y += step; break;
-            case S:  y += step; break;
-            case SW: x -= step; y += step; break;
-            case W:  x -= step; break;
-            case NW: x -= step; y -= step; break;
+    /**
+     * Elimina un giocatore dalla gara (resta sulla plancia nella sua ultima posizione).
+     *
+     * @param slot   Slot del giocatore.
+     * @param newPos Posizione dell'ostacolo che lo ha eliminato.
+     * @param turn   Numero del turno corrente (per gli eventi).
+     */
+    private void eliminate(int slot, Position newPos, int turn) {
+        IPlayer player = players[slot];
+        if (publishing) {
+            publish(new RaceEvent.Eliminated(turn, PlayerSnapshot.nameOf(player), newPos));
         }
+        alive.clear(slot);
+        eliminated++;
+        eliminatedPlayers.add(player);
+    }
 
-        return new Position(x, y);
+    /**
+     * Fotografa lo stato dei giocatori ancora in gara, in ordine di slot.
+     *
+     * @return Lista delle fotografie dei giocatori.
+     */
+    private List<PlayerSnapshot> standings() {
+        List<PlayerSnapshot> standings = new ArrayList<>(alive.cardinality());
+        for (int slot = alive.nextSetBit(0); slot >= 0; slot = alive.nextSetBit(slot + 1)) {
+            standings.add(PlayerSnapshot.of(players[slot], previousDirections[slot]));
+        }
+        return standings;
     }
 }
@@ -0,0 +1,252 @@
+package VectorRace.Motore;
+
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.FinishLineIndex;
+import VectorRace.Posizione.KinematicsTable;
+
+/**
+ * MoveOutcomes contiene l'esito reale, calcolato dal motore, di ogni mossa ammessa a un
+ * giocatore nel turno corrente: per ognuna delle 8 direzioni e delle 3 accelerazioni
+ * (-1, 0, +1) la cella di arrivo e una delle classi {@link #FREE}, {@link #CRASH},
+ * {@link #OCCUPIED} o {@link #FINISH}, con le stesse regole di {@link GameEngine}
+ * (velocità limitata a 0..{@link KinematicsTable#MAX_SPEED}, traguardo rilevato lungo tutto
+ * il movimento, celle occupate dagli altri giocatori).
+ * <p>
+ * Le mosse sono indicizzate da {@link #index(int, int)} (direzione * 3 + accelerazione + 1)
+ * e per ogni classe è disponibile una maschera a 24 bit, quindi un bot verifica la sicurezza
+ * delle sue mosse con un'operazione di bit invece di interrogare il tracciato.
+ * <p>
+ * Gli esiti vengono calcolati solo alla prima interrogazione, quindi i giocatori che non li
+ * usano non hanno alcun costo aggiuntivo. Il motore riusa la stessa istanza per tutti i
+ * giocatori e tutti i turni: i valori sono validi solo durante la chiamata a
+ * {@code chooseDirection} e non vanno conservati.
+ */
+public final class MoveOutcomes {
+
+    /**
+     * Esito: atterraggio su una cella libera.
+     */
+    public static final byte FREE = 0;
+
+    /**
+     * Esito: atterraggio su un ostacolo o fuori dal tracciato (eliminazione).
+     */
+    public static final byte CRASH = 1;
+
+    /**
+     * Esito: cella di arrivo occupata da un giocatore (turno saltato).
+     */
+    public static final byte OCCUPIED = 2;
+
+    /**
+     * Esito: il movimento attraversa il traguardo (vittoria).
+     */
+    public static final byte FINISH = 3;
+
+    /**
+     * Numero di mosse (8 direzioni x 3 accelerazioni).
+     */
+    public static final int MOVES = 24;
+
+    private final KinematicsTable kinematics;
+    private final FinishLineIndex finishLine;
+    private final GameBoard board;
+
+    private final byte[] outcomes = new byte[MOVES];
+    private final int[] landings = new int[MOVES];
+    private final int[] masks = new int[4];
+
+    /**
+     * Celle di arrivo percorribili (indici di cella) e relative mosse,
+     * per controllare l'occupazione di tutte con una sola interrogazione della plancia.
+     */
+    private final int[] landingCells = new int[MOVES];
+    private final int[] landingMoves = new int[MOVES];
+    private int cell;
+    private int allowedMask;
+    private int velocity;
+    private boolean computed;
+
+    /**
+     * Costruttore di MoveOutcomes.
+     *
+     * @param kinematics Tabella cinematica del tracciato.
+     * @param finishLine Indice del traguardo del tracciato.
+     * @param board      Plancia con le posizioni dei giocatori.
+     */
+    MoveOutcomes(KinematicsTable kinematics, FinishLineIndex finishLine, GameBoard board) {
+        this.kinematics = kinematics;
+        this.finishLine = finishLine;
+        this.board = board;
+    }
+
+    /**
+     * Indice di una mossa.
+     *
+     * @param dir          Ordinale della direzione.
+     * @param acceleration Accelerazione (-1, 0 o +1).
+     * @return L'indice della mossa (0..23).
+     */
+    public static int index(int dir, int acceleration) {
+        return dir * 3 + acceleration + 1;
+    }
+
+    /**
+     * Prepara gli esiti per il turno di un giocatore (usato dal motore a ogni turno);
+     * il calcolo avviene alla prima interrogazione.
+     *
+     * @param cell        Cella del giocatore.
+     * @param velocity    Velocità del giocatore.
+     * @param allowedMask Direzioni ammesse dall'inerzia.
+     */
+    void prepare(int cell, int velocity, int allowedMask) {
+        this.cell = cell;
+        this.velocity = velocity;
+        this.allowedMask = allowedMask;
+        this.computed = false;
+    }
+
+    /**
+     * Calcola gli esiti di tutte le mosse ammesse.
+     */
+    private void compute() {
+        computed = true;
+        masks[FREE] = 0;
+        masks[CRASH] = 0;
+        masks[OCCUPIED] = 0;
+        masks[FINISH] = 0;
+        int x = kinematics.x(cell);
+        int y = kinematics.y(cell);
+        int pending = 0;
+        for (int m = allowedMask; m != 0; m &= m - 1) {
+            int dir = Integer.numberOfTrailingZeros(m);
+            for (int a = -1; a <= 1; a++) {
+                int i = index(dir, a);
+                int step = Math.max(0, Math.min(velocity + a, KinematicsTable.MAX_SPEED));
+                int crossed = finishLine.crossing(x, y, dir, step);
+                byte outcome;
+                int landing;
+                if (crossed > 0) {
+                    outcome = FINISH;
+                    landing = kinematics.destination(cell, dir, crossed);
+                } else if (!CellType.isPassable(kinematics.outcome(cell, dir, step))) {
+                    outcome = CRASH;
+                    boolean inside = kinematics.outcome(cell, dir, step) != CellType.OUT_OF_BOUNDS;
+                    landing = inside ? kinematics.destination(cell, dir, step) : -1;
+                } else {
+                    // Libera o occupata: lo stabilisce l'interrogazione a blocchi qui sotto
+                    landing = kinematics.destination(cell, dir, step);
+                    landingCells[pending] = landing;
+                    landingMoves[pending++] = i;
+                    outcome = FREE;
+                }
+                outcomes[i] = outcome;
+                landings[i] = landing;
+            }
+        }
+
+        long occupied = board.occupiedCellMask(landingCells, 0, pending);
+        for (int k = 0; k < pending; k++) {
+            if ((occupied & (1L << k)) != 0) {
+                outcomes[landingMoves[k]] = OCCUPIED;
+            }
+        }
+        for (int m = allowedMask; m != 0; m &= m - 1) {
+            int dir = Integer.numberOfTrailingZeros(m);
+            for (int a = -1; a <= 1; a++) {
+                int i = index(dir, a);
+                masks[outcomes[i]] |= 1 << i;
+            }
+        }
+    }
+
+    /**
+     * @return Le direzioni ammesse dall'inerzia in questo turno ({@link DirectionMask}).
+     */
+    public int getAllowedMask() {
+        return allowedMask;
+    }
+
+    /**
+     * @return La velocità del giocatore all'inizio del turno.
+     */
+    public int getVelocity() {
+        return velocity;
+    }
+
+    /**
+     * Esito di una mossa ammessa.
+     *
+     * @param dir          Ordinale della direzione.
+     * @param acceleration Accelerazione (-1, 0 o +1).
+     * @return La classe dell'esito, o {@link #CRASH} se la direzione non è ammessa.
+     */
+    public byte outcome(int dir, int acceleration) {
+        ensureComputed();
+        return isAllowed(dir) ? outcomes[index(dir, acceleration)] : CRASH;
+    }
+
+    /**
+     * Cella di arrivo di una mossa ammessa: per il traguardo è la prima cella attraversata.
+     *
+     * @param dir          Ordinale della direzione.
+     * @param acceleration Accelerazione (-1, 0 o +1).
+     * @return L'indice della cella, o -1 se la mossa esce dal tracciato o non è ammessa.
+     */
+    public int landing(int dir, int acceleration) {
+        ensureComputed();
+        return isAllowed(dir) ? landings[index(dir, acceleration)] : -1;
+    }
+
+    /**
+     * Maschera delle mosse con un certo esito.
+     *
+     * @param outcome Classe dell'esito.
+     * @return Maschera a 24 bit indicizzata da {@link #index(int, int)}.
+     */
+    public int moves(byte outcome) {
+        ensureComputed();
+        return masks[outcome];
+    }
+
+    /**
+     * Direzioni che, con l'accelerazione indicata, hanno un certo esito.
+     *
+     * @param acceleration Accelerazione (-1, 0 o +1).
+     * @param outcome      Classe dell'esito.
+     * @return Maschera delle direzioni ({@link DirectionMask}).
+     */
+    public int directions(int acceleration, byte outcome) {
+        ensureComputed();
+        int mask = masks[outcome];
+        int result = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            if ((mask & (1 << index(dir, acceleration))) != 0) {
+                result |= 1 << dir;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Direzioni sicure con l'accelerazione indicata: quelle che arrivano su una cella
+     * libera o attraversano il traguardo.
+     *
+     * @param acceleration Accelerazione (-1, 0 o +1).
+     * @return Maschera delle direzioni ({@link DirectionMask}).
+     */
+    public int safeDirections(int acceleration) {
+        return directions(acceleration, FREE) | directions(acceleration, FINISH);
+    }
+
+    private void ensureComputed() {
+        if (!computed) {
+            compute();
+        }
+    }
+
+    private boolean isAllowed(int dir) {
+        return (allowedMask & (1 << dir)) != 0;
+    }
+}
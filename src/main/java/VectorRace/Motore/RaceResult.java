@@ -0,0 +1,135 @@
+package VectorRace.Motore;
+
+import VectorRace.Giocatori.IPlayer;
+
+import java.util.List;
+
+/**
+ * RaceResult riassume l'esito di una singola gara eseguita da {@link GameEngine}:
+ * il vincitore (se c'è), il numero di turni giocati e quali giocatori sono stati eliminati.
+ */
+public final class RaceResult {
+
+    /**
+     * Giocatore che ha raggiunto il traguardo, o null se nessuno ci è arrivato.
+     */
+    private final IPlayer winner;
+
+    /**
+     * Numero di turni effettivamente giocati.
+     */
+    private final int turns;
+
+    /**
+     * Numero di giocatori eliminati per collisione con un ostacolo.
+     */
+    private final int eliminated;
+
+    /**
+     * Numero di giocatori presenti all'inizio della gara.
+     */
+    private final int playerCount;
+
+    /**
+     * Giocatori eliminati, in ordine di eliminazione.
+     */
+    private final List<IPlayer> eliminatedPlayers;
+
+    /**
+     * Costruttore di RaceResult, senza l'elenco dei giocatori eliminati.
+     *
+     * @param winner      Vincitore della gara (o null).
+     * @param turns       Turni giocati.
+     * @param eliminated  Giocatori eliminati.
+     * @param playerCount Giocatori in gara all'inizio.
+     */
+    public RaceResult(IPlayer winner, int turns, int eliminated, int playerCount) {
+        this(winner, turns, eliminated, playerCount, List.of());
+    }
+
+    /**
+     * Costruttore di RaceResult.
+     *
+     * @param winner            Vincitore della gara (o null).
+     * @param turns             Turni giocati.
+     * @param eliminated        Giocatori eliminati.
+     * @param playerCount       Giocatori in gara all'inizio.
+     * @param eliminatedPlayers Giocatori eliminati, in ordine di eliminazione.
+     */
+    public RaceResult(IPlayer winner, int turns, int eliminated, int playerCount, List<IPlayer> eliminatedPlayers) {
+        this.winner = winner;
+        this.turns = turns;
+        this.eliminated = eliminated;
+        this.playerCount = playerCount;
+        this.eliminatedPlayers = List.copyOf(eliminatedPlayers);
+    }
+
+    /**
+     * Indica se qualcuno ha raggiunto il traguardo.
+     *
+     * @return true se la gara ha un vincitore.
+     */
+    public boolean hasWinner() {
+        return winner != null;
+    }
+
+    /**
+     * Restituisce il vincitore della gara.
+     *
+     * @return Il giocatore che ha raggiunto il traguardo, o null.
+     */
+    public IPlayer getWinner() {
+        return winner;
+    }
+
+    /**
+     * Restituisce il numero di turni giocati (coincide con il turno di arrivo del vincitore).
+     *
+     * @return Numero di turni.
+     */
+    public int getTurns() {
+        return turns;
+    }
+
+    /**
+     * Restituisce il numero di giocatori eliminati.
+     *
+     * @return Numero di eliminati.
+     */
+    public int getEliminated() {
+        return eliminated;
+    }
+
+    /**
+     * Indica se un giocatore è stato eliminato durante la gara.
+     *
+     * @param player Giocatore da verificare.
+     * @return true se il giocatore compare tra gli eliminati.
+     */
+    public boolean isEliminated(IPlayer player) {
+        for (IPlayer p : eliminatedPlayers) {
+            if (p == player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce i giocatori eliminati, in ordine di eliminazione.
+     *
+     * @return Lista non modificabile (vuota se il risultato non li riporta).
+     */
+    public List<IPlayer> getEliminatedPlayers() {
+        return eliminatedPlayers;
+    }
+
+    /**
+     * Restituisce il numero di giocatori presenti all'inizio della gara.
+     *
+     * @return Numero di giocatori.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+}
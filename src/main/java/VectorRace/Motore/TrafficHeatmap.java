@@ -0,0 +1,221 @@
+package VectorRace.Motore;
+
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * TrafficHeatmap conta, cella per cella, cosa succede durante le gare:
+ * <ul>
+ *     <li>{@link Counter#VISITS}: turni trascorsi da un giocatore nella cella;</li>
+ *     <li>{@link Counter#CRASHES}: eliminazioni partite dalla cella (mossa verso un ostacolo
+ *         o fuori dal tracciato), cioè dove la gara è stata persa;</li>
+ *     <li>{@link Counter#BLOCKED}: mosse fermate perché la cella era occupata da un altro giocatore;</li>
+ *     <li>{@link Counter#FINISHES}: arrivi sulla cella del traguardo.</li>
+ * </ul>
+ * I contatori sono array di long senza sincronizzazione: ogni thread deve usare la propria
+ * istanza (vedi {@link VectorRace.Torneo.HeatmapCollector}) e le istanze si sommano alla fine
+ * con {@link #merge(TrafficHeatmap)}.
+ */
+public final class TrafficHeatmap {
+
+    /**
+     * Tipi di contatore.
+     */
+    public enum Counter {
+        VISITS, CRASHES, BLOCKED, FINISHES
+    }
+
+    /**
+     * Simboli dell'esportazione a griglia, dal valore più basso (diverso da zero) al più alto.
+     */
+    private static final char[] LEVELS = "123456789".toCharArray();
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Contatori, indicizzati per [tipo][cella].
+     */
+    private final long[][] counts;
+
+    /**
+     * Crea una heatmap vuota per un tracciato delle dimensioni indicate.
+     *
+     * @param width  Larghezza del tracciato.
+     * @param height Altezza del tracciato.
+     */
+    public TrafficHeatmap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.counts = new long[Counter.values().length][width * height];
+    }
+
+    /**
+     * Crea una heatmap vuota per un tracciato.
+     *
+     * @param track Tracciato di riferimento.
+     */
+    public TrafficHeatmap(ITrack track) {
+        this(track.getWidth(), track.getHeight());
+    }
+
+    /**
+     * Registra un turno trascorso nella cella.
+     *
+     * @param cell Indice della cella (y * width + x).
+     */
+    public void visit(int cell) {
+        counts[0][cell]++;
+    }
+
+    /**
+     * Registra un'eliminazione partita dalla cella.
+     *
+     * @param cell Indice della cella di partenza della mossa fatale.
+     */
+    public void crash(int cell) {
+        counts[1][cell]++;
+    }
+
+    /**
+     * Registra una mossa fermata dalla cella occupata.
+     *
+     * @param cell Indice della cella occupata.
+     */
+    public void blocked(int cell) {
+        counts[2][cell]++;
+    }
+
+    /**
+     * Registra un arrivo sulla cella del traguardo.
+     *
+     * @param cell Indice della cella di arrivo.
+     */
+    public void finish(int cell) {
+        counts[3][cell]++;
+    }
+
+    /**
+     * Restituisce il valore di un contatore.
+     *
+     * @param counter Tipo di contatore.
+     * @param x       Coordinata x.
+     * @param y       Coordinata y.
+     * @return Il conteggio della cella.
+     */
+    public long get(Counter counter, int x, int y) {
+        return counts[counter.ordinal()][y * width + x];
+    }
+
+    /**
+     * Somma di un contatore su tutte le celle.
+     *
+     * @param counter Tipo di contatore.
+     * @return Il totale.
+     */
+    public long total(Counter counter) {
+        long sum = 0;
+        for (long c : counts[counter.ordinal()]) {
+            sum += c;
+        }
+        return sum;
+    }
+
+    /**
+     * Somma a questa heatmap i contatori di un'altra (delle stesse dimensioni).
+     *
+     * @param other Heatmap da sommare.
+     */
+    public void merge(TrafficHeatmap other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Heatmap di dimensioni diverse");
+        }
+        for (int k = 0; k < counts.length; k++) {
+            long[] mine = counts[k];
+            long[] theirs = other.counts[k];
+            for (int i = 0; i < mine.length; i++) {
+                mine[i] += theirs[i];
+            }
+        }
+    }
+
+    /**
+     * Esporta un contatore come griglia compatta, un carattere per cella:
+     * '#' per gli ostacoli, '.' per le celle con conteggio zero e '1'..'9' per i livelli
+     * su scala logaritmica rispetto al massimo (9 = le celle più colpite).
+     *
+     * @param counter Tipo di contatore.
+     * @param track   Tracciato (per distinguere gli ostacoli).
+     * @return La griglia, una riga di testo per riga del tracciato.
+     */
+    public String toGrid(Counter counter, ITrack track) {
+        long[] values = counts[counter.ordinal()];
+        long max = 0;
+        for (long v : values) {
+            max = Math.max(max, v);
+        }
+        double scale = Math.log1p(max);
+        KinematicsTable kinematics = KinematicsTable.of(track);
+
+        StringBuilder sb = new StringBuilder((width + 1) * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                long v = values[cell];
+                if (v == 0) {
+                    sb.append(kinematics.cellType(cell) == CellType.OBSTACLE ? '#' : '.');
+                } else {
+                    int level = (int) Math.ceil(Math.log1p(v) / scale * LEVELS.length) - 1;
+                    sb.append(LEVELS[Math.max(0, Math.min(LEVELS.length - 1, level))]);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Scrive i valori esatti di tutti i contatori: per ogni contatore una riga
+     * d'intestazione con il nome seguita da una riga di numeri separati da spazi
+     * per ogni riga del tracciato.
+     *
+     * @param out Destinazione.
+     * @throws IOException In caso di errore di scrittura.
+     */
+    public void write(Writer out) throws IOException {
+        for (Counter counter : Counter.values()) {
+            long[] values = counts[counter.ordinal()];
+            out.write(counter.name() + " " + width + "x" + height + "\n");
+            StringBuilder row = new StringBuilder();
+            for (int y = 0; y < height; y++) {
+                row.setLength(0);
+                for (int x = 0; x < width; x++) {
+                    if (x > 0) {
+                        row.append(' ');
+                    }
+                    row.append(values[y * width + x]);
+                }
+                out.write(row.append('\n').toString());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * @return Larghezza del tracciato.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Altezza del tracciato.
+     */
+    public int getHeight() {
+        return height;
+    }
+}
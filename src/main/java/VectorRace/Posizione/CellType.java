@@ -0,0 +1,55 @@
+package VectorRace.Posizione;
+
+/**
+ * CellType raccoglie le classi di cella usate dalle rappresentazioni compatte
+ * del tracciato (array di byte indicizzati per cella, y * width + x).
+ * <p>
+ * I valori sono costanti primitive, così da poter essere memorizzati
+ * in array e confrontati senza allocazioni.
+ */
+public final class CellType {
+
+    /**
+     * Cella libera percorribile.
+     */
+    public static final byte FREE = 0;
+
+    /**
+     * Cella occupata da un ostacolo ('#').
+     */
+    public static final byte OBSTACLE = 1;
+
+    /**
+     * Cella libera che fa parte del traguardo ('F').
+     */
+    public static final byte FINISH = 2;
+
+    /**
+     * Posizione al di fuori dei limiti del tracciato (trattata come ostacolo).
+     */
+    public static final byte OUT_OF_BOUNDS = 3;
+
+    /**
+     * Insieme delle classi percorribili (FREE e FINISH), come maschera di bit
+     * (bit i acceso per la classe i) da passare a {@link ITrack#cellMask}.
+     */
+    public static final int PASSABLE_CLASSES = (1 << FREE) | (1 << FINISH);
+
+    /**
+     * Insieme delle sole celle di traguardo, come maschera di bit.
+     */
+    public static final int FINISH_CLASSES = 1 << FINISH;
+
+    private CellType() {
+    }
+
+    /**
+     * Indica se una classe di cella può essere occupata da un giocatore.
+     *
+     * @param type Classe della cella.
+     * @return true per FREE e FINISH, false altrimenti.
+     */
+    public static boolean isPassable(byte type) {
+        return type == FREE || type == FINISH;
+    }
+}
@@ -0,0 +1,143 @@
+package VectorRace.Posizione;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DirectionMask raccoglie le operazioni sulle maschere di direzioni a 8 bit:
+ * il bit i-esimo è acceso se la direzione con ordinale i di
+ * {@link VectorDirection.CardinalDirection} (N, NE, E, SE, S, SW, W, NW) è ammessa.
+ * <p>
+ * Le maschere sono semplici int, quindi possono essere calcolate, passate e
+ * interrogate senza allocare liste o iteratori a ogni turno.
+ */
+public final class DirectionMask {
+
+    /**
+     * Maschera con tutte le otto direzioni ammesse.
+     */
+    public static final int ALL = 0xFF;
+
+    /**
+     * Direzioni in ordine di ordinale (copia privata di values(), che alloca a ogni chiamata).
+     */
+    private static final VectorDirection.CardinalDirection[] DIRECTIONS = VectorDirection.CardinalDirection.values();
+
+    /**
+     * Spostamento unitario lungo x per ogni direzione (stessa convenzione di GameEngine).
+     */
+    private static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    /**
+     * Spostamento unitario lungo y per ogni direzione (stessa convenzione di GameEngine).
+     */
+    private static final int[] DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    private DirectionMask() {
+    }
+
+    /**
+     * Restituisce il bit corrispondente a una direzione.
+     *
+     * @param direction Direzione cardinale.
+     * @return Maschera con il solo bit della direzione acceso.
+     */
+    public static int bit(VectorDirection.CardinalDirection direction) {
+        return 1 << direction.ordinal();
+    }
+
+    /**
+     * Indica se la maschera contiene la direzione.
+     *
+     * @param mask      Maschera di direzioni.
+     * @param direction Direzione da cercare.
+     * @return true se la direzione è ammessa.
+     */
+    public static boolean contains(int mask, VectorDirection.CardinalDirection direction) {
+        return (mask & bit(direction)) != 0;
+    }
+
+    /**
+     * Numero di direzioni presenti nella maschera.
+     *
+     * @param mask Maschera di direzioni.
+     * @return Numero di bit accesi.
+     */
+    public static int count(int mask) {
+        return Integer.bitCount(mask & ALL);
+    }
+
+    /**
+     * Restituisce l'ordinale della n-esima direzione (da 0) presente nella maschera,
+     * in ordine di ordinale. Utile per scegliere a caso una direzione ammessa.
+     *
+     * @param mask Maschera di direzioni.
+     * @param n    Indice della direzione tra quelle presenti (0 &lt;= n &lt; count(mask)).
+     * @return Ordinale della direzione.
+     */
+    public static int nth(int mask, int n) {
+        int m = mask & ALL;
+        for (int i = 0; i < n; i++) {
+            m &= m - 1; // spegne il bit meno significativo
+        }
+        return Integer.numberOfTrailingZeros(m);
+    }
+
+    /**
+     * Restituisce la direzione con l'ordinale indicato, senza allocare.
+     *
+     * @param ordinal Ordinale della direzione (0..7).
+     * @return La direzione cardinale.
+     */
+    public static VectorDirection.CardinalDirection direction(int ordinal) {
+        return DIRECTIONS[ordinal];
+    }
+
+    /**
+     * Spostamento lungo x di un passo nella direzione indicata.
+     *
+     * @param ordinal Ordinale della direzione.
+     * @return -1, 0 o +1.
+     */
+    public static int dx(int ordinal) {
+        return DX[ordinal];
+    }
+
+    /**
+     * Spostamento lungo y di un passo nella direzione indicata.
+     *
+     * @param ordinal Ordinale della direzione.
+     * @return -1, 0 o +1.
+     */
+    public static int dy(int ordinal) {
+        return DY[ordinal];
+    }
+
+    /**
+     * Costruisce la maschera a partire da un insieme di direzioni.
+     *
+     * @param directions Direzioni da includere.
+     * @return Maschera corrispondente.
+     */
+    public static int of(Iterable<VectorDirection.CardinalDirection> directions) {
+        int mask = 0;
+        for (VectorDirection.CardinalDirection dir : directions) {
+            mask |= bit(dir);
+        }
+        return mask;
+    }
+
+    /**
+     * Converte la maschera in una lista di direzioni, in ordine di ordinale.
+     *
+     * @param mask Maschera di direzioni.
+     * @return Nuova lista con le direzioni presenti.
+     */
+    public static List<VectorDirection.CardinalDirection> toList(int mask) {
+        List<VectorDirection.CardinalDirection> list = new ArrayList<>(count(mask));
+        for (int m = mask & ALL; m != 0; m &= m - 1) {
+            list.add(DIRECTIONS[Integer.numberOfTrailingZeros(m)]);
+        }
+        return list;
+    }
+}
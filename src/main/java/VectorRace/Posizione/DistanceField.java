@@ -0,0 +1,266 @@
+package VectorRace.Posizione;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * DistanceField contiene, per ogni cella del tracciato, la distanza minima in passi
+ * (vicinato a 8, aggirando gli ostacoli) dalla cella più vicina del traguardo,
+ * tra tutte quelle restituite da {@link ITrack#getAllFinishPositions()}.
+ * <p>
+ * Il campo si calcola una sola volta per tracciato con una visita in ampiezza che parte
+ * contemporaneamente da tutte le celle del traguardo, ed è memorizzato in un array di int
+ * indicizzato per cella come {@link KinematicsTable}: la distanza di una cella costa una
+ * lettura. Un passo diagonale costa quanto uno dritto, come uno spostamento nel motore.
+ * Le celle non percorribili o da cui il traguardo non è raggiungibile valgono {@link #UNREACHABLE}.
+ * <p>
+ * Si ottiene con {@link #of(ITrack)}, che lo conserva tra i dati derivati del tracciato, oppure
+ * con {@link #of(ITrack, Path)}, che lo legge da (o lo salva in) un file accanto al tracciato.
+ * È immutabile e può essere condiviso tra thread.
+ */
+public final class DistanceField {
+
+    /**
+     * Distanza delle celle non percorribili o da cui il traguardo non è raggiungibile.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * Estensione del file salvato accanto al tracciato.
+     */
+    public static final String FILE_EXTENSION = ".dist";
+
+    private static final int MAGIC = 0x56524446; // "VRDF"
+    private static final int VERSION = 1;
+
+    /**
+     * Dimensione dell'intestazione del file (magic, versione, dimensioni, checksum).
+     */
+    private static final int HEADER_BYTES = 24;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Checksum delle classi delle celle, per riconoscere un file di un altro tracciato.
+     */
+    private final long checksum;
+    private final int[] distances;
+
+    private DistanceField(int width, int height, long checksum, int[] distances) {
+        this.width = width;
+        this.height = height;
+        this.checksum = checksum;
+        this.distances = distances;
+    }
+
+    /**
+     * Restituisce il campo del tracciato, calcolandolo solo la prima volta
+     * (per Track e ImmutableTrack viene conservato tra i dati derivati).
+     *
+     * @param track Tracciato di riferimento.
+     * @return Il campo delle distanze dal traguardo.
+     */
+    public static DistanceField of(ITrack track) {
+        return track.getDerived(DistanceField.class, DistanceField::compute);
+    }
+
+    /**
+     * Restituisce il campo del tracciato leggendolo dal file indicato se esiste ed è
+     * dello stesso tracciato; altrimenti lo calcola e lo salva nel file per le esecuzioni successive.
+     *
+     * @param track Tracciato di riferimento.
+     * @param file  File del campo, di solito {@link #fileFor(Path)} del file del tracciato.
+     * @return Il campo delle distanze dal traguardo.
+     * @throws IOException Se il campo calcolato non può essere salvato.
+     */
+    public static DistanceField of(ITrack track, Path file) throws IOException {
+        DistanceField field = track.getDerived(DistanceField.class, t -> {
+            if (isStored(file, t.getWidth(), t.getHeight(), checksum(KinematicsTable.of(t)))) {
+                try {
+                    return read(file);
+                } catch (IOException e) {
+                    // File danneggiato: si ricalcola
+                }
+            }
+            return compute(t);
+        });
+        if (!isStored(file, field.width, field.height, field.checksum)) {
+            field.save(file);
+        }
+        return field;
+    }
+
+    /**
+     * Nome del file del campo accanto al file di un tracciato.
+     *
+     * @param trackFile File del tracciato.
+     * @return Il file del campo (stesso nome con estensione {@link #FILE_EXTENSION}).
+     */
+    public static Path fileFor(Path trackFile) {
+        return trackFile.resolveSibling(trackFile.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Distanza dal traguardo di una cella.
+     *
+     * @param cell Indice della cella (y * width + x).
+     * @return Numero minimo di passi fino al traguardo, o {@link #UNREACHABLE}.
+     */
+    public int distance(int cell) {
+        return distances[cell];
+    }
+
+    /**
+     * Distanza dal traguardo di una cella; le celle fuori dai confini sono irraggiungibili.
+     *
+     * @param x Colonna.
+     * @param y Riga.
+     * @return Numero minimo di passi fino al traguardo, o {@link #UNREACHABLE}.
+     */
+    public int distanceAt(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return UNREACHABLE;
+        }
+        return distances[y * width + x];
+    }
+
+    /**
+     * Distanza dal traguardo di una posizione.
+     *
+     * @param position Posizione da valutare.
+     * @return Numero minimo di passi fino al traguardo, o {@link #UNREACHABLE}.
+     */
+    public int distance(Position position) {
+        return distanceAt(position.getX(), position.getY());
+    }
+
+    /**
+     * @return La larghezza del tracciato.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return L'altezza del tracciato.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Salva il campo in un file (scrittura su file temporaneo e spostamento atomico, o
+     * semplice sostituzione sui file system che non lo supportano).
+     *
+     * @param file File di destinazione.
+     * @throws IOException In caso di errore di scrittura.
+     */
+    public void save(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeLong(checksum);
+            for (int d : distances) {
+                out.writeInt(d);
+            }
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Verifica, leggendo solo l'intestazione, che il file contenga il campo di un tracciato
+     * con le dimensioni e il checksum indicati.
+     */
+    private static boolean isStored(Path file, int width, int height, long checksum) {
+        if (!Files.isReadable(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), HEADER_BYTES))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION && in.readInt() == width
+                    && in.readInt() == height && in.readLong() == checksum
+                    && Files.size(file) == HEADER_BYTES + (long) width * height * Integer.BYTES;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static DistanceField read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Formato non valido: " + file);
+            }
+            int width = in.readInt();
+            int height = in.readInt();
+            long checksum = in.readLong();
+            if (width <= 0 || height <= 0 || Files.size(file) != HEADER_BYTES + (long) width * height * Integer.BYTES) {
+                throw new IOException("Dimensioni non valide: " + width + "x" + height);
+            }
+            int[] distances = new int[width * height];
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = in.readInt();
+            }
+            return new DistanceField(width, height, checksum, distances);
+        }
+    }
+
+    /**
+     * Visita in ampiezza a più sorgenti: tutte le celle del traguardo partono a distanza 0.
+     */
+    private static DistanceField compute(ITrack track) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int width = track.getWidth();
+        int height = track.getHeight();
+        int[] distances = new int[width * height];
+        Arrays.fill(distances, UNREACHABLE);
+
+        // Coda in un array di int: ogni cella entra al massimo una volta
+        int[] queue = new int[distances.length];
+        int head = 0;
+        int tail = 0;
+        for (Position finish : track.getAllFinishPositions()) {
+            int cell = kinematics.index(finish);
+            if (distances[cell] == UNREACHABLE && CellType.isPassable(kinematics.cellType(cell))) {
+                distances[cell] = 0;
+                queue[tail++] = cell;
+            }
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distances[cell] + 1;
+            for (int m = kinematics.passableMask(cell, 1); m != 0; m &= m - 1) {
+                int neighbour = kinematics.destination(cell, Integer.numberOfTrailingZeros(m), 1);
+                if (distances[neighbour] == UNREACHABLE) {
+                    distances[neighbour] = next;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return new DistanceField(width, height, checksum(kinematics), distances);
+    }
+
+    private static long checksum(KinematicsTable kinematics) {
+        CRC32 crc = new CRC32();
+        int cells = kinematics.getWidth() * kinematics.getHeight();
+        for (int cell = 0; cell < cells; cell++) {
+            crc.update(kinematics.cellType(cell));
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,224 @@
+package VectorRace.Posizione;
+
+import java.util.Arrays;
+
+/**
+ * FinishLineIndex indicizza le celle del traguardo per rilevare in tempo logaritmico se un
+ * movimento in linea retta attraversa il traguardo, anche quando la cella di atterraggio
+ * lo supera (a velocità 3 si può scavalcare una linea larga una cella).
+ * <p>
+ * Le celle del traguardo sono raggruppate in intervalli di celle consecutive lungo quattro
+ * famiglie di linee: righe, colonne, diagonali (x - y costante) e antidiagonali (x + y costante).
+ * Per ogni linea gli intervalli sono ordinati in array di int, quindi un movimento in una
+ * delle 8 direzioni si controlla con una ricerca binaria sulla sua linea, qualunque sia la
+ * lunghezza del passo.
+ * <p>
+ * Si ottiene con {@link #of(ITrack)}, che lo conserva tra i dati derivati del tracciato.
+ * È immutabile e può essere condiviso tra thread.
+ */
+public final class FinishLineIndex {
+
+    private static final int ROWS = 0;
+    private static final int COLUMNS = 1;
+    private static final int DIAGONALS = 2;
+    private static final int ANTI_DIAGONALS = 3;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Per ogni famiglia, l'indice del primo intervallo di ogni linea (più uno finale).
+     */
+    private final int[][] offsets = new int[4][];
+
+    /**
+     * Per ogni famiglia, inizio e fine (inclusi) degli intervalli, linea per linea.
+     * Lungo le righe la coordinata è x, lungo le altre linee è y.
+     */
+    private final int[][] starts = new int[4][];
+    private final int[][] ends = new int[4][];
+
+    private final int finishCells;
+
+    /**
+     * Costruisce l'indice per un tracciato.
+     *
+     * @param track Tracciato di riferimento.
+     */
+    public FinishLineIndex(ITrack track) {
+        this.width = track.getWidth();
+        this.height = track.getHeight();
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int count = 0;
+        for (int cell = 0; cell < width * height; cell++) {
+            if (kinematics.cellType(cell) == CellType.FINISH) {
+                count++;
+            }
+        }
+        this.finishCells = count;
+        for (int family = 0; family < 4; family++) {
+            build(kinematics, family);
+        }
+    }
+
+    /**
+     * Restituisce l'indice del tracciato, calcolandolo solo la prima volta
+     * (per Track e ImmutableTrack viene conservato tra i dati derivati).
+     *
+     * @param track Tracciato di riferimento.
+     * @return L'indice del traguardo del tracciato.
+     */
+    public static FinishLineIndex of(ITrack track) {
+        return track.getDerived(FinishLineIndex.class, FinishLineIndex::new);
+    }
+
+    /**
+     * Cerca la prima cella del traguardo attraversata da un movimento in linea retta.
+     *
+     * @param x    Colonna di partenza.
+     * @param y    Riga di partenza.
+     * @param dir  Ordinale della direzione ({@link DirectionMask}).
+     * @param step Numero di celle percorse.
+     * @return Il numero di passi (1..step) fino alla prima cella del traguardo attraversata,
+     * o 0 se il movimento non attraversa il traguardo (la partenza non conta).
+     */
+    public int crossing(int x, int y, int dir, int step) {
+        if (step <= 0 || finishCells == 0) {
+            return 0;
+        }
+        int dx = DirectionMask.dx(dir);
+        int dy = DirectionMask.dy(dir);
+        int family;
+        int line;
+        int along;
+        int sign;
+        if (dy == 0) {
+            family = ROWS;
+            line = y;
+            along = x;
+            sign = dx;
+        } else if (dx == 0) {
+            family = COLUMNS;
+            line = x;
+            along = y;
+            sign = dy;
+        } else if (dx == dy) {
+            family = DIAGONALS;
+            line = x - y + height - 1;
+            along = y;
+            sign = dy;
+        } else {
+            family = ANTI_DIAGONALS;
+            line = x + y;
+            along = y;
+            sign = dy;
+        }
+        int[] offset = offsets[family];
+        if (line < 0 || line >= offset.length - 1) {
+            return 0;
+        }
+        int from = offset[line];
+        int to = offset[line + 1];
+        if (from == to) {
+            return 0;
+        }
+        int[] s = starts[family];
+        int[] e = ends[family];
+        if (sign > 0) {
+            // Primo intervallo che finisce dopo la partenza
+            int low = along + 1;
+            int i = lowerBound(e, from, to, low);
+            if (i < to && s[i] <= along + step) {
+                return Math.max(s[i], low) - along;
+            }
+        } else {
+            // Ultimo intervallo che inizia prima della partenza
+            int high = along - 1;
+            int i = lowerBound(s, from, to, high + 1) - 1;
+            if (i >= from && e[i] >= along - step) {
+                return along - Math.min(e[i], high);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Il numero di celle del traguardo.
+     */
+    public int getFinishCells() {
+        return finishCells;
+    }
+
+    /**
+     * Primo indice in [from, to) con values[i] &gt;= key (i valori sono ordinati), o to.
+     */
+    private static int lowerBound(int[] values, int from, int to, int key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Raccoglie gli intervalli di una famiglia di linee. Le celle vengono visitate per righe,
+     * quindi lungo ogni linea la coordinata (x per le righe, y per le altre) cresce.
+     */
+    private void build(KinematicsTable kinematics, int family) {
+        int lines = (family == ROWS) ? height : (family == COLUMNS) ? width : width + height - 1;
+        int[] lineOf = new int[finishCells];
+        int[] alongOf = new int[finishCells];
+        int[] perLine = new int[lines + 1];
+        int n = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (kinematics.cellType(y * width + x) != CellType.FINISH) {
+                    continue;
+                }
+                int line = (family == ROWS) ? y : (family == COLUMNS) ? x
+                        : (family == DIAGONALS) ? x - y + height - 1 : x + y;
+                lineOf[n] = line;
+                alongOf[n] = (family == ROWS) ? x : y;
+                perLine[line + 1]++;
+                n++;
+            }
+        }
+        // Ordinamento per linea (counting sort stabile: l'ordine lungo la linea si conserva)
+        for (int i = 0; i < lines; i++) {
+            perLine[i + 1] += perLine[i];
+        }
+        int[] sorted = new int[n];
+        int[] next = Arrays.copyOf(perLine, lines);
+        for (int i = 0; i < n; i++) {
+            sorted[next[lineOf[i]]++] = alongOf[i];
+        }
+
+        int[] offset = new int[lines + 1];
+        int[] s = new int[n];
+        int[] e = new int[n];
+        int runs = 0;
+        for (int line = 0; line < lines; line++) {
+            offset[line] = runs;
+            for (int i = perLine[line]; i < perLine[line + 1]; i++) {
+                int a = sorted[i];
+                if (runs > offset[line] && e[runs - 1] == a - 1) {
+                    e[runs - 1] = a;
+                } else {
+                    s[runs] = a;
+                    e[runs] = a;
+                    runs++;
+                }
+            }
+        }
+        offset[lines] = runs;
+        offsets[family] = offset;
+        starts[family] = Arrays.copyOf(s, runs);
+        ends[family] = Arrays.copyOf(e, runs);
+    }
+}
@@ -2,28 +2,24 @@ package VectorRace.Posizione;
 
 import VectorRace.Posizione.Position;
 
-import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * L'interfaccia ITrack definisce i metodi fondamentali per interagire
  * con un tracciato di gioco (mappa) in VectorRace.
  * <p>
- * Un'implementazione di ITrack pu rappresentare il tracciato in vari modi
+ * Un'implementazione di ITrack può rappresentare il tracciato in vari modi
  * (array bidimensionale, lista di liste, file, ecc.),
- * purch fornisca le operazioni richieste.
+ * purché fornisca le operazioni richieste.
+ * <p>
+ * L'interfaccia è di sola lettura: il caricamento da file appartiene alle implementazioni
+ * ricaricabili ({@link Track#loadFromFile(String)}), mentre i tracciati condivisi si
+ * ottengono da {@link TrackRegistry}.
  */
 public interface ITrack {
 
-    /**
-     * Carica i dati del tracciato da un file esterno.
-     * Il formato del file e le modalit di parsing
-     * possono variare nelle diverse implementazioni concrete.
-     *
-     * @param filename Nome o percorso del file da cui caricare il tracciato.
-     * @throws IOException Se si verifica un errore di lettura del file.
-     */
-    void loadFromFile(String filename) throws IOException;
-
     /**
      * Restituisce il carattere che rappresenta la cella
      * in una determinata posizione (es. '.', '#', ecc.).
@@ -34,16 +30,91 @@ public interface ITrack {
     char getCell(Position position);
 
     /**
-     * Indica se la cella a una certa posizione  libera
-     * (cio non contiene ostacoli n altri elementi bloccanti).
+     * Indica se la cella a una certa posizione è libera
+     * (cioè non contiene ostacoli né altri elementi bloccanti).
+     * Le celle di partenza e di traguardo sono libere; le celle fuori dai limiti no.
      *
      * @param position Posizione da verificare.
-     * @return true se la cella  libera, false altrimenti.
+     * @return true se la cella è libera, false altrimenti.
      */
     boolean isFree(Position position);
 
     /**
-     * Indica se la cella a una certa posizione  un ostacolo.
+     * Variante di {@link #isFree(Position)} che riceve direttamente le coordinate,
+     * per i controlli ripetuti a ogni turno senza allocare una {@link Position}.
+     * L'implementazione di default delega a isFree(Position).
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella è libera, false altrimenti.
+     */
+    default boolean isFree(int x, int y) {
+        return isFree(new Position(x, y));
+    }
+
+    /**
+     * Restituisce la classe della cella alle coordinate indicate ({@link CellType}).
+     * L'implementazione di default si basa su {@link #isFree(int, int)} e {@link #isFinish(Position)}.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Uno dei valori di {@link CellType} (OUT_OF_BOUNDS se fuori dai limiti).
+     */
+    default byte getCellType(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            return CellType.OUT_OF_BOUNDS;
+        }
+        if (!isFree(x, y)) {
+            return CellType.OBSTACLE;
+        }
+        return isFinish(new Position(x, y)) ? CellType.FINISH : CellType.FREE;
+    }
+
+    /**
+     * Interroga a blocchi le classi di più celle: per ogni i tra 0 e count - 1 scrive in
+     * types[i] la classe della cella di coordinate packed[offset + i] ({@link PackedPosition}).
+     * <p>
+     * L'implementazione di default interroga una cella alla volta con {@link #getCellType(int, int)};
+     * le implementazioni con una griglia in memoria la ridefiniscono con un unico ciclo sull'array.
+     *
+     * @param packed Coordinate impacchettate.
+     * @param offset Indice della prima coordinata da interrogare.
+     * @param count  Numero di celle da interrogare.
+     * @param types  Destinazione delle classi (almeno count elementi).
+     */
+    default void getCellTypes(int[] packed, int offset, int count, byte[] types) {
+        for (int i = 0; i < count; i++) {
+            int p = packed[offset + i];
+            types[i] = getCellType(PackedPosition.x(p), PackedPosition.y(p));
+        }
+    }
+
+    /**
+     * Interroga a blocchi fino a 64 celle e restituisce quali appartengono a un insieme di classi:
+     * il bit i del risultato è acceso se la classe della cella packed[offset + i] è nell'insieme.
+     *
+     * @param packed  Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset  Indice della prima coordinata da interrogare.
+     * @param count   Numero di celle da interrogare (al massimo 64).
+     * @param classes Insieme di classi come maschera di bit, es. {@link CellType#PASSABLE_CLASSES}.
+     * @return La maschera delle celle con una classe dell'insieme.
+     */
+    default long cellMask(int[] packed, int offset, int count, int classes) {
+        if (count > Long.SIZE) {
+            throw new IllegalArgumentException("Al massimo " + Long.SIZE + " celle per maschera: " + count);
+        }
+        long mask = 0;
+        for (int i = 0; i < count; i++) {
+            int p = packed[offset + i];
+            if ((classes & (1 << getCellType(PackedPosition.x(p), PackedPosition.y(p)))) != 0) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Indica se la cella a una certa posizione è un ostacolo.
      *
      * @param position Posizione da verificare.
      * @return true se la cella corrisponde a un ostacolo, false altrimenti.
@@ -54,14 +125,14 @@ public interface ITrack {
      * Indica se la cella a una certa posizione corrisponde al traguardo.
      *
      * @param position Posizione da verificare.
-     * @return true se la cella  parte del traguardo, false altrimenti.
+     * @return true se la cella è parte del traguardo, false altrimenti.
      */
     boolean isFinish(Position position);
 
     /**
      * Restituisce una posizione di partenza valida sul tracciato.
-     * Nelle implementazioni che prevedono pi posizioni di start,
-     * si pu restituire la prima posizione disponibile,
+     * Nelle implementazioni che prevedono più posizioni di start,
+     * si può restituire la prima posizione disponibile,
      * oppure una posizione predefinita.
      *
      * @return Una {@link Position} di start.
@@ -70,7 +141,7 @@ public interface ITrack {
 
     /**
      * Restituisce una posizione di traguardo se presente,
-     * altrimenti pu restituire null o sollevare un'eccezione.
+     * altrimenti può restituire null o sollevare un'eccezione.
      *
      * @return Una {@link Position} di finish (se presente),
      *         altrimenti null.
@@ -90,5 +161,42 @@ public interface ITrack {
      * @return Valore intero che rappresenta l'altezza.
      */
     int getHeight();
-}
 
+    /**
+     * Restituisce tutte le posizioni di partenza del tracciato.
+     * L'implementazione di default si basa su {@link #getStartPosition()}.
+     *
+     * @return Lista (eventualmente vuota) delle posizioni di partenza.
+     */
+    default List<Position> getAllStartPositions() {
+        Position start = getStartPosition();
+        return (start == null) ? Collections.emptyList() : Collections.singletonList(start);
+    }
+
+    /**
+     * Restituisce tutte le posizioni di traguardo del tracciato.
+     * L'implementazione di default si basa su {@link #getFinishPosition()}.
+     *
+     * @return Lista (eventualmente vuota) delle posizioni di traguardo.
+     */
+    default List<Position> getAllFinishPositions() {
+        Position finish = getFinishPosition();
+        return (finish == null) ? Collections.emptyList() : Collections.singletonList(finish);
+    }
+
+    /**
+     * Restituisce un dato derivato dal tracciato (tabelle precalcolate, campi di distanza, ecc.),
+     * calcolandolo con la factory indicata.
+     * <p>
+     * Le implementazioni che conservano una cache restituiscono sempre la stessa istanza
+     * per la stessa chiave; l'implementazione di default ricalcola il dato a ogni chiamata.
+     *
+     * @param key     Chiave che identifica il dato derivato.
+     * @param factory Funzione che calcola il dato a partire dal tracciato.
+     * @param <T>     Tipo del dato derivato.
+     * @return Il dato derivato.
+     */
+    default <T> T getDerived(Object key, Function<? super ITrack, T> factory) {
+        return factory.apply(this);
+    }
+}
@@ -0,0 +1,372 @@
+package VectorRace.Posizione;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * ImmutableTrack è una rappresentazione immutabile e thread-safe di un tracciato.
+ * <p>
+ * La griglia è memorizzata in un unico array di byte indicizzato per cella
+ * (y * width + x) con i valori di {@link CellType}; partenze, traguardi e analisi
+ * di raggiungibilità sono fissati alla costruzione. Una stessa istanza può quindi
+ * essere condivisa da tutti i motori, le plance e i bot, anche su thread diversi
+ * (vedi {@link TrackRegistry}).
+ * <p>
+ * Oltre ai dati del tracciato, l'istanza conserva i dati derivati precalcolati
+ * richiesti tramite {@link #getDerived(Object, Function)}, in modo che vengano
+ * calcolati una sola volta per tracciato.
+ */
+public final class ImmutableTrack implements ITrack {
+
+    /**
+     * Larghezza del tracciato (numero di colonne).
+     */
+    private final int width;
+
+    /**
+     * Altezza del tracciato (numero di righe).
+     */
+    private final int height;
+
+    /**
+     * Classe di ogni cella ({@link CellType}), indicizzata come y * width + x.
+     */
+    private final byte[] cells;
+
+    /**
+     * Posizioni di partenza, nell'ordine del file.
+     */
+    private final List<Position> startPositions;
+
+    /**
+     * Posizioni di traguardo, nell'ordine del file.
+     */
+    private final List<Position> finishPositions;
+
+    /**
+     * Analisi di raggiungibilità del tracciato.
+     */
+    private final TrackAnalysis analysis;
+
+    /**
+     * Hash del contenuto testuale del tracciato (SHA-256 esadecimale).
+     */
+    private final String contentHash;
+
+    /**
+     * Cache dei dati derivati (tabelle precalcolate, campi di distanza, ecc.).
+     */
+    private final Map<Object, Object> derived = new ConcurrentHashMap<>();
+
+    private ImmutableTrack(int width, int height, byte[] cells, List<Position> startPositions,
+                           List<Position> finishPositions, TrackAnalysis analysis, String contentHash) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+        this.startPositions = startPositions;
+        this.finishPositions = finishPositions;
+        this.analysis = analysis;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Crea una copia immutabile di un tracciato già caricato.
+     *
+     * @param track       Tracciato sorgente.
+     * @param contentHash Hash del contenuto da cui il tracciato è stato caricato.
+     * @return Una nuova istanza immutabile con lo stesso contenuto.
+     */
+    public static ImmutableTrack copyOf(Track track, String contentHash) {
+        int width = track.getWidth();
+        int height = track.getHeight();
+        byte[] cells = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Position pos = new Position(x, y);
+                cells[y * width + x] = track.isObstacle(pos) ? CellType.OBSTACLE : CellType.FREE;
+            }
+        }
+        for (Position finish : track.getAllFinishPositions()) {
+            cells[finish.getY() * width + finish.getX()] = CellType.FINISH;
+        }
+
+        TrackAnalysis analysis = track.getAnalysis();
+        if (analysis == null) {
+            analysis = TrackAnalysis.analyze(track, track.getAllStartPositions(), track.getAllFinishPositions());
+        }
+        return new ImmutableTrack(width, height, cells,
+                copyPositions(track.getAllStartPositions()),
+                copyPositions(track.getAllFinishPositions()),
+                analysis, contentHash);
+    }
+
+    /**
+     * Crea un tracciato immutabile direttamente dalle classi di cella, senza passare
+     * dal formato testuale (usato ad esempio da {@link TrackGenerator}).
+     * L'array delle celle viene adottato senza copia e non deve più essere modificato.
+     *
+     * @param width       Larghezza del tracciato.
+     * @param height      Altezza del tracciato.
+     * @param cells       Classi di cella ({@link CellType}) indicizzate come y * width + x.
+     * @param starts      Posizioni di partenza.
+     * @param finishes    Posizioni di traguardo (devono corrispondere a celle FINISH).
+     * @param contentHash Hash del contenuto testuale equivalente.
+     * @return Il nuovo tracciato, già analizzato.
+     * @throws IllegalArgumentException Se i traguardi non corrispondono esattamente alle celle FINISH
+     *                                  o se il tracciato non è giocabile (vedi {@link TrackAnalysis#isValid()}).
+     */
+    public static ImmutableTrack of(int width, int height, byte[] cells, List<Position> starts,
+                                    List<Position> finishes, String contentHash) {
+        checkFinishes(width, height, cells, finishes);
+        List<Position> startCopy = copyPositions(starts);
+        List<Position> finishCopy = copyPositions(finishes);
+        // L'analisi ha bisogno di un ITrack: la calcoliamo su un'istanza provvisoria
+        // che condivide gli stessi array.
+        ImmutableTrack unanalyzed = new ImmutableTrack(width, height, cells, startCopy, finishCopy, null, contentHash);
+        TrackAnalysis analysis = TrackAnalysis.analyze(unanalyzed, startCopy, finishCopy);
+        if (!analysis.isValid()) {
+            throw new IllegalArgumentException("Tracciato non valido: " + String.join(" ", analysis.getProblems()));
+        }
+        return new ImmutableTrack(width, height, cells, startCopy, finishCopy, analysis, contentHash);
+    }
+
+    /**
+     * Verifica che l'elenco dei traguardi contenga, senza ripetizioni, tutte e sole le celle
+     * FINISH della griglia: altrimenti l'analisi e {@link #isFinish(Position)} vedrebbero
+     * traguardi diversi.
+     */
+    private static void checkFinishes(int width, int height, byte[] cells, List<Position> finishes) {
+        boolean[] listed = new boolean[cells.length];
+        for (Position f : finishes) {
+            int x = f.getX();
+            int y = f.getY();
+            if (x < 0 || x >= width || y < 0 || y >= height || cells[y * width + x] != CellType.FINISH) {
+                throw new IllegalArgumentException("Traguardo " + f + " su una cella che non è FINISH.");
+            }
+            if (listed[y * width + x]) {
+                throw new IllegalArgumentException("Traguardo " + f + " ripetuto.");
+            }
+            listed[y * width + x] = true;
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == CellType.FINISH && !listed[cell]) {
+                throw new IllegalArgumentException("Cella FINISH (" + cell % width + ", " + cell / width
+                        + ") assente dall'elenco dei traguardi.");
+            }
+        }
+    }
+
+    /**
+     * Restituisce '#' per ostacoli e celle fuori dai limiti, '.' altrimenti
+     * (anche le celle di traguardo sono libere, come in {@link Track}).
+     *
+     * @param position Posizione da interrogare.
+     * @return Il carattere della cella.
+     */
+    @Override
+    public char getCell(Position position) {
+        return CellType.isPassable(getCellType(position.getX(), position.getY())) ? '.' : '#';
+    }
+
+    /**
+     * Indica se la cella è percorribile (libera, partenza o traguardo), come {@link Track#isFree(Position)}.
+     *
+     * @param position Posizione da controllare.
+     * @return true se la cella è libera, false altrimenti.
+     */
+    @Override
+    public boolean isFree(Position position) {
+        return CellType.isPassable(getCellType(position.getX(), position.getY()));
+    }
+
+    /**
+     * Indica se la cella alle coordinate indicate è percorribile, senza allocazioni.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella è libera o traguardo, false altrimenti.
+     */
+    @Override
+    public boolean isFree(int x, int y) {
+        return CellType.isPassable(getCellType(x, y));
+    }
+
+    /**
+     * Indica se la cella è un ostacolo o è fuori dai limiti del tracciato.
+     *
+     * @param position Posizione da controllare.
+     * @return true se la cella è un ostacolo, false altrimenti.
+     */
+    @Override
+    public boolean isObstacle(Position position) {
+        return !isFree(position);
+    }
+
+    /**
+     * Indica se la cella fa parte del traguardo, con un accesso diretto all'array delle celle.
+     *
+     * @param position Posizione da controllare.
+     * @return true se la cella è un traguardo, false altrimenti.
+     */
+    @Override
+    public boolean isFinish(Position position) {
+        return getCellType(position.getX(), position.getY()) == CellType.FINISH;
+    }
+
+    /**
+     * Restituisce la classe della cella alle coordinate indicate.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Uno dei valori di {@link CellType} (OUT_OF_BOUNDS se fuori dai limiti).
+     */
+    @Override
+    public byte getCellType(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return CellType.OUT_OF_BOUNDS;
+        }
+        return cells[y * width + x];
+    }
+
+    /**
+     * Interroga a blocchi le classi di più celle con un unico ciclo sull'array delle celle.
+     *
+     * @param packed Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset Indice della prima coordinata da interrogare.
+     * @param count  Numero di celle da interrogare.
+     * @param types  Destinazione delle classi (almeno count elementi).
+     */
+    @Override
+    public void getCellTypes(int[] packed, int offset, int count, byte[] types) {
+        Track.cellTypes(cells, width, height, packed, offset, count, types);
+    }
+
+    /**
+     * Interroga a blocchi fino a 64 celle con un unico ciclo sull'array delle celle.
+     *
+     * @param packed  Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset  Indice della prima coordinata da interrogare.
+     * @param count   Numero di celle da interrogare (al massimo 64).
+     * @param classes Insieme di classi come maschera di bit.
+     * @return La maschera delle celle con una classe dell'insieme.
+     */
+    @Override
+    public long cellMask(int[] packed, int offset, int count, int classes) {
+        return Track.cellMask(cells, width, height, packed, offset, count, classes);
+    }
+
+    /**
+     * Restituisce la prima posizione di partenza.
+     *
+     * @return {@link Position} di start o null se non ce ne sono.
+     */
+    @Override
+    public Position getStartPosition() {
+        return startPositions.isEmpty() ? null : startPositions.get(0);
+    }
+
+    /**
+     * Restituisce la prima posizione di traguardo.
+     *
+     * @return {@link Position} di finish o null se non ce ne sono.
+     */
+    @Override
+    public Position getFinishPosition() {
+        return finishPositions.isEmpty() ? null : finishPositions.get(0);
+    }
+
+    /**
+     * Restituisce tutte le posizioni di partenza.
+     *
+     * @return Lista non modificabile delle posizioni di partenza.
+     */
+    @Override
+    public List<Position> getAllStartPositions() {
+        return startPositions;
+    }
+
+    /**
+     * Restituisce tutte le posizioni di traguardo.
+     *
+     * @return Lista non modificabile delle posizioni di traguardo.
+     */
+    @Override
+    public List<Position> getAllFinishPositions() {
+        return finishPositions;
+    }
+
+    /**
+     * Restituisce la larghezza del tracciato (numero di colonne).
+     *
+     * @return Valore intero che rappresenta la larghezza.
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Restituisce l'altezza del tracciato (numero di righe).
+     *
+     * @return Valore intero che rappresenta l'altezza.
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Restituisce l'analisi di raggiungibilità del tracciato.
+     *
+     * @return {@link TrackAnalysis} calcolata al caricamento.
+     */
+    public TrackAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Restituisce l'hash del contenuto da cui il tracciato è stato caricato.
+     *
+     * @return Hash SHA-256 in esadecimale.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Restituisce un dato derivato dal tracciato, calcolandolo alla prima richiesta.
+     * Il dato resta associato all'istanza condivisa, quindi viene calcolato una sola volta
+     * per tutti i motori e i bot che usano questo tracciato.
+     *
+     * @param key     Chiave che identifica il dato derivato.
+     * @param factory Funzione che calcola il dato a partire dal tracciato.
+     * @param <T>     Tipo del dato derivato.
+     * @return Il dato derivato (sempre la stessa istanza per la stessa chiave).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getDerived(Object key, Function<? super ITrack, T> factory) {
+        Object value = derived.get(key);
+        if (value == null) {
+            // Niente computeIfAbsent: la factory può a sua volta richiedere altri dati derivati
+            value = factory.apply(this);
+            Object previous = derived.putIfAbsent(key, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        return (T) value;
+    }
+
+    private static List<Position> copyPositions(List<Position> positions) {
+        List<Position> copy = new ArrayList<>(positions.size());
+        for (Position p : positions) {
+            copy.add(new Position(p.getX(), p.getY()));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+}
@@ -0,0 +1,235 @@
+package VectorRace.Posizione;
+
+/**
+ * KinematicsTable precalcola, una sola volta per tracciato, l'esito di ogni mossa:
+ * per ogni cella, per ognuna delle 8 direzioni e per ogni velocità da 0 a {@link #MAX_SPEED}
+ * memorizza la classe della cella di atterraggio ({@link CellType}: libera, ostacolo,
+ * traguardo o fuori dai limiti).
+ * <p>
+ * Le celle sono identificate da un indice intero (y * width + x). L'indice della cella
+ * di destinazione si ottiene con una somma (cella + spostamento precalcolato per direzione
+ * e velocità), quindi valutare una mossa costa una lettura di tabella e non alloca
+ * alcuna {@link Position}. Per ogni cella e velocità è inoltre disponibile la maschera
+ * ({@link DirectionMask}) delle direzioni con atterraggio percorribile.
+ * La tabella occupa 37 byte per cella: 1 per la classe della cella, 8 x {@code MAX_SPEED + 1} = 32
+ * per gli esiti delle mosse e {@code MAX_SPEED + 1} = 4 per le maschere.
+ * <p>
+ * Si ottiene con {@link #of(ITrack)}, che la conserva tra i dati derivati del tracciato.
+ * È immutabile e può essere condivisa tra thread.
+ */
+public final class KinematicsTable {
+
+    /**
+     * Velocità massima (e quindi passo massimo) considerata, come in GameEngine.
+     */
+    public static final int MAX_SPEED = 3;
+
+    /**
+     * Numero di velocità memorizzate per direzione (da 0 a MAX_SPEED).
+     */
+    private static final int SPEEDS = MAX_SPEED + 1;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Classe di ogni cella del tracciato, indicizzata per cella.
+     */
+    private final byte[] cells;
+
+    /**
+     * Esito di ogni mossa, indicizzato per ((cella * 8 + direzione) * SPEEDS + velocità).
+     */
+    private final byte[] outcomes;
+
+    /**
+     * Maschera delle direzioni con atterraggio percorribile, indicizzata per (cella * SPEEDS + velocità).
+     */
+    private final byte[] passableMasks;
+
+    /**
+     * Spostamento dell'indice di cella per ogni (direzione * SPEEDS + velocità).
+     */
+    private final int[] deltas = new int[8 * SPEEDS];
+
+    /**
+     * Costruisce la tabella per un tracciato.
+     *
+     * @param track Tracciato di riferimento.
+     */
+    public KinematicsTable(ITrack track) {
+        this.width = track.getWidth();
+        this.height = track.getHeight();
+        this.cells = new byte[width * height];
+
+        // Copia le classi delle celle per coordinate: le interrogazioni a blocchi usano
+        // coordinate a 16 bit (PackedPosition) e non coprirebbero i tracciati più grandi
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y * width + x] = track.getCellType(x, y);
+            }
+        }
+
+        for (int dir = 0; dir < 8; dir++) {
+            for (int speed = 0; speed < SPEEDS; speed++) {
+                deltas[dir * SPEEDS + speed] = speed * (DirectionMask.dx(dir) + DirectionMask.dy(dir) * width);
+            }
+        }
+
+        this.outcomes = new byte[cells.length * 8 * SPEEDS];
+        this.passableMasks = new byte[cells.length * SPEEDS];
+        int i = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                for (int dir = 0; dir < 8; dir++) {
+                    for (int speed = 0; speed < SPEEDS; speed++) {
+                        byte type = typeAt(x + speed * DirectionMask.dx(dir), y + speed * DirectionMask.dy(dir));
+                        outcomes[i++] = type;
+                        if (CellType.isPassable(type)) {
+                            passableMasks[cell * SPEEDS + speed] |= (byte) (1 << dir);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Restituisce la tabella del tracciato, calcolandola solo la prima volta
+     * (per Track e ImmutableTrack viene conservata tra i dati derivati).
+     *
+     * @param track Tracciato di riferimento.
+     * @return La tabella cinematica del tracciato.
+     */
+    public static KinematicsTable of(ITrack track) {
+        return track.getDerived(KinematicsTable.class, KinematicsTable::new);
+    }
+
+    /**
+     * Esito dell'atterraggio partendo da una cella con la direzione e la velocità indicate.
+     *
+     * @param cell  Indice della cella di partenza.
+     * @param dir   Ordinale della direzione.
+     * @param speed Velocità (passo), da 0 a MAX_SPEED.
+     * @return Classe della cella di atterraggio ({@link CellType}).
+     */
+    public byte outcome(int cell, int dir, int speed) {
+        return outcomes[((cell << 3) + dir) * SPEEDS + speed];
+    }
+
+    /**
+     * Maschera delle direzioni in cui, partendo dalla cella con la velocità indicata,
+     * si atterra su una cella percorribile (libera o traguardo) del tracciato.
+     * Non tiene conto degli altri giocatori.
+     *
+     * @param cell  Indice della cella di partenza.
+     * @param speed Velocità (passo), da 0 a MAX_SPEED.
+     * @return Maschera di direzioni ({@link DirectionMask}).
+     */
+    public int passableMask(int cell, int speed) {
+        return passableMasks[cell * SPEEDS + speed] & DirectionMask.ALL;
+    }
+
+    /**
+     * Indice della cella di atterraggio. Significativo solo se l'esito
+     * non è {@link CellType#OUT_OF_BOUNDS}.
+     *
+     * @param cell  Indice della cella di partenza.
+     * @param dir   Ordinale della direzione.
+     * @param speed Velocità (passo), da 0 a MAX_SPEED.
+     * @return Indice della cella di destinazione.
+     */
+    public int destination(int cell, int dir, int speed) {
+        return cell + deltas[dir * SPEEDS + speed];
+    }
+
+    /**
+     * Classe della cella indicata.
+     *
+     * @param cell Indice della cella.
+     * @return Classe della cella ({@link CellType}).
+     */
+    public byte cellType(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * Classe della cella alle coordinate indicate, anche fuori dai limiti.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Classe della cella, o OUT_OF_BOUNDS.
+     */
+    public byte typeAt(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return CellType.OUT_OF_BOUNDS;
+        }
+        return cells[y * width + x];
+    }
+
+    /**
+     * Indice della cella alle coordinate indicate.
+     *
+     * @param x Coordinata x (dentro i limiti).
+     * @param y Coordinata y (dentro i limiti).
+     * @return Indice della cella.
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Indice della cella di una posizione.
+     *
+     * @param position Posizione (dentro i limiti).
+     * @return Indice della cella.
+     */
+    public int index(Position position) {
+        return position.getY() * width + position.getX();
+    }
+
+    /**
+     * Coordinata x di una cella.
+     *
+     * @param cell Indice della cella.
+     * @return Coordinata x.
+     */
+    public int x(int cell) {
+        return cell % width;
+    }
+
+    /**
+     * Coordinata y di una cella.
+     *
+     * @param cell Indice della cella.
+     * @return Coordinata y.
+     */
+    public int y(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Costruisce la posizione di una cella (alloca una nuova Position).
+     *
+     * @param cell Indice della cella.
+     * @return La posizione corrispondente.
+     */
+    public Position position(int cell) {
+        return new Position(cell % width, cell / width);
+    }
+
+    /**
+     * @return Larghezza del tracciato.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Altezza del tracciato.
+     */
+    public int getHeight() {
+        return height;
+    }
+}
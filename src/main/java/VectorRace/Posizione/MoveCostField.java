@@ -0,0 +1,127 @@
+package VectorRace.Posizione;
+
+import java.util.Arrays;
+
+/**
+ * MoveCostField contiene, per ogni cella del tracciato, un limite inferiore del costo in celle
+ * per arrivare al traguardo con le mosse del motore: ogni turno che non conclude la corsa costa
+ * {@link KinematicsTable#MAX_SPEED} celle, l'ultimo costa le celle percorse fino alla prima cella
+ * del traguardo attraversata ({@link FinishLineIndex}).
+ * <p>
+ * A differenza di {@link DistanceField}, che conta passi unitari aggirando gli ostacoli, il campo
+ * segue il grafo delle mosse rettilinee da 1 a MAX_SPEED celle, che a velocità 2 e 3 scavalcano
+ * gli ostacoli: basta che la cella di atterraggio sia percorribile. Velocità e inerzia sono
+ * ignorate, quindi il campo non sovrastima mai il costo di un percorso reale e una cella vale
+ * {@link #UNREACHABLE} solo se nessuna sequenza di mosse porta al traguardo. In campo aperto
+ * coincide con la distanza di DistanceField.
+ * <p>
+ * Si ottiene con {@link #of(ITrack)}, che lo conserva tra i dati derivati del tracciato.
+ * È immutabile e può essere condiviso tra thread.
+ */
+public final class MoveCostField {
+
+    /**
+     * Costo delle celle non percorribili o da cui il traguardo non è raggiungibile.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private final int[] costs;
+
+    /**
+     * Costruisce il campo per un tracciato.
+     *
+     * @param track Tracciato di riferimento.
+     */
+    public MoveCostField(ITrack track) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        FinishLineIndex finishLine = FinishLineIndex.of(track);
+        int cells = track.getWidth() * track.getHeight();
+        costs = new int[cells];
+        Arrays.fill(costs, UNREACHABLE);
+
+        // Semi: celle da cui una mossa attraversa il traguardo, in ordine di costo (1..MAX_SPEED).
+        // Gli archi successivi costano tutti MAX_SPEED, quindi la coda resta ordinata per costo
+        // e il primo costo assegnato a una cella è il minimo.
+        for (int cell = 0; cell < cells; cell++) {
+            if (isMovable(kinematics, cell)) {
+                int crossed = firstCrossing(kinematics, finishLine, cell);
+                costs[cell] = crossed > 0 ? crossed : UNREACHABLE;
+            }
+        }
+        int[] queue = new int[cells];
+        int tail = 0;
+        for (int cost = 1; cost <= KinematicsTable.MAX_SPEED; cost++) {
+            for (int cell = 0; cell < cells; cell++) {
+                if (costs[cell] == cost) {
+                    queue[tail++] = cell;
+                }
+            }
+        }
+        int head = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = costs[cell] + KinematicsTable.MAX_SPEED;
+            // Predecessori: celle da cui una mossa rettilinea atterra su questa cella
+            for (int dir = 0; dir < 8; dir++) {
+                int back = (dir + 4) & 7;
+                for (int step = 1; step <= KinematicsTable.MAX_SPEED; step++) {
+                    if (!CellType.isPassable(kinematics.outcome(cell, back, step))) {
+                        continue;
+                    }
+                    int from = kinematics.destination(cell, back, step);
+                    if (costs[from] == UNREACHABLE && isMovable(kinematics, from)) {
+                        costs[from] = next;
+                        queue[tail++] = from;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Restituisce il campo del tracciato, calcolandolo solo la prima volta
+     * (per Track e ImmutableTrack viene conservato tra i dati derivati).
+     *
+     * @param track Tracciato di riferimento.
+     * @return Il campo dei costi minimi fino al traguardo.
+     */
+    public static MoveCostField of(ITrack track) {
+        return track.getDerived(MoveCostField.class, MoveCostField::new);
+    }
+
+    /**
+     * Limite inferiore del costo fino al traguardo partendo da una cella.
+     *
+     * @param cell Indice della cella (y * width + x).
+     * @return Costo minimo in celle, o {@link #UNREACHABLE}.
+     */
+    public int cost(int cell) {
+        return costs[cell];
+    }
+
+    /**
+     * Una cella da cui si gioca una mossa: percorribile e non del traguardo,
+     * dove la corsa è già conclusa.
+     */
+    private static boolean isMovable(KinematicsTable kinematics, int cell) {
+        byte type = kinematics.cellType(cell);
+        return CellType.isPassable(type) && type != CellType.FINISH;
+    }
+
+    /**
+     * Minimo, tra le 8 direzioni, delle celle percorse fino alla prima cella del traguardo
+     * attraversata con un passo di MAX_SPEED celle, o 0 se nessuna mossa lo attraversa.
+     */
+    private static int firstCrossing(KinematicsTable kinematics, FinishLineIndex finishLine, int cell) {
+        int x = kinematics.x(cell);
+        int y = kinematics.y(cell);
+        int best = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            int crossed = finishLine.crossing(x, y, dir, KinematicsTable.MAX_SPEED);
+            if (crossed > 0 && (best == 0 || crossed < best)) {
+                best = crossed;
+            }
+        }
+        return best;
+    }
+}
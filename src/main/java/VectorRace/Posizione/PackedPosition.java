@@ -0,0 +1,59 @@
+package VectorRace.Posizione;
+
+/**
+ * PackedPosition raccoglie le operazioni sulle coordinate impacchettate in un int,
+ * usate dalle interrogazioni a blocchi del tracciato ({@link ITrack#getCellTypes}):
+ * i 16 bit bassi contengono x e i 16 bit alti y, entrambi con segno, così anche le
+ * coordinate fuori dal tracciato (es. destinazioni oltre il bordo) restano rappresentabili.
+ * Coordinate fuori da questo intervallo vengono rifiutate invece di essere troncate: per i
+ * tracciati più grandi si usano gli indici di cella (y * width + x) di {@link KinematicsTable}.
+ * <p>
+ * Un array di coordinate impacchettate occupa un solo blocco di memoria contiguo e
+ * si riempie senza allocare una {@link Position} per cella.
+ */
+public final class PackedPosition {
+
+    private PackedPosition() {
+    }
+
+    /**
+     * Impacchetta una coppia di coordinate.
+     *
+     * @param x Coordinata x (da -32768 a 32767).
+     * @param y Coordinata y (da -32768 a 32767).
+     * @return Le coordinate impacchettate.
+     * @throws IllegalArgumentException Se una coordinata non è rappresentabile in 16 bit.
+     */
+    public static int pack(int x, int y) {
+        if ((short) x != x || (short) y != y) {
+            throw new IllegalArgumentException("Coordinate non impacchettabili: (" + x + ", " + y + ")");
+        }
+        return (y << 16) | (x & 0xFFFF);
+    }
+
+    /**
+     * Impacchetta le coordinate di una posizione.
+     *
+     * @param position Posizione da impacchettare.
+     * @return Le coordinate impacchettate.
+     */
+    public static int of(Position position) {
+        return pack(position.getX(), position.getY());
+    }
+
+    /**
+     * @param packed Coordinate impacchettate.
+     * @return La coordinata x.
+     */
+    public static int x(int packed) {
+        return (short) packed;
+    }
+
+    /**
+     * @param packed Coordinate impacchettate.
+     * @return La coordinata y.
+     */
+    public static int y(int packed) {
+        return packed >> 16;
+    }
+}
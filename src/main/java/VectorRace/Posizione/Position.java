@@ -73,7 +73,7 @@ public class Position {
      * rappresentano la stessa posizione.
      *
      * @param obj Oggetto da confrontare.
-     * @return true se l'altro oggetto  un Position con le stesse coordinate,
+     * @return true se l'altro oggetto è un Position con le stesse coordinate,
      *         false altrimenti.
      */
     @Override
@@ -6,10 +6,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Track implementa l'interfaccia ITrack e rappresenta il tracciato di gioco.
- * Pu caricare una mappa da un file di testo, dove ogni riga rappresenta
+ * Può caricare una mappa da un file di testo, dove ogni riga rappresenta
  * una "riga" del tracciato, interpretando i caratteri speciali:
  * <ul>
  *     <li><strong>S</strong>: Posizione di partenza (start)</li>
@@ -25,6 +28,13 @@ public class Track implements ITrack {
      */
     private char[][] grid;
 
+    /**
+     * Classi delle celle ({@link CellType}) in un array piatto indicizzato per cella
+     * (y * width + x), ricostruito a ogni caricamento insieme alla griglia:
+     * serve alle interrogazioni per coordinate e a blocchi senza passare dalle liste.
+     */
+    private byte[] cellTypes = new byte[0];
+
     /**
      * Lista di posizioni di partenza caricate dal file.
      */
@@ -45,6 +55,16 @@ public class Track implements ITrack {
      */
     private int height;
 
+    /**
+     * Risultato dell'analisi di raggiungibilità, calcolato una sola volta al caricamento.
+     */
+    private TrackAnalysis analysis;
+
+    /**
+     * Cache dei dati derivati dal tracciato, svuotata a ogni nuovo caricamento.
+     */
+    private final Map<Object, Object> derived = new ConcurrentHashMap<>();
+
     /**
      * Carica i dati del tracciato da un file (resource) specificato.
      * <p>
@@ -56,69 +76,133 @@ public class Track implements ITrack {
      *     <li>#: segna la cella come ostacolo nella grid</li>
      *     <li>Altrimenti: segna la cella come '.' (libera)</li>
      * </ul>
+     * Al termine del caricamento il tracciato viene analizzato con {@link TrackAnalysis}
+     * e rifiutato se da qualche partenza non è raggiungibile alcun traguardo.
      *
      * @param filename Nome del file (o path relativo) da cui caricare il tracciato.
-     * @throws IOException Se il file non viene trovato o si verifica un errore di lettura.
+     * @throws IOException Se il file non viene trovato, si verifica un errore di lettura
+     *                     o il tracciato non è giocabile.
      */
-    @Override
     public void loadFromFile(String filename) throws IOException {
+        // Accumula tutte le righe del file in una lista di stringhe
+        List<String> lines = new ArrayList<>();
+
         // Carichiamo il file come resource dal classpath.
         try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(filename)) {
             if (inputStream == null) {
                 throw new IOException("File non trovato: " + filename);
             }
             BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
-
-            // Accumula tutte le righe del file in una lista di stringhe
-            List<String> lines = new ArrayList<>();
             String line;
-
-            // Legge ogni riga e aggiorna la larghezza massima e l'altezza
             while ((line = br.readLine()) != null) {
                 lines.add(line);
-                width = Math.max(width, line.length());
-                height++;
             }
+        }
+
+        loadFromLines(filename, lines);
+    }
+
+    /**
+     * Carica il tracciato a partire dalle righe di testo già lette,
+     * con le stesse regole di interpretazione di {@link #loadFromFile(String)}.
+     * <p>
+     * Ogni chiamata sostituisce completamente il contenuto precedente,
+     * quindi lo stesso oggetto può essere ricaricato senza accumulare
+     * dimensioni o posizioni di partenza/arrivo. Un tracciato non giocabile viene
+     * rifiutato senza modificare il contenuto già caricato.
+     *
+     * @param name  Nome del tracciato (usato nei messaggi di errore).
+     * @param lines Righe del tracciato.
+     * @throws IOException Se il tracciato non è giocabile.
+     */
+    public void loadFromLines(String name, List<String> lines) throws IOException {
+        // Il nuovo contenuto si costruisce in variabili locali: i campi vengono sostituiti
+        // solo se il tracciato supera l'analisi, così un tracciato rifiutato lascia
+        // intatto il caricamento precedente.
+        List<Position> starts = new ArrayList<>();
+        List<Position> finishes = new ArrayList<>();
+        int newWidth = 0;
+        int newHeight = 0;
 
-            // Inizializza la griglia con le dimensioni calcolate
-            grid = new char[height][width];
-
-            // Popola la grid interpretando i caratteri speciali
-            for (int y = 0; y < height; y++) {
-                String currentLine = lines.get(y);
-
-                for (int x = 0; x < width; x++) {
-                    // Se x oltre la lunghezza della riga, consideriamo '.' per evitare IndexOutOfBounds
-                    char currentChar = (x < currentLine.length()) ? currentLine.charAt(x) : '.';
-
-                    switch (currentChar) {
-                        case 'S':
-                            // Segna una posizione di partenza
-                            startPositions.add(new Position(x, y));
-                            grid[y][x] = '.'; // Consideriamo comunque la cella libera in grid
-                            break;
-                        case 'F':
-                            // Segna una posizione di arrivo
-                            finishPositions.add(new Position(x, y));
-                            grid[y][x] = '.'; // Anche questa cella  libera ma registrata come arrivo
-                            break;
-                        case '#':
-                            // Cella con ostacolo
-                            grid[y][x] = '#';
-                            break;
-                        default:
-                            // Di default, consideriamo la cella libera
-                            grid[y][x] = '.';
-                            break;
-                    }
+        // Calcola la larghezza massima e l'altezza
+        for (String line : lines) {
+            newWidth = Math.max(newWidth, line.length());
+            newHeight++;
+        }
+
+        // Inizializza la griglia con le dimensioni calcolate
+        char[][] newGrid = new char[newHeight][newWidth];
+        byte[] newCellTypes = new byte[newWidth * newHeight];
+
+        // Popola la grid interpretando i caratteri speciali
+        for (int y = 0; y < newHeight; y++) {
+            String currentLine = lines.get(y);
+
+            for (int x = 0; x < newWidth; x++) {
+                // Se x oltre la lunghezza della riga, consideriamo '.' per evitare IndexOutOfBounds
+                char currentChar = (x < currentLine.length()) ? currentLine.charAt(x) : '.';
+
+                switch (currentChar) {
+                    case 'S':
+                        // Segna una posizione di partenza
+                        starts.add(new Position(x, y));
+                        newGrid[y][x] = '.'; // Consideriamo comunque la cella libera in grid
+                        newCellTypes[y * newWidth + x] = CellType.FREE;
+                        break;
+                    case 'F':
+                        // Segna una posizione di arrivo
+                        finishes.add(new Position(x, y));
+                        newGrid[y][x] = '.'; // Anche questa cella è libera ma registrata come arrivo
+                        newCellTypes[y * newWidth + x] = CellType.FINISH;
+                        break;
+                    case '#':
+                        // Cella con ostacolo
+                        newGrid[y][x] = '#';
+                        newCellTypes[y * newWidth + x] = CellType.OBSTACLE;
+                        break;
+                    default:
+                        // Di default, consideriamo la cella libera
+                        newGrid[y][x] = '.';
+                        newCellTypes[y * newWidth + x] = CellType.FREE;
+                        break;
                 }
             }
         }
+
+        // Analizza il tracciato una sola volta, su un'istanza provvisoria, e rifiuta le mappe non giocabili
+        Track candidate = new Track();
+        candidate.assign(newGrid, newCellTypes, starts, finishes, newWidth, newHeight, null);
+        TrackAnalysis newAnalysis;
+        try {
+            newAnalysis = TrackAnalysis.analyze(candidate, starts, finishes);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Tracciato non valido (" + name + "): " + e.getMessage(), e);
+        }
+        if (!newAnalysis.isValid()) {
+            throw new IOException("Tracciato non valido (" + name + "): "
+                    + String.join(" ", newAnalysis.getProblems()));
+        }
+        assign(newGrid, newCellTypes, starts, finishes, newWidth, newHeight, newAnalysis);
+    }
+
+    /**
+     * Sostituisce in blocco il contenuto del tracciato e svuota la cache dei dati derivati.
+     */
+    private void assign(char[][] grid, byte[] cellTypes, List<Position> starts, List<Position> finishes,
+                        int width, int height, TrackAnalysis analysis) {
+        this.grid = grid;
+        this.cellTypes = cellTypes;
+        this.startPositions = starts;
+        this.finishPositions = finishes;
+        this.width = width;
+        this.height = height;
+        this.analysis = analysis;
+        derived.clear();
     }
 
     /**
      * Restituisce il carattere della griglia alla posizione specificata,
-     * o '#' se la posizione  fuori dai limiti (considerata ostacolo).
+     * o '#' se la posizione è fuori dai limiti (considerata ostacolo).
      *
      * @param position Coordinate {@link Position} da cui estrarre il carattere.
      * @return Il carattere corrispondente ('.', '#', ecc.).
@@ -133,11 +217,11 @@ public class Track implements ITrack {
     }
 
     /**
-     * Indica se una certa posizione  libera, verificando se la cella
-     * corrisponde al carattere '.'.
+     * Indica se una certa posizione è libera, verificando se la cella
+     * corrisponde al carattere '.' (anche partenze e traguardi, salvati come '.' nella griglia).
      *
      * @param position Posizione da controllare.
-     * @return true se la cella  '.', false altrimenti.
+     * @return true se la cella è '.', false altrimenti.
      */
     @Override
     public boolean isFree(Position position) {
@@ -145,11 +229,23 @@ public class Track implements ITrack {
     }
 
     /**
-     * Indica se una certa posizione  un ostacolo,
+     * Indica se la cella alle coordinate indicate è libera, senza allocazioni.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return true se la cella è '.', false altrimenti (anche fuori dai limiti).
+     */
+    @Override
+    public boolean isFree(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && grid[y][x] == '.';
+    }
+
+    /**
+     * Indica se una certa posizione è un ostacolo,
      * verificando se la cella corrisponde al carattere '#'.
      *
      * @param position Posizione da controllare.
-     * @return true se la cella  '#', false altrimenti.
+     * @return true se la cella è '#', false altrimenti.
      */
     @Override
     public boolean isObstacle(Position position) {
@@ -157,21 +253,65 @@ public class Track implements ITrack {
     }
 
     /**
-     * Verifica se la posizione  definita come posizione di arrivo (finish).
+     * Verifica se la posizione è definita come posizione di arrivo (finish),
+     * con un accesso diretto all'array delle classi invece di scorrere la lista finishPositions.
      *
      * @param position Posizione da controllare.
-     * @return true se la posizione  presente nella lista finishPositions, false altrimenti.
+     * @return true se la posizione è un arrivo, false altrimenti.
      */
     @Override
     public boolean isFinish(Position position) {
-        return finishPositions.contains(position);
+        return getCellType(position.getX(), position.getY()) == CellType.FINISH;
+    }
+
+    /**
+     * Restituisce la classe della cella alle coordinate indicate, senza allocazioni.
+     *
+     * @param x Coordinata x.
+     * @param y Coordinata y.
+     * @return Uno dei valori di {@link CellType} (OUT_OF_BOUNDS se fuori dai limiti).
+     */
+    @Override
+    public byte getCellType(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return CellType.OUT_OF_BOUNDS;
+        }
+        return cellTypes[y * width + x];
+    }
+
+    /**
+     * Interroga a blocchi le classi di più celle con un unico ciclo sull'array delle classi,
+     * senza passare per l'interfaccia né allocare posizioni.
+     *
+     * @param packed Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset Indice della prima coordinata da interrogare.
+     * @param count  Numero di celle da interrogare.
+     * @param types  Destinazione delle classi (almeno count elementi).
+     */
+    @Override
+    public void getCellTypes(int[] packed, int offset, int count, byte[] types) {
+        cellTypes(cellTypes, width, height, packed, offset, count, types);
+    }
+
+    /**
+     * Interroga a blocchi fino a 64 celle con un unico ciclo sull'array delle classi.
+     *
+     * @param packed  Coordinate impacchettate ({@link PackedPosition}).
+     * @param offset  Indice della prima coordinata da interrogare.
+     * @param count   Numero di celle da interrogare (al massimo 64).
+     * @param classes Insieme di classi come maschera di bit, es. {@link CellType#PASSABLE_CLASSES}.
+     * @return La maschera delle celle con una classe dell'insieme.
+     */
+    @Override
+    public long cellMask(int[] packed, int offset, int count, int classes) {
+        return cellMask(cellTypes, width, height, packed, offset, count, classes);
     }
 
     /**
      * Restituisce una posizione di partenza se disponibile.
-     * Se esistono pi posizioni di partenza, ne viene restituita la prima.
+     * Se esistono più posizioni di partenza, ne viene restituita la prima.
      *
-     * @return {@link Position} di start o null se la lista  vuota.
+     * @return {@link Position} di start o null se la lista è vuota.
      */
     @Override
     public Position getStartPosition() {
@@ -180,9 +320,9 @@ public class Track implements ITrack {
 
     /**
      * Restituisce una posizione di arrivo se disponibile.
-     * Se esistono pi posizioni di arrivo, ne viene restituita la prima.
+     * Se esistono più posizioni di arrivo, ne viene restituita la prima.
      *
-     * @return {@link Position} di finish o null se la lista  vuota.
+     * @return {@link Position} di finish o null se la lista è vuota.
      */
     @Override
     public Position getFinishPosition() {
@@ -210,25 +350,94 @@ public class Track implements ITrack {
     }
 
     /**
-     * Fornisce l'intera lista di posizioni di partenza caricate (se ce ne sono pi di una).
+     * Fornisce l'intera lista di posizioni di partenza caricate (se ce ne sono più di una).
      *
      * @return Lista di {@link Position} che rappresentano le startPositions.
      */
+    @Override
     public List<Position> getAllStartPositions() {
         return startPositions;
     }
 
     /**
-     * Fornisce l'intera lista di posizioni di arrivo caricate (se ce ne sono pi di una).
+     * Fornisce l'intera lista di posizioni di arrivo caricate (se ce ne sono più di una).
      *
      * @return Lista di {@link Position} che rappresentano le finishPositions.
      */
+    @Override
     public List<Position> getAllFinishPositions() {
         return finishPositions;
     }
 
     /**
-     * Metodo di utilit per controllare se la posizione ricade
+     * Restituisce l'analisi di raggiungibilità calcolata al caricamento del tracciato.
+     *
+     * @return {@link TrackAnalysis} del tracciato, o null se non è ancora stato caricato.
+     */
+    public TrackAnalysis getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * Restituisce un dato derivato dal tracciato, calcolandolo alla prima richiesta
+     * e conservandolo fino al prossimo caricamento.
+     *
+     * @param key     Chiave che identifica il dato derivato.
+     * @param factory Funzione che calcola il dato a partire dal tracciato.
+     * @param <T>     Tipo del dato derivato.
+     * @return Il dato derivato (sempre la stessa istanza per la stessa chiave).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getDerived(Object key, Function<? super ITrack, T> factory) {
+        Object value = derived.get(key);
+        if (value == null) {
+            // Niente computeIfAbsent: la factory può a sua volta richiedere altri dati derivati
+            value = factory.apply(this);
+            Object previous = derived.putIfAbsent(key, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * Ciclo delle interrogazioni a blocchi su un array piatto di classi (condiviso con
+     * {@link ImmutableTrack}): un solo confronto per riconoscere le coordinate fuori dai limiti.
+     */
+    static void cellTypes(byte[] cells, int width, int height, int[] packed, int offset, int count, byte[] types) {
+        for (int i = 0; i < count; i++) {
+            int p = packed[offset + i];
+            int x = PackedPosition.x(p);
+            int y = PackedPosition.y(p);
+            // Confronto senza segno: le coordinate negative diventano valori enormi
+            types[i] = (Integer.compareUnsigned(x, width) < 0 && Integer.compareUnsigned(y, height) < 0)
+                    ? cells[y * width + x] : CellType.OUT_OF_BOUNDS;
+        }
+    }
+
+    /**
+     * Variante di {@link #cellTypes} che accumula in una maschera le celle con una classe dell'insieme.
+     */
+    static long cellMask(byte[] cells, int width, int height, int[] packed, int offset, int count, int classes) {
+        if (count > Long.SIZE) {
+            throw new IllegalArgumentException("Al massimo " + Long.SIZE + " celle per maschera: " + count);
+        }
+        long mask = 0;
+        for (int i = 0; i < count; i++) {
+            int p = packed[offset + i];
+            int x = PackedPosition.x(p);
+            int y = PackedPosition.y(p);
+            byte type = (Integer.compareUnsigned(x, width) < 0 && Integer.compareUnsigned(y, height) < 0)
+                    ? cells[y * width + x] : CellType.OUT_OF_BOUNDS;
+            mask |= (long) ((classes >>> type) & 1) << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Metodo di utilità per controllare se la posizione ricade
      * all'interno dei limiti del tracciato.
      *
      * @param position Posizione da controllare.
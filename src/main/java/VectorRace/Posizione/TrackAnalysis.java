@@ -0,0 +1,459 @@
+package VectorRace.Posizione;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TrackAnalysis contiene il risultato dell'analisi di un tracciato eseguita
+ * una sola volta al caricamento:
+ * <ul>
+ *     <li>etichettatura delle regioni connesse di celle libere (vicinato a 8);</li>
+ *     <li>verifica che da ogni partenza sia raggiungibile almeno un traguardo
+ *         rispettando le regole di movimento del motore;</li>
+ *     <li>individuazione delle celle libere irraggiungibili e dei "vicoli ciechi",
+ *         ossia celle raggiungibili da cui non si può più arrivare al traguardo.</li>
+ * </ul>
+ * <p>
+ * Le regole di movimento riproducono quelle di GameEngine con DefaultInertiaManager:
+ * lo stato di un giocatore è (cella, velocità 0..3, direzione precedente); a ogni turno
+ * sceglie una direzione ammessa dall'inerzia e un'accelerazione tra -1 e +1, poi si sposta
+ * di "velocità" celle. Attraversare una cella del traguardo conclude la corsa, anche se la
+ * cella di atterraggio è oltre il traguardo ({@link FinishLineIndex}); altrimenti atterrare su
+ * un ostacolo o fuori dal tracciato elimina il giocatore. La presenza di altri giocatori è ignorata.
+ */
+public final class TrackAnalysis {
+
+    /**
+     * Velocità massima ammessa dal motore (vedi BasePlayer.setVelocity).
+     */
+    private static final int MAX_VELOCITY = 3;
+
+    /**
+     * Numero di direzioni cardinali.
+     */
+    private static final int DIRECTIONS = 8;
+
+    /**
+     * Numero di stati (velocità x direzione) associati a ogni cella.
+     */
+    private static final int STATES_PER_CELL = (MAX_VELOCITY + 1) * DIRECTIONS;
+
+    /**
+     * Numero massimo di celle analizzabili: gli stati sono indicizzati con un int
+     * (cella * STATES_PER_CELL + stato), anche nei BitSet.
+     */
+    public static final int MAX_CELLS = Integer.MAX_VALUE / STATES_PER_CELL;
+
+    /**
+     * Spostamento unitario lungo x per ogni direzione, nell'ordine di CardinalDirection.
+     */
+    private static final int[] DX = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    /**
+     * Spostamento unitario lungo y per ogni direzione, nell'ordine di CardinalDirection.
+     */
+    private static final int[] DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    private final int width;
+    private final int height;
+    private final int[] regionOf;
+    private final int regionCount;
+    private final boolean[] startReachesFinish;
+    private final BitSet reachableCells;
+    private final BitSet deadEndCells;
+    private final int unreachableFreeCells;
+    private final List<String> problems;
+
+    private TrackAnalysis(int width, int height, int[] regionOf, int regionCount,
+                          boolean[] startReachesFinish, BitSet reachableCells,
+                          BitSet deadEndCells, int unreachableFreeCells, List<String> problems) {
+        this.width = width;
+        this.height = height;
+        this.regionOf = regionOf;
+        this.regionCount = regionCount;
+        this.startReachesFinish = startReachesFinish;
+        this.reachableCells = reachableCells;
+        this.deadEndCells = deadEndCells;
+        this.unreachableFreeCells = unreachableFreeCells;
+        this.problems = Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Analizza un tracciato già caricato.
+     *
+     * @param track    Tracciato da analizzare.
+     * @param starts   Posizioni di partenza del tracciato.
+     * @param finishes Posizioni di traguardo del tracciato.
+     * @return Il risultato dell'analisi.
+     * @throws IllegalArgumentException Se il tracciato ha più di {@link #MAX_CELLS} celle.
+     */
+    public static TrackAnalysis analyze(ITrack track, List<Position> starts, List<Position> finishes) {
+        int width = track.getWidth();
+        int height = track.getHeight();
+        if ((long) width * height > MAX_CELLS) {
+            throw new IllegalArgumentException("Tracciato troppo grande da analizzare: " + width + "x" + height
+                    + " celle, al massimo " + MAX_CELLS);
+        }
+        int cells = width * height;
+
+        // Copia la griglia in array primitivi indicizzati per cella (y * width + x),
+        // per coordinate: le interrogazioni a blocchi sono limitate a 16 bit (PackedPosition)
+        boolean[] free = new boolean[cells];
+        boolean[] finish = new boolean[cells];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                free[y * width + x] = CellType.isPassable(track.getCellType(x, y));
+            }
+        }
+        for (Position f : finishes) {
+            finish[f.getY() * width + f.getX()] = true;
+        }
+
+        FinishLineIndex finishLine = FinishLineIndex.of(track);
+
+        int[] regionOf = new int[cells];
+        int regionCount = labelRegions(width, height, free, regionOf);
+
+        // Esplorazione in avanti dagli stati iniziali (velocità 0, direzione E come in GameEngine)
+        BitSet visited = new BitSet(cells * STATES_PER_CELL);
+        IntQueue queue = new IntQueue();
+        for (Position s : starts) {
+            int state = encode(s.getY() * width + s.getX(), 0, 2);
+            if (!visited.get(state)) {
+                visited.set(state);
+                queue.add(state);
+            }
+        }
+        BitSet reachableCells = new BitSet(cells);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int cell = state / STATES_PER_CELL;
+            int v = (state / DIRECTIONS) % (MAX_VELOCITY + 1);
+            int d = state % DIRECTIONS;
+            reachableCells.set(cell);
+
+            for (int nd = 0; nd < DIRECTIONS; nd++) {
+                if (!isAllowed(v, d, nd)) {
+                    continue;
+                }
+                for (int nv = Math.max(0, v - 1); nv <= Math.min(MAX_VELOCITY, v + 1); nv++) {
+                    // Come in GameEngine il traguardo attraversato conta prima della cella di atterraggio
+                    int crossed = finishLine.crossing(cell % width, cell / width, nd, nv);
+                    if (crossed > 0) {
+                        reachableCells.set(landing(width, height, cell, nd, crossed));
+                        continue;
+                    }
+                    int target = landing(width, height, cell, nd, nv);
+                    if (target < 0 || !free[target]) {
+                        continue;
+                    }
+                    int next = encode(target, nv, nd);
+                    if (!visited.get(next)) {
+                        visited.set(next);
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+
+        BitSet good = computeGoodStates(width, height, free, finish, finishLine);
+
+        // Una partenza è valida se il suo stato iniziale può raggiungere un traguardo
+        boolean[] startReachesFinish = new boolean[starts.size()];
+        List<String> problems = new ArrayList<>();
+        if (starts.isEmpty()) {
+            problems.add("Il tracciato non contiene posizioni di partenza (S).");
+        }
+        if (finishes.isEmpty()) {
+            problems.add("Il tracciato non contiene posizioni di traguardo (F).");
+        }
+        for (int i = 0; i < starts.size(); i++) {
+            Position s = starts.get(i);
+            startReachesFinish[i] = good.get(encode(s.getY() * width + s.getX(), 0, 2));
+            if (!startReachesFinish[i]) {
+                problems.add("Nessun traguardo raggiungibile dalla partenza (" + s.getX() + ", " + s.getY() + ").");
+            }
+        }
+
+        // Vicoli ciechi: celle raggiungibili in cui nessuno stato visitato porta al traguardo
+        BitSet cellHasGoodState = new BitSet(cells);
+        for (int state = visited.nextSetBit(0); state >= 0; state = visited.nextSetBit(state + 1)) {
+            if (good.get(state)) {
+                cellHasGoodState.set(state / STATES_PER_CELL);
+            }
+        }
+        BitSet deadEndCells = new BitSet(cells);
+        int unreachableFreeCells = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!free[cell]) {
+                continue;
+            }
+            if (!reachableCells.get(cell)) {
+                unreachableFreeCells++;
+            } else if (!finish[cell] && !cellHasGoodState.get(cell)) {
+                deadEndCells.set(cell);
+            }
+        }
+
+        return new TrackAnalysis(width, height, regionOf, regionCount, startReachesFinish,
+                reachableCells, deadEndCells, unreachableFreeCells, problems);
+    }
+
+    /**
+     * Indica se il tracciato è giocabile: esiste almeno una partenza, almeno un traguardo
+     * e ogni partenza può raggiungere un traguardo.
+     *
+     * @return true se il tracciato è valido, false altrimenti.
+     */
+    public boolean isValid() {
+        return problems.isEmpty();
+    }
+
+    /**
+     * Restituisce la descrizione dei problemi rilevati (vuota se il tracciato è valido).
+     *
+     * @return Lista non modificabile di messaggi.
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+
+    /**
+     * Indica se dalla i-esima partenza (nell'ordine del file) si può raggiungere un traguardo.
+     *
+     * @param startIndex Indice della partenza.
+     * @return true se un traguardo è raggiungibile.
+     */
+    public boolean startReachesFinish(int startIndex) {
+        return startReachesFinish[startIndex];
+    }
+
+    /**
+     * Restituisce il numero di regioni connesse (vicinato a 8) di celle libere.
+     *
+     * @return Numero di regioni.
+     */
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * Restituisce l'etichetta della regione connessa a cui appartiene la cella,
+     * oppure -1 se la cella è un ostacolo o è fuori dal tracciato.
+     *
+     * @param position Posizione da interrogare.
+     * @return Etichetta della regione (da 0 a getRegionCount() - 1) o -1.
+     */
+    public int getRegion(Position position) {
+        if (!isWithinBounds(position)) {
+            return -1;
+        }
+        return regionOf[position.getY() * width + position.getX()];
+    }
+
+    /**
+     * Indica se la cella può essere raggiunta da almeno una partenza.
+     *
+     * @param position Posizione da interrogare.
+     * @return true se la cella è raggiungibile.
+     */
+    public boolean isReachable(Position position) {
+        return isWithinBounds(position) && reachableCells.get(position.getY() * width + position.getX());
+    }
+
+    /**
+     * Indica se la cella è un vicolo cieco: raggiungibile, ma da lì nessun traguardo
+     * è più raggiungibile.
+     *
+     * @param position Posizione da interrogare.
+     * @return true se la cella è un vicolo cieco.
+     */
+    public boolean isDeadEnd(Position position) {
+        return isWithinBounds(position) && deadEndCells.get(position.getY() * width + position.getX());
+    }
+
+    /**
+     * Restituisce il numero di celle libere non raggiungibili da nessuna partenza.
+     *
+     * @return Numero di celle irraggiungibili.
+     */
+    public int getUnreachableFreeCells() {
+        return unreachableFreeCells;
+    }
+
+    /**
+     * Restituisce il numero di celle classificate come vicoli ciechi.
+     *
+     * @return Numero di vicoli ciechi.
+     */
+    public int getDeadEndCells() {
+        return deadEndCells.cardinality();
+    }
+
+    /**
+     * Riepilogo testuale dell'analisi.
+     *
+     * @return Stringa descrittiva.
+     */
+    @Override
+    public String toString() {
+        return "TrackAnalysis{regioni=" + regionCount
+                + ", irraggiungibili=" + unreachableFreeCells
+                + ", vicoliCiechi=" + getDeadEndCells()
+                + ", valido=" + isValid() + "}";
+    }
+
+    private boolean isWithinBounds(Position position) {
+        return position.getX() >= 0 && position.getX() < width &&
+                position.getY() >= 0 && position.getY() < height;
+    }
+
+    /**
+     * Etichetta le regioni connesse (vicinato a 8) delle celle libere con una visita in ampiezza.
+     *
+     * @return Numero di regioni trovate.
+     */
+    private static int labelRegions(int width, int height, boolean[] free, int[] regionOf) {
+        Arrays.fill(regionOf, -1);
+        IntQueue queue = new IntQueue();
+        int regions = 0;
+        for (int seed = 0; seed < free.length; seed++) {
+            if (!free[seed] || regionOf[seed] >= 0) {
+                continue;
+            }
+            regionOf[seed] = regions;
+            queue.add(seed);
+            while (!queue.isEmpty()) {
+                int cell = queue.poll();
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    int next = landing(width, height, cell, d, 1);
+                    if (next >= 0 && free[next] && regionOf[next] < 0) {
+                        regionOf[next] = regions;
+                        queue.add(next);
+                    }
+                }
+            }
+            regions++;
+        }
+        return regions;
+    }
+
+    /**
+     * Calcola all'indietro, a partire dai traguardi, l'insieme degli stati
+     * da cui un traguardo è raggiungibile.
+     */
+    private static BitSet computeGoodStates(int width, int height, boolean[] free, boolean[] finish,
+                                            FinishLineIndex finishLine) {
+        BitSet good = new BitSet(free.length * STATES_PER_CELL);
+        IntQueue queue = new IntQueue();
+
+        // Semi: stati che con una sola mossa attraversano il traguardo
+        for (int from = 0; from < free.length; from++) {
+            if (!free[from] || finish[from]) {
+                continue;
+            }
+            for (int nd = 0; nd < DIRECTIONS; nd++) {
+                for (int nv = 1; nv <= MAX_VELOCITY; nv++) {
+                    if (finishLine.crossing(from % width, from / width, nd, nv) > 0) {
+                        markPredecessors(good, queue, from, nv, nd);
+                    }
+                }
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int cell = state / STATES_PER_CELL;
+            int nv = (state / DIRECTIONS) % (MAX_VELOCITY + 1);
+            int nd = state % DIRECTIONS;
+            // Lo stato (cell, nv, nd) si ottiene muovendosi di nv celle in direzione nd,
+            // oppure restando fermi (nv == 0) nella stessa cella.
+            int from = (nv == 0) ? cell : landing(width, height, cell, (nd + 4) % DIRECTIONS, nv);
+            if (from >= 0 && free[from] && !finish[from]) {
+                markPredecessors(good, queue, from, nv, nd);
+            }
+        }
+        return good;
+    }
+
+    /**
+     * Marca come "buoni" tutti gli stati nella cella from che, scegliendo la direzione nd
+     * e un'accelerazione opportuna, portano alla velocità nv.
+     */
+    private static void markPredecessors(BitSet good, IntQueue queue, int from, int nv, int nd) {
+        for (int v = Math.max(0, nv - 1); v <= Math.min(MAX_VELOCITY, nv + 1); v++) {
+            for (int d = 0; d < DIRECTIONS; d++) {
+                if (!isAllowed(v, d, nd)) {
+                    continue;
+                }
+                int state = encode(from, v, d);
+                if (!good.get(state)) {
+                    good.set(state);
+                    queue.add(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Regola d'inerzia di DefaultInertiaManager espressa sugli ordinali delle direzioni
+     * (due direzioni consecutive distano 45°).
+     */
+    private static boolean isAllowed(int velocity, int previous, int next) {
+        if (velocity <= 1) {
+            return true;
+        }
+        int diff = Math.abs(previous - next);
+        diff = Math.min(diff, DIRECTIONS - diff);
+        return velocity == 2 ? diff <= 2 : diff <= 1;
+    }
+
+    /**
+     * Cella di atterraggio spostandosi di step celle nella direzione d,
+     * oppure -1 se si esce dal tracciato.
+     */
+    private static int landing(int width, int height, int cell, int d, int step) {
+        int x = cell % width + DX[d] * step;
+        int y = cell / width + DY[d] * step;
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        return y * width + x;
+    }
+
+    private static int encode(int cell, int velocity, int direction) {
+        return cell * STATES_PER_CELL + velocity * DIRECTIONS + direction;
+    }
+
+    /**
+     * Coda di interi a crescita dinamica, per evitare il boxing durante le visite.
+     */
+    private static final class IntQueue {
+        private int[] items = new int[1024];
+        private int head;
+        private int tail;
+
+        void add(int value) {
+            if (tail == items.length) {
+                int size = tail - head;
+                int[] target = (head > items.length / 2) ? items : new int[items.length * 2];
+                System.arraycopy(items, head, target, 0, size);
+                items = target;
+                head = 0;
+                tail = size;
+            }
+            items[tail++] = value;
+        }
+
+        int poll() {
+            return items[head++];
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package VectorRace.Posizione;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TrackGenerator genera tracciati procedurali in modo deterministico a partire da un seed.
+ * <p>
+ * Il tracciato generato è così composto:
+ * <ul>
+ *     <li>un bordo di ostacoli lungo tutto il perimetro;</li>
+ *     <li>un corridoio libero di larghezza fissa che attraversa la mappa da sinistra a destra,
+ *         seguendo una linea centrale ottenuta con una passeggiata casuale;</li>
+ *     <li>ostacoli sparsi nel resto della mappa con la densità richiesta;</li>
+ *     <li>le partenze all'inizio del corridoio (colonne di sinistra) e i traguardi alla fine
+ *         (colonne di destra), così che ogni partenza possa raggiungere un traguardo.</li>
+ * </ul>
+ * Ogni cella dipende solo dal seed, dalle sue coordinate e dalla linea centrale del corridoio
+ * (un intero per colonna), per cui il tracciato può essere scritto riga per riga nel formato
+ * testuale di {@link Track} senza tenerlo in memoria, oppure costruito direttamente come
+ * {@link ImmutableTrack}. A parità di parametri il risultato è sempre identico.
+ */
+public class TrackGenerator {
+
+    private final long seed;
+    private final int width;
+    private final int height;
+    private final double obstacleDensity;
+    private final int corridorWidth;
+    private final int startCount;
+    private final int finishCount;
+
+    /**
+     * Riga centrale del corridoio per ogni colonna.
+     */
+    private final int[] corridorCenter;
+
+    /**
+     * Celle di partenza (y * width + x), ordinate.
+     */
+    private final long[] startCells;
+
+    /**
+     * Celle di traguardo (y * width + x), ordinate.
+     */
+    private final long[] finishCells;
+
+    /**
+     * Costruttore di TrackGenerator.
+     *
+     * @param seed            Seed che determina completamente il tracciato.
+     * @param width           Larghezza (colonne), almeno 4.
+     * @param height          Altezza (righe), almeno corridorWidth + 2.
+     * @param obstacleDensity Probabilità (0..1) che una cella fuori dal corridoio sia un ostacolo.
+     * @param corridorWidth   Larghezza (in celle) del corridoio garantito libero.
+     * @param startCount      Numero di posizioni di partenza.
+     * @param finishCount     Numero di posizioni di traguardo.
+     * @throws IllegalArgumentException Se i parametri non sono coerenti.
+     */
+    public TrackGenerator(long seed, int width, int height, double obstacleDensity,
+                          int corridorWidth, int startCount, int finishCount) {
+        if (width < 4 || height < 3) {
+            throw new IllegalArgumentException("Dimensioni troppo piccole: " + width + "x" + height);
+        }
+        if (corridorWidth < 1 || corridorWidth > height - 2) {
+            throw new IllegalArgumentException("Larghezza del corridoio non valida: " + corridorWidth);
+        }
+        if (obstacleDensity < 0 || obstacleDensity > 1) {
+            throw new IllegalArgumentException("Densità degli ostacoli non valida: " + obstacleDensity);
+        }
+        // Partenze e traguardi occupano al massimo metà delle colonne interne ciascuno
+        long capacity = (long) corridorWidth * ((width - 2) / 2);
+        if (startCount < 1 || finishCount < 1 || startCount > capacity || finishCount > capacity) {
+            throw new IllegalArgumentException("Numero di partenze/traguardi non valido: "
+                    + startCount + "/" + finishCount);
+        }
+
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.obstacleDensity = obstacleDensity;
+        this.corridorWidth = corridorWidth;
+        this.startCount = startCount;
+        this.finishCount = finishCount;
+        this.corridorCenter = computeCorridor();
+        this.startCells = placeAlongCorridor(startCount, true);
+        this.finishCells = placeAlongCorridor(finishCount, false);
+    }
+
+    /**
+     * Scrive il tracciato nel formato testuale di {@link Track}, una riga alla volta.
+     * La memoria usata è proporzionale alla sola larghezza del tracciato.
+     *
+     * @param out Destinazione del testo (non viene chiusa).
+     * @throws IOException Se si verifica un errore di scrittura.
+     */
+    public void write(Writer out) throws IOException {
+        char[] row = new char[width];
+        for (int y = 0; y < height; y++) {
+            fillRow(y, row);
+            out.write(row);
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Costruisce direttamente il tracciato in memoria come {@link ImmutableTrack}.
+     * L'hash del contenuto coincide con quello del testo prodotto da {@link #write(Writer)},
+     * quindi il tracciato viene deduplicato correttamente da {@link TrackRegistry}.
+     *
+     * @return Il tracciato generato, già analizzato.
+     * @throws IllegalArgumentException Se il tracciato generato non è giocabile.
+     */
+    public ImmutableTrack build() {
+        byte[] cells = new byte[width * height];
+        List<Position> starts = new ArrayList<>(startCount);
+        List<Position> finishes = new ArrayList<>(finishCount);
+        MessageDigest digest = sha256();
+        char[] row = new char[width];
+        byte[] rowBytes = new byte[width + 1];
+        rowBytes[width] = '\n';
+
+        for (int y = 0; y < height; y++) {
+            fillRow(y, row);
+            for (int x = 0; x < width; x++) {
+                char c = row[x];
+                rowBytes[x] = (byte) c;
+                int cell = y * width + x;
+                switch (c) {
+                    case '#':
+                        cells[cell] = CellType.OBSTACLE;
+                        break;
+                    case 'F':
+                        cells[cell] = CellType.FINISH;
+                        finishes.add(new Position(x, y));
+                        break;
+                    case 'S':
+                        starts.add(new Position(x, y));
+                        cells[cell] = CellType.FREE;
+                        break;
+                    default:
+                        cells[cell] = CellType.FREE;
+                        break;
+                }
+            }
+            digest.update(rowBytes);
+        }
+
+        // Le partenze devono seguire l'ordine di lettura del file, come in Track
+        return ImmutableTrack.of(width, height, cells, starts, finishes, TrackRegistry.hex(digest.digest()));
+    }
+
+    /**
+     * Genera il tracciato e lo restituisce come testo (comodo per tracciati piccoli).
+     *
+     * @return Contenuto testuale del tracciato.
+     */
+    public String asText() {
+        StringBuilder sb = new StringBuilder((width + 1) * height);
+        char[] row = new char[width];
+        for (int y = 0; y < height; y++) {
+            fillRow(y, row);
+            sb.append(row).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Riempie una riga del tracciato con i caratteri del formato testuale.
+     */
+    private void fillRow(int y, char[] row) {
+        int half = corridorWidth / 2;
+        for (int x = 0; x < width; x++) {
+            char c;
+            if (x == 0 || y == 0 || x == width - 1 || y == height - 1) {
+                c = '#';
+            } else {
+                int top = corridorCenter[x] - half;
+                if (y >= top && y < top + corridorWidth) {
+                    long cell = (long) y * width + x;
+                    if (Arrays.binarySearch(startCells, cell) >= 0) {
+                        c = 'S';
+                    } else if (Arrays.binarySearch(finishCells, cell) >= 0) {
+                        c = 'F';
+                    } else {
+                        c = ' ';
+                    }
+                } else {
+                    c = (cellNoise(x, y) < obstacleDensity) ? '#' : ' ';
+                }
+            }
+            row[x] = c;
+        }
+    }
+
+    /**
+     * Calcola la linea centrale del corridoio con una passeggiata casuale sulle colonne,
+     * mantenendo il corridoio sempre all'interno del bordo.
+     */
+    private int[] computeCorridor() {
+        Random random = new Random(seed);
+        int half = corridorWidth / 2;
+        int min = 1 + half;
+        int max = height - 1 - corridorWidth + half;
+        int[] center = new int[width];
+        int y = min + (max - min) / 2;
+        int trend = 0;
+        for (int x = 0; x < width; x++) {
+            center[x] = y;
+            // Cambia tendenza di rado, così il corridoio forma curve ampie
+            if (random.nextInt(8) == 0) {
+                trend = random.nextInt(3) - 1;
+            }
+            y = Math.max(min, Math.min(max, y + trend));
+        }
+        return center;
+    }
+
+    /**
+     * Sceglie le celle di partenza (dalle prime colonne) o di traguardo (dalle ultime colonne)
+     * all'interno del corridoio.
+     */
+    private long[] placeAlongCorridor(int count, boolean fromLeft) {
+        long[] cells = new long[count];
+        int half = corridorWidth / 2;
+        int placed = 0;
+        for (int i = 0; placed < count; i++) {
+            int x = fromLeft ? 1 + i : width - 2 - i;
+            int top = corridorCenter[x] - half;
+            for (int k = 0; k < corridorWidth && placed < count; k++) {
+                cells[placed++] = (long) (top + k) * width + x;
+            }
+        }
+        Arrays.sort(cells);
+        return cells;
+    }
+
+    /**
+     * Valore pseudo-casuale in [0, 1) che dipende solo da seed e coordinate (SplitMix64).
+     */
+    private double cellNoise(int x, int y) {
+        long z = seed + ((long) y * width + x + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 è garantito su ogni JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Genera un tracciato e lo scrive su file.
+     * Uso: TrackGenerator seed larghezza altezza densità corridoio partenze traguardi file
+     *
+     * @param args Parametri della generazione e file di destinazione.
+     * @throws IOException Se si verifica un errore di scrittura.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 8) {
+            System.err.println("Uso: TrackGenerator seed larghezza altezza densità corridoio partenze traguardi file");
+            return;
+        }
+        TrackGenerator generator = new TrackGenerator(Long.parseLong(args[0]),
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]), Double.parseDouble(args[3]),
+                Integer.parseInt(args[4]), Integer.parseInt(args[5]), Integer.parseInt(args[6]));
+        try (Writer out = new BufferedWriter(new FileWriter(args[7], StandardCharsets.US_ASCII))) {
+            generator.write(out);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package VectorRace.Posizione;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TrackRegistry è il registro condiviso (unico per processo) dei tracciati immutabili.
+ * <p>
+ * Ogni tracciato viene letto, interpretato e analizzato una sola volta; le richieste
+ * successive, anche da thread diversi, ricevono la stessa istanza di {@link ImmutableTrack}.
+ * I tracciati sono deduplicati in base all'hash SHA-256 del contenuto, per cui due file
+ * (o due tracciati generati) identici condividono la stessa istanza e gli stessi dati derivati.
+ */
+public final class TrackRegistry {
+
+    /**
+     * Istanza unica del registro.
+     */
+    private static final TrackRegistry INSTANCE = new TrackRegistry();
+
+    /**
+     * Tracciati indicizzati per hash del contenuto.
+     */
+    private final Map<String, ImmutableTrack> byHash = new ConcurrentHashMap<>();
+
+    /**
+     * Tracciati indicizzati per nome della resource da cui sono stati caricati.
+     */
+    private final Map<String, ImmutableTrack> byName = new ConcurrentHashMap<>();
+
+    private TrackRegistry() {
+    }
+
+    /**
+     * Restituisce il registro condiviso.
+     *
+     * @return L'istanza unica di TrackRegistry.
+     */
+    public static TrackRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Restituisce il tracciato caricato dalla resource indicata, leggendolo
+     * dal classpath solo alla prima richiesta.
+     *
+     * @param filename Nome della resource (come per {@link Track#loadFromFile(String)}).
+     * @return L'istanza condivisa del tracciato.
+     * @throws IOException Se la resource non esiste, non è leggibile o il tracciato non è giocabile.
+     */
+    public ImmutableTrack load(String filename) throws IOException {
+        ImmutableTrack track = byName.get(filename);
+        if (track != null) {
+            return track;
+        }
+
+        byte[] content;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(filename)) {
+            if (inputStream == null) {
+                throw new IOException("File non trovato: " + filename);
+            }
+            content = inputStream.readAllBytes();
+        }
+
+        track = register(filename, content);
+        ImmutableTrack previous = byName.putIfAbsent(filename, track);
+        return (previous != null) ? previous : track;
+    }
+
+    /**
+     * Registra un tracciato a partire dal suo contenuto testuale. Se un tracciato
+     * con lo stesso contenuto è già registrato, viene restituito quello.
+     *
+     * @param name    Nome del tracciato (usato nei messaggi di errore).
+     * @param content Contenuto del tracciato nel formato testuale di {@link Track}.
+     * @return L'istanza condivisa del tracciato.
+     * @throws IOException Se il tracciato non è giocabile.
+     */
+    public ImmutableTrack register(String name, byte[] content) throws IOException {
+        String hash = sha256(content);
+        try {
+            return byHash.computeIfAbsent(hash, h -> parse(name, content, h));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Registra un tracciato già costruito in memoria. Se un tracciato con lo stesso
+     * hash di contenuto è già presente, viene restituito quello già registrato.
+     *
+     * @param track Tracciato da registrare.
+     * @return L'istanza condivisa del tracciato.
+     * @throws IOException Se il tracciato non è giocabile.
+     */
+    public ImmutableTrack register(ImmutableTrack track) throws IOException {
+        TrackAnalysis analysis = track.getAnalysis();
+        if (!analysis.isValid()) {
+            throw new IOException("Tracciato non valido (" + track.getContentHash() + "): "
+                    + String.join(" ", analysis.getProblems()));
+        }
+        ImmutableTrack previous = byHash.putIfAbsent(track.getContentHash(), track);
+        return (previous != null) ? previous : track;
+    }
+
+    /**
+     * Numero di tracciati distinti attualmente registrati.
+     *
+     * @return Numero di tracciati.
+     */
+    public int size() {
+        return byHash.size();
+    }
+
+    /**
+     * Interpreta il contenuto con le regole di {@link Track} e ne crea la versione immutabile.
+     */
+    private static ImmutableTrack parse(String name, byte[] content, String hash) {
+        try {
+            List<String> lines = new ArrayList<>();
+            BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content)));
+            String line;
+            while ((line = br.readLine()) != null) {
+                lines.add(line);
+            }
+            Track track = new Track();
+            track.loadFromLines(name, lines);
+            return ImmutableTrack.copyOf(track, hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calcola l'hash SHA-256 del contenuto, in esadecimale.
+     *
+     * @param content Byte da cui calcolare l'hash.
+     * @return Hash in formato esadecimale.
+     */
+    static String sha256(byte[] content) {
+        try {
+            return hex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 è garantito su ogni JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Converte un digest in stringa esadecimale.
+     *
+     * @param digest Byte del digest.
+     * @return Rappresentazione esadecimale.
+     */
+    static String hex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -57,14 +57,114 @@ public class VectorDirection {
 
     /**
      * Determina la direzione cardinale corrispondente all'angolo
-     * calcolato tra current e next. Normalizza l'angolo a [0, 360)
-     * e lo confronta con intervalli di 45 per assegnare una delle otto direzioni.
+     * tra current e next: E è centrato su 0°, NE su 45°, N su 90° e così via,
+     * con intervalli di 45° (l'asse y cresce verso N).
+     * Il calcolo è solo intero (vedi {@link #cardinalOf(long, long)}) e dà lo stesso
+     * risultato del confronto sugli angoli ottenuti con {@code Math.atan2()}.
      *
-     * @return Una delle otto cardinal directions (N, NE, E, SE, S, SW, W, NW).
-     *         Se non rientra in nessun intervallo (improbabile), restituisce null.
+     * @return Una delle otto cardinal directions (N, NE, E, SE, S, SW, W, NW), mai null.
      */
     public CardinalDirection getCardinalDirection() {
-        double angle = directionDegrees();
+        return cardinalOf(next.getX() - current.getX(), next.getY() - current.getY());
+    }
+
+    /**
+     * Semiampiezza della tabella degli spostamenti piccoli: copre dx e dy in [-SMALL, SMALL].
+     */
+    private static final int SMALL = 8;
+
+    /**
+     * Oltre questa componente (in valore assoluto) la precisione del double non basta
+     * più a distinguere gli spostamenti vicinissimi ai bordi degli ottanti: per restare
+     * identici al calcolo storico si usa quindi l'angolo.
+     */
+    private static final long EXACT_LIMIT = 1L << 20;
+
+    /**
+     * Direzioni in ordine di ordinale (copia privata di values(), che alloca a ogni chiamata).
+     */
+    private static final CardinalDirection[] DIRECTIONS = CardinalDirection.values();
+
+    /**
+     * Ordinale della direzione per ogni spostamento piccolo,
+     * indicizzato per ((dy + SMALL) * (2 * SMALL + 1) + dx + SMALL).
+     */
+    private static final byte[] SMALL_TABLE = new byte[(2 * SMALL + 1) * (2 * SMALL + 1)];
+
+    static {
+        for (int dy = -SMALL; dy <= SMALL; dy++) {
+            for (int dx = -SMALL; dx <= SMALL; dx++) {
+                SMALL_TABLE[(dy + SMALL) * (2 * SMALL + 1) + dx + SMALL] = (byte) octant(dx, dy);
+            }
+        }
+    }
+
+    /**
+     * Direzione cardinale di uno spostamento (dx, dy), con la stessa convenzione di
+     * {@link #getCardinalDirection()} (y crescente verso N). Per gli spostamenti piccoli
+     * usa una tabella precalcolata, altrimenti confronti interi sulla pendenza:
+     * nessuna funzione trigonometrica e nessuna allocazione.
+     *
+     * @param dx Spostamento lungo x.
+     * @param dy Spostamento lungo y.
+     * @return La direzione cardinale; (0, 0) restituisce E, come atan2(0, 0) = 0.
+     */
+    public static CardinalDirection cardinalOf(long dx, long dy) {
+        return DIRECTIONS[ordinalOf(dx, dy)];
+    }
+
+    /**
+     * Come {@link #cardinalOf(long, long)}, ma restituisce l'ordinale della direzione.
+     *
+     * @param dx Spostamento lungo x.
+     * @param dy Spostamento lungo y.
+     * @return Ordinale della direzione cardinale (0 = N ... 7 = NW).
+     */
+    public static int ordinalOf(long dx, long dy) {
+        if (dx >= -SMALL && dx <= SMALL && dy >= -SMALL && dy <= SMALL) {
+            return SMALL_TABLE[(int) (dy + SMALL) * (2 * SMALL + 1) + (int) dx + SMALL];
+        }
+        if (Math.abs(dx) > EXACT_LIMIT || Math.abs(dy) > EXACT_LIMIT) {
+            return angleOrdinal(dx, dy);
+        }
+        return octant(dx, dy);
+    }
+
+    /**
+     * Classificazione intera nell'ottante. Con ax = |dx| e ay = |dy|, tan(22.5°) = sqrt(2) - 1
+     * e tan(67.5°) = sqrt(2) + 1, quindi:
+     * <ul>
+     *     <li>ay &lt; (sqrt(2) - 1) ax  equivale a  (ax + ay)^2 &lt; 2 ax^2 (direzione orizzontale);</li>
+     *     <li>ay &gt; (sqrt(2) + 1) ax  equivale a  ay &gt; ax e (ay - ax)^2 &gt; 2 ax^2 (direzione verticale);</li>
+     *     <li>altrimenti la direzione è diagonale e dipende solo dai segni.</li>
+     * </ul>
+     * Essendo sqrt(2) irrazionale, nessuno spostamento intero non nullo cade esattamente su un bordo.
+     * Valida per |dx|, |dy| &lt;= EXACT_LIMIT (i quadrati restano nel range dei long).
+     */
+    private static int octant(long dx, long dy) {
+        long ax = Math.abs(dx);
+        long ay = Math.abs(dy);
+        long ax2 = 2 * ax * ax;
+
+        if ((ax + ay) * (ax + ay) < ax2 || (ax == 0 && ay == 0)) {
+            // Orizzontale: E per dx >= 0 (incluso lo spostamento nullo), W altrimenti
+            return (dx >= 0) ? CardinalDirection.E.ordinal() : CardinalDirection.W.ordinal();
+        }
+        if (ay > ax && (ay - ax) * (ay - ax) > ax2) {
+            return (dy > 0) ? CardinalDirection.N.ordinal() : CardinalDirection.S.ordinal();
+        }
+        if (dx > 0) {
+            return (dy > 0) ? CardinalDirection.NE.ordinal() : CardinalDirection.SE.ordinal();
+        }
+        return (dy > 0) ? CardinalDirection.NW.ordinal() : CardinalDirection.SW.ordinal();
+    }
+
+    /**
+     * Calcolo storico basato sull'angolo, usato solo per spostamenti molto grandi.
+     * Normalizza l'angolo a [0, 360) e lo confronta con intervalli di 45°.
+     */
+    private static int angleOrdinal(long dx, long dy) {
+        double angle = Math.toDegrees(Math.atan2(dy, dx));
         // Porta l'angolo nel range [0, 360)
         if (angle < 0) {
             angle += 360;
@@ -72,26 +172,20 @@ public class VectorDirection {
 
         // Determina la direzione cardinale a seconda dell'intervallo angolare
         if (angle >= 337.5 || angle < 22.5) {
-            return CardinalDirection.E;
-        } else if (angle >= 22.5 && angle < 67.5) {
-            return CardinalDirection.NE;
-        } else if (angle >= 67.5 && angle < 112.5) {
-            return CardinalDirection.N;
-        } else if (angle >= 112.5 && angle < 157.5) {
-            return CardinalDirection.NW;
-        } else if (angle >= 157.5 && angle < 202.5) {
-            return CardinalDirection.W;
-        } else if (angle >= 202.5 && angle < 247.5) {
-            return CardinalDirection.SW;
-        } else if (angle >= 247.5 && angle < 292.5) {
-            return CardinalDirection.S;
-        } else if (angle >= 292.5 && angle < 337.5) {
-            return CardinalDirection.SE;
+            return CardinalDirection.E.ordinal();
+        } else if (angle < 67.5) {
+            return CardinalDirection.NE.ordinal();
+        } else if (angle < 112.5) {
+            return CardinalDirection.N.ordinal();
+        } else if (angle < 157.5) {
+            return CardinalDirection.NW.ordinal();
+        } else if (angle < 202.5) {
+            return CardinalDirection.W.ordinal();
+        } else if (angle < 247.5) {
+            return CardinalDirection.SW.ordinal();
+        } else if (angle < 292.5) {
+            return CardinalDirection.S.ordinal();
         }
-
-        // In teoria non dovrebbe mai verificarsi, ma come fallback restituisce null
-        return null;
+        return CardinalDirection.SE.ordinal();
     }
 }
-
-
@@ -0,0 +1,239 @@
+package VectorRace.Prestazioni;
+
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.TrackGenerator;
+import VectorRace.Posizione.TrackRegistry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * BenchmarkCorpus è l'insieme fisso di tracciati usato da {@link MacroBenchmark},
+ * in ordine di dimensione crescente e con densità di ostacoli diverse:
+ * stanze aperte, mappe con ostacoli sparsi o fitti, labirinti, corridoi stretti
+ * e una mappa enorme. Tutti i tracciati generati dipendono solo da seed fissi,
+ * quindi due esecuzioni del benchmark misurano sempre gli stessi tracciati.
+ */
+public enum BenchmarkCorpus {
+
+    /**
+     * La stanza aperta di riferimento (track.txt, 28x15).
+     */
+    OPEN_ROOM {
+        @Override
+        ImmutableTrack create() throws IOException {
+            return TrackRegistry.getInstance().load("track.txt");
+        }
+    },
+
+    /**
+     * Stanza aperta di medie dimensioni, senza ostacoli (120x60).
+     */
+    OPEN_HALL {
+        @Override
+        ImmutableTrack create() {
+            return new TrackGenerator(11, 120, 60, 0.0, 10, 3, 3).build();
+        }
+    },
+
+    /**
+     * Ostacoli sparsi attorno a un corridoio largo (200x100, densità 15%).
+     */
+    SCATTERED {
+        @Override
+        ImmutableTrack create() {
+            return new TrackGenerator(12, 200, 100, 0.15, 8, 3, 3).build();
+        }
+    },
+
+    /**
+     * Ostacoli fitti attorno a un corridoio stretto (200x100, densità 40%).
+     */
+    DENSE {
+        @Override
+        ImmutableTrack create() {
+            return new TrackGenerator(13, 200, 100, 0.40, 3, 3, 3).build();
+        }
+    },
+
+    /**
+     * Labirinto perfetto con corridoi larghi una cella (81x41).
+     */
+    MAZE {
+        @Override
+        ImmutableTrack create() throws IOException {
+            return register(name(), maze(14, 40, 20));
+        }
+    },
+
+    /**
+     * Corridoio a serpentina largo due celle (120x41).
+     */
+    CORRIDOR {
+        @Override
+        ImmutableTrack create() throws IOException {
+            return register(name(), serpentine(120, 41));
+        }
+    },
+
+    /**
+     * Mappa enorme con ostacoli sparsi (2048x1024).
+     */
+    HUGE {
+        @Override
+        ImmutableTrack create() {
+            return new TrackGenerator(15, 2048, 1024, 0.10, 16, 3, 3).build();
+        }
+    };
+
+    /**
+     * Tracciato già costruito (i tracciati si costruiscono una sola volta per processo).
+     */
+    private volatile ImmutableTrack track;
+
+    /**
+     * Costruisce il tracciato del corpus.
+     */
+    abstract ImmutableTrack create() throws IOException;
+
+    /**
+     * Restituisce il tracciato del corpus, costruendolo alla prima richiesta.
+     *
+     * @return Il tracciato condiviso.
+     * @throws IOException Se il tracciato non può essere caricato.
+     */
+    public ImmutableTrack track() throws IOException {
+        ImmutableTrack t = track;
+        if (t == null) {
+            synchronized (this) {
+                t = track;
+                if (t == null) {
+                    t = TrackRegistry.getInstance().register(create());
+                    track = t;
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Frazione di celle del tracciato occupate da ostacoli.
+     *
+     * @return Densità degli ostacoli (0..1).
+     * @throws IOException Se il tracciato non può essere caricato.
+     */
+    public double obstacleDensity() throws IOException {
+        ImmutableTrack t = track();
+        KinematicsTable kinematics = KinematicsTable.of(t);
+        int cells = t.getWidth() * t.getHeight();
+        int obstacles = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (kinematics.cellType(cell) == CellType.OBSTACLE) {
+                obstacles++;
+            }
+        }
+        return (double) obstacles / cells;
+    }
+
+    private static ImmutableTrack register(String name, String text) throws IOException {
+        return TrackRegistry.getInstance().register(name, text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Genera un labirinto perfetto (un solo percorso tra due celle qualsiasi) con una
+     * visita in profondità casuale su una griglia di stanze, separate da muri di una cella.
+     * La partenza è in alto a sinistra, il traguardo in basso a destra.
+     */
+    private static String maze(long seed, int rooms, int roomRows) {
+        int width = rooms * 2 + 1;
+        int height = roomRows * 2 + 1;
+        char[][] grid = new char[height][width];
+        for (char[] row : grid) {
+            Arrays.fill(row, '#');
+        }
+
+        Random random = new Random(seed);
+        boolean[] visited = new boolean[rooms * roomRows];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+        visited[0] = true;
+        grid[1][1] = ' ';
+        int[] order = {0, 1, 2, 3};
+        while (!stack.isEmpty()) {
+            int room = stack.peek();
+            int rx = room % rooms;
+            int ry = room / rooms;
+            // Prova i quattro vicini in ordine casuale
+            for (int i = 3; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            boolean advanced = false;
+            for (int d : order) {
+                int nx = rx + (d == 0 ? 1 : d == 1 ? -1 : 0);
+                int ny = ry + (d == 2 ? 1 : d == 3 ? -1 : 0);
+                if (nx < 0 || ny < 0 || nx >= rooms || ny >= roomRows || visited[ny * rooms + nx]) {
+                    continue;
+                }
+                visited[ny * rooms + nx] = true;
+                grid[ry + ny + 1][rx + nx + 1] = ' ';
+                grid[ny * 2 + 1][nx * 2 + 1] = ' ';
+                stack.push(ny * rooms + nx);
+                advanced = true;
+                break;
+            }
+            if (!advanced) {
+                stack.pop();
+            }
+        }
+        grid[1][1] = 'S';
+        grid[height - 2][width - 2] = 'F';
+        return toText(grid);
+    }
+
+    /**
+     * Genera un corridoio a serpentina largo due celle: corsie orizzontali separate
+     * da muri con un varco alternativamente a destra e a sinistra.
+     */
+    private static String serpentine(int width, int height) {
+        char[][] grid = new char[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+                grid[y][x] = border ? '#' : ' ';
+            }
+        }
+        int lastLane = 1;
+        for (int wall = 3, k = 0; wall < height - 2; wall += 3, k++) {
+            boolean gapRight = (k % 2 == 0);
+            for (int x = 1; x < width - 1; x++) {
+                boolean gap = gapRight ? x >= width - 3 : x <= 2;
+                if (!gap) {
+                    grid[wall][x] = '#';
+                }
+            }
+            lastLane = wall + 1;
+        }
+        grid[1][1] = 'S';
+        // Il traguardo è in fondo all'ultima corsia, dal lato opposto al suo ingresso
+        int lanes = (lastLane - 1) / 3 + 1;
+        grid[lastLane][lanes % 2 == 1 ? width - 2 : 1] = 'F';
+        return toText(grid);
+    }
+
+    private static String toText(char[][] grid) {
+        StringBuilder sb = new StringBuilder();
+        for (char[] row : grid) {
+            sb.append(row).append('\n');
+        }
+        return sb.toString();
+    }
+}
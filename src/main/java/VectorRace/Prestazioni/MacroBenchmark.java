@@ -0,0 +1,243 @@
+package VectorRace.Prestazioni;
+
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Fisica.IVelocityCalculator;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.AggressiveBot;
+import VectorRace.Giocatori.DefensiveBot;
+import VectorRace.Giocatori.GreedyBot;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Giocatori.SpeedControlBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Torneo.QuantileSketch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * MacroBenchmark misura il ciclo completo di gioco ({@link GameEngine}, {@link GameBoard}
+ * e bot) eseguendo gare silenziose di ogni bot predefinito su ogni tracciato del
+ * {@link BenchmarkCorpus}. Per ogni coppia (tracciato, bot) riporta:
+ * <ul>
+ *     <li>gare al secondo e byte allocati per turno, misurati su gare senza strumentazione;</li>
+ *     <li>nanosecondi per decisione (media, p50, p99), misurati su gare separate
+ *         con il cronometro delle decisioni attivo;</li>
+ *     <li>picco di heap raggiunto durante le misure.</li>
+ * </ul>
+ * Le gare sono eseguite su un solo thread, con seed fissi, dopo un riscaldamento.
+ * I risultati vengono scritti in CSV (una riga per coppia) per confrontare esecuzioni diverse.
+ */
+public class MacroBenchmark {
+
+    /**
+     * Intestazione del file CSV dei risultati.
+     */
+    public static final String CSV_HEADER = "track,width,height,obstacle_density,bot,races,races_per_sec,"
+            + "turns_per_race,ns_per_decision,p50_ns_per_decision,p99_ns_per_decision,bytes_per_turn,"
+            + "peak_heap_bytes,win_rate";
+
+    /**
+     * Bot predefiniti misurati dal benchmark, con i parametri di default.
+     */
+    public enum Bot {
+        AGGRESSIVE {
+            @Override
+            public IPlayer create(Position start, ITrack track, Random random) {
+                return new AggressiveBot(name(), start, random);
+            }
+        },
+        DEFENSIVE {
+            @Override
+            public IPlayer create(Position start, ITrack track, Random random) {
+                return new DefensiveBot(name(), start, track, 0, random);
+            }
+        },
+        GREEDY {
+            @Override
+            public IPlayer create(Position start, ITrack track, Random random) {
+                return new GreedyBot(name(), start, track, 1.0, random);
+            }
+        },
+        SPEED_CONTROL {
+            @Override
+            public IPlayer create(Position start, ITrack track, Random random) {
+                return new SpeedControlBot(name(), start, track, 3, random);
+            }
+        };
+
+        /**
+         * Crea il bot.
+         *
+         * @param start  Posizione di partenza.
+         * @param track  Tracciato di gioco.
+         * @param random Generatore casuale del bot.
+         * @return Il bot.
+         */
+        public abstract IPlayer create(Position start, ITrack track, Random random);
+    }
+
+    private final int races;
+    private final int maxTurns;
+
+    private final IVelocityCalculator velocityCalculator = new SimpleVelocityCalculator();
+    private final IInertiaManager inertiaManager = new DefaultInertiaManager();
+
+    /**
+     * Costruttore di MacroBenchmark.
+     *
+     * @param races    Gare misurate per ogni coppia (tracciato, bot).
+     * @param maxTurns Limite di turni di ogni gara.
+     */
+    public MacroBenchmark(int races, int maxTurns) {
+        this.races = races;
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Misura un bot su un tracciato del corpus.
+     *
+     * @param corpus Tracciato del corpus.
+     * @param bot    Bot da misurare.
+     * @return La riga CSV dei risultati (senza a capo).
+     * @throws IOException Se il tracciato non può essere caricato.
+     */
+    public String measure(BenchmarkCorpus corpus, Bot bot) throws IOException {
+        ImmutableTrack track = corpus.track();
+
+        // Riscaldamento: compilazione JIT e dati derivati del tracciato
+        for (int i = 0; i < Math.max(5, races / 10); i++) {
+            race(track, bot, -1 - i, null);
+        }
+
+        resetPeakHeap();
+        com.sun.management.ThreadMXBean threads = threadBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Throughput e allocazioni, senza cronometrare le singole decisioni
+        long turns = 0;
+        int wins = 0;
+        long allocatedBefore = threads == null ? 0 : threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < races; i++) {
+            RaceResult result = race(track, bot, i, null);
+            turns += result.getTurns();
+            if (result.hasWinner()) {
+                wins++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads == null ? -1 : threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        // Latenza delle decisioni, su gare separate con il cronometro attivo
+        QuantileSketch decisions = new QuantileSketch();
+        for (int i = 0; i < Math.max(1, races / 4); i++) {
+            race(track, bot, i, decisions);
+        }
+        long peakHeap = peakHeap();
+
+        return String.format(Locale.ROOT, "%s,%d,%d,%.4f,%s,%d,%.1f,%.1f,%.1f,%.0f,%.0f,%.1f,%d,%.4f",
+                corpus.name(), track.getWidth(), track.getHeight(), corpus.obstacleDensity(), bot.name(),
+                races, races / (elapsed / 1e9), (double) turns / races,
+                decisions.getMean(), decisions.quantile(0.5), decisions.quantile(0.99),
+                allocated < 0 || turns == 0 ? -1.0 : (double) allocated / turns,
+                peakHeap, (double) wins / races);
+    }
+
+    /**
+     * Esegue una gara silenziosa del bot, con seed dipendente dal solo indice della gara.
+     */
+    private RaceResult race(ITrack track, Bot bot, long index, QuantileSketch decisions) {
+        Random random = new Random(index * 0x9E3779B97F4A7C15L + 1);
+        GameEngine engine = new GameEngine(new GameBoard(track), velocityCalculator, inertiaManager, maxTurns);
+        engine.setVerbose(false);
+        if (decisions != null) {
+            engine.setDecisionRecorder((player, nanos) -> decisions.add(nanos));
+        }
+        engine.addPlayer(bot.create(track.getStartPosition(), track, random));
+        return engine.runRace();
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported()) {
+                sun.setThreadAllocatedMemoryEnabled(true);
+                return sun;
+            }
+        }
+        return null;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Somma dei picchi di utilizzo dei pool di heap dall'ultimo azzeramento.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Avvia il benchmark da riga di comando.
+     * Uso: MacroBenchmark [gare] [turni] [file.csv] [TRACCIATO,...]
+     * dove i tracciati sono nomi di {@link BenchmarkCorpus} (di default tutti).
+     *
+     * @param args Parametri del benchmark.
+     * @throws IOException Se il file dei risultati non può essere scritto.
+     */
+    public static void main(String[] args) throws IOException {
+        int races = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int turns = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        String output = args.length > 2 ? args[2] : "benchmark.csv";
+        List<BenchmarkCorpus> corpus = new ArrayList<>();
+        if (args.length > 3) {
+            for (String name : args[3].split(",")) {
+                corpus.add(BenchmarkCorpus.valueOf(name));
+            }
+        } else {
+            corpus.addAll(List.of(BenchmarkCorpus.values()));
+        }
+
+        MacroBenchmark benchmark = new MacroBenchmark(races, turns);
+        try (Writer out = Files.newBufferedWriter(Paths.get(output))) {
+            out.write(CSV_HEADER + "\n");
+            System.out.println(CSV_HEADER);
+            for (BenchmarkCorpus track : corpus) {
+                for (Bot bot : Bot.values()) {
+                    String row = benchmark.measure(track, bot);
+                    out.write(row + "\n");
+                    out.flush();
+                    System.out.println(row);
+                }
+            }
+        }
+    }
+}
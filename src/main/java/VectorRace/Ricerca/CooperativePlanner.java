@@ -0,0 +1,464 @@
+package VectorRace.Ricerca;
+
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.DistanceField;
+import VectorRace.Posizione.FinishLineIndex;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+
+import java.util.Arrays;
+
+/**
+ * CooperativePlanner pianifica i movimenti di una squadra di bot che corrono sullo stesso
+ * tracciato, in modo che non si ostacolino: nel motore un giocatore che vuole atterrare su una
+ * cella occupata salta il turno, e con molti bot questo crea ingorghi e turni sprecati.
+ * <p>
+ * Ogni bot pianifica con A* nello spazio (cella, velocità, direzione precedente, turno) per una
+ * finestra di {@link #getWindow()} turni (o fino al traguardo), con le stesse regole di movimento
+ * del motore, stimando i turni mancanti con il {@link DistanceField} del tracciato. Il percorso
+ * trovato viene prenotato in una {@link ReservationTable} condivisa, e i bot che pianificano
+ * dopo evitano gli slot (cella, turno) già prenotati.
+ * <p>
+ * Un bot ripianifica solo quando serve: quando la sua posizione o velocità non è quella prevista
+ * (ad esempio perché è stato bloccato da un giocatore fuori dalla squadra), quando un passo
+ * rimasto del piano è in conflitto con le prenotazioni, oppure quando il piano sta per finire.
+ * Negli altri turni la mossa si legge dal piano già calcolato.
+ * <p>
+ * Un bot che in un turno non chiede la sua mossa (ad esempio perché è stato eliminato: resta
+ * sulla plancia ma il motore non lo interroga più) viene considerato fuori gara all'inizio del
+ * turno successivo e le sue prenotazioni vengono rilasciate, come con {@link #leave(int)}.
+ * <p>
+ * Le mosse restituite da {@link #nextMove} sono codificate come direzione * 4 + (accelerazione + 1),
+ * da leggere con {@link #direction(int)} e {@link #acceleration(int)}.
+ * Un planner è condiviso dai bot di una sola gara e non è thread-safe.
+ */
+public final class CooperativePlanner {
+
+    /**
+     * Finestra di pianificazione di default, in turni.
+     */
+    public static final int DEFAULT_WINDOW = 8;
+
+    /**
+     * Mossa assente: il bot non ha mosse sicure.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * Nodi massimi espansi da una pianificazione.
+     */
+    private static final int MAX_EXPANSIONS = 4096;
+
+    private static final int MAX_SPEED = KinematicsTable.MAX_SPEED;
+
+    private final KinematicsTable kinematics;
+    private final FinishLineIndex finishLine;
+    private final DistanceField distances;
+    private final IInertiaManager inertiaManager;
+    private final int window;
+    private final ReservationTable reservations = new ReservationTable();
+
+    /**
+     * Piani dei bot, indicizzati per identificativo.
+     */
+    private Plan[] plans = new Plan[4];
+
+    /**
+     * Ultimo turno in cui ogni bot ha chiesto la sua mossa, indicizzato per identificativo.
+     */
+    private int[] lastAsked = new int[4];
+    private int bots;
+    private int lastTurn = -1;
+    private int replans;
+
+    // Nodi della ricerca in array paralleli, riusati tra le pianificazioni
+    private int[] nodeCell = new int[256];
+    private byte[] nodeVelocity = new byte[256];
+    private byte[] nodeDirection = new byte[256];
+    private byte[] nodeAcceleration = new byte[256];
+    private byte[] nodeDepth = new byte[256];
+    private int[] nodeParent = new int[256];
+    private int nodes;
+    private final LongIntHashMap visited = new LongIntHashMap(1024);
+    private long[] heap = new long[256];
+    private int heapSize;
+
+    /**
+     * Costruttore di CooperativePlanner con la finestra di default.
+     *
+     * @param track          Tracciato della gara.
+     * @param inertiaManager Regole di inerzia del motore.
+     */
+    public CooperativePlanner(ITrack track, IInertiaManager inertiaManager) {
+        this(track, inertiaManager, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Costruttore di CooperativePlanner.
+     *
+     * @param track          Tracciato della gara.
+     * @param inertiaManager Regole di inerzia del motore.
+     * @param window         Turni pianificati e prenotati in avanti (1..100).
+     */
+    public CooperativePlanner(ITrack track, IInertiaManager inertiaManager, int window) {
+        if (window < 1 || window > 100) {
+            throw new IllegalArgumentException("Finestra non valida: " + window);
+        }
+        this.kinematics = KinematicsTable.of(track);
+        this.finishLine = FinishLineIndex.of(track);
+        this.distances = DistanceField.of(track);
+        this.inertiaManager = inertiaManager;
+        this.window = window;
+    }
+
+    /**
+     * Aggiunge un bot alla squadra.
+     *
+     * @return L'identificativo del bot, da passare a {@link #nextMove}.
+     */
+    public int join() {
+        if (bots == plans.length) {
+            plans = Arrays.copyOf(plans, bots * 2);
+            lastAsked = Arrays.copyOf(lastAsked, bots * 2);
+        }
+        plans[bots] = new Plan();
+        lastAsked[bots] = lastTurn;
+        return bots++;
+    }
+
+    /**
+     * Restituisce la mossa del bot per il turno corrente, ripianificando se necessario.
+     *
+     * @param bot               Identificativo del bot.
+     * @param position          Posizione attuale del bot.
+     * @param velocity          Velocità attuale del bot.
+     * @param previousDirection Ordinale della direzione del turno precedente.
+     * @param allowedMask       Direzioni consentite in questo turno dal motore.
+     * @param turn              Turno corrente (crescente).
+     * @return La mossa codificata, o {@link #NO_MOVE} se non esistono mosse sicure.
+     */
+    public int nextMove(int bot, Position position, int velocity, int previousDirection, int allowedMask, int turn) {
+        if (turn > lastTurn) {
+            // Le prenotazioni dei turni conclusi non servono più
+            reservations.expireBefore(turn - 1);
+            releaseInactive(turn);
+            lastTurn = turn;
+        }
+        lastAsked[bot] = turn;
+        Plan plan = plans[bot];
+        int cell = kinematics.index(position);
+        if (!plan.isValid(cell, velocity, turn) || hasConflict(plan, bot, turn)
+                || (plan.end - turn < (window + 1) / 2 && !plan.reachesFinish)) {
+            replan(bot, plan, cell, velocity, previousDirection, allowedMask, turn);
+        }
+        if (turn >= plan.end) {
+            return NO_MOVE;
+        }
+        int k = turn - plan.start;
+        int move = plan.moves[k];
+        return (allowedMask & (1 << direction(move))) != 0 ? move : NO_MOVE;
+    }
+
+    /**
+     * Rimuove un bot dalla squadra, rilasciando le sue prenotazioni.
+     *
+     * @param bot Identificativo del bot.
+     */
+    public void leave(int bot) {
+        plans[bot].release(reservations, bot);
+        plans[bot].end = plans[bot].start;
+    }
+
+    /**
+     * @param move Mossa codificata.
+     * @return L'ordinale della direzione della mossa.
+     */
+    public static int direction(int move) {
+        return move >> 2;
+    }
+
+    /**
+     * @param move Mossa codificata.
+     * @return L'accelerazione della mossa (-1, 0 o +1).
+     */
+    public static int acceleration(int move) {
+        return (move & 3) - 1;
+    }
+
+    /**
+     * @return La finestra di pianificazione, in turni.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @return Numero di pianificazioni eseguite dall'inizio della gara.
+     */
+    public int getReplans() {
+        return replans;
+    }
+
+    /**
+     * @return La tabella delle prenotazioni della squadra.
+     */
+    public ReservationTable getReservations() {
+        return reservations;
+    }
+
+    /**
+     * Calcola e prenota un nuovo piano. Se nessun percorso evita le prenotazioni degli altri
+     * bot, pianifica ignorandole (e prenota solo gli slot liberi): un turno saltato è meglio
+     * di restare fermi.
+     */
+    private void replan(int bot, Plan plan, int cell, int velocity, int previousDirection,
+                        int allowedMask, int turn) {
+        replans++;
+        plan.release(reservations, bot);
+        int last = search(bot, cell, velocity, previousDirection, allowedMask, turn, true);
+        if (last <= 0) {
+            last = search(bot, cell, velocity, previousDirection, allowedMask, turn, false);
+        }
+        plan.store(this, last, cell, velocity, turn);
+        plan.reserve(reservations, bot);
+    }
+
+    /**
+     * Rilascia le prenotazioni dei bot che non hanno chiesto la mossa nel turno precedente.
+     */
+    private void releaseInactive(int turn) {
+        for (int b = 0; b < bots; b++) {
+            if (lastAsked[b] < turn - 1 && plans[b].end > plans[b].start) {
+                leave(b);
+            }
+        }
+    }
+
+    /**
+     * Verifica se un passo rimasto del piano è in conflitto con le prenotazioni di altri bot.
+     */
+    private boolean hasConflict(Plan plan, int bot, int turn) {
+        for (int t = turn; t < plan.end; t++) {
+            if (!reservations.isAvailable(plan.cells[t - plan.start], t, bot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A* a finestra: termina al primo nodo estratto che raggiunge il traguardo o la fine della
+     * finestra (quello con la stima migliore), o al nodo più profondo se la coda si esaurisce.
+     *
+     * @return L'indice dell'ultimo nodo del percorso (0 = solo la partenza).
+     */
+    private int search(int bot, int startCell, int velocity, int previousDirection, int allowedMask,
+                       int turn, boolean cooperative) {
+        nodes = 0;
+        heapSize = 0;
+        visited.clear();
+        int start = addNode(startCell, velocity, previousDirection, 0, 0, -1);
+        push(start);
+        int best = start;
+        int expansions = 0;
+        while (heapSize > 0 && expansions < MAX_EXPANSIONS) {
+            int node = pop();
+            int depth = nodeDepth[node];
+            if (depth == window || kinematics.cellType(nodeCell[node]) == CellType.FINISH) {
+                return node;
+            }
+            if (depth > nodeDepth[best] || (depth == nodeDepth[best] && estimate(node) < estimate(best))) {
+                best = node;
+            }
+            expansions++;
+            int cell = nodeCell[node];
+            int v = nodeVelocity[node];
+            int mask = (depth == 0) ? allowedMask
+                    : inertiaManager.allowedDirectionMask(v, DirectionMask.direction(nodeDirection[node]));
+            for (int m = mask; m != 0; m &= m - 1) {
+                int dir = Integer.numberOfTrailingZeros(m);
+                for (int a = -1; a <= 1; a++) {
+                    int v2 = Math.max(0, Math.min(MAX_SPEED, v + a));
+                    if (v2 != v + a && a != 0) {
+                        continue; // stessa velocità di a = 0
+                    }
+                    // Una mossa che attraversa il traguardo conclude la corsa sulla prima cella
+                    // del traguardo attraversata, qualunque sia la cella di atterraggio
+                    int crossed = finishLine.crossing(kinematics.x(cell), kinematics.y(cell), dir, v2);
+                    int land;
+                    if (crossed > 0) {
+                        land = kinematics.destination(cell, dir, crossed);
+                    } else {
+                        if (!CellType.isPassable(kinematics.outcome(cell, dir, v2))) {
+                            continue;
+                        }
+                        land = kinematics.destination(cell, dir, v2);
+                        if (distances.distance(land) == DistanceField.UNREACHABLE) {
+                            continue;
+                        }
+                    }
+                    if (cooperative && !reservations.isAvailable(land, turn + depth, bot)) {
+                        continue;
+                    }
+                    long key = ((long) (depth + 1) << 48) | ((long) land << 5) | (v2 << 3) | dir;
+                    if (visited.get(key, -1) >= 0) {
+                        continue;
+                    }
+                    int child = addNode(land, v2, dir, a, depth + 1, node);
+                    visited.put(key, child);
+                    push(child);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Stima dei turni mancanti: la distanza in celle divisa per il passo massimo.
+     */
+    private int estimate(int node) {
+        return (distances.distance(nodeCell[node]) + MAX_SPEED - 1) / MAX_SPEED;
+    }
+
+    private int addNode(int cell, int velocity, int direction, int acceleration, int depth, int parent) {
+        if (nodes == nodeCell.length) {
+            int size = nodes * 2;
+            nodeCell = Arrays.copyOf(nodeCell, size);
+            nodeVelocity = Arrays.copyOf(nodeVelocity, size);
+            nodeDirection = Arrays.copyOf(nodeDirection, size);
+            nodeAcceleration = Arrays.copyOf(nodeAcceleration, size);
+            nodeDepth = Arrays.copyOf(nodeDepth, size);
+            nodeParent = Arrays.copyOf(nodeParent, size);
+        }
+        nodeCell[nodes] = cell;
+        nodeVelocity[nodes] = (byte) velocity;
+        nodeDirection[nodes] = (byte) direction;
+        nodeAcceleration[nodes] = (byte) acceleration;
+        nodeDepth[nodes] = (byte) depth;
+        nodeParent[nodes] = parent;
+        return nodes++;
+    }
+
+    /**
+     * Inserisce un nodo nella coda con priorità f = turni trascorsi + turni stimati;
+     * a parità di f viene estratto prima il nodo più profondo.
+     */
+    private void push(int node) {
+        int depth = nodeDepth[node];
+        long f = depth + estimate(node);
+        long entry = (f << 40) | ((long) (255 - depth) << 32) | node;
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+    }
+
+    private int pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return (int) top;
+    }
+
+    /**
+     * Piano di un bot: le mosse dei turni [start, end), con le celle e le velocità previste
+     * alla fine di ogni turno.
+     */
+    private static final class Plan {
+        private int start;
+        private int end;
+        private int startCell = -1;
+        private int startVelocity;
+        private boolean reachesFinish;
+        private int[] moves = new int[DEFAULT_WINDOW];
+        private int[] cells = new int[DEFAULT_WINDOW];
+        private int[] velocities = new int[DEFAULT_WINDOW];
+
+        /**
+         * Verifica che il piano copra il turno e che il bot sia dove il piano lo aspetta.
+         */
+        boolean isValid(int cell, int velocity, int turn) {
+            if (turn < start || turn >= end) {
+                return false;
+            }
+            int k = turn - start;
+            int expectedCell = (k == 0) ? startCell : cells[k - 1];
+            int expectedVelocity = (k == 0) ? startVelocity : velocities[k - 1];
+            return cell == expectedCell && velocity == expectedVelocity;
+        }
+
+        /**
+         * Ricostruisce il piano risalendo dall'ultimo nodo della ricerca.
+         */
+        void store(CooperativePlanner planner, int last, int cell, int velocity, int turn) {
+            int length = planner.nodeDepth[last];
+            if (moves.length < length) {
+                moves = new int[length];
+                cells = new int[length];
+                velocities = new int[length];
+            }
+            for (int node = last; planner.nodeParent[node] >= 0; node = planner.nodeParent[node]) {
+                int k = planner.nodeDepth[node] - 1;
+                moves[k] = planner.nodeDirection[node] * 4 + planner.nodeAcceleration[node] + 1;
+                cells[k] = planner.nodeCell[node];
+                velocities[k] = planner.nodeVelocity[node];
+            }
+            start = turn;
+            end = turn + length;
+            startCell = cell;
+            startVelocity = velocity;
+            reachesFinish = planner.kinematics.cellType(planner.nodeCell[last]) == CellType.FINISH;
+        }
+
+        /**
+         * Prenota gli slot liberi del piano, compresa la cella finale nel turno successivo.
+         */
+        void reserve(ReservationTable reservations, int bot) {
+            for (int t = start; t < end; t++) {
+                reservations.reserve(cells[t - start], t, bot);
+            }
+            if (end > start) {
+                reservations.reserve(cells[end - start - 1], end, bot);
+            }
+        }
+
+        /**
+         * Rilascia gli slot del piano ancora del bot.
+         */
+        void release(ReservationTable reservations, int bot) {
+            for (int t = start; t < end; t++) {
+                reservations.release(cells[t - start], t, bot);
+            }
+            if (end > start) {
+                reservations.release(cells[end - start - 1], end, bot);
+            }
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package VectorRace.Ricerca;
+
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JumpPointSearch trova percorsi minimi sulla griglia a 8 vicini del tracciato con la
+ * ricerca per punti di salto (Jump Point Search, Harabor e Grastien): invece di espandere
+ * ogni cella, A* "salta" in linea retta finché non incontra il traguardo o una cella con
+ * vicini forzati (cioè vicino a un ostacolo), quindi nelle zone aperte espande pochissimi
+ * nodi e ignora i percorsi simmetrici equivalenti.
+ * <p>
+ * Il costo è la distanza ottagonale: {@link #STRAIGHT_COST} per un passo orizzontale o
+ * verticale, {@link #DIAGONAL_COST} per un passo diagonale. Come nel motore conta solo la
+ * cella di arrivo di ogni passo, quindi un passo diagonale tra due ostacoli è ammesso.
+ * Il percorso restituito contiene solo i punti di salto (partenza e arrivo compresi);
+ * {@link #expand(List)} lo trasforma nella sequenza completa delle celle.
+ * <p>
+ * Gli array di lavoro sono allocati una volta per tracciato e riusati tra le ricerche:
+ * un'istanza non è thread-safe, ogni thread deve usarne una propria.
+ */
+public final class JumpPointSearch {
+
+    /**
+     * Costo di un passo orizzontale o verticale.
+     */
+    public static final int STRAIGHT_COST = 1000;
+
+    /**
+     * Costo di un passo diagonale (circa radice di 2 volte quello dritto).
+     */
+    public static final int DIAGONAL_COST = 1414;
+
+    private final KinematicsTable kinematics;
+    private final int width;
+    private final int height;
+
+    /**
+     * Riquadro che contiene tutte le celle del traguardo, per l'euristica.
+     */
+    private final int finishMinX;
+    private final int finishMinY;
+    private final int finishMaxX;
+    private final int finishMaxY;
+
+    /**
+     * Costo migliore noto e predecessore di ogni cella; validi solo se
+     * openStamp[cella] è uguale al numero della ricerca corrente.
+     */
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] openStamp;
+    private final int[] closedStamp;
+    private int search;
+
+    /**
+     * Coda di priorità: (f << 32 | cella), così l'ordinamento dei long segue f.
+     */
+    private long[] heap = new long[64];
+    private int heapSize;
+
+    /**
+     * Destinazione della ricerca corrente, o -1 per una qualsiasi cella del traguardo.
+     */
+    private int goal;
+    private int goalMinX;
+    private int goalMinY;
+    private int goalMaxX;
+    private int goalMaxY;
+
+    private int lastCost = -1;
+    private int lastExpanded;
+
+    /**
+     * Costruttore di JumpPointSearch.
+     *
+     * @param track Tracciato su cui cercare i percorsi.
+     */
+    public JumpPointSearch(ITrack track) {
+        this.kinematics = KinematicsTable.of(track);
+        this.width = track.getWidth();
+        this.height = track.getHeight();
+        int cells = width * height;
+        this.cost = new int[cells];
+        this.parent = new int[cells];
+        this.openStamp = new int[cells];
+        this.closedStamp = new int[cells];
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            if (kinematics.cellType(cell) == CellType.FINISH) {
+                int x = cell % width;
+                int y = cell / width;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        this.finishMinX = minX;
+        this.finishMinY = minY;
+        this.finishMaxX = maxX;
+        this.finishMaxY = maxY;
+    }
+
+    /**
+     * Cerca il percorso minimo da una posizione alla cella del traguardo più vicina.
+     *
+     * @param start Posizione di partenza.
+     * @return I punti di salto del percorso, o una lista vuota se il traguardo non è raggiungibile.
+     */
+    public List<Position> findPath(Position start) {
+        if (finishMaxX < 0) {
+            lastCost = -1;
+            lastExpanded = 0;
+            return Collections.emptyList();
+        }
+        goal = -1;
+        goalMinX = finishMinX;
+        goalMinY = finishMinY;
+        goalMaxX = finishMaxX;
+        goalMaxY = finishMaxY;
+        return search(start);
+    }
+
+    /**
+     * Cerca il percorso minimo tra due posizioni.
+     *
+     * @param start  Posizione di partenza.
+     * @param target Posizione di arrivo.
+     * @return I punti di salto del percorso, o una lista vuota se l'arrivo non è raggiungibile.
+     */
+    public List<Position> findPath(Position start, Position target) {
+        if (!passable(target.getX(), target.getY())) {
+            lastCost = -1;
+            lastExpanded = 0;
+            return Collections.emptyList();
+        }
+        goal = kinematics.index(target);
+        goalMinX = goalMaxX = target.getX();
+        goalMinY = goalMaxY = target.getY();
+        return search(start);
+    }
+
+    /**
+     * @return Il costo dell'ultimo percorso trovato, o -1 se l'ultima ricerca è fallita.
+     */
+    public int getLastCost() {
+        return lastCost;
+    }
+
+    /**
+     * @return Il numero di nodi espansi dall'ultima ricerca.
+     */
+    public int getLastExpanded() {
+        return lastExpanded;
+    }
+
+    /**
+     * Trasforma i punti di salto di un percorso nella sequenza completa delle celle
+     * (due punti di salto consecutivi sono sempre allineati in orizzontale, verticale o diagonale).
+     *
+     * @param jumpPoints Punti di salto restituiti da findPath.
+     * @return Tutte le celle del percorso, partenza e arrivo compresi.
+     */
+    public static List<Position> expand(List<Position> jumpPoints) {
+        List<Position> cells = new ArrayList<>();
+        for (int i = 0; i < jumpPoints.size(); i++) {
+            Position to = jumpPoints.get(i);
+            if (i == 0) {
+                cells.add(to);
+                continue;
+            }
+            Position from = jumpPoints.get(i - 1);
+            int dx = Integer.signum(to.getX() - from.getX());
+            int dy = Integer.signum(to.getY() - from.getY());
+            int x = from.getX();
+            int y = from.getY();
+            while (x != to.getX() || y != to.getY()) {
+                x += dx;
+                y += dy;
+                cells.add(new Position(x, y));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Costo ottagonale tra due celle qualsiasi, senza ostacoli.
+     *
+     * @param dx Distanza lungo x.
+     * @param dy Distanza lungo y.
+     * @return Il costo.
+     */
+    public static int octile(int dx, int dy) {
+        int ax = Math.abs(dx);
+        int ay = Math.abs(dy);
+        return DIAGONAL_COST * Math.min(ax, ay) + STRAIGHT_COST * Math.abs(ax - ay);
+    }
+
+    /**
+     * A* sui punti di salto.
+     */
+    private List<Position> search(Position start) {
+        lastCost = -1;
+        lastExpanded = 0;
+        if (!passable(start.getX(), start.getY())) {
+            return Collections.emptyList();
+        }
+        if (++search == 0) {
+            // Overflow del contatore: azzera i timbri per non confondere ricerche vecchie
+            Arrays.fill(openStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            search = 1;
+        }
+        heapSize = 0;
+        int startCell = kinematics.index(start);
+        open(startCell, -1, 0);
+
+        while (heapSize > 0) {
+            int cell = (int) pop();
+            if (closedStamp[cell] == search) {
+                continue;
+            }
+            closedStamp[cell] = search;
+            lastExpanded++;
+            if (isGoal(cell)) {
+                lastCost = cost[cell];
+                return path(cell);
+            }
+            expandNode(cell);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Genera i successori di un nodo: per ogni direzione ammessa dalle regole di potatura
+     * cerca il punto di salto successivo e lo inserisce nella coda.
+     */
+    private void expandNode(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        int from = parent[cell];
+        if (from < 0) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dx != 0 || dy != 0) {
+                        successor(cell, x, y, dx, dy);
+                    }
+                }
+            }
+            return;
+        }
+        int dx = Integer.signum(x - from % width);
+        int dy = Integer.signum(y - from / width);
+        if (dx != 0 && dy != 0) {
+            successor(cell, x, y, dx, 0);
+            successor(cell, x, y, 0, dy);
+            successor(cell, x, y, dx, dy);
+            if (!passable(x - dx, y)) {
+                successor(cell, x, y, -dx, dy);
+            }
+            if (!passable(x, y - dy)) {
+                successor(cell, x, y, dx, -dy);
+            }
+        } else if (dx != 0) {
+            successor(cell, x, y, dx, 0);
+            if (!passable(x, y + 1)) {
+                successor(cell, x, y, dx, 1);
+            }
+            if (!passable(x, y - 1)) {
+                successor(cell, x, y, dx, -1);
+            }
+        } else {
+            successor(cell, x, y, 0, dy);
+            if (!passable(x + 1, y)) {
+                successor(cell, x, y, 1, dy);
+            }
+            if (!passable(x - 1, y)) {
+                successor(cell, x, y, -1, dy);
+            }
+        }
+    }
+
+    private void successor(int cell, int x, int y, int dx, int dy) {
+        int jump = jump(x, y, dx, dy);
+        if (jump < 0 || closedStamp[jump] == search) {
+            return;
+        }
+        int g = cost[cell] + octile(jump % width - x, jump / width - y);
+        if (openStamp[jump] != search || g < cost[jump]) {
+            open(jump, cell, g);
+        }
+    }
+
+    /**
+     * Avanza da (x, y) nella direzione (dx, dy) finché trova un punto di salto:
+     * il traguardo o una cella con vicini forzati; per le diagonali anche una cella da cui
+     * un salto orizzontale o verticale trova un punto di salto.
+     *
+     * @return L'indice del punto di salto, o -1 se si incontra un ostacolo.
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!passable(x, y)) {
+                return -1;
+            }
+            int cell = y * width + x;
+            if (isGoal(cell)) {
+                return cell;
+            }
+            if (dx != 0 && dy != 0) {
+                if ((!passable(x - dx, y) && passable(x - dx, y + dy))
+                        || (!passable(x, y - dy) && passable(x + dx, y - dy))) {
+                    return cell;
+                }
+                if (jump(x, y, dx, 0) >= 0 || jump(x, y, 0, dy) >= 0) {
+                    return cell;
+                }
+            } else if (dx != 0) {
+                if ((!passable(x, y + 1) && passable(x + dx, y + 1))
+                        || (!passable(x, y - 1) && passable(x + dx, y - 1))) {
+                    return cell;
+                }
+            } else {
+                if ((!passable(x + 1, y) && passable(x + 1, y + dy))
+                        || (!passable(x - 1, y) && passable(x - 1, y + dy))) {
+                    return cell;
+                }
+            }
+        }
+    }
+
+    private boolean passable(int x, int y) {
+        return CellType.isPassable(kinematics.typeAt(x, y));
+    }
+
+    private boolean isGoal(int cell) {
+        return goal < 0 ? kinematics.cellType(cell) == CellType.FINISH : cell == goal;
+    }
+
+    /**
+     * Euristica ammissibile: costo ottagonale fino al riquadro della destinazione.
+     */
+    private int heuristic(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        int dx = Math.max(0, Math.max(goalMinX - x, x - goalMaxX));
+        int dy = Math.max(0, Math.max(goalMinY - y, y - goalMaxY));
+        return octile(dx, dy);
+    }
+
+    private void open(int cell, int from, int g) {
+        openStamp[cell] = search;
+        cost[cell] = g;
+        parent[cell] = from;
+        push(((long) (g + heuristic(cell)) << 32) | cell);
+    }
+
+    private List<Position> path(int cell) {
+        List<Position> path = new ArrayList<>();
+        for (int c = cell; c >= 0; c = parent[c]) {
+            path.add(kinematics.position(c));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private void push(long entry) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+    }
+
+    /**
+     * Estrae la voce con f minimo e ne restituisce la cella.
+     */
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top & 0xFFFFFFFFL;
+    }
+}
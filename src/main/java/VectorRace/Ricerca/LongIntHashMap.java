@@ -0,0 +1,148 @@
+package VectorRace.Ricerca;
+
+import java.util.Arrays;
+
+/**
+ * LongIntHashMap è una mappa da long a int a indirizzamento aperto (scansione lineare),
+ * memorizzata in due array primitivi: non alloca oggetti per le voci e cancella
+ * spostando all'indietro le voci successive, senza lapidi.
+ * Le chiavi devono essere diverse da {@link Long#MIN_VALUE}, usato per gli slot vuoti.
+ * Non è thread-safe.
+ */
+final class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Crea una mappa dimensionata per il numero di voci indicato.
+     *
+     * @param expected Numero di voci previsto.
+     */
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @param key Chiave.
+     * @return Il valore associato, o missing se la chiave non è presente.
+     */
+    int get(long key, int missing) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == EMPTY) {
+                return missing;
+            }
+        }
+    }
+
+    /**
+     * Associa un valore a una chiave, sostituendo quello precedente.
+     */
+    void put(long key, int value) {
+        int i = slot(key);
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            if (++size * 2 > keys.length) {
+                values[i] = value;
+                grow();
+                return;
+            }
+        }
+        values[i] = value;
+    }
+
+    /**
+     * Rimuove una chiave.
+     *
+     * @return true se la chiave era presente.
+     */
+    boolean remove(long key) {
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // Sposta all'indietro le voci successive che non sono nella loro posizione ideale
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int ideal = slot(keys[j]);
+            if (((j - ideal) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    /**
+     * Rimuove tutte le voci le cui chiavi sono minori del limite indicato.
+     *
+     * @param limit Chiave minima da conservare.
+     */
+    void removeBelow(long limit) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldKeys[i] >= limit) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Svuota la mappa mantenendo la capacità.
+     */
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * @return Numero di voci.
+     */
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
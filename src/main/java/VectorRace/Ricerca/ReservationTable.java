@@ -0,0 +1,110 @@
+package VectorRace.Ricerca;
+
+/**
+ * ReservationTable registra le prenotazioni spazio-temporali dei bot di una squadra:
+ * ogni slot (cella, turno) può essere prenotato da un solo bot, che dichiara così di
+ * trovarsi in quella cella alla fine di quel turno. Gli altri bot pianificano
+ * evitando gli slot prenotati.
+ * <p>
+ * Le prenotazioni sono voci di una tabella hash a indirizzamento aperto con chiave
+ * (turno &lt;&lt; 32 | cella) e valore il bot proprietario, quindi la memoria è proporzionale
+ * alle prenotazioni attive e non alle dimensioni del tracciato. Le prenotazioni dei turni
+ * passati si eliminano con {@link #expireBefore(int)}.
+ * Non è thread-safe.
+ */
+public final class ReservationTable {
+
+    /**
+     * Proprietario restituito per uno slot libero.
+     */
+    public static final int FREE = -1;
+
+    private final LongIntHashMap slots = new LongIntHashMap(256);
+
+    /**
+     * Prenota uno slot.
+     *
+     * @param cell  Indice della cella.
+     * @param turn  Turno.
+     * @param owner Identificativo del bot (non negativo).
+     * @return true se lo slot era libero o già del bot, false se è di un altro bot.
+     */
+    public boolean reserve(int cell, int turn, int owner) {
+        long key = key(cell, turn);
+        int current = slots.get(key, FREE);
+        if (current != FREE && current != owner) {
+            return false;
+        }
+        slots.put(key, owner);
+        return true;
+    }
+
+    /**
+     * Rilascia uno slot, se è del bot indicato.
+     *
+     * @param cell  Indice della cella.
+     * @param turn  Turno.
+     * @param owner Identificativo del bot.
+     */
+    public void release(int cell, int turn, int owner) {
+        long key = key(cell, turn);
+        if (slots.get(key, FREE) == owner) {
+            slots.remove(key);
+        }
+    }
+
+    /**
+     * @param cell Indice della cella.
+     * @param turn Turno.
+     * @return Il bot che ha prenotato lo slot, o {@link #FREE}.
+     */
+    public int owner(int cell, int turn) {
+        return slots.get(key(cell, turn), FREE);
+    }
+
+    /**
+     * Verifica se un bot può arrivare in una cella in un turno: lo slot non deve essere
+     * di un altro bot, e nemmeno lo slot del turno precedente (un bot che la occupa ancora
+     * farebbe saltare il turno a chi muove dopo di lui nello stesso turno).
+     *
+     * @param cell  Indice della cella.
+     * @param turn  Turno di arrivo.
+     * @param owner Identificativo del bot che vuole arrivare.
+     * @return true se l'arrivo non è in conflitto con altre prenotazioni.
+     */
+    public boolean isAvailable(int cell, int turn, int owner) {
+        int now = owner(cell, turn);
+        if (now != FREE && now != owner) {
+            return false;
+        }
+        int before = turn > 0 ? owner(cell, turn - 1) : FREE;
+        return before == FREE || before == owner;
+    }
+
+    /**
+     * Elimina tutte le prenotazioni dei turni precedenti a quello indicato.
+     *
+     * @param turn Primo turno da conservare.
+     */
+    public void expireBefore(int turn) {
+        slots.removeBelow((long) Math.max(0, turn) << 32);
+    }
+
+    /**
+     * @return Numero di prenotazioni attive.
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Svuota la tabella.
+     */
+    public void clear() {
+        slots.clear();
+    }
+
+    private static long key(int cell, int turn) {
+        return ((long) turn << 32) | (cell & 0xFFFFFFFFL);
+    }
+}
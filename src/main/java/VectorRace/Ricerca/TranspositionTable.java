@@ -0,0 +1,309 @@
+package VectorRace.Ricerca;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TranspositionTable memorizza i risultati già calcolati da una ricerca in avanti
+ * (valore, profondità, tipo di limite e mossa migliore) per gli stati che la ricerca
+ * incontra più volte, come le stesse posizioni raggiunte con sequenze di mosse diverse.
+ * <p>
+ * La tabella ha dimensione fissa, decisa alla costruzione in base a un budget di memoria:
+ * non cresce mai, per quanto lunga sia la ricerca, e quando un bucket è pieno un nuovo
+ * risultato sostituisce quello meno utile. Le voci sono coppie di long in un solo array
+ * piatto, raggruppate in bucket contigui da {@link #BUCKET_ENTRIES} voci (64 byte): la chiave
+ * sceglie il bucket e le voci del bucket vengono esaminate in sequenza. AtomicLongArray non
+ * allinea i suoi dati, quindi un bucket può stare a cavallo di due linee di cache.
+ * <p>
+ * Sostituzione: una voce con la stessa chiave viene aggiornata se il nuovo risultato è
+ * almeno altrettanto profondo, esatto o di una ricerca più recente; altrimenti si usa una
+ * voce vuota o quella con il punteggio più basso, dove il punteggio è la profondità ridotta
+ * di {@link #AGE_PENALTY} per ogni ricerca trascorsa ({@link #newSearch()}).
+ * <p>
+ * Più thread possono leggere e scrivere la tabella senza lock: ogni voce è salvata come
+ * (chiave XOR dati, dati), quindi una voce scritta a metà da due thread non corrisponde
+ * più alla chiave e viene letta come assente invece che come risultato sbagliato.
+ */
+public final class TranspositionTable {
+
+    /**
+     * Limite del valore memorizzato: valore esatto.
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * Limite del valore memorizzato: il valore reale è almeno quello memorizzato.
+     */
+    public static final int LOWER_BOUND = 2;
+
+    /**
+     * Limite del valore memorizzato: il valore reale è al massimo quello memorizzato.
+     */
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * Mossa assente.
+     */
+    public static final int NO_MOVE = -1;
+
+    /**
+     * Risultato di {@link #probe(long)} quando lo stato non è in tabella.
+     */
+    public static final long MISS = 0;
+
+    /**
+     * Voci per bucket.
+     */
+    public static final int BUCKET_ENTRIES = 4;
+
+    /**
+     * Profondità tolta al punteggio di una voce per ogni ricerca trascorsa.
+     */
+    public static final int AGE_PENALTY = 8;
+
+    /**
+     * Profondità massima memorizzabile.
+     */
+    public static final int MAX_DEPTH = 255;
+
+    /**
+     * Byte occupati da una voce.
+     */
+    public static final int ENTRY_BYTES = 2 * Long.BYTES;
+
+    /**
+     * Numero massimo di voci (l'array è indicizzato da int).
+     */
+    private static final int MAX_ENTRIES = 1 << 29;
+
+    /**
+     * Voci come coppie (chiave XOR dati, dati); dati = 0 indica una voce vuota.
+     */
+    private final AtomicLongArray slots;
+
+    /**
+     * Numero di bit dell'indice di bucket (i bit alti dell'hash della chiave).
+     */
+    private final int bucketBits;
+
+    private volatile int generation;
+
+    /**
+     * Crea una tabella che occupa al massimo il budget di memoria indicato
+     * (la capacità è arrotondata alla potenza di due inferiore).
+     *
+     * @param budgetBytes Memoria massima della tabella, in byte.
+     */
+    public TranspositionTable(long budgetBytes) {
+        long entries = Math.min(MAX_ENTRIES, budgetBytes / ENTRY_BYTES);
+        if (entries < BUCKET_ENTRIES) {
+            throw new IllegalArgumentException("Budget troppo piccolo: " + budgetBytes + " byte");
+        }
+        int buckets = Integer.highestOneBit((int) (entries / BUCKET_ENTRIES));
+        this.bucketBits = Integer.numberOfTrailingZeros(buckets);
+        this.slots = new AtomicLongArray(buckets * BUCKET_ENTRIES * 2);
+    }
+
+    /**
+     * Crea una tabella con un budget in mebibyte.
+     *
+     * @param megabytes Memoria massima della tabella, in MiB.
+     * @return La tabella.
+     */
+    public static TranspositionTable ofMegabytes(int megabytes) {
+        return new TranspositionTable((long) megabytes << 20);
+    }
+
+    /**
+     * Cerca uno stato nella tabella.
+     *
+     * @param key Chiave dello stato (es. {@link #stateKey} o uno stato vettoriale impacchettato).
+     * @return I dati della voce, da leggere con {@link #value}, {@link #depth}, {@link #bound}
+     * e {@link #move}, oppure {@link #MISS} se lo stato non è in tabella.
+     */
+    public long probe(long key) {
+        int base = bucket(key);
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int slot = base + 2 * i;
+            long data = slots.getOpaque(slot + 1);
+            if (data != MISS && (slots.getOpaque(slot) ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Memorizza il risultato della ricerca su uno stato.
+     *
+     * @param key   Chiave dello stato.
+     * @param value Valore calcolato.
+     * @param depth Profondità della ricerca che ha prodotto il valore (0..{@link #MAX_DEPTH}).
+     * @param bound Tipo di limite: {@link #EXACT}, {@link #LOWER_BOUND} o {@link #UPPER_BOUND}.
+     * @param move  Mossa migliore (0..254) o {@link #NO_MOVE}.
+     */
+    public void store(long key, int value, int depth, int bound, int move) {
+        if (bound < EXACT || bound > UPPER_BOUND) {
+            throw new IllegalArgumentException("Limite non valido: " + bound);
+        }
+        int gen = generation;
+        long data = pack(value, Math.max(0, Math.min(MAX_DEPTH, depth)), gen, bound, move);
+        int base = bucket(key);
+        int victim = base;
+        int victimScore = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int slot = base + 2 * i;
+            long old = slots.getOpaque(slot + 1);
+            if (old == MISS) {
+                if (victimScore != Integer.MIN_VALUE) {
+                    victim = slot;
+                    victimScore = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((slots.getOpaque(slot) ^ old) == key) {
+                // Stessa chiave: si conserva un risultato più profondo della stessa ricerca
+                if (bound == EXACT || depth >= depth(old) || generation(old) != gen) {
+                    write(slot, key, data);
+                }
+                return;
+            }
+            int score = depth(old) - AGE_PENALTY * ((gen - generation(old)) & 0xFF);
+            if (score < victimScore) {
+                victim = slot;
+                victimScore = score;
+            }
+        }
+        write(victim, key, data);
+    }
+
+    /**
+     * Inizia una nuova ricerca: le voci delle ricerche precedenti restano leggibili
+     * ma vengono sostituite più facilmente.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Svuota la tabella (da non chiamare durante una ricerca).
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0);
+        }
+        generation = 0;
+    }
+
+    /**
+     * Stima la frazione di voci occupate da risultati della ricerca corrente,
+     * contando un campione di bucket iniziali.
+     *
+     * @return Frazione di voci occupate (0..1).
+     */
+    public double occupancy() {
+        int sampled = Math.min(slots.length() / 2, 1024 * BUCKET_ENTRIES);
+        int gen = generation;
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            long data = slots.getOpaque(2 * i + 1);
+            if (data != MISS && generation(data) == gen) {
+                used++;
+            }
+        }
+        return (double) used / sampled;
+    }
+
+    /**
+     * @return Numero di voci della tabella.
+     */
+    public int getCapacity() {
+        return slots.length() / 2;
+    }
+
+    /**
+     * @return Memoria occupata dalle voci, in byte.
+     */
+    public long getMemoryBytes() {
+        return (long) slots.length() * Long.BYTES;
+    }
+
+    /**
+     * Chiave dello stato di un giocatore nel motore discreto (posizione, velocità,
+     * direzione precedente e turno). Le coordinate usano 20 bit, la velocità e la
+     * direzione 4 bit, il turno 16 bit.
+     *
+     * @param x         Colonna.
+     * @param y         Riga.
+     * @param velocity  Velocità scalare.
+     * @param direction Ordinale della direzione precedente, o -1 se assente.
+     * @param turn      Turno.
+     * @return La chiave.
+     */
+    public static long stateKey(int x, int y, int velocity, int direction, int turn) {
+        return ((long) (x & 0xFFFFF) << 44) | ((long) (y & 0xFFFFF) << 24)
+                | ((long) (velocity & 0xF) << 20) | ((long) (direction & 0xF) << 16) | (turn & 0xFFFF);
+    }
+
+    /**
+     * @param data Dati restituiti da {@link #probe(long)}.
+     * @return Il valore memorizzato.
+     */
+    public static int value(long data) {
+        return (int) (data >> 32);
+    }
+
+    /**
+     * @param data Dati restituiti da {@link #probe(long)}.
+     * @return La profondità memorizzata.
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 16) & 0xFF;
+    }
+
+    /**
+     * @param data Dati restituiti da {@link #probe(long)}.
+     * @return Il tipo di limite memorizzato.
+     */
+    public static int bound(long data) {
+        return (int) data & 0x3;
+    }
+
+    /**
+     * @param data Dati restituiti da {@link #probe(long)}.
+     * @return La mossa memorizzata, o {@link #NO_MOVE}.
+     */
+    public static int move(long data) {
+        int move = (int) (data >>> 24) & 0xFF;
+        return move == 0xFF ? NO_MOVE : move;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 8) & 0xFF;
+    }
+
+    /**
+     * Layout dei dati: valore (32 bit) | mossa (8) | profondità (8) | generazione (8) | limite (8).
+     * Il limite non è mai 0, quindi i dati di una voce occupata non sono mai {@link #MISS}.
+     */
+    private static long pack(int value, int depth, int generation, int bound, int move) {
+        return ((long) value << 32) | ((long) (move & 0xFF) << 24) | (depth << 16) | (generation << 8) | bound;
+    }
+
+    /**
+     * Indice del primo slot del bucket della chiave, dai bit alti di un hash a 64 bit
+     * (finalizzatore di SplitMix64), così anche chiavi con pochi bit diversi si distribuiscono.
+     */
+    private int bucket(long key) {
+        long h = key;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        int bucket = bucketBits == 0 ? 0 : (int) (h >>> (64 - bucketBits));
+        return bucket * BUCKET_ENTRIES * 2;
+    }
+
+    private void write(int slot, long key, long data) {
+        slots.setOpaque(slot, key ^ data);
+        slots.setOpaque(slot + 1, data);
+    }
+}
@@ -0,0 +1,98 @@
+package VectorRace.Torneo;
+
+import java.util.Arrays;
+
+/**
+ * BotParameters è una configurazione immutabile dei parametri di un {@link TunableBot}.
+ * Implementa equals/hashCode sui valori, così da poter essere usata come chiave
+ * nella cache dei punteggi di {@link BotTuner}.
+ */
+public final class BotParameters {
+
+    private final TunableBot bot;
+    private final double[] values;
+
+    /**
+     * Costruttore di BotParameters: i valori vengono portati negli intervalli ammessi
+     * e arrotondati con {@link TunableBot#clamp(int, double)}.
+     *
+     * @param bot    Tipo di bot a cui si riferiscono i parametri.
+     * @param values Valori dei parametri.
+     */
+    public BotParameters(TunableBot bot, double... values) {
+        if (values.length != bot.getParameterCount()) {
+            throw new IllegalArgumentException("Attesi " + bot.getParameterCount() + " parametri per " + bot);
+        }
+        this.bot = bot;
+        this.values = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            this.values[i] = bot.clamp(i, values[i]);
+        }
+    }
+
+    /**
+     * Restituisce il tipo di bot.
+     *
+     * @return Il {@link TunableBot} configurato.
+     */
+    public TunableBot getBot() {
+        return bot;
+    }
+
+    /**
+     * Restituisce una copia dei valori dei parametri.
+     *
+     * @return Array dei valori.
+     */
+    public double[] getValues() {
+        return values.clone();
+    }
+
+    /**
+     * Restituisce l'i-esimo valore.
+     *
+     * @param i Indice del parametro.
+     * @return Valore del parametro.
+     */
+    public double get(int i) {
+        return values[i];
+    }
+
+    /**
+     * Due configurazioni sono uguali se riguardano lo stesso bot e hanno gli stessi valori.
+     *
+     * @param obj Oggetto da confrontare.
+     * @return true se le configurazioni coincidono.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof BotParameters)) return false;
+        BotParameters other = (BotParameters) obj;
+        return bot == other.bot && Arrays.equals(values, other.values);
+    }
+
+    /**
+     * Hash coerente con {@link #equals(Object)}.
+     *
+     * @return Valore hash della configurazione.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * bot.hashCode() + Arrays.hashCode(values);
+    }
+
+    /**
+     * Rappresentazione leggibile della configurazione (es. GREEDY{alfa=1.25}).
+     *
+     * @return Stringa descrittiva.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(bot.name()).append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(bot.getParameterName(i)).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
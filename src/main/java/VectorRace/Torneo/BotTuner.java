@@ -0,0 +1,427 @@
+package VectorRace.Torneo;
+
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Fisica.IVelocityCalculator;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Motore.TrafficHeatmap;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.TrackRegistry;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BotTuner cerca i parametri migliori per un {@link TunableBot} su un tracciato.
+ * <p>
+ * Ogni configurazione candidata viene valutata eseguendo un certo numero di gare
+ * silenziose con seed fissati: le gare di tutte le configurazioni usano la stessa
+ * sequenza di seed, così i confronti non dipendono dalla fortuna. Le gare vengono
+ * distribuite su un pool di thread (di default uno per core) e il costo di ogni
+ * configurazione già valutata viene conservato in cache.
+ * <p>
+ * Il costo di una gara (da minimizzare) è:
+ * <ul>
+ *     <li>il numero di turni impiegati, se il bot raggiunge il traguardo;</li>
+ *     <li>maxTurns + 1, se allo scadere dei turni non è arrivato;</li>
+ *     <li>2 * maxTurns, se viene eliminato da un ostacolo.</li>
+ * </ul>
+ * Sono disponibili una ricerca casuale e una semplice ricerca evolutiva (mu + lambda)
+ * con mutazioni gaussiane.
+ * <p>
+ * Con {@link #enableHeatmap()} ogni gara registra anche visite, eliminazioni, blocchi
+ * e arrivi per cella, su una heatmap per thread sommata da {@link #getHeatmap()}.
+ * Allo stesso modo {@link #enableStatistics(String)} raccoglie, per ogni configurazione,
+ * vittorie, eliminazioni e distribuzioni di turni di arrivo e tempi di decisione
+ * (vedi {@link RaceStatistics}).
+ */
+public class BotTuner implements AutoCloseable {
+
+    private final ITrack track;
+    private final TunableBot bot;
+    private final int racesPerCandidate;
+    private final int maxTurns;
+    private final long seed;
+    private final ExecutorService pool;
+
+    /**
+     * Regole fisiche condivise da tutte le gare (sono prive di stato).
+     */
+    private final IVelocityCalculator velocityCalculator = new SimpleVelocityCalculator();
+    private final IInertiaManager inertiaManager = new DefaultInertiaManager();
+
+    /**
+     * Cache dei costi medi delle configurazioni già valutate.
+     */
+    private final Map<BotParameters, Double> costCache = new ConcurrentHashMap<>();
+
+    /**
+     * Heatmap per thread delle gare di valutazione, o null se non richiesta.
+     */
+    private volatile HeatmapCollector heatmaps;
+
+    /**
+     * Statistiche per thread delle gare di valutazione, o null se non richieste.
+     */
+    private volatile StatisticsCollector statistics;
+
+    /**
+     * Nome del tracciato nelle statistiche.
+     */
+    private volatile String trackLabel;
+
+    /**
+     * Costruttore di BotTuner.
+     *
+     * @param track             Tracciato su cui valutare i bot (condiviso tra i thread).
+     * @param bot               Tipo di bot da ottimizzare.
+     * @param racesPerCandidate Gare eseguite per ogni configurazione.
+     * @param maxTurns          Limite di turni di ogni gara.
+     * @param seed              Seed della ricerca e delle gare.
+     * @param threads           Numero di thread del pool.
+     */
+    public BotTuner(ITrack track, TunableBot bot, int racesPerCandidate, int maxTurns, long seed, int threads) {
+        this.track = track;
+        this.bot = bot;
+        this.racesPerCandidate = racesPerCandidate;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Restituisce il costo medio di una configurazione (più basso è meglio),
+     * usando la cache se la configurazione è già stata valutata.
+     *
+     * @param params Configurazione da valutare.
+     * @return Costo medio sulle gare di valutazione.
+     */
+    public double evaluate(BotParameters params) {
+        return evaluateAll(List.of(params)).get(0);
+    }
+
+    /**
+     * Valuta un gruppo di configurazioni, eseguendo in parallelo tutte le gare
+     * delle configurazioni non ancora in cache.
+     *
+     * @param candidates Configurazioni da valutare.
+     * @return Costi medi, nello stesso ordine delle configurazioni.
+     */
+    public List<Double> evaluateAll(List<BotParameters> candidates) {
+        Set<BotParameters> pending = new LinkedHashSet<>();
+        for (BotParameters p : candidates) {
+            if (!costCache.containsKey(p)) {
+                pending.add(p);
+            }
+        }
+
+        // Una gara per task: il pool distribuisce le gare di tutti i candidati sui core
+        List<BotParameters> order = new ArrayList<>(pending);
+        List<List<Future<Integer>>> futures = new ArrayList<>();
+        for (BotParameters p : order) {
+            List<Future<Integer>> races = new ArrayList<>(racesPerCandidate);
+            for (int i = 0; i < racesPerCandidate; i++) {
+                final int raceIndex = i;
+                races.add(pool.submit(() -> raceCost(p, raceIndex)));
+            }
+            futures.add(races);
+        }
+
+        for (int c = 0; c < order.size(); c++) {
+            long total = 0;
+            for (Future<Integer> f : futures.get(c)) {
+                total += await(f);
+            }
+            costCache.put(order.get(c), (double) total / racesPerCandidate);
+        }
+
+        List<Double> costs = new ArrayList<>(candidates.size());
+        for (BotParameters p : candidates) {
+            costs.add(costCache.get(p));
+        }
+        return costs;
+    }
+
+    /**
+     * Ricerca casuale: valuta configurazioni estratte uniformemente dagli intervalli ammessi.
+     *
+     * @param candidates Numero di configurazioni da estrarre.
+     * @return La configurazione migliore trovata.
+     */
+    public TuningResult randomSearch(int candidates) {
+        Random random = new Random(seed);
+        List<BotParameters> sampled = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            sampled.add(sample(random));
+        }
+        evaluateAll(sampled);
+        return best(sampled);
+    }
+
+    /**
+     * Ricerca evolutiva (mu + lambda): a ogni generazione i migliori individui
+     * producono figli per mutazione gaussiana e sopravvivono i migliori tra genitori e figli.
+     *
+     * @param generations Numero di generazioni.
+     * @param population  Dimensione della popolazione.
+     * @return La configurazione migliore trovata.
+     */
+    public TuningResult evolve(int generations, int population) {
+        Random random = new Random(seed);
+        List<BotParameters> current = new ArrayList<>(population);
+        for (int i = 0; i < population; i++) {
+            current.add(sample(random));
+        }
+        evaluateAll(current);
+
+        int parents = Math.max(1, population / 4);
+        for (int g = 0; g < generations; g++) {
+            current.sort(Comparator.comparingDouble(costCache::get));
+            List<BotParameters> next = new ArrayList<>(current.subList(0, parents));
+            while (next.size() < population) {
+                next.add(mutate(current.get(random.nextInt(parents)), random, 1.0 - (double) g / generations));
+            }
+            evaluateAll(next);
+            current = next;
+        }
+        return best(current);
+    }
+
+    /**
+     * Attiva la raccolta della heatmap per le gare eseguite da ora in poi.
+     */
+    public void enableHeatmap() {
+        if (heatmaps == null) {
+            heatmaps = new HeatmapCollector(track.getWidth(), track.getHeight());
+        }
+    }
+
+    /**
+     * Somma le heatmap delle gare eseguite finora (da invocare tra una ricerca e l'altra).
+     *
+     * @return La heatmap complessiva, o null se la raccolta non è attiva.
+     */
+    public TrafficHeatmap getHeatmap() {
+        HeatmapCollector collector = heatmaps;
+        return collector == null ? null : collector.merge();
+    }
+
+    /**
+     * Attiva la raccolta delle statistiche per le gare eseguite da ora in poi.
+     * Le statistiche sono raggruppate per configurazione (vedi {@link BotParameters#toString()}).
+     *
+     * @param trackLabel Nome con cui indicare il tracciato nelle statistiche.
+     */
+    public void enableStatistics(String trackLabel) {
+        this.trackLabel = trackLabel;
+        if (statistics == null) {
+            statistics = new StatisticsCollector();
+        }
+    }
+
+    /**
+     * Somma le statistiche delle gare eseguite finora (da invocare tra una ricerca e l'altra).
+     *
+     * @return Le statistiche complessive, o null se la raccolta non è attiva.
+     */
+    public RaceStatistics getStatistics() {
+        StatisticsCollector collector = statistics;
+        return collector == null ? null : collector.merge();
+    }
+
+    /**
+     * Numero di configurazioni distinte valutate finora.
+     *
+     * @return Dimensione della cache dei costi.
+     */
+    public int getEvaluatedCount() {
+        return costCache.size();
+    }
+
+    /**
+     * Chiude il pool di thread.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Esegue una gara silenziosa con il bot configurato e ne restituisce il costo.
+     * Il seed della gara dipende solo dal seed del tuner e dall'indice della gara.
+     */
+    private int raceCost(BotParameters params, int raceIndex) {
+        Random random = new Random(seed * 0x9E3779B97F4A7C15L + raceIndex);
+        IPlayer player = bot.create("T", track.getStartPosition(), track, params.getValues(), random);
+
+        GameBoard board = new GameBoard(track);
+        GameEngine engine = new GameEngine(board, velocityCalculator, inertiaManager, maxTurns);
+        engine.setVerbose(false);
+        HeatmapCollector collector = heatmaps;
+        if (collector != null) {
+            engine.setHeatmap(collector.forCurrentThread());
+        }
+        RaceStatistics.Entry stats = null;
+        StatisticsCollector statsCollector = statistics;
+        if (statsCollector != null) {
+            stats = statsCollector.forCurrentThread().entry(params.toString(), trackLabel);
+            RaceStatistics.Entry entry = stats;
+            engine.setDecisionRecorder((p, nanos) -> entry.recordDecision(nanos));
+        }
+        engine.addPlayer(player);
+        RaceResult result = engine.runRace();
+        if (stats != null) {
+            stats.record(result, player);
+        }
+
+        if (result.hasWinner()) {
+            return result.getTurns();
+        }
+        return (result.getEliminated() > 0) ? 2 * maxTurns : maxTurns + 1;
+    }
+
+    private BotParameters sample(Random random) {
+        double[] values = new double[bot.getParameterCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = bot.sample(i, random);
+        }
+        return new BotParameters(bot, values);
+    }
+
+    private BotParameters mutate(BotParameters parent, Random random, double temperature) {
+        double[] values = parent.getValues();
+        for (int i = 0; i < values.length; i++) {
+            // L'ampiezza della mutazione si riduce con il passare delle generazioni
+            values[i] += random.nextGaussian() * bot.span(i) * 0.25 * Math.max(0.1, temperature);
+        }
+        return new BotParameters(bot, values);
+    }
+
+    private TuningResult best(List<BotParameters> candidates) {
+        BotParameters best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (BotParameters p : candidates) {
+            double cost = costCache.get(p);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = p;
+            }
+        }
+        return new TuningResult(best, bestCost, costCache.size());
+    }
+
+    private static int await(Future<Integer> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Valutazione interrotta", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante una gara di valutazione", e.getCause());
+        }
+    }
+
+    /**
+     * Risultato di una ricerca: configurazione migliore, suo costo e configurazioni valutate.
+     */
+    public static final class TuningResult {
+        private final BotParameters best;
+        private final double cost;
+        private final int evaluated;
+
+        TuningResult(BotParameters best, double cost, int evaluated) {
+            this.best = best;
+            this.cost = cost;
+            this.evaluated = evaluated;
+        }
+
+        /**
+         * @return La configurazione migliore trovata.
+         */
+        public BotParameters getBest() {
+            return best;
+        }
+
+        /**
+         * @return Il costo medio della configurazione migliore.
+         */
+        public double getCost() {
+            return cost;
+        }
+
+        /**
+         * @return Il numero di configurazioni distinte valutate.
+         */
+        public int getEvaluated() {
+            return evaluated;
+        }
+
+        @Override
+        public String toString() {
+            return best + " costo=" + cost + " (configurazioni valutate: " + evaluated + ")";
+        }
+    }
+
+    /**
+     * Avvia un'ottimizzazione da riga di comando.
+     * Uso: BotTuner tracciato bot random|evolve budget [gare] [turni] [seed] [heatmap]
+     * dove budget è il numero di candidati (random) o di generazioni (evolve);
+     * se è indicato il file heatmap, vi vengono scritti i contatori per cella di tutte le gare.
+     * Al termine vengono stampate le statistiche delle gare della configurazione migliore.
+     *
+     * @param args Parametri della ricerca.
+     * @throws IOException Se il tracciato non può essere caricato.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Uso: BotTuner tracciato GREEDY|SPEED_CONTROL|DEFENSIVE random|evolve budget [gare] [turni] [seed] [heatmap]");
+            return;
+        }
+        ITrack track = TrackRegistry.getInstance().load(args[0]);
+        TunableBot bot = TunableBot.valueOf(args[1]);
+        int budget = Integer.parseInt(args[3]);
+        int races = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        int turns = args.length > 5 ? Integer.parseInt(args[5]) : 100;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 1L;
+
+        try (BotTuner tuner = new BotTuner(track, bot, races, turns, seed,
+                Runtime.getRuntime().availableProcessors())) {
+            if (args.length > 7) {
+                tuner.enableHeatmap();
+            }
+            tuner.enableStatistics(args[0]);
+            TuningResult result = "evolve".equals(args[2])
+                    ? tuner.evolve(budget, 16)
+                    : tuner.randomSearch(budget);
+            System.out.println("Migliore configurazione: " + result);
+            System.out.println(tuner.getStatistics().get(result.getBest().toString(), args[0]));
+
+            if (args.length > 7) {
+                TrafficHeatmap heatmap = tuner.getHeatmap();
+                try (Writer out = Files.newBufferedWriter(Paths.get(args[7]))) {
+                    heatmap.write(out);
+                }
+                System.out.println("Eliminazioni per cella di partenza:");
+                System.out.print(heatmap.toGrid(TrafficHeatmap.Counter.CRASHES, track));
+            }
+        }
+    }
+}
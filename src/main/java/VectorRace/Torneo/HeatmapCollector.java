@@ -0,0 +1,62 @@
+package VectorRace.Torneo;
+
+import VectorRace.Motore.TrafficHeatmap;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * HeatmapCollector fornisce a ogni thread di simulazione la propria {@link TrafficHeatmap}
+ * (nessuna contesa né sincronizzazione durante le gare) e le somma tutte alla fine del torneo.
+ */
+public class HeatmapCollector {
+
+    private final int width;
+    private final int height;
+
+    /**
+     * Tutte le heatmap create, una per thread.
+     */
+    private final Queue<TrafficHeatmap> perThread = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<TrafficHeatmap> current;
+
+    /**
+     * Costruttore di HeatmapCollector.
+     *
+     * @param width  Larghezza del tracciato.
+     * @param height Altezza del tracciato.
+     */
+    public HeatmapCollector(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.current = ThreadLocal.withInitial(() -> {
+            TrafficHeatmap heatmap = new TrafficHeatmap(this.width, this.height);
+            perThread.add(heatmap);
+            return heatmap;
+        });
+    }
+
+    /**
+     * Restituisce la heatmap del thread corrente, creandola al primo utilizzo.
+     *
+     * @return La heatmap riservata al thread.
+     */
+    public TrafficHeatmap forCurrentThread() {
+        return current.get();
+    }
+
+    /**
+     * Somma le heatmap di tutti i thread in una nuova heatmap.
+     * Va invocato quando le gare sono terminate (es. dopo aver atteso i loro Future).
+     *
+     * @return La heatmap complessiva.
+     */
+    public TrafficHeatmap merge() {
+        TrafficHeatmap total = new TrafficHeatmap(width, height);
+        for (TrafficHeatmap heatmap : perThread) {
+            total.merge(heatmap);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,222 @@
+package VectorRace.Torneo;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * QuantileSketch stima i quantili di una sequenza di valori interi non negativi
+ * (turni, nanosecondi, ...) con memoria costante, indipendente dal numero di valori.
+ * <p>
+ * I valori vengono contati in bucket a crescita geometrica (come in DDSketch): a parte
+ * il bucket dello zero, il bucket i copre l'intervallo (gamma^(i-2), gamma^(i-1)] con
+ * gamma = (1 + a) / (1 - a), quindi ogni quantile restituito ha un errore relativo al massimo
+ * pari ad a. Le stime sono arrotondate all'intero: finché gli interi consecutivi distano più
+ * di un bucket (fino a circa 1 / (gamma - 1), cioè 57 con l'accuratezza di default) ogni intero
+ * ha un bucket proprio e il risultato è esatto; oltre, più interi condividono un bucket e vale
+ * solo il limite sull'errore relativo. Tutti i long non negativi
+ * sono coperti da un array fisso di bucket. Due sketch con la stessa accuratezza si possono
+ * sommare con {@link #merge(QuantileSketch)}. Minimo, massimo, conteggio e somma sono esatti.
+ * <p>
+ * Non è thread-safe: ogni thread deve aggiornare la propria istanza.
+ */
+public final class QuantileSketch {
+
+    /**
+     * Accuratezza relativa di default (1%).
+     */
+    public static final double DEFAULT_ACCURACY = 0.01;
+
+    private final double accuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    /**
+     * Conteggi dei bucket; il bucket 0 contiene solo il valore 0.
+     */
+    private final long[] buckets;
+
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Crea uno sketch con l'accuratezza di default.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_ACCURACY);
+    }
+
+    /**
+     * Crea uno sketch con l'accuratezza relativa indicata.
+     *
+     * @param accuracy Errore relativo massimo dei quantili (es. 0.01 per l'1%).
+     */
+    public QuantileSketch(double accuracy) {
+        if (!(accuracy > 0 && accuracy < 1)) {
+            throw new IllegalArgumentException("Accuratezza non valida: " + accuracy);
+        }
+        this.accuracy = accuracy;
+        this.gamma = (1 + accuracy) / (1 - accuracy);
+        this.logGamma = Math.log(gamma);
+        this.buckets = new long[index(Long.MAX_VALUE) + 1];
+    }
+
+    /**
+     * Aggiunge un valore (i valori negativi vengono trattati come 0).
+     *
+     * @param value Valore da aggiungere.
+     */
+    public void add(long value) {
+        long v = Math.max(0, value);
+        buckets[index(v)]++;
+        count++;
+        sum += v;
+        if (v < min) {
+            min = v;
+        }
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Somma a questo sketch i valori di un altro sketch con la stessa accuratezza.
+     *
+     * @param other Sketch da sommare.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("Sketch con accuratezza diversa");
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Stima il quantile q (0 = minimo, 0.5 = mediana, 1 = massimo).
+     *
+     * @param q Quantile richiesto, tra 0 e 1.
+     * @return Valore stimato, o NaN se lo sketch è vuoto.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen > rank) {
+                // Punto dell'intervallo del bucket con errore relativo minimo
+                double estimate = (i == 0) ? 0 : Math.round(2 * Math.pow(gamma, i - 1) / (gamma + 1));
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return Numero di valori aggiunti.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Media esatta dei valori, o NaN se lo sketch è vuoto.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * @return Valore minimo, o 0 se lo sketch è vuoto.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return Valore massimo, o 0 se lo sketch è vuoto.
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * @return L'accuratezza relativa dello sketch.
+     */
+    public double getAccuracy() {
+        return accuracy;
+    }
+
+    /**
+     * Scrive lo sketch in forma binaria compatta (solo i bucket non vuoti).
+     *
+     * @param out Destinazione.
+     * @throws IOException In caso di errore di scrittura.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(accuracy);
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(min);
+        out.writeLong(max);
+        int used = 0;
+        for (long c : buckets) {
+            if (c != 0) {
+                used++;
+            }
+        }
+        out.writeInt(used);
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != 0) {
+                out.writeInt(i);
+                out.writeLong(buckets[i]);
+            }
+        }
+    }
+
+    /**
+     * Legge uno sketch scritto con {@link #writeTo(DataOutput)}.
+     *
+     * @param in Sorgente.
+     * @return Lo sketch letto.
+     * @throws IOException In caso di errore di lettura o di dati non validi.
+     */
+    public static QuantileSketch readFrom(DataInput in) throws IOException {
+        QuantileSketch sketch;
+        try {
+            sketch = new QuantileSketch(in.readDouble());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Sketch non valido", e);
+        }
+        sketch.count = in.readLong();
+        sketch.sum = in.readLong();
+        sketch.min = in.readLong();
+        sketch.max = in.readLong();
+        int used = in.readInt();
+        for (int k = 0; k < used; k++) {
+            int i = in.readInt();
+            if (i < 0 || i >= sketch.buckets.length) {
+                throw new IOException("Bucket non valido: " + i);
+            }
+            sketch.buckets[i] = in.readLong();
+        }
+        return sketch;
+    }
+
+    /**
+     * Indice del bucket di un valore: 0 per lo zero, altrimenti 1 + ceil(log_gamma(v)).
+     */
+    private int index(long value) {
+        return value == 0 ? 0 : 1 + (int) Math.ceil(Math.log(value) / logGamma);
+    }
+}
@@ -0,0 +1,301 @@
+package VectorRace.Torneo;
+
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Motore.RaceResult;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * RaceStatistics aggrega i risultati delle gare man mano che vengono prodotti,
+ * separatamente per ogni coppia (bot, tracciato), senza conservare i singoli risultati:
+ * per ogni coppia tiene i contatori di gare, vittorie, eliminazioni e gare scadute
+ * e due {@link QuantileSketch} (turni di arrivo e tempi di decisione).
+ * La memoria dipende quindi solo dal numero di coppie, non dal numero di gare.
+ * <p>
+ * Non è thread-safe: ogni thread aggiorna la propria istanza
+ * (vedi {@link StatisticsCollector}) e le istanze si sommano con {@link #merge(RaceStatistics)}.
+ */
+public final class RaceStatistics {
+
+    /**
+     * Statistiche delle coppie (bot, tracciato), ordinate per bot e poi per tracciato.
+     */
+    private final Map<String, Map<String, Entry>> entries = new TreeMap<>();
+
+    /**
+     * Restituisce le statistiche di una coppia (bot, tracciato), creandole se non esistono.
+     * Conviene conservare il risultato per registrare molte decisioni di seguito.
+     *
+     * @param bot   Nome del bot (o della configurazione).
+     * @param track Nome del tracciato.
+     * @return Le statistiche della coppia.
+     */
+    public Entry entry(String bot, String track) {
+        return entries.computeIfAbsent(bot, b -> new TreeMap<>())
+                .computeIfAbsent(track, t -> new Entry(bot, t));
+    }
+
+    /**
+     * Registra l'esito di una gara dal punto di vista di un giocatore.
+     *
+     * @param bot    Nome del bot (o della configurazione).
+     * @param track  Nome del tracciato.
+     * @param result Risultato della gara.
+     * @param player Giocatore di cui registrare l'esito.
+     */
+    public void record(String bot, String track, RaceResult result, IPlayer player) {
+        entry(bot, track).record(result, player);
+    }
+
+    /**
+     * Somma a queste statistiche quelle di un'altra istanza.
+     *
+     * @param other Statistiche da sommare.
+     */
+    public void merge(RaceStatistics other) {
+        for (Map<String, Entry> byTrack : other.entries.values()) {
+            for (Entry e : byTrack.values()) {
+                entry(e.bot, e.track).merge(e);
+            }
+        }
+    }
+
+    /**
+     * Restituisce le statistiche di una coppia (bot, tracciato) già registrata.
+     *
+     * @param bot   Nome del bot.
+     * @param track Nome del tracciato.
+     * @return Le statistiche, o null se la coppia non ha gare registrate.
+     */
+    public Entry get(String bot, String track) {
+        Map<String, Entry> byTrack = entries.get(bot);
+        return byTrack == null ? null : byTrack.get(track);
+    }
+
+    /**
+     * Restituisce tutte le coppie registrate, ordinate per bot e tracciato.
+     *
+     * @return Lista delle statistiche.
+     */
+    public List<Entry> getEntries() {
+        List<Entry> all = new ArrayList<>();
+        for (Map<String, Entry> byTrack : entries.values()) {
+            all.addAll(byTrack.values());
+        }
+        return all;
+    }
+
+    /**
+     * Scrive le statistiche in forma binaria (es. nei checkpoint di {@link Tournament}).
+     *
+     * @param out Destinazione.
+     * @throws IOException In caso di errore di scrittura.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        List<Entry> all = getEntries();
+        out.writeInt(all.size());
+        for (Entry e : all) {
+            out.writeUTF(e.bot);
+            out.writeUTF(e.track);
+            out.writeLong(e.races);
+            out.writeLong(e.wins);
+            out.writeLong(e.eliminations);
+            out.writeLong(e.timeouts);
+            e.finishingTurns.writeTo(out);
+            e.decisionNanos.writeTo(out);
+        }
+    }
+
+    /**
+     * Legge le statistiche scritte con {@link #writeTo(DataOutput)}.
+     *
+     * @param in Sorgente.
+     * @return Le statistiche lette.
+     * @throws IOException In caso di errore di lettura o di dati non validi.
+     */
+    public static RaceStatistics readFrom(DataInput in) throws IOException {
+        RaceStatistics statistics = new RaceStatistics();
+        int size = in.readInt();
+        for (int k = 0; k < size; k++) {
+            Entry e = statistics.entry(in.readUTF(), in.readUTF());
+            e.races = in.readLong();
+            e.wins = in.readLong();
+            e.eliminations = in.readLong();
+            e.timeouts = in.readLong();
+            e.finishingTurns.merge(QuantileSketch.readFrom(in));
+            e.decisionNanos.merge(QuantileSketch.readFrom(in));
+        }
+        return statistics;
+    }
+
+    /**
+     * Riepilogo testuale, una riga per coppia (bot, tracciato).
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry e : getEntries()) {
+            sb.append(e).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Statistiche di un bot su un tracciato.
+     */
+    public static final class Entry {
+        private final String bot;
+        private final String track;
+
+        private long races;
+        private long wins;
+        private long eliminations;
+        private long timeouts;
+
+        /**
+         * Turni impiegati nelle gare vinte.
+         */
+        private final QuantileSketch finishingTurns = new QuantileSketch();
+
+        /**
+         * Durate delle decisioni in nanosecondi.
+         */
+        private final QuantileSketch decisionNanos = new QuantileSketch();
+
+        Entry(String bot, String track) {
+            this.bot = bot;
+            this.track = track;
+        }
+
+        /**
+         * Registra l'esito di una gara: vittoria (con i turni impiegati),
+         * eliminazione o gara conclusa senza arrivare al traguardo.
+         *
+         * @param result Risultato della gara.
+         * @param player Giocatore di cui registrare l'esito.
+         */
+        public void record(RaceResult result, IPlayer player) {
+            races++;
+            if (result.getWinner() == player) {
+                wins++;
+                finishingTurns.add(result.getTurns());
+            } else if (result.isEliminated(player)) {
+                eliminations++;
+            } else {
+                timeouts++;
+            }
+        }
+
+        /**
+         * Registra la durata di una decisione.
+         *
+         * @param nanos Durata in nanosecondi.
+         */
+        public void recordDecision(long nanos) {
+            decisionNanos.add(nanos);
+        }
+
+        void merge(Entry other) {
+            races += other.races;
+            wins += other.wins;
+            eliminations += other.eliminations;
+            timeouts += other.timeouts;
+            finishingTurns.merge(other.finishingTurns);
+            decisionNanos.merge(other.decisionNanos);
+        }
+
+        /**
+         * @return Nome del bot.
+         */
+        public String getBot() {
+            return bot;
+        }
+
+        /**
+         * @return Nome del tracciato.
+         */
+        public String getTrack() {
+            return track;
+        }
+
+        /**
+         * @return Numero di gare registrate.
+         */
+        public long getRaces() {
+            return races;
+        }
+
+        /**
+         * @return Numero di gare vinte.
+         */
+        public long getWins() {
+            return wins;
+        }
+
+        /**
+         * @return Numero di gare concluse con l'eliminazione del bot.
+         */
+        public long getEliminations() {
+            return eliminations;
+        }
+
+        /**
+         * @return Numero di gare concluse senza vittoria né eliminazione.
+         */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * @return Frazione di gare vinte (0 se non ci sono gare).
+         */
+        public double getWinRate() {
+            return races == 0 ? 0 : (double) wins / races;
+        }
+
+        /**
+         * @return Frazione di gare concluse con un'eliminazione (0 se non ci sono gare).
+         */
+        public double getEliminationRate() {
+            return races == 0 ? 0 : (double) eliminations / races;
+        }
+
+        /**
+         * @return Distribuzione dei turni di arrivo delle gare vinte.
+         */
+        public QuantileSketch getFinishingTurns() {
+            return finishingTurns;
+        }
+
+        /**
+         * @return Distribuzione dei tempi di decisione in nanosecondi.
+         */
+        public QuantileSketch getDecisionNanos() {
+            return decisionNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(bot).append(" su ").append(track)
+                    .append(": gare=").append(races)
+                    .append(String.format(" vittorie=%.1f%% eliminazioni=%.1f%%", 100 * getWinRate(), 100 * getEliminationRate()));
+            if (finishingTurns.getCount() > 0) {
+                sb.append(String.format(" turni p50=%.0f p90=%.0f p99=%.0f",
+                        finishingTurns.quantile(0.5), finishingTurns.quantile(0.9), finishingTurns.quantile(0.99)));
+            }
+            if (decisionNanos.getCount() > 0) {
+                sb.append(String.format(" decisione p50=%.1fus p99=%.1fus",
+                        decisionNanos.quantile(0.5) / 1000, decisionNanos.quantile(0.99) / 1000));
+            }
+            return sb.toString();
+        }
+    }
+}
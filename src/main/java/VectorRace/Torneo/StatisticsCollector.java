@@ -0,0 +1,45 @@
+package VectorRace.Torneo;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * StatisticsCollector fornisce a ogni thread di simulazione le proprie {@link RaceStatistics}
+ * parziali (nessuna contesa né sincronizzazione durante le gare) e le somma alla fine del torneo.
+ */
+public class StatisticsCollector {
+
+    /**
+     * Tutte le statistiche parziali create, una per thread.
+     */
+    private final Queue<RaceStatistics> perThread = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<RaceStatistics> current = ThreadLocal.withInitial(() -> {
+        RaceStatistics statistics = new RaceStatistics();
+        perThread.add(statistics);
+        return statistics;
+    });
+
+    /**
+     * Restituisce le statistiche parziali del thread corrente, creandole al primo utilizzo.
+     *
+     * @return Le statistiche riservate al thread.
+     */
+    public RaceStatistics forCurrentThread() {
+        return current.get();
+    }
+
+    /**
+     * Somma le statistiche di tutti i thread in una nuova istanza.
+     * Va invocato quando le gare sono terminate (es. dopo aver atteso i loro Future).
+     *
+     * @return Le statistiche complessive.
+     */
+    public RaceStatistics merge() {
+        RaceStatistics total = new RaceStatistics();
+        for (RaceStatistics statistics : perThread) {
+            total.merge(statistics);
+        }
+        return total;
+    }
+}
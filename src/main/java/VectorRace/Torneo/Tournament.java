@@ -0,0 +1,610 @@
+package VectorRace.Torneo;
+
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Fisica.IVelocityCalculator;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.TrackRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tournament esegue un torneo lungo: per ogni tracciato, un numero fisso di gare
+ * in cui tutti i concorrenti ({@link BotParameters}) corrono insieme, con le statistiche
+ * raccolte in un {@link RaceStatistics}.
+ * <p>
+ * Le gare sono numerate e il generatore casuale di ogni gara dipende solo dal seed del torneo
+ * e dal numero della gara, quindi ogni gara è riproducibile indipendentemente dalle altre.
+ * Le gare sono raggruppate in blocchi consecutivi: ogni blocco viene eseguito da un thread
+ * del pool su statistiche proprie e, al termine, consegnato a una coda senza lock.
+ * <p>
+ * Con {@link #setCheckpoint(Path, long)} un thread separato svuota periodicamente la coda,
+ * somma i blocchi completati alle statistiche del torneo e scrive su disco piano del torneo,
+ * blocchi completati e statistiche (scrittura su file temporaneo seguita da rename atomico,
+ * così il file è sempre un checkpoint completo). I thread delle gare non vengono mai fermati.
+ * {@link #resume(Path)} ricostruisce il torneo dal file e riesegue solo i blocchi mancanti:
+ * le gare di un blocco interrotto a metà vengono ripetute da capo con gli stessi seed.
+ */
+public class Tournament {
+
+    /**
+     * Identificativo del formato dei file di checkpoint.
+     */
+    private static final int MAGIC = 0x56525431; // "VRT1"
+
+    /**
+     * Gare per blocco di default.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    /**
+     * Intervallo di default tra due checkpoint, in millisecondi.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 30_000;
+
+    private final List<String> trackLabels;
+    private final List<ITrack> tracks;
+    private final List<BotParameters> contestants;
+    private final int racesPerTrack;
+    private final int maxTurns;
+    private final long seed;
+    private final int chunkSize;
+
+    /**
+     * Regole fisiche condivise da tutte le gare (sono prive di stato).
+     */
+    private final IVelocityCalculator velocityCalculator = new SimpleVelocityCalculator();
+    private final IInertiaManager inertiaManager = new DefaultInertiaManager();
+
+    /**
+     * Blocchi terminati dai thread delle gare e non ancora sommati alle statistiche del torneo.
+     */
+    private final Queue<ChunkResult> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Blocchi già sommati alle statistiche (accesso sincronizzato su this).
+     */
+    private final BitSet completed;
+
+    /**
+     * Statistiche dei blocchi completati (accesso sincronizzato su this).
+     */
+    private final RaceStatistics statistics;
+
+    private Path checkpointFile;
+    private long checkpointIntervalMillis;
+
+    /**
+     * Costruttore di Tournament.
+     *
+     * @param tracks        Tracciati del torneo, indicizzati per nome (l'ordine è quello di iterazione).
+     * @param contestants   Concorrenti, tutti presenti in ogni gara.
+     * @param racesPerTrack Gare per tracciato.
+     * @param maxTurns      Limite di turni di ogni gara.
+     * @param seed          Seed del torneo.
+     */
+    public Tournament(Map<String, ? extends ITrack> tracks, List<BotParameters> contestants,
+                      int racesPerTrack, int maxTurns, long seed) {
+        this(tracks, contestants, racesPerTrack, maxTurns, seed, DEFAULT_CHUNK_SIZE,
+                new BitSet(), new RaceStatistics());
+    }
+
+    private Tournament(Map<String, ? extends ITrack> tracks, List<BotParameters> contestants,
+                       int racesPerTrack, int maxTurns, long seed, int chunkSize,
+                       BitSet completed, RaceStatistics statistics) {
+        if (tracks.isEmpty() || contestants.isEmpty() || racesPerTrack <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Torneo vuoto");
+        }
+        this.trackLabels = List.copyOf(tracks.keySet());
+        this.tracks = List.copyOf(tracks.values());
+        this.contestants = List.copyOf(contestants);
+        this.racesPerTrack = racesPerTrack;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.completed = completed;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Attiva i checkpoint periodici.
+     *
+     * @param file           File di checkpoint (viene sovrascritto a ogni checkpoint).
+     * @param intervalMillis Intervallo tra due checkpoint in millisecondi.
+     */
+    public void setCheckpoint(Path file, long intervalMillis) {
+        this.checkpointFile = file;
+        this.checkpointIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Esegue tutte le gare non ancora completate.
+     *
+     * @param threads Numero di thread delle gare.
+     * @return Le statistiche complessive del torneo.
+     * @throws IOException Se l'ultimo checkpoint non può essere scritto.
+     */
+    public RaceStatistics run(int threads) throws IOException {
+        return run(threads, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Esegue al massimo maxChunks blocchi di gare non ancora completati
+     * (es. per suddividere un torneo in sessioni di durata limitata).
+     * Al termine scrive un ultimo checkpoint, se attivi.
+     *
+     * @param threads   Numero di thread delle gare.
+     * @param maxChunks Numero massimo di blocchi da eseguire.
+     * @return Le statistiche dei blocchi completati finora.
+     * @throws IOException Se l'ultimo checkpoint non può essere scritto.
+     */
+    public RaceStatistics run(int threads, int maxChunks) throws IOException {
+        List<Integer> pending = pendingChunks(maxChunks);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService checkpointer = startCheckpointer();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(pending.size());
+            for (int chunk : pending) {
+                futures.add(pool.submit(() -> complete(chunk, runChunk(chunk))));
+            }
+            for (Future<?> f : futures) {
+                await(f);
+            }
+        } finally {
+            pool.shutdownNow();
+            if (checkpointer != null) {
+                checkpointer.shutdownNow();
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Somma alle statistiche del torneo i blocchi terminati e, se i checkpoint sono attivi,
+     * scrive il checkpoint. Può essere invocato in qualsiasi momento, anche durante {@link #run(int)}.
+     *
+     * @throws IOException Se il checkpoint non può essere scritto.
+     */
+    public synchronized void checkpoint() throws IOException {
+        ChunkResult result;
+        while ((result = finished.poll()) != null) {
+            if (!completed.get(result.chunk)) {
+                statistics.merge(result.statistics);
+                completed.set(result.chunk);
+            }
+        }
+        if (checkpointFile != null) {
+            write(checkpointFile);
+        }
+    }
+
+    /**
+     * Ricostruisce un torneo da un file di checkpoint, caricando i tracciati
+     * dal {@link TrackRegistry} con i nomi salvati. I checkpoint successivi
+     * vengono scritti sullo stesso file, con l'intervallo di default.
+     *
+     * @param file File di checkpoint.
+     * @return Il torneo, pronto a proseguire con {@link #run(int)}.
+     * @throws IOException Se il file non è leggibile o un tracciato è cambiato.
+     */
+    public static Tournament resume(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Non è un checkpoint di torneo: " + file);
+            }
+            Tournament tournament = readPlan(in);
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            tournament.completed.or(BitSet.valueOf(words));
+            tournament.statistics.merge(RaceStatistics.readFrom(in));
+            tournament.setCheckpoint(file, DEFAULT_CHECKPOINT_INTERVAL);
+            return tournament;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Checkpoint non valido: " + file, e);
+        }
+    }
+
+    /**
+     * Legge il piano di un torneo scritto con {@link #writePlan(DataOutput)}
+     * e crea il torneo corrispondente, senza blocchi completati.
+     *
+     * @param in Sorgente.
+     * @return Il torneo.
+     * @throws IOException Se i dati non sono leggibili o un tracciato è cambiato.
+     */
+    static Tournament readPlan(DataInput in) throws IOException {
+        try {
+            long seed = in.readLong();
+            int racesPerTrack = in.readInt();
+            int maxTurns = in.readInt();
+            int chunkSize = in.readInt();
+
+            Map<String, ITrack> tracks = new LinkedHashMap<>();
+            int trackCount = in.readInt();
+            for (int i = 0; i < trackCount; i++) {
+                String label = in.readUTF();
+                String hash = in.readUTF();
+                ImmutableTrack track = TrackRegistry.getInstance().load(label);
+                if (!hash.isEmpty() && !hash.equals(track.getContentHash())) {
+                    throw new IOException("Il tracciato " + label + " è cambiato dall'ultimo checkpoint");
+                }
+                tracks.put(label, track);
+            }
+
+            List<BotParameters> contestants = new ArrayList<>();
+            int contestantCount = in.readInt();
+            for (int i = 0; i < contestantCount; i++) {
+                TunableBot bot = TunableBot.valueOf(in.readUTF());
+                double[] values = new double[in.readInt()];
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = in.readDouble();
+                }
+                contestants.add(new BotParameters(bot, values));
+            }
+            return new Tournament(tracks, contestants, racesPerTrack, maxTurns, seed,
+                    chunkSize, new BitSet(), new RaceStatistics());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Piano del torneo non valido", e);
+        }
+    }
+
+    /**
+     * @return Numero totale di gare del torneo.
+     */
+    public long getTotalRaces() {
+        return (long) tracks.size() * racesPerTrack;
+    }
+
+    /**
+     * @return Numero di blocchi di gare del torneo.
+     */
+    public int getChunkCount() {
+        return (int) ((getTotalRaces() + chunkSize - 1) / chunkSize);
+    }
+
+    /**
+     * @return Numero di blocchi già completati e sommati alle statistiche.
+     */
+    public synchronized int getCompletedChunks() {
+        return completed.cardinality();
+    }
+
+    /**
+     * @return true se tutte le gare del torneo sono state completate.
+     */
+    public synchronized boolean isComplete() {
+        return completed.cardinality() == getChunkCount();
+    }
+
+    /**
+     * Scrive il checkpoint sul file temporaneo accanto a quello finale, lo forza su disco
+     * e lo sostituisce al precedente con un rename atomico.
+     */
+    private void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC);
+            writePlan(out);
+            long[] words = completed.toLongArray();
+            out.writeInt(words.length);
+            for (long w : words) {
+                out.writeLong(w);
+            }
+            statistics.writeTo(out);
+            out.flush();
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Scrive il piano del torneo: seed, gare, turni, blocchi, tracciati (nome e hash
+     * del contenuto) e concorrenti. È la parte iniziale dei checkpoint e il messaggio
+     * con cui {@link TournamentCoordinator} configura i processi worker.
+     *
+     * @param out Destinazione.
+     * @throws IOException In caso di errore di scrittura.
+     */
+    void writePlan(DataOutput out) throws IOException {
+        out.writeLong(seed);
+        out.writeInt(racesPerTrack);
+        out.writeInt(maxTurns);
+        out.writeInt(chunkSize);
+        out.writeInt(tracks.size());
+        for (int i = 0; i < tracks.size(); i++) {
+            out.writeUTF(trackLabels.get(i));
+            ITrack track = tracks.get(i);
+            out.writeUTF(track instanceof ImmutableTrack ? ((ImmutableTrack) track).getContentHash() : "");
+        }
+        out.writeInt(contestants.size());
+        for (BotParameters p : contestants) {
+            out.writeUTF(p.getBot().name());
+            double[] values = p.getValues();
+            out.writeInt(values.length);
+            for (double v : values) {
+                out.writeDouble(v);
+            }
+        }
+    }
+
+    /**
+     * Restituisce i blocchi non ancora completati, in ordine.
+     *
+     * @param maxChunks Numero massimo di blocchi da restituire.
+     * @return Gli indici dei blocchi.
+     */
+    synchronized List<Integer> pendingChunks(int maxChunks) {
+        List<Integer> pending = new ArrayList<>();
+        for (int c = completed.nextClearBit(0); c < getChunkCount() && pending.size() < maxChunks;
+             c = completed.nextClearBit(c + 1)) {
+            pending.add(c);
+        }
+        return pending;
+    }
+
+    /**
+     * Consegna le statistiche di un blocco terminato; vengono sommate a quelle del torneo
+     * al checkpoint successivo. Può essere invocato da qualsiasi thread senza attese.
+     *
+     * @param chunk      Indice del blocco.
+     * @param statistics Statistiche del blocco.
+     */
+    void complete(int chunk, RaceStatistics statistics) {
+        finished.add(new ChunkResult(chunk, statistics));
+    }
+
+    /**
+     * Avvia il thread dei checkpoint periodici, se i checkpoint sono attivi.
+     *
+     * @return Il thread (da fermare a fine esecuzione), o null.
+     */
+    ScheduledExecutorService startCheckpointer() {
+        if (checkpointFile == null) {
+            return null;
+        }
+        ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tournament-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        checkpointer.scheduleWithFixedDelay(this::periodicCheckpoint,
+                checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+        return checkpointer;
+    }
+
+    /**
+     * Scrive l'ultimo checkpoint e restituisce una copia delle statistiche del torneo.
+     *
+     * @return Le statistiche dei blocchi completati.
+     * @throws IOException Se il checkpoint non può essere scritto.
+     */
+    RaceStatistics finish() throws IOException {
+        // Somma anche i blocchi completati prima di un eventuale errore
+        checkpoint();
+        synchronized (this) {
+            return copyOfStatistics();
+        }
+    }
+
+    /**
+     * Checkpoint invocato dal thread periodico: un errore di scrittura viene segnalato
+     * senza interrompere il torneo (il file precedente resta valido).
+     */
+    private void periodicCheckpoint() {
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            System.err.println("Checkpoint non riuscito: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Esegue le gare di un blocco su statistiche proprie del blocco.
+     *
+     * @param chunk Indice del blocco.
+     * @return Le statistiche delle gare del blocco.
+     */
+    RaceStatistics runChunk(int chunk) {
+        RaceStatistics local = new RaceStatistics();
+        long first = (long) chunk * chunkSize;
+        long last = Math.min(first + chunkSize, getTotalRaces());
+        for (long race = first; race < last; race++) {
+            runRace(race, local);
+        }
+        return local;
+    }
+
+    /**
+     * Esegue una gara silenziosa con tutti i concorrenti e ne registra l'esito.
+     * Il seed della gara dipende solo dal seed del torneo e dal numero della gara;
+     * l'ordine di partenza ruota da una gara all'altra.
+     */
+    private void runRace(long race, RaceStatistics into) {
+        int trackIndex = (int) (race / racesPerTrack);
+        ITrack track = tracks.get(trackIndex);
+        String trackLabel = trackLabels.get(trackIndex);
+        Random random = new Random(seed * 0x9E3779B97F4A7C15L + race);
+
+        int n = contestants.size();
+        IPlayer[] players = new IPlayer[n];
+        RaceStatistics.Entry[] entries = new RaceStatistics.Entry[n];
+        for (int i = 0; i < n; i++) {
+            BotParameters p = contestants.get(i);
+            players[i] = p.getBot().create("B" + i, track.getStartPosition(), track, p.getValues(), random);
+            entries[i] = into.entry(p.toString(), trackLabel);
+        }
+
+        GameEngine engine = new GameEngine(new GameBoard(track), velocityCalculator, inertiaManager, maxTurns);
+        engine.setVerbose(false);
+        engine.setDecisionRecorder((player, nanos) -> {
+            for (int i = 0; i < n; i++) {
+                if (players[i] == player) {
+                    entries[i].recordDecision(nanos);
+                    return;
+                }
+            }
+        });
+        int offset = (int) (race % n);
+        for (int i = 0; i < n; i++) {
+            engine.addPlayer(players[(i + offset) % n]);
+        }
+        RaceResult result = engine.runRace();
+        for (int i = 0; i < n; i++) {
+            entries[i].record(result, players[i]);
+        }
+    }
+
+    /**
+     * Copia delle statistiche del torneo, da restituire senza esporre lo stato interno.
+     */
+    private RaceStatistics copyOfStatistics() {
+        RaceStatistics copy = new RaceStatistics();
+        copy.merge(statistics);
+        return copy;
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Torneo interrotto", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore durante una gara del torneo", e.getCause());
+        }
+    }
+
+    /**
+     * Statistiche di un blocco terminato, in attesa di essere sommate a quelle del torneo.
+     */
+    private static final class ChunkResult {
+        final int chunk;
+        final RaceStatistics statistics;
+
+        ChunkResult(int chunk, RaceStatistics statistics) {
+            this.chunk = chunk;
+            this.statistics = statistics;
+        }
+    }
+
+    /**
+     * Avvia o riprende un torneo da riga di comando.
+     * Uso:
+     * <pre>
+     * Tournament run checkpoint gare turni seed tracciato[,tracciato...] BOT[:valore,...] ...
+     * Tournament resume checkpoint [thread]
+     * </pre>
+     * Esempio di concorrente: GREEDY:1.5 oppure SPEED_CONTROL:2. Il checkpoint
+     * viene scritto ogni {@link #DEFAULT_CHECKPOINT_INTERVAL} ms; resume riesegue solo le gare mancanti.
+     *
+     * @param args Parametri del torneo.
+     * @throws IOException Se un tracciato o il checkpoint non possono essere letti o scritti.
+     */
+    public static void main(String[] args) throws IOException {
+        Tournament tournament = fromArgs(args);
+        if (tournament == null) {
+            return;
+        }
+        int threads = ("resume".equals(args[0]) && args.length > 2)
+                ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        RaceStatistics result = tournament.run(threads);
+        System.out.print(result);
+    }
+
+    /**
+     * Crea o riprende un torneo dagli argomenti dei comandi run e resume
+     * (vedi {@link #main(String[])}), con i checkpoint attivi sul file indicato.
+     *
+     * @param args Argomenti del comando.
+     * @return Il torneo, o null (dopo aver stampato l'uso) se gli argomenti non sono validi.
+     * @throws IOException Se un tracciato o il checkpoint non possono essere letti.
+     */
+    static Tournament fromArgs(String[] args) throws IOException {
+        Tournament tournament;
+        if (args.length >= 2 && "resume".equals(args[0])) {
+            tournament = resume(Paths.get(args[1]));
+            System.out.println("Ripresa: " + tournament.getCompletedChunks() + "/" + tournament.getChunkCount()
+                    + " blocchi già completati");
+        } else if (args.length >= 7 && "run".equals(args[0])) {
+            Map<String, ITrack> tracks = new LinkedHashMap<>();
+            for (String label : args[5].split(",")) {
+                tracks.put(label, TrackRegistry.getInstance().load(label));
+            }
+            List<BotParameters> contestants = new ArrayList<>();
+            for (int i = 6; i < args.length; i++) {
+                contestants.add(parseContestant(args[i]));
+            }
+            tournament = new Tournament(tracks, contestants, Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3]), Long.parseLong(args[4]));
+        } else {
+            System.err.println("Uso: Tournament run checkpoint gare turni seed tracciato[,tracciato...] BOT[:valore,...] ...");
+            System.err.println("     Tournament resume checkpoint [thread]");
+            return null;
+        }
+
+        tournament.setCheckpoint(Paths.get(args[1]), DEFAULT_CHECKPOINT_INTERVAL);
+        return tournament;
+    }
+
+    /**
+     * Interpreta un concorrente nel formato BOT[:valore,valore...]; senza valori
+     * ogni parametro assume il centro del proprio intervallo.
+     */
+    private static BotParameters parseContestant(String spec) {
+        String[] parts = spec.split(":", 2);
+        TunableBot bot = TunableBot.valueOf(parts[0]);
+        double[] values = new double[bot.getParameterCount()];
+        if (parts.length > 1) {
+            String[] raw = parts[1].split(",");
+            for (int i = 0; i < values.length && i < raw.length; i++) {
+                values[i] = Double.parseDouble(raw[i]);
+            }
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = bot.clamp(i, Double.NEGATIVE_INFINITY) + bot.span(i) / 2;
+            }
+        }
+        return new BotParameters(bot, values);
+    }
+}
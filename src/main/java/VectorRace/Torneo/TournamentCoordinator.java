@@ -0,0 +1,284 @@
+package VectorRace.Torneo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TournamentCoordinator esegue un {@link Tournament} su più JVM della stessa macchina:
+ * avvia N processi {@link TournamentWorker}, invia a ciascuno il piano del torneo e poi
+ * i blocchi di gare da eseguire attraverso le pipe di standard input/output, e somma le
+ * statistiche ricevute con lo stesso meccanismo (e gli stessi checkpoint) di {@link Tournament#run(int)}.
+ * <p>
+ * Ogni worker ha un proprio heap e un proprio garbage collector, quindi il torneo non è
+ * limitato da un solo heap e un bot che esaurisce la memoria o si blocca coinvolge solo
+ * il suo processo. Se un worker termina in modo anomalo o non risponde entro il tempo
+ * massimo per blocco, il processo viene terminato, il blocco torna in coda per un altro
+ * worker e ne viene avviato uno nuovo. Un blocco che fallisce {@link #MAX_ATTEMPTS} volte
+ * viene abbandonato e riportato da {@link #getFailedChunks()} (resta da completare
+ * in un eventuale resume).
+ */
+public class TournamentCoordinator {
+
+    /**
+     * Tentativi massimi per blocco prima di abbandonarlo.
+     */
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final Tournament tournament;
+    private final int workers;
+
+    /**
+     * Opzioni aggiuntive della JVM dei worker (es. -Xmx512m).
+     */
+    private List<String> jvmOptions = List.of();
+
+    /**
+     * Tempo massimo per l'esecuzione di un blocco da parte di un worker, in millisecondi.
+     */
+    private long batchTimeoutMillis = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Tentativi falliti per blocco.
+     */
+    private final Map<Integer, Integer> attempts = new ConcurrentHashMap<>();
+
+    /**
+     * Blocchi abbandonati dopo troppi tentativi.
+     */
+    private final Set<Integer> failed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Costruttore di TournamentCoordinator.
+     *
+     * @param tournament Torneo da eseguire.
+     * @param workers    Numero di processi worker.
+     */
+    public TournamentCoordinator(Tournament tournament, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Serve almeno un worker");
+        }
+        this.tournament = tournament;
+        this.workers = workers;
+    }
+
+    /**
+     * Imposta le opzioni aggiuntive della JVM dei worker.
+     *
+     * @param jvmOptions Opzioni, es. List.of("-Xmx512m").
+     */
+    public void setJvmOptions(List<String> jvmOptions) {
+        this.jvmOptions = List.copyOf(jvmOptions);
+    }
+
+    /**
+     * Imposta il tempo massimo per l'esecuzione di un blocco: oltre questo tempo
+     * il worker viene considerato bloccato, terminato e sostituito.
+     *
+     * @param batchTimeoutMillis Tempo massimo in millisecondi.
+     */
+    public void setBatchTimeout(long batchTimeoutMillis) {
+        this.batchTimeoutMillis = batchTimeoutMillis;
+    }
+
+    /**
+     * Esegue sui worker tutti i blocchi non ancora completati del torneo.
+     *
+     * @return Le statistiche dei blocchi completati.
+     * @throws IOException Se l'ultimo checkpoint non può essere scritto.
+     */
+    public RaceStatistics run() throws IOException {
+        BlockingDeque<Integer> pending = new LinkedBlockingDeque<>(tournament.pendingChunks(Integer.MAX_VALUE));
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        ScheduledExecutorService checkpointer = tournament.startCheckpointer();
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tournament-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Thread t = new Thread(() -> serve(pending, remaining, watchdog), "tournament-worker-" + i);
+            t.start();
+            threads.add(t);
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Torneo interrotto", e);
+        } finally {
+            watchdog.shutdownNow();
+            if (checkpointer != null) {
+                checkpointer.shutdownNow();
+            }
+        }
+        return tournament.finish();
+    }
+
+    /**
+     * @return I blocchi abbandonati dopo {@link #MAX_ATTEMPTS} tentativi falliti, in ordine.
+     */
+    public Set<Integer> getFailedChunks() {
+        return new TreeSet<>(failed);
+    }
+
+    /**
+     * Ciclo di un thread del coordinatore: gestisce un processo worker, gli invia
+     * i blocchi presi dalla coda comune e lo sostituisce se termina in modo anomalo.
+     */
+    private void serve(BlockingDeque<Integer> pending, AtomicInteger remaining, ScheduledExecutorService watchdog) {
+        WorkerProcess worker = null;
+        try {
+            while (remaining.get() > 0) {
+                Integer chunk = pending.poll(50, TimeUnit.MILLISECONDS);
+                if (chunk == null) {
+                    continue;
+                }
+                try {
+                    if (worker == null) {
+                        worker = new WorkerProcess();
+                    }
+                    RaceStatistics statistics = worker.execute(chunk, watchdog);
+                    tournament.complete(chunk, statistics);
+                    remaining.decrementAndGet();
+                } catch (IOException e) {
+                    if (worker != null) {
+                        worker.kill();
+                        worker = null;
+                    }
+                    int attempt = attempts.merge(chunk, 1, Integer::sum);
+                    String cause = (e.getMessage() != null) ? e.getMessage() : e.getClass().getSimpleName();
+                    if (attempt >= MAX_ATTEMPTS) {
+                        System.err.println("Blocco " + chunk + " abbandonato dopo " + attempt + " tentativi: " + cause);
+                        failed.add(chunk);
+                        remaining.decrementAndGet();
+                    } else {
+                        System.err.println("Worker perso sul blocco " + chunk + " (" + cause + "), riassegnato");
+                        pending.addFirst(chunk);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (worker != null) {
+                worker.close();
+            }
+        }
+    }
+
+    /**
+     * Un processo worker con le pipe del protocollo.
+     */
+    private final class WorkerProcess {
+        private final Process process;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+
+        WorkerProcess() throws IOException {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmOptions);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(TournamentWorker.class.getName());
+            process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            tournament.writePlan(out);
+            out.flush();
+        }
+
+        /**
+         * Fa eseguire un blocco al worker e ne legge le statistiche; se il worker non
+         * risponde entro il tempo massimo viene terminato e la lettura fallisce.
+         */
+        RaceStatistics execute(int chunk, ScheduledExecutorService watchdog) throws IOException {
+            ScheduledFuture<?> timeout = watchdog.schedule(process::destroyForcibly,
+                    batchTimeoutMillis, TimeUnit.MILLISECONDS);
+            try {
+                out.writeInt(chunk);
+                out.flush();
+                int echoed = in.readInt();
+                if (echoed != chunk) {
+                    throw new IOException("Risposta per il blocco " + echoed + " invece di " + chunk);
+                }
+                return RaceStatistics.readFrom(in);
+            } finally {
+                timeout.cancel(false);
+            }
+        }
+
+        /**
+         * Chiede al worker di terminare e attende la sua uscita.
+         */
+        void close() {
+            try {
+                out.writeInt(-1);
+                out.close();
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Termina immediatamente il worker.
+         */
+        void kill() {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Avvia o riprende un torneo distribuito su più JVM.
+     * Uso: TournamentCoordinator worker run|resume ... (stessi argomenti di {@link Tournament#main(String[])}).
+     *
+     * @param args Numero di worker seguito dagli argomenti del torneo.
+     * @throws IOException Se un tracciato o il checkpoint non possono essere letti o scritti.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Uso: TournamentCoordinator worker run|resume ...");
+            return;
+        }
+        Tournament tournament = Tournament.fromArgs(Arrays.copyOfRange(args, 1, args.length));
+        if (tournament == null) {
+            return;
+        }
+        TournamentCoordinator coordinator = new TournamentCoordinator(tournament, Integer.parseInt(args[0]));
+        RaceStatistics result = coordinator.run();
+        System.out.print(result);
+        if (!coordinator.getFailedChunks().isEmpty()) {
+            System.err.println("Blocchi non completati: " + coordinator.getFailedChunks());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package VectorRace.Torneo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * TournamentWorker è il processo worker avviato da {@link TournamentCoordinator}.
+ * <p>
+ * Legge da standard input il piano del torneo (vedi {@link Tournament#writePlan}) e poi,
+ * uno alla volta, gli indici dei blocchi di gare da eseguire; per ogni blocco risponde
+ * su standard output con l'indice del blocco seguito dalle sue {@link RaceStatistics}.
+ * Un indice negativo chiude il worker. Lo standard output è riservato al protocollo:
+ * eventuali stampe dei bot vengono deviate sullo standard error.
+ */
+public final class TournamentWorker {
+
+    private TournamentWorker() {
+    }
+
+    /**
+     * Punto di ingresso del processo worker.
+     *
+     * @param args Non usati.
+     * @throws IOException Se la comunicazione con il coordinatore si interrompe.
+     */
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err);
+
+        Tournament tournament = Tournament.readPlan(in);
+        int chunk;
+        while ((chunk = in.readInt()) >= 0) {
+            RaceStatistics statistics = tournament.runChunk(chunk);
+            out.writeInt(chunk);
+            statistics.writeTo(out);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package VectorRace.Torneo;
+
+import VectorRace.Giocatori.DefensiveBot;
+import VectorRace.Giocatori.GreedyBot;
+import VectorRace.Giocatori.IPlayer;
+import VectorRace.Giocatori.SpeedControlBot;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Position;
+
+import java.util.Random;
+
+/**
+ * TunableBot elenca i bot con parametri configurabili che possono essere ottimizzati
+ * da {@link BotTuner}, insieme agli intervalli ammessi per ciascun parametro.
+ */
+public enum TunableBot {
+
+    /**
+     * GreedyBot: peso alfa della distanza dal traguardo.
+     */
+    GREEDY(new String[]{"alfa"}, new double[]{0.0}, new double[]{5.0}, new boolean[]{false}) {
+        @Override
+        public IPlayer create(String name, Position start, ITrack track, double[] params, Random random) {
+            return new GreedyBot(name, start, track, params[0], random);
+        }
+    },
+
+    /**
+     * SpeedControlBot: soglia di velocità oltre la quale smette di accelerare.
+     */
+    SPEED_CONTROL(new String[]{"maxVelocity"}, new double[]{1}, new double[]{3}, new boolean[]{true}) {
+        @Override
+        public IPlayer create(String name, Position start, ITrack track, double[] params, Random random) {
+            return new SpeedControlBot(name, start, track, (int) params[0], random);
+        }
+    },
+
+    /**
+     * DefensiveBot: velocità di crociera da mantenere.
+     */
+    DEFENSIVE(new String[]{"cruiseVelocity"}, new double[]{0}, new double[]{3}, new boolean[]{true}) {
+        @Override
+        public IPlayer create(String name, Position start, ITrack track, double[] params, Random random) {
+            return new DefensiveBot(name, start, track, (int) params[0], random);
+        }
+    };
+
+    private final String[] names;
+    private final double[] min;
+    private final double[] max;
+    private final boolean[] integer;
+
+    TunableBot(String[] names, double[] min, double[] max, boolean[] integer) {
+        this.names = names;
+        this.min = min;
+        this.max = max;
+        this.integer = integer;
+    }
+
+    /**
+     * Crea un'istanza del bot con i parametri indicati.
+     *
+     * @param name   Nome del bot.
+     * @param start  Posizione di partenza.
+     * @param track  Tracciato di gioco.
+     * @param params Valori dei parametri, nell'ordine di {@link #getParameterName(int)}.
+     * @param random Generatore casuale del bot (per gare riproducibili).
+     * @return Il bot configurato.
+     */
+    public abstract IPlayer create(String name, Position start, ITrack track, double[] params, Random random);
+
+    /**
+     * Numero di parametri del bot.
+     *
+     * @return Numero di parametri.
+     */
+    public int getParameterCount() {
+        return names.length;
+    }
+
+    /**
+     * Nome dell'i-esimo parametro.
+     *
+     * @param i Indice del parametro.
+     * @return Nome del parametro.
+     */
+    public String getParameterName(int i) {
+        return names[i];
+    }
+
+    /**
+     * Porta un valore nell'intervallo ammesso per l'i-esimo parametro,
+     * arrotondandolo all'intero se il parametro è intero o al centesimo altrimenti.
+     * L'arrotondamento fa sì che configurazioni quasi identiche condividano la stessa
+     * voce nella cache dei punteggi.
+     *
+     * @param i     Indice del parametro.
+     * @param value Valore proposto.
+     * @return Valore valido e arrotondato.
+     */
+    public double clamp(int i, double value) {
+        double v = Math.max(min[i], Math.min(max[i], value));
+        return integer[i] ? Math.rint(v) : Math.rint(v * 100) / 100;
+    }
+
+    /**
+     * Estrae un valore uniforme nell'intervallo dell'i-esimo parametro.
+     *
+     * @param i      Indice del parametro.
+     * @param random Generatore casuale.
+     * @return Valore valido e arrotondato.
+     */
+    public double sample(int i, Random random) {
+        return clamp(i, min[i] + random.nextDouble() * (max[i] - min[i] + (integer[i] ? 1 : 0)) - (integer[i] ? 0.5 : 0));
+    }
+
+    /**
+     * Ampiezza dell'intervallo dell'i-esimo parametro (usata per dimensionare le mutazioni).
+     *
+     * @param i Indice del parametro.
+     * @return max - min.
+     */
+    public double span(int i) {
+        return max[i] - min[i];
+    }
+}
@@ -50,38 +50,38 @@ public class TestAggressiveBot {
     }
 
     /**
-     * Verifica che se la velocit  < 2, il bot acceleri sempre (restituisce 1).
+     * Verifica che se la velocità è < 2, il bot acceleri sempre (restituisce 1).
      */
     @Test
     void testChooseAccelerationLowVelocity() {
-        // Imposta la velocit del bot a 1
+        // Imposta la velocità del bot a 1
         bot.setVelocity(1);
 
-        // Se la velocit  < 2, deve restituire 1 (accelerazione)
+        // Se la velocità è < 2, deve restituire 1 (accelerazione)
         int accel = bot.chooseAcceleration();
         assertEquals(1, accel,
-                "Per velocit < 2, AggressiveBot dovrebbe accelerare di 1");
+                "Per velocità < 2, AggressiveBot dovrebbe accelerare di 1");
     }
 
     /**
-     * Verifica la logica quando la velocit  >= 2.
-     * - Con probabilit 70% restituisce 1, con 30% restituisce -1.
+     * Verifica la logica quando la velocità è >= 2.
+     * - Con probabilità 70% restituisce 1, con 30% restituisce -1.
      * Per un singolo test, controlliamo solo che ritorni 1 o -1, non altri valori.
      *
-     * Usiamo @RepeatedTest per chiamarlo pi volte e avere un campione.
-     * ( un test statistico, quindi se vuoi testare in modo deterministico,
+     * Usiamo @RepeatedTest per chiamarlo più volte e avere un campione.
+     * (È un test statistico, quindi se vuoi testare in modo deterministico,
      * dovresti "mockare" o fissare un seed per la classe Random.)
      */
     @RepeatedTest(5)
     void testChooseAccelerationHighVelocity() {
-        // Impostiamo la velocit del bot a 3
+        // Impostiamo la velocità del bot a 3
         bot.setVelocity(3);
 
         int accel = bot.chooseAcceleration();
 
         // Dovrebbe essere o 1 (accelera) o -1 (decelera)
         assertTrue(accel == 1 || accel == -1,
-                "Per velocit >= 2, AggressiveBot deve restituire 1 o -1");
+                "Per velocità >= 2, AggressiveBot deve restituire 1 o -1");
     }
 
     /**
@@ -0,0 +1,94 @@
+import VectorRace.Giocatori.BotPlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.PackedPosition;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class TestCellQueries {
+
+    /**
+     * Le interrogazioni a blocchi di Track e ImmutableTrack coincidono con quelle cella per cella,
+     * anche per le coordinate fuori dal tracciato.
+     */
+    @Test
+    void testBatchQueriesMatchSingleQueries() throws IOException {
+        Track track = new Track();
+        track.loadFromLines("celle", List.of(
+                "######",
+                "#S..F#",
+                "#.##F#",
+                "######"));
+        ImmutableTrack immutable = ImmutableTrack.copyOf(track, "celle");
+
+        int[] packed = new int[(track.getWidth() + 2) * (track.getHeight() + 2)];
+        int count = 0;
+        for (int y = -1; y <= track.getHeight(); y++) {
+            for (int x = -1; x <= track.getWidth(); x++) {
+                packed[count++] = PackedPosition.pack(x, y);
+            }
+        }
+
+        for (ITrack t : List.of(track, immutable)) {
+            byte[] types = new byte[count];
+            t.getCellTypes(packed, 0, count, types);
+            for (int i = 0; i < count; i++) {
+                int x = PackedPosition.x(packed[i]);
+                int y = PackedPosition.y(packed[i]);
+                assertEquals(t.getCellType(x, y), types[i]);
+                boolean inside = x >= 0 && y >= 0 && x < t.getWidth() && y < t.getHeight();
+                byte expected = !inside ? CellType.OUT_OF_BOUNDS
+                        : !t.isFree(new Position(x, y)) ? CellType.OBSTACLE
+                        : t.isFinish(new Position(x, y)) ? CellType.FINISH : CellType.FREE;
+                assertEquals(expected, types[i]);
+            }
+
+            // Le righe 1 e 2 (x da 0 a 5) in una sola maschera
+            int offset = 2 * (t.getWidth() + 2) + 1;
+            long finish = t.cellMask(packed, offset, 6, CellType.FINISH_CLASSES);
+            assertEquals(1L << 4, finish);
+        }
+    }
+
+    /**
+     * La plancia esclude dalle celle libere quelle occupate da un giocatore.
+     */
+    @Test
+    void testBoardFreeMaskExcludesPlayers() throws IOException {
+        ITrack track = TrackRegistry.getInstance().register("celle-plancia",
+                "#####\n#S.F#\n#####\n".getBytes());
+        GameBoard board = new GameBoard(track);
+        board.addPlayer(new BotPlayer("Bot", track.getStartPosition()));
+
+        int[] packed = {PackedPosition.pack(0, 1), PackedPosition.pack(1, 1),
+                PackedPosition.pack(2, 1), PackedPosition.pack(3, 1), PackedPosition.pack(-1, 1)};
+        assertEquals(0b00010L, board.occupiedMask(packed, 0, packed.length));
+        assertEquals(0b01100L, board.freeMask(packed, 0, packed.length));
+
+        int width = track.getWidth();
+        int[] cells = {width, width + 1, width + 2, width + 3};
+        assertEquals(0b0010L, board.occupiedCellMask(cells, 0, cells.length));
+    }
+
+    /**
+     * Le coordinate che non stanno in 16 bit vengono rifiutate invece di essere troncate.
+     */
+    @Test
+    void testPackRejectsWideCoordinates() {
+        assertEquals(-32768, PackedPosition.x(PackedPosition.pack(-32768, 32767)));
+        assertEquals(32767, PackedPosition.y(PackedPosition.pack(-32768, 32767)));
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.pack(35000, 2));
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.pack(2, -40000));
+    }
+}
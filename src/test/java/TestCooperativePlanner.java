@@ -0,0 +1,141 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.IInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.TeamBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Motore.TrafficHeatmap;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Ricerca.CooperativePlanner;
+import VectorRace.Ricerca.ReservationTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestCooperativePlanner {
+
+    /**
+     * Uno slot appartiene a un solo bot e blocca anche l'arrivo nel turno successivo.
+     */
+    @Test
+    void testReservationsAreExclusive() {
+        ReservationTable table = new ReservationTable();
+        assertTrue(table.reserve(42, 5, 0));
+        assertFalse(table.reserve(42, 5, 1));
+        assertTrue(table.isAvailable(42, 5, 0));
+        assertFalse(table.isAvailable(42, 6, 1));
+        assertTrue(table.isAvailable(42, 7, 1));
+
+        table.expireBefore(6);
+        assertEquals(ReservationTable.FREE, table.owner(42, 5));
+        assertTrue(table.reserve(42, 5, 1));
+    }
+
+    /**
+     * Dieci bot di squadra che partono affiancati e devono passare da una strettoia
+     * arrivano al traguardo senza mai saltare un turno per una cella occupata.
+     */
+    @Test
+    void testTeamCrossesBottleneckWithoutBlocking() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 24; x++) {
+                char c = (x == 0 || y == 0 || x == 23 || y == 19) ? '#' : ' ';
+                if (y == 1 && x >= 2 && x <= 21 && x % 2 == 0) c = 'S';
+                if (y == 10 && (x < 9 || x > 13) && c == ' ') c = '#';
+                if (y == 18 && x >= 10 && x <= 12) c = 'F';
+                text.append(c);
+            }
+            text.append('\n');
+        }
+        ITrack track = TrackRegistry.getInstance().register("bottleneck",
+                text.toString().getBytes(StandardCharsets.US_ASCII));
+
+        IInertiaManager inertia = new DefaultInertiaManager();
+        CooperativePlanner planner = new CooperativePlanner(track, inertia);
+        TrafficHeatmap heatmap = new TrafficHeatmap(track);
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(), inertia, 50);
+        engine.setVerbose(false);
+        engine.setHeatmap(heatmap);
+        for (Position start : track.getAllStartPositions()) {
+            engine.addPlayer(new TeamBot("T" + start.getX(), start, planner));
+        }
+        RaceResult result = engine.runRace();
+
+        assertTrue(result.hasWinner());
+        assertTrue(result.getEliminatedPlayers().isEmpty());
+        assertEquals(0, heatmap.total(TrafficHeatmap.Counter.BLOCKED));
+    }
+
+    /**
+     * Un bot che smette di chiedere la sua mossa (es. perché eliminato) perde le sue
+     * prenotazioni dal turno successivo, senza bloccare più i compagni di squadra.
+     */
+    @Test
+    void testInactiveBotReleasesReservations() throws IOException {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        CooperativePlanner planner = new CooperativePlanner(track, new DefaultInertiaManager());
+        int eliminated = planner.join();
+        int survivor = planner.join();
+        Position first = track.getAllStartPositions().get(0);
+        Position second = track.getAllStartPositions().get(1);
+        int east = VectorDirection.CardinalDirection.E.ordinal();
+
+        planner.nextMove(eliminated, first, 0, east, DirectionMask.ALL, 1);
+        planner.nextMove(survivor, second, 0, east, DirectionMask.ALL, 1);
+        assertTrue(reservationsOf(planner, track, eliminated) > 0);
+
+        // Dal turno 2 chiede la mossa solo il bot rimasto in gara
+        planner.nextMove(survivor, second, 0, east, DirectionMask.ALL, 2);
+        assertTrue(reservationsOf(planner, track, eliminated) > 0, "Un turno saltato non basta ancora");
+        planner.nextMove(survivor, second, 0, east, DirectionMask.ALL, 3);
+        assertEquals(0, reservationsOf(planner, track, eliminated));
+        assertTrue(reservationsOf(planner, track, survivor) > 0);
+    }
+
+    /**
+     * Un bot lanciato a velocità 3 davanti a un traguardo seguito da un muro ha un piano:
+     * ogni mossa possibile scavalca il traguardo, quindi conclude la corsa.
+     */
+    @Test
+    void testPlanEndsOnCrossedFinish() throws IOException {
+        ITrack track = TrackRegistry.getInstance().register("planner-crossing", (
+                "###########\n" +
+                "#S...##.F##\n" +
+                "###########\n").getBytes(StandardCharsets.US_ASCII));
+        CooperativePlanner planner = new CooperativePlanner(track, new DefaultInertiaManager());
+        int bot = planner.join();
+        int east = VectorDirection.CardinalDirection.E.ordinal();
+
+        int move = planner.nextMove(bot, new Position(7, 1), 3, east, DirectionMask.ALL, 3);
+        assertEquals(east, CooperativePlanner.direction(move));
+        assertEquals(bot, planner.getReservations().owner(track.getWidth() + 8, 3), "Il piano finisce sul traguardo");
+    }
+
+    /**
+     * Conta gli slot (cella, turno) prenotati da un bot nei primi turni della gara.
+     */
+    private static int reservationsOf(CooperativePlanner planner, ITrack track, int bot) {
+        int count = 0;
+        int cells = track.getWidth() * track.getHeight();
+        for (int turn = 0; turn <= 3 + planner.getWindow(); turn++) {
+            for (int cell = 0; cell < cells; cell++) {
+                if (planner.getReservations().owner(cell, turn) == bot) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,72 @@
+import VectorRace.Posizione.DistanceField;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestDistanceField {
+
+    /**
+     * La distanza aggira i muri e considera il più vicino di tutti i traguardi.
+     */
+    @Test
+    void testDistancesAvoidWallsAndUseAllFinishes() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("distance-field-test", (
+                "#######\n" +
+                "#S   F#\n" +
+                "#### ##\n" +
+                "#F    #\n" +
+                "#######\n").getBytes(StandardCharsets.US_ASCII));
+        DistanceField field = DistanceField.of(track);
+
+        assertSame(field, DistanceField.of(track));
+        assertEquals(0, field.distanceAt(1, 3));
+        assertEquals(0, field.distanceAt(5, 1));
+        // Il traguardo in basso è a due celle in linea d'aria ma dietro il muro
+        assertEquals(4, field.distanceAt(1, 1));
+        assertEquals(2, field.distanceAt(4, 3));
+        assertEquals(DistanceField.UNREACHABLE, field.distanceAt(0, 0));
+        assertEquals(DistanceField.UNREACHABLE, field.distanceAt(-1, 2));
+    }
+
+    /**
+     * Il campo salvato accanto al tracciato viene riletto identico.
+     */
+    @Test
+    void testSavedFieldIsReused() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().load("track.txt");
+        Path file = DistanceField.fileFor(Files.createTempDirectory("vr-dist").resolve("track.txt"));
+        DistanceField computed = DistanceField.of(track, file);
+        assertTrue(Files.exists(file));
+
+        ImmutableTrack copy = ImmutableTrack.of(track.getWidth(), track.getHeight(), cellsOf(track),
+                track.getAllStartPositions(), track.getAllFinishPositions(), "copia");
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        DistanceField loaded = DistanceField.of(copy, file);
+        assertEquals(modified, Files.getLastModifiedTime(file).toMillis());
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                assertEquals(computed.distanceAt(x, y), loaded.distanceAt(x, y));
+            }
+        }
+    }
+
+    private static byte[] cellsOf(ImmutableTrack track) {
+        byte[] cells = new byte[track.getWidth() * track.getHeight()];
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                cells[y * track.getWidth() + x] = track.getCellType(x, y);
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,111 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.FinishLineIndex;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Posizione.VectorDirection;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestFinishLineIndex {
+
+    /**
+     * Per ogni cella, direzione e passo l'indice deve trovare la stessa cella del traguardo
+     * di una scansione cella per cella del movimento.
+     */
+    @Test
+    void testCrossingMatchesCellByCellScan() throws IOException {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        for (int y = 0; y < 12; y++) {
+            for (int x = 0; x < 17; x++) {
+                int r = random.nextInt(10);
+                text.append(x == 1 && y == 1 ? 'S' : r < 3 ? 'F' : r < 4 ? '#' : ' ');
+            }
+            text.append('\n');
+        }
+        ImmutableTrack track = TrackRegistry.getInstance().register("finish-line-test",
+                text.toString().getBytes(StandardCharsets.US_ASCII));
+        FinishLineIndex index = FinishLineIndex.of(track);
+        KinematicsTable kinematics = KinematicsTable.of(track);
+
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                for (int dir = 0; dir < 8; dir++) {
+                    for (int step = 0; step <= 6; step++) {
+                        int expected = 0;
+                        for (int k = 1; k <= step && expected == 0; k++) {
+                            if (kinematics.typeAt(x + k * DirectionMask.dx(dir), y + k * DirectionMask.dy(dir))
+                                    == CellType.FINISH) {
+                                expected = k;
+                            }
+                        }
+                        assertEquals(expected, index.crossing(x, y, dir, step),
+                                "(" + x + ", " + y + ") dir " + dir + " passo " + step);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Un bot che a velocità 3 scavalca una linea del traguardo larga una cella vince.
+     */
+    @Test
+    void testFastBotWinsWhenOvershootingTheLine() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("overshoot-test", (
+                "##############\n" +
+                "#S     F     #\n" +
+                "##############\n").getBytes(StandardCharsets.US_ASCII));
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 20);
+        engine.setVerbose(false);
+        // Velocità 1, 2, 3: le posizioni sono 3, 5 e poi 8, oltre il traguardo in 7
+        BasePlayer bot = new BasePlayer("E", new Position(2, 1)) {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(
+                    Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+                return VectorDirection.CardinalDirection.E;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return 1;
+            }
+        };
+        engine.addPlayer(bot);
+        RaceResult result = engine.runRace();
+        assertSame(bot, result.getWinner());
+        assertEquals(3, result.getTurns());
+    }
+
+    /**
+     * Un traguardo raggiungibile solo scavalcandolo (dopo il salto del muro la velocità è
+     * almeno 2 e oltre il traguardo c'è un muro) rende comunque il tracciato valido.
+     */
+    @Test
+    void testFinishReachableOnlyByCrossingIsValid() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("crossing-only-test", (
+                "###########\n" +
+                "#S...##.F##\n" +
+                "###########\n").getBytes(StandardCharsets.US_ASCII));
+        assertTrue(track.getAnalysis().isValid(), track.getAnalysis().getProblems().toString());
+        assertTrue(track.getAnalysis().isReachable(new Position(8, 1)));
+    }
+}
@@ -0,0 +1,40 @@
+import VectorRace.Giocatori.BotPlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestGameBoard {
+
+    /**
+     * Aggiornare la posizione di un giocatore sulla plancia ne sposta la cella occupata;
+     * un giocatore mai aggiunto alla plancia viene rifiutato invece di essere ignorato.
+     */
+    @Test
+    void testUpdatePlayerPosition() throws IOException {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        GameBoard board = new GameBoard(track);
+        BotPlayer onBoard = new BotPlayer("Bot", track.getStartPosition());
+        board.addPlayer(onBoard);
+        Position start = track.getStartPosition();
+        Position next = new Position(start.getX() + 1, start.getY());
+
+        board.updatePlayerPosition(onBoard, next);
+        assertTrue(board.isOccupied(next.getX(), next.getY()));
+        assertFalse(board.isOccupied(start.getX(), start.getY()));
+
+        BotPlayer stranger = new BotPlayer("Estraneo", start);
+        assertThrows(IllegalArgumentException.class, () -> board.updatePlayerPosition(stranger, start));
+        assertEquals(1, board.getSlotCount());
+        assertFalse(board.isOccupied(start.getX(), start.getY()));
+    }
+}
@@ -0,0 +1,103 @@
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Prestazioni.BenchmarkCorpus;
+import VectorRace.Ricerca.JumpPointSearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestJumpPointSearch {
+
+    @Test
+    void findsOptimalPathsOnCorpusTracks() throws Exception {
+        for (BenchmarkCorpus corpus : List.of(BenchmarkCorpus.OPEN_ROOM, BenchmarkCorpus.SCATTERED,
+                BenchmarkCorpus.DENSE, BenchmarkCorpus.MAZE, BenchmarkCorpus.CORRIDOR)) {
+            ITrack track = corpus.track();
+            JumpPointSearch jps = new JumpPointSearch(track);
+            List<Position> path = jps.findPath(track.getStartPosition());
+            int[] expected = dijkstra(track, track.getStartPosition());
+            assertEquals(expected[0], jps.getLastCost(), corpus.name());
+
+            // Il percorso completo è fatto di passi unitari su celle percorribili
+            List<Position> cells = JumpPointSearch.expand(path);
+            KinematicsTable kinematics = KinematicsTable.of(track);
+            int cost = 0;
+            for (int i = 1; i < cells.size(); i++) {
+                Position a = cells.get(i - 1);
+                Position b = cells.get(i);
+                assertTrue(Math.max(Math.abs(a.getX() - b.getX()), Math.abs(a.getY() - b.getY())) == 1);
+                assertTrue(CellType.isPassable(kinematics.typeAt(b.getX(), b.getY())));
+                cost += JumpPointSearch.octile(b.getX() - a.getX(), b.getY() - a.getY());
+            }
+            assertEquals(expected[0], cost);
+            assertEquals(CellType.FINISH, kinematics.typeAt(cells.get(cells.size() - 1).getX(),
+                    cells.get(cells.size() - 1).getY()));
+        }
+    }
+
+    @Test
+    void expandsFewNodesInOpenAreas() throws Exception {
+        ITrack track = BenchmarkCorpus.OPEN_HALL.track();
+        JumpPointSearch jps = new JumpPointSearch(track);
+        jps.findPath(track.getStartPosition());
+        int[] naive = dijkstra(track, track.getStartPosition());
+        assertEquals(naive[0], jps.getLastCost());
+        assertTrue(jps.getLastExpanded() * 50 < naive[1],
+                jps.getLastExpanded() + " nodi espansi contro " + naive[1]);
+    }
+
+    @Test
+    void reportsUnreachableTargets() throws Exception {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        JumpPointSearch jps = new JumpPointSearch(track);
+        assertTrue(jps.findPath(track.getStartPosition(), new Position(0, 0)).isEmpty());
+        assertEquals(-1, jps.getLastCost());
+    }
+
+    /**
+     * Dijkstra cella per cella: restituisce {costo fino al traguardo, nodi espansi}.
+     */
+    private static int[] dijkstra(ITrack track, Position start) {
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        int width = track.getWidth();
+        int[] dist = new int[width * track.getHeight()];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+        dist[kinematics.index(start)] = 0;
+        queue.add(new int[]{0, kinematics.index(start)});
+        int expanded = 0;
+        while (!queue.isEmpty()) {
+            int[] top = queue.poll();
+            int cell = top[1];
+            if (top[0] > dist[cell]) {
+                continue;
+            }
+            expanded++;
+            if (kinematics.cellType(cell) == CellType.FINISH) {
+                return new int[]{top[0], expanded};
+            }
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int x = cell % width + dx;
+                    int y = cell / width + dy;
+                    if ((dx == 0 && dy == 0) || !CellType.isPassable(kinematics.typeAt(x, y))) {
+                        continue;
+                    }
+                    int d = top[0] + JumpPointSearch.octile(dx, dy);
+                    if (d < dist[y * width + x]) {
+                        dist[y * width + x] = d;
+                        queue.add(new int[]{d, y * width + x});
+                    }
+                }
+            }
+        }
+        return new int[]{-1, expanded};
+    }
+}
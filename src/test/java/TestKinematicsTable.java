@@ -0,0 +1,72 @@
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.DirectionMask;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.TrackGenerator;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestKinematicsTable {
+
+    /**
+     * Per ogni cella, direzione e velocità l'esito della tabella deve coincidere
+     * con il controllo diretto della cella di atterraggio sul tracciato.
+     */
+    @Test
+    void testOutcomesMatchTrack() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().load("track.txt");
+        KinematicsTable table = KinematicsTable.of(track);
+
+        for (int y = 0; y < track.getHeight(); y++) {
+            for (int x = 0; x < track.getWidth(); x++) {
+                int cell = table.index(x, y);
+                for (int dir = 0; dir < 8; dir++) {
+                    for (int speed = 0; speed <= KinematicsTable.MAX_SPEED; speed++) {
+                        int tx = x + speed * DirectionMask.dx(dir);
+                        int ty = y + speed * DirectionMask.dy(dir);
+                        byte outcome = table.outcome(cell, dir, speed);
+
+                        assertEquals(track.getCellType(tx, ty), outcome);
+                        if (outcome != CellType.OUT_OF_BOUNDS) {
+                            assertEquals(new Position(tx, ty), table.position(table.destination(cell, dir, speed)));
+                        }
+                        assertEquals(CellType.isPassable(outcome),
+                                (table.passableMask(cell, speed) & (1 << dir)) != 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * La tabella viene calcolata una sola volta per tracciato.
+     */
+    @Test
+    void testTableIsShared() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().load("track.txt");
+        assertSame(KinematicsTable.of(track), KinematicsTable.of(track));
+    }
+
+    /**
+     * Su un tracciato più largo di 32767 colonne la tabella e l'analisi leggono le celle
+     * oltre il limite delle coordinate impacchettate senza troncarle.
+     */
+    @Test
+    void testWideTrack() {
+        ImmutableTrack track = new TrackGenerator(1L, 40000, 5, 0.0, 3, 1, 1).build();
+        KinematicsTable table = KinematicsTable.of(track);
+
+        assertEquals(CellType.FREE, track.getCellType(35000, 2));
+        assertEquals(track.getCellType(35000, 2), table.typeAt(35000, 2));
+        assertEquals(CellType.OBSTACLE, table.typeAt(39999, 2));
+        assertTrue(track.getAnalysis().isValid(), track.getAnalysis().getProblems().toString());
+    }
+}
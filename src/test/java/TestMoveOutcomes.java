@@ -0,0 +1,94 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.MoveOutcomes;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Posizione.VectorDirection.CardinalDirection;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class TestMoveOutcomes {
+
+    /**
+     * Gli esiti passati al giocatore distinguono celle libere, ostacoli, celle occupate
+     * (compresa la propria, con velocità 0) e traguardo attraversato.
+     */
+    @Test
+    void testOutcomesMatchEngineRules() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("move-outcomes-test", (
+                "########\n" +
+                "#SS..F.#\n" +
+                "#.#....#\n" +
+                "########\n").getBytes(StandardCharsets.US_ASCII));
+        int width = track.getWidth();
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 5);
+        engine.setVerbose(false);
+
+        // Un giocatore fermo in (1, 1) e, in (2, 1), uno che registra gli esiti e va verso est accelerando
+        engine.addPlayer(new BasePlayer("Fermo", new Position(1, 1)) {
+            @Override
+            public CardinalDirection chooseDirection(Iterable<CardinalDirection> allowedDirections) {
+                return null;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return 0;
+            }
+        });
+        List<int[]> turns = new ArrayList<>();
+        engine.addPlayer(new BasePlayer("Est", new Position(2, 1)) {
+            @Override
+            public CardinalDirection chooseDirection(Iterable<CardinalDirection> allowedDirections) {
+                throw new AssertionError("il motore deve passare gli esiti");
+            }
+
+            @Override
+            public CardinalDirection chooseDirection(MoveOutcomes outcomes) {
+                int e = CardinalDirection.E.ordinal();
+                turns.add(new int[]{
+                        outcomes.outcome(CardinalDirection.W.ordinal(), 1),
+                        outcomes.outcome(CardinalDirection.S.ordinal(), 1),
+                        outcomes.outcome(e, 0),
+                        outcomes.outcome(e, 1),
+                        outcomes.landing(e, 1),
+                        outcomes.safeDirections(1)});
+                return VectorDirection.CardinalDirection.E;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return 1;
+            }
+        });
+        engine.runRace();
+
+        int[] first = turns.get(0);
+        assertEquals(MoveOutcomes.OCCUPIED, first[0]);
+        assertEquals(MoveOutcomes.CRASH, first[1]);
+        assertEquals(MoveOutcomes.OCCUPIED, first[2]);
+        assertEquals(MoveOutcomes.FREE, first[3]);
+        assertEquals(width + 3, first[4]);
+        assertEquals((1 << CardinalDirection.E.ordinal()) | (1 << CardinalDirection.SE.ordinal())
+                | (1 << CardinalDirection.SW.ordinal()), first[5]);
+
+        // Al secondo turno, da (3, 1) a velocità 1, accelerando si attraversa il traguardo in (5, 1)
+        int[] second = turns.get(1);
+        assertEquals(MoveOutcomes.FINISH, second[3]);
+        assertEquals(width + 5, second[4]);
+        assertEquals(2, turns.size());
+    }
+}
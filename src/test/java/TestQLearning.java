@@ -0,0 +1,108 @@
+import VectorRace.Apprendimento.QLearningTrainer;
+import VectorRace.Apprendimento.QTable;
+import VectorRace.Apprendimento.StateEncoder;
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.QLearningPlayer;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestQLearning {
+
+    private static final String TRACK =
+            "##############\n" +
+            "#S...........#\n" +
+            "#.#########..#\n" +
+            "#.#########..#\n" +
+            "#..........F.#\n" +
+            "##############\n";
+
+    /**
+     * Dopo l'addestramento in parallelo, il giocatore che usa la tabella
+     * deve raggiungere il traguardo in una gara vera.
+     */
+    @Test
+    void testTrainedPlayerFinishes() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("qlearning",
+                TRACK.getBytes(StandardCharsets.UTF_8));
+
+        try (QTable table = QTable.allocate(track.getWidth(), track.getHeight())) {
+            QLearningTrainer trainer = new QLearningTrainer(track, table, QLearningTrainer.Algorithm.Q_LEARNING);
+            trainer.train(50_000, 4, 42L);
+
+            GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                    new DefaultInertiaManager(), 50);
+            engine.setVerbose(false);
+            QLearningPlayer player = new QLearningPlayer("Q", track.getStartPosition(), track, table);
+            engine.addPlayer(player);
+            RaceResult result = engine.runRace();
+
+            assertSame(player, result.getWinner(), "Il giocatore addestrato deve arrivare al traguardo");
+        }
+    }
+
+    /**
+     * Un episodio che scavalca il traguardo (oltre c'è un muro) vince come nel motore:
+     * l'unica linea possibile accelera fino a 3 e attraversa il traguardo al quarto turno.
+     */
+    @Test
+    void testTrainerCountsFinishCrossing() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("qlearning-crossing", (
+                "###########\n" +
+                "#S...##.F##\n" +
+                "###########\n").getBytes(StandardCharsets.US_ASCII));
+
+        try (QTable table = QTable.allocate(track.getWidth(), track.getHeight())) {
+            QLearningTrainer trainer = new QLearningTrainer(track, table, QLearningTrainer.Algorithm.Q_LEARNING);
+            trainer.train(5_000, 2, 42L);
+
+            GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                    new DefaultInertiaManager(), 20);
+            engine.setVerbose(false);
+            QLearningPlayer player = new QLearningPlayer("Q", track.getStartPosition(), track, table);
+            engine.addPlayer(player);
+            RaceResult result = engine.runRace();
+
+            assertSame(player, result.getWinner());
+            assertEquals(4, result.getTurns());
+        }
+    }
+
+    /**
+     * Una tabella mappata su file conserva i valori e si riapre in sola lettura.
+     */
+    @Test
+    void testMappedTableRoundTrip() throws IOException {
+        Path file = Files.createTempFile("qtable", ".q");
+        try {
+            Files.delete(file);
+            int state = StateEncoder.encode(7, 2, 3);
+            try (QTable table = QTable.map(file, 10, 4)) {
+                table.set(state, 5, 1.5f);
+            }
+            try (QTable table = QTable.open(file)) {
+                assertEquals(10, table.getWidth());
+                assertEquals(4, table.getHeight());
+                assertEquals(1.5f, table.get(state, 5));
+                assertEquals(5, table.bestAction(state, StateEncoder.actionMask(1 << 1)));
+            }
+            assertTrue(Files.size(file) > QTable.HEADER_BYTES);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+import VectorRace.Torneo.QuantileSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class TestQuantileSketch {
+
+    /**
+     * Su valori distribuiti su molti ordini di grandezza, ogni quantile stimato
+     * deve restare entro l'errore relativo dichiarato; minimo e massimo sono esatti.
+     */
+    @Test
+    void testQuantilesStayWithinRelativeAccuracy() {
+        Random random = new Random(7);
+        long[] values = new long[100_000];
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01 + 0.5, "quantile " + q);
+        }
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[values.length - 1], sketch.getMax());
+    }
+
+    /**
+     * I piccoli interi (es. i turni di gara) vengono conservati senza approssimazione:
+     * con l'accuratezza di default fino a 57, il primo intero che condivide un bucket è 58.
+     */
+    @Test
+    void testSmallIntegersAreExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int turn = 0; turn <= 40; turn++) {
+            sketch.add(turn);
+        }
+        assertEquals(20.0, sketch.quantile(0.5));
+        assertEquals(36.0, sketch.quantile(0.9));
+
+        // La mediana di {0, v, 1000} è la stima del bucket di v
+        for (int v = 0; v <= 58; v++) {
+            QuantileSketch single = new QuantileSketch();
+            single.add(0);
+            single.add(v);
+            single.add(1000);
+            assertEquals(v <= 57, single.quantile(0.5) == v, "valore " + v);
+        }
+    }
+
+    /**
+     * Unire due sketch deve dare lo stesso risultato di un unico sketch con tutti i valori.
+     */
+    @Test
+    void testMergeEqualsSingleSketch() {
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        for (int i = 1; i <= 10_000; i++) {
+            all.add(i * 37L);
+            (i % 3 == 0 ? left : right).add(i * 37L);
+        }
+        left.merge(right);
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean());
+        for (double q : new double[]{0, 0.5, 0.99, 1}) {
+            assertEquals(all.quantile(q), left.quantile(q));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import VectorRace.Eventi.RaceEvent;
+import VectorRace.Eventi.RaceEventBus;
+import VectorRace.Eventi.RaceListener;
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.GreedyBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestRaceEventBus {
+
+    /**
+     * Tutti gli eventi pubblicati devono arrivare ai listener, nello stesso ordine,
+     * entro la chiusura del bus.
+     */
+    @Test
+    void testEventsDeliveredInOrder() {
+        List<Integer> received = new ArrayList<>();
+        long[] closedWith = {-1};
+        RaceListener listener = new RaceListener() {
+            @Override
+            public void onEvent(RaceEvent event) {
+                received.add(event.getTurn());
+            }
+
+            @Override
+            public void onClose(long dropped) {
+                closedWith[0] = dropped;
+            }
+        };
+
+        RaceEventBus bus = new RaceEventBus(List.of(listener), 64);
+        int published = 0;
+        for (int i = 0; i < 10_000; i++) {
+            // Se il buffer è pieno si riprova: publish non deve mai bloccarsi
+            while (!bus.publish(new RaceEvent.TurnStarted(i))) {
+                Thread.yield();
+            }
+            published++;
+        }
+        bus.close();
+
+        assertEquals(published, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, (int) received.get(i), "Gli eventi devono arrivare in ordine");
+        }
+        assertEquals(bus.getDropped(), closedWith[0]);
+    }
+
+    /**
+     * Con un listener bloccato il produttore non deve attendere:
+     * gli eventi in eccesso vengono scartati e conteggiati.
+     */
+    @Test
+    void testFullBufferDropsInsteadOfBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> received = new ArrayList<>();
+        RaceListener slow = event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getTurn());
+        };
+
+        RaceEventBus bus = new RaceEventBus(List.of(slow), 8);
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (bus.publish(new RaceEvent.TurnStarted(i))) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        bus.close();
+
+        assertTrue(bus.getDropped() > 0, "Con il buffer pieno gli eventi devono essere scartati");
+        assertEquals(100, accepted + bus.getDropped());
+        assertEquals(accepted, received.size());
+        assertFalse(bus.publish(new RaceEvent.TurnStarted(0)), "Un bus chiuso non accetta eventi");
+    }
+
+    /**
+     * In modalità verbose la console viene scritta dal thread della gara: al ritorno
+     * di runRace l'output è completo, con una riga per ogni turno.
+     */
+    @Test
+    void testVerboseConsoleIsSynchronous() throws IOException {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 200);
+        engine.addPlayer(new GreedyBot("Greedy", track.getStartPosition(), track, 1.0, new Random(3)));
+
+        Set<Thread> writers = new HashSet<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream recording = new OutputStream() {
+            @Override
+            public void write(int b) {
+                writers.add(Thread.currentThread());
+                bytes.write(b);
+            }
+        };
+        PrintStream original = System.out;
+        RaceResult result;
+        System.setOut(new PrintStream(recording, true, StandardCharsets.UTF_8));
+        try {
+            result = engine.runRace();
+        } finally {
+            System.setOut(original);
+        }
+
+        assertEquals(Set.of(Thread.currentThread()), writers, "La console deve essere scritta dal thread della gara");
+        String output = bytes.toString(StandardCharsets.UTF_8);
+        int turns = output.split("Turno: ", -1).length - 1;
+        assertEquals(result.getTurns(), turns);
+        assertTrue(output.contains("ha raggiunto il traguardo"));
+    }
+}
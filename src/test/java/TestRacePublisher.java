@@ -0,0 +1,186 @@
+import VectorRace.Eventi.RaceEvent;
+import VectorRace.Eventi.RacePublisher;
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.GreedyBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestRacePublisher {
+
+    /**
+     * Abbonato di prova: registra i turni degli eventi ricevuti e chiede
+     * gli eventi uno alla volta oppure solo quando glielo si chiede.
+     */
+    private static final class Recorder implements Flow.Subscriber<RaceEvent> {
+        final List<Integer> turns = Collections.synchronizedList(new ArrayList<>());
+        final List<RaceEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch completed = new CountDownLatch(1);
+        final boolean oneByOne;
+        volatile Flow.Subscription subscription;
+
+        Recorder(boolean oneByOne) {
+            this.oneByOne = oneByOne;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (oneByOne) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(RaceEvent item) {
+            turns.add(item.getTurn());
+            events.add(item);
+            if (oneByOne) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    /**
+     * Con il buffer pieno, BLOCK riceve tutti gli eventi in ordine, DROP i primi e LATEST
+     * gli ultimi; solo gli abbonati che scartano contribuiscono al conteggio degli scarti.
+     */
+    @Test
+    void testPoliciesWithFullBuffer() throws InterruptedException {
+        RacePublisher publisher = new RacePublisher();
+        Recorder block = new Recorder(true);
+        Recorder drop = new Recorder(false);
+        Recorder latest = new Recorder(false);
+        publisher.subscribe(block, RacePublisher.Policy.BLOCK, 4);
+        publisher.subscribe(drop, RacePublisher.Policy.DROP, 8);
+        publisher.subscribe(latest, RacePublisher.Policy.LATEST, 8);
+
+        // DROP e LATEST non chiedono nulla durante la pubblicazione: i loro buffer si riempiono
+        for (int i = 0; i < 1000; i++) {
+            publisher.publish(new RaceEvent.TurnStarted(i));
+        }
+        publisher.close();
+        drop.subscription.request(Long.MAX_VALUE);
+        latest.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(block.completed.await(10, TimeUnit.SECONDS));
+        assertTrue(drop.completed.await(10, TimeUnit.SECONDS));
+        assertTrue(latest.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(1000, block.turns.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) block.turns.get(i));
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), drop.turns);
+        assertEquals(List.of(992, 993, 994, 995, 996, 997, 998, 999), latest.turns);
+        assertEquals(2 * (1000 - 8), publisher.getDropped());
+    }
+
+    /**
+     * onSubscribe precede ogni altro segnale: mentre è in corso l'abbonamento non è ancora
+     * attivo e gli eventi pubblicati non vengono consegnati, neppure se già richiesti.
+     */
+    @Test
+    void testOnSubscribeComesFirst() throws InterruptedException {
+        RacePublisher publisher = new RacePublisher();
+        List<String> signals = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscriber<RaceEvent> subscriber = new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+                inside.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                signals.add("onSubscribe");
+            }
+
+            @Override
+            public void onNext(RaceEvent item) {
+                signals.add("onNext " + item.getTurn());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                signals.add("onError");
+                completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                signals.add("onComplete");
+                completed.countDown();
+            }
+        };
+        Thread subscribing = new Thread(() -> publisher.subscribe(subscriber));
+        subscribing.start();
+
+        assertTrue(inside.await(10, TimeUnit.SECONDS));
+        assertEquals(0, publisher.getSubscriberCount());
+        publisher.publish(new RaceEvent.TurnStarted(1));
+        release.countDown();
+        subscribing.join();
+        assertEquals(1, publisher.getSubscriberCount());
+
+        publisher.publish(new RaceEvent.TurnStarted(2));
+        publisher.close();
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of("onSubscribe", "onNext 2", "onComplete"), signals);
+    }
+
+    /**
+     * Il motore pubblica gli eventi della gara e chiude il publisher alla fine:
+     * l'ultimo evento ricevuto è la fine della gara.
+     */
+    @Test
+    void testEnginePublishesRace() throws IOException, InterruptedException {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 200);
+        engine.setVerbose(false);
+        RacePublisher publisher = new RacePublisher();
+        Recorder recorder = new Recorder(true);
+        publisher.subscribe(recorder, RacePublisher.Policy.BLOCK, 16);
+        engine.setPublisher(publisher);
+        engine.addPlayer(new GreedyBot("Greedy", track.getStartPosition(), track, 1.0, new Random(7)));
+        RaceResult result = engine.runRace();
+
+        assertTrue(recorder.completed.await(10, TimeUnit.SECONDS));
+        assertTrue(publisher.isClosed());
+        RaceEvent last = recorder.events.get(recorder.events.size() - 1);
+        assertEquals(RaceEvent.Type.RACE_ENDED, last.getType());
+        assertEquals(result.getTurns(), last.getTurn());
+        assertEquals(RaceEvent.Type.TURN_STARTED, recorder.events.get(0).getType());
+    }
+}
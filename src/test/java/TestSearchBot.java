@@ -0,0 +1,95 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.SearchBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.DistanceField;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.MoveCostField;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Prestazioni.BenchmarkCorpus;
+import VectorRace.Ricerca.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestSearchBot {
+
+    /**
+     * Senza budget il bot completa comunque la prima iterazione e arriva al traguardo.
+     */
+    @Test
+    void testZeroBudgetStillHasAMove() throws IOException {
+        ITrack track = BenchmarkCorpus.OPEN_ROOM.track();
+        SearchBot bot = new SearchBot("Search", track.getStartPosition(), track, 0);
+        int[] maxDepth = new int[1];
+        RaceResult result = race(track, bot, maxDepth);
+        assertTrue(result.hasWinner());
+        assertEquals(1, maxDepth[0]);
+    }
+
+    /**
+     * Una ricerca più profonda trova la strada nel labirinto (dove un bot goloso resta
+     * bloccato) in meno turni. La profondità è limitata a 4 turni e il budget è ampio,
+     * così ogni decisione completa sempre le stesse iterazioni.
+     */
+    @Test
+    void testMoreTimeSearchesDeeper() throws IOException {
+        ITrack track = BenchmarkCorpus.MAZE.track();
+        SearchBot quick = new SearchBot("Quick", track.getStartPosition(), track, 0);
+        SearchBot deep = new SearchBot("Deep", track.getStartPosition(), track, TimeUnit.SECONDS.toNanos(10),
+                new DefaultInertiaManager(), 4, TranspositionTable.ofMegabytes(1));
+        int[] quickDepth = new int[1];
+        int[] deepDepth = new int[1];
+        RaceResult quickResult = race(track, quick, quickDepth);
+        RaceResult deepResult = race(track, deep, deepDepth);
+
+        assertTrue(quickResult.hasWinner());
+        assertTrue(deepResult.hasWinner());
+        assertTrue(deepResult.getTurns() <= quickResult.getTurns());
+        assertEquals(1, quickDepth[0]);
+        assertEquals(4, deepDepth[0]);
+    }
+
+    /**
+     * Se il traguardo si raggiunge solo scavalcando un muro, le celle prima del muro sono
+     * irraggiungibili per DistanceField ma non per MoveCostField, e il bot salta il muro.
+     */
+    @Test
+    void testJumpsWallToFinish() throws IOException {
+        ITrack track = TrackRegistry.getInstance().register("search-jump", (
+                "############\n" +
+                "#S...##..F.#\n" +
+                "############\n").getBytes(StandardCharsets.US_ASCII));
+        int start = track.getWidth() + 1;
+        assertEquals(DistanceField.UNREACHABLE, DistanceField.of(track).distance(start));
+        // Il limite ignora la velocità: 1 -> 4 -> 7 (saltando il muro), poi due celle fino al traguardo
+        assertEquals(2 * SearchBot.TURN_COST + 2, MoveCostField.of(track).cost(start));
+
+        SearchBot bot = new SearchBot("Search", track.getStartPosition(), track, TimeUnit.SECONDS.toNanos(10),
+                new DefaultInertiaManager(), 8, TranspositionTable.ofMegabytes(1));
+        RaceResult result = race(track, bot, new int[1]);
+        assertSame(bot, result.getWinner());
+        assertEquals(4, result.getTurns());
+    }
+
+    /**
+     * Esegue una gara del solo bot, registrando la profondità massima raggiunta nelle sue decisioni.
+     */
+    private static RaceResult race(ITrack track, SearchBot bot, int[] maxDepth) {
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 500);
+        engine.setVerbose(false);
+        engine.setDecisionRecorder((player, nanos) -> maxDepth[0] = Math.max(maxDepth[0], bot.getLastDepth()));
+        engine.addPlayer(bot);
+        return engine.runRace();
+    }
+}
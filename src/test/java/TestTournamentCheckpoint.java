@@ -0,0 +1,58 @@
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Torneo.BotParameters;
+import VectorRace.Torneo.RaceStatistics;
+import VectorRace.Torneo.Tournament;
+import VectorRace.Torneo.TunableBot;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestTournamentCheckpoint {
+
+    /**
+     * Un torneo interrotto dopo alcuni blocchi e ripreso dal checkpoint deve produrre
+     * le stesse statistiche di un torneo eseguito senza interruzioni.
+     */
+    @Test
+    void testResumedTournamentMatchesUninterruptedRun() throws Exception {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        List<BotParameters> contestants = List.of(
+                new BotParameters(TunableBot.GREEDY, 1.0),
+                new BotParameters(TunableBot.SPEED_CONTROL, 2),
+                new BotParameters(TunableBot.DEFENSIVE, 1));
+
+        RaceStatistics expected = new Tournament(Map.of("track.txt", track), contestants, 500, 60, 3L).run(2);
+
+        Path dir = Files.createTempDirectory("torneo");
+        Path checkpoint = dir.resolve("torneo.bin");
+        Tournament first = new Tournament(Map.of("track.txt", track), contestants, 500, 60, 3L);
+        first.setCheckpoint(checkpoint, 10);
+        first.run(2, 3);
+        assertFalse(first.isComplete());
+        assertFalse(Files.exists(dir.resolve("torneo.bin.tmp")));
+
+        Tournament resumed = Tournament.resume(checkpoint);
+        assertEquals(3, resumed.getCompletedChunks());
+        RaceStatistics actual = resumed.run(2);
+        assertTrue(resumed.isComplete());
+
+        for (RaceStatistics.Entry e : expected.getEntries()) {
+            RaceStatistics.Entry r = actual.get(e.getBot(), e.getTrack());
+            assertEquals(500, r.getRaces());
+            assertEquals(e.getWins(), r.getWins());
+            assertEquals(e.getEliminations(), r.getEliminations());
+            assertEquals(e.getTimeouts(), r.getTimeouts());
+            assertEquals(e.getFinishingTurns().quantile(0.5), r.getFinishingTurns().quantile(0.5));
+        }
+        assertEquals(expected.getEntries().size(), actual.getEntries().size());
+    }
+}
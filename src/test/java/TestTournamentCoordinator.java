@@ -0,0 +1,114 @@
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Torneo.BotParameters;
+import VectorRace.Torneo.RaceStatistics;
+import VectorRace.Torneo.Tournament;
+import VectorRace.Torneo.TournamentCoordinator;
+import VectorRace.Torneo.TunableBot;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestTournamentCoordinator {
+
+    /**
+     * Un torneo eseguito su processi worker deve produrre le stesse statistiche
+     * dello stesso torneo eseguito nel processo corrente.
+     */
+    @Test
+    void testWorkerProcessesMatchInProcessRun() throws Exception {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        List<BotParameters> contestants = List.of(
+                new BotParameters(TunableBot.SPEED_CONTROL, 2),
+                new BotParameters(TunableBot.DEFENSIVE, 1));
+
+        RaceStatistics expected = new Tournament(Map.of("track.txt", track), contestants, 300, 60, 9L).run(2);
+
+        Tournament distributed = new Tournament(Map.of("track.txt", track), contestants, 300, 60, 9L);
+        TournamentCoordinator coordinator = new TournamentCoordinator(distributed, 2);
+        RaceStatistics actual = coordinator.run();
+
+        assertTrue(distributed.isComplete());
+        assertTrue(coordinator.getFailedChunks().isEmpty());
+        for (RaceStatistics.Entry e : expected.getEntries()) {
+            RaceStatistics.Entry r = actual.get(e.getBot(), e.getTrack());
+            assertEquals(e.getRaces(), r.getRaces());
+            assertEquals(e.getWins(), r.getWins());
+            assertEquals(e.getEliminations(), r.getEliminations());
+            assertEquals(e.getFinishingTurns().quantile(0.9), r.getFinishingTurns().quantile(0.9));
+        }
+    }
+
+    /**
+     * Se i worker muoiono appena avviati, ogni blocco viene riassegnato fino a
+     * MAX_ATTEMPTS tentativi e poi riportato tra i blocchi falliti, senza bloccare il torneo.
+     */
+    @Test
+    void testDeadWorkersReassignThenFailChunks() throws Exception {
+        Tournament tournament = tournament(128);
+        TournamentCoordinator coordinator = new TournamentCoordinator(tournament, 2);
+        // Un'opzione sconosciuta fa terminare subito la JVM del worker
+        coordinator.setJvmOptions(List.of("-XX:+OpzioneInesistente"));
+
+        String log = runCapturingErrors(coordinator);
+
+        assertEquals(Set.of(0, 1), coordinator.getFailedChunks());
+        assertFalse(tournament.isComplete());
+        assertEquals(0, tournament.getCompletedChunks());
+        assertEquals(2 * (TournamentCoordinator.MAX_ATTEMPTS - 1), count(log, "riassegnato"));
+        assertEquals(2, count(log, "abbandonato"));
+    }
+
+    /**
+     * Un worker che non risponde entro il tempo massimo per blocco viene terminato
+     * dal watchdog: il blocco viene riassegnato e, esauriti i tentativi, riportato come fallito.
+     */
+    @Test
+    void testBatchTimeoutKillsWorker() throws Exception {
+        Tournament tournament = tournament(64);
+        TournamentCoordinator coordinator = new TournamentCoordinator(tournament, 1);
+        // Nessuna JVM riesce a rispondere in un millisecondo
+        coordinator.setBatchTimeout(1);
+
+        String log = runCapturingErrors(coordinator);
+
+        assertEquals(Set.of(0), coordinator.getFailedChunks());
+        assertFalse(tournament.isComplete());
+        assertEquals(TournamentCoordinator.MAX_ATTEMPTS - 1, count(log, "riassegnato"));
+    }
+
+    private static Tournament tournament(int races) throws Exception {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        return new Tournament(Map.of("track.txt", track),
+                List.of(new BotParameters(TunableBot.GREEDY, 1.0)), races, 60, 5L);
+    }
+
+    /**
+     * Esegue il coordinatore raccogliendo i messaggi che scrive su System.err.
+     */
+    private static String runCapturingErrors(TournamentCoordinator coordinator) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream original = System.err;
+        System.setErr(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            coordinator.run();
+        } finally {
+            System.setErr(original);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static int count(String text, String word) {
+        return text.split(word, -1).length - 1;
+    }
+}
@@ -0,0 +1,70 @@
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackAnalysis;
+import VectorRace.Posizione.TrackGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestTrackGenerator {
+
+    /**
+     * A parità di seed e parametri il tracciato generato deve essere identico,
+     * sia come testo sia come ImmutableTrack; un seed diverso produce un altro tracciato.
+     */
+    @Test
+    void testSameSeedSameGrid() throws IOException {
+        TrackGenerator generator = new TrackGenerator(42, 60, 30, 0.3, 4, 2, 2);
+        TrackGenerator again = new TrackGenerator(42, 60, 30, 0.3, 4, 2, 2);
+        StringWriter written = new StringWriter();
+        generator.write(written);
+
+        assertEquals(generator.asText(), again.asText());
+        assertEquals(generator.asText(), written.toString());
+        assertFalse(generator.asText().equals(new TrackGenerator(43, 60, 30, 0.3, 4, 2, 2).asText()));
+
+        ImmutableTrack first = generator.build();
+        ImmutableTrack second = again.build();
+        assertEquals(first.getContentHash(), second.getContentHash());
+        for (int y = 0; y < first.getHeight(); y++) {
+            for (int x = 0; x < first.getWidth(); x++) {
+                assertEquals(first.getCellType(x, y), second.getCellType(x, y), "Cella (" + x + ", " + y + ")");
+            }
+        }
+        assertEquals(first.getAllStartPositions(), second.getAllStartPositions());
+        assertEquals(first.getAllFinishPositions(), second.getAllFinishPositions());
+    }
+
+    /**
+     * I tracciati generati devono superare l'analisi di raggiungibilità, anche con ostacoli
+     * fitti, e il testo generato deve essere accettato da Track con lo stesso contenuto.
+     */
+    @Test
+    void testGeneratedTrackIsValid() throws IOException {
+        for (long seed = 1; seed <= 5; seed++) {
+            TrackGenerator generator = new TrackGenerator(seed, 80, 40, 0.45, 3, 3, 3);
+            ImmutableTrack built = generator.build();
+            TrackAnalysis analysis = built.getAnalysis();
+            assertTrue(analysis.isValid(), "Seed " + seed + ": " + analysis.getProblems());
+            for (int i = 0; i < built.getAllStartPositions().size(); i++) {
+                assertTrue(analysis.startReachesFinish(i));
+            }
+
+            Track parsed = new Track();
+            parsed.loadFromLines("generato-" + seed, List.of(generator.asText().split("\n")));
+            assertTrue(parsed.getAnalysis().isValid());
+            assertEquals(built.getAllStartPositions(), parsed.getAllStartPositions());
+            for (Position finish : parsed.getAllFinishPositions()) {
+                assertTrue(built.isFinish(finish));
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.Track;
+import VectorRace.Posizione.TrackAnalysis;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TestTrackRegistry {
+
+    /**
+     * Caricare due volte la stessa resource deve restituire la stessa istanza condivisa.
+     */
+    @Test
+    void testLoadReturnsSharedInstance() throws IOException {
+        TrackRegistry registry = TrackRegistry.getInstance();
+        ImmutableTrack first = registry.load("track.txt");
+        ImmutableTrack second = registry.load("track.txt");
+
+        assertSame(first, second, "Il registro deve restituire sempre la stessa istanza");
+        assertEquals(28, first.getWidth());
+        assertEquals(15, first.getHeight());
+        assertEquals(3, first.getAllStartPositions().size());
+        assertTrue(first.isFinish(new Position(13, 12)));
+    }
+
+    /**
+     * Un contenuto identico registrato con un altro nome viene deduplicato tramite l'hash.
+     */
+    @Test
+    void testContentHashDeduplication() throws IOException {
+        String content = "#####\n#S F#\n#####\n";
+        TrackRegistry registry = TrackRegistry.getInstance();
+        ImmutableTrack a = registry.register("a", content.getBytes(StandardCharsets.UTF_8));
+        ImmutableTrack b = registry.register("b", content.getBytes(StandardCharsets.UTF_8));
+
+        assertSame(a, b, "Tracciati con lo stesso contenuto devono essere condivisi");
+    }
+
+    /**
+     * Ricaricare un Track non deve sommare dimensioni e posizioni del caricamento precedente.
+     */
+    @Test
+    void testTrackReloadDoesNotAccumulate() throws IOException {
+        Track track = new Track();
+        track.loadFromFile("track.txt");
+        track.loadFromFile("track.txt");
+
+        assertEquals(28, track.getWidth());
+        assertEquals(15, track.getHeight());
+        assertEquals(3, track.getAllStartPositions().size());
+        assertEquals(1, track.getAllFinishPositions().size());
+    }
+
+    /**
+     * Un tracciato rifiutato dall'analisi non deve modificare il contenuto già caricato.
+     */
+    @Test
+    void testRejectedReloadKeepsPreviousTrack() throws IOException {
+        Track track = new Track();
+        track.loadFromFile("track.txt");
+        assertThrows(IOException.class, () -> track.loadFromLines("chiuso", List.of("#####", "#S#F#", "#####")));
+
+        assertEquals(28, track.getWidth());
+        assertEquals(15, track.getHeight());
+        assertEquals(3, track.getAllStartPositions().size());
+        assertTrue(track.isFinish(new Position(13, 12)));
+        assertTrue(track.getAnalysis().isValid());
+    }
+
+    /**
+     * Nessuna via di registrazione deve accettare un tracciato non giocabile.
+     */
+    @Test
+    void testRegistryRejectsInvalidTrack() {
+        String closed = "#####\n#S#F#\n#####\n";
+        TrackRegistry registry = TrackRegistry.getInstance();
+        assertThrows(IOException.class, () -> registry.register("chiuso", closed.getBytes(StandardCharsets.UTF_8)));
+
+        byte[] cells = {CellType.FREE, CellType.OBSTACLE, CellType.FINISH};
+        assertThrows(IllegalArgumentException.class, () -> ImmutableTrack.of(3, 1, cells,
+                List.of(new Position(0, 0)), List.of(new Position(2, 0)), "chiuso"));
+    }
+
+    /**
+     * Track e ImmutableTrack devono dare le stesse risposte sulla stessa griglia,
+     * comprese partenze, traguardi e celle fuori dai limiti.
+     */
+    @Test
+    void testTrackAndImmutableTrackAgree() throws IOException {
+        Track track = new Track();
+        track.loadFromFile("track.txt");
+        ImmutableTrack copy = TrackRegistry.getInstance().load("track.txt");
+
+        assertTrue(copy.isFree(copy.getStartPosition()));
+        assertTrue(copy.isFree(copy.getFinishPosition()));
+        for (int y = -1; y <= track.getHeight(); y++) {
+            for (int x = -1; x <= track.getWidth(); x++) {
+                Position p = new Position(x, y);
+                assertEquals(track.isFree(p), copy.isFree(p), "isFree in " + p);
+                assertEquals(track.isFree(x, y), copy.isFree(x, y), "isFree(x, y) in " + p);
+                assertEquals(track.isObstacle(p), copy.isObstacle(p), "isObstacle in " + p);
+                assertEquals(track.getCell(p), copy.getCell(p), "getCell in " + p);
+                assertEquals(track.getCellType(x, y), copy.getCellType(x, y), "getCellType in " + p);
+            }
+        }
+    }
+
+    /**
+     * L'analisi rifiuta con un messaggio chiaro i tracciati i cui stati non sono indicizzabili
+     * con un int, prima di allocare qualunque struttura.
+     */
+    @Test
+    void testAnalysisRejectsHugeTrack() {
+        ITrack huge = new ITrack() {
+            @Override
+            public char getCell(Position position) {
+                return '.';
+            }
+
+            @Override
+            public boolean isFree(Position position) {
+                return true;
+            }
+
+            @Override
+            public boolean isObstacle(Position position) {
+                return false;
+            }
+
+            @Override
+            public boolean isFinish(Position position) {
+                return false;
+            }
+
+            @Override
+            public Position getStartPosition() {
+                return new Position(0, 0);
+            }
+
+            @Override
+            public Position getFinishPosition() {
+                return new Position(1, 0);
+            }
+
+            @Override
+            public int getWidth() {
+                return 20_000;
+            }
+
+            @Override
+            public int getHeight() {
+                return 4_000;
+            }
+        };
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TrackAnalysis.analyze(huge,
+                List.of(huge.getStartPosition()), List.of(huge.getFinishPosition())));
+        assertTrue(e.getMessage().contains(String.valueOf(TrackAnalysis.MAX_CELLS)));
+    }
+
+    /**
+     * ImmutableTrack.of rifiuta un elenco di traguardi che non coincide con le celle FINISH.
+     */
+    @Test
+    void testImmutableTrackRejectsMismatchedFinishes() {
+        byte[] cells = {CellType.FREE, CellType.FREE, CellType.FINISH, CellType.FINISH};
+        List<Position> start = List.of(new Position(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> ImmutableTrack.of(4, 1, cells, start,
+                List.of(new Position(1, 0), new Position(2, 0), new Position(3, 0)), "libera"));
+        assertThrows(IllegalArgumentException.class, () -> ImmutableTrack.of(4, 1, cells, start,
+                List.of(new Position(2, 0)), "mancante"));
+        assertThrows(IllegalArgumentException.class, () -> ImmutableTrack.of(4, 1, cells, start,
+                List.of(new Position(2, 0), new Position(3, 0), new Position(3, 0)), "ripetuto"));
+
+        ImmutableTrack track = ImmutableTrack.of(4, 1, cells, start,
+                List.of(new Position(2, 0), new Position(3, 0)), "coerente");
+        assertTrue(track.isFinish(new Position(3, 0)));
+        assertEquals(2, track.getAllFinishPositions().size());
+    }
+}
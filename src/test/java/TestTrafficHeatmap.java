@@ -0,0 +1,103 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Giocatori.BasePlayer;
+import VectorRace.Giocatori.GreedyBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.TrafficHeatmap;
+import VectorRace.Motore.TrafficHeatmap.Counter;
+import VectorRace.Posizione.ImmutableTrack;
+import VectorRace.Posizione.TrackRegistry;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Torneo.HeatmapCollector;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class TestTrafficHeatmap {
+
+    /**
+     * Un giocatore che va sempre verso est accelerando, con il traguardo alle spalle:
+     * al secondo turno colpisce il muro. Le visite e l'eliminazione devono essere
+     * registrate sulle celle giuste.
+     */
+    @Test
+    void testEngineRecordsVisitsAndCrash() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("heatmap",
+                "######\n#FS..#\n######\n".getBytes(StandardCharsets.UTF_8));
+        TrafficHeatmap heatmap = new TrafficHeatmap(track);
+
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 10);
+        engine.setVerbose(false);
+        engine.setHeatmap(heatmap);
+        engine.addPlayer(new BasePlayer("E", track.getStartPosition()) {
+            @Override
+            public VectorDirection.CardinalDirection chooseDirection(
+                    Iterable<VectorDirection.CardinalDirection> allowedDirections) {
+                return VectorDirection.CardinalDirection.E;
+            }
+
+            @Override
+            public int chooseAcceleration() {
+                return 1;
+            }
+        });
+        engine.runRace();
+
+        assertEquals(1, heatmap.get(Counter.VISITS, 2, 1));
+        assertEquals(1, heatmap.get(Counter.VISITS, 3, 1));
+        assertEquals(1, heatmap.get(Counter.CRASHES, 3, 1));
+        assertEquals(1, heatmap.total(Counter.CRASHES));
+        assertEquals(0, heatmap.total(Counter.FINISHES));
+        assertEquals("######\n#.99.#\n######\n", heatmap.toGrid(Counter.VISITS, track));
+    }
+
+    /**
+     * Il GreedyBot accelera sempre: al secondo turno scavalca il traguardo, che
+     * viene comunque registrato sulla cella attraversata.
+     */
+    @Test
+    void testEngineRecordsFinishCrossedAtSpeed() throws IOException {
+        ImmutableTrack track = TrackRegistry.getInstance().register("heatmap-finish",
+                "#####\n#S.F#\n#####\n".getBytes(StandardCharsets.UTF_8));
+        TrafficHeatmap heatmap = new TrafficHeatmap(track);
+
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 10);
+        engine.setVerbose(false);
+        engine.setHeatmap(heatmap);
+        engine.addPlayer(new GreedyBot("G", track.getStartPosition(), track));
+        engine.runRace();
+
+        assertEquals(1, heatmap.get(Counter.FINISHES, 3, 1));
+        assertEquals(0, heatmap.total(Counter.CRASHES));
+    }
+
+    /**
+     * Le heatmap dei singoli thread vengono sommate senza perdere conteggi.
+     */
+    @Test
+    void testCollectorMergesThreads() throws InterruptedException {
+        HeatmapCollector collector = new HeatmapCollector(4, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    collector.forCurrentThread().visit(5);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        assertEquals(80_000, collector.merge().get(Counter.VISITS, 1, 1));
+    }
+}
@@ -0,0 +1,69 @@
+import VectorRace.Ricerca.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTranspositionTable {
+
+    @Test
+    void storesAndProbesEntries() {
+        TranspositionTable table = TranspositionTable.ofMegabytes(1);
+        long key = TranspositionTable.stateKey(12, 7, 2, 3, 40);
+        assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.store(key, -250, 6, TranspositionTable.LOWER_BOUND, 5);
+        long data = table.probe(key);
+        assertEquals(-250, TranspositionTable.value(data));
+        assertEquals(6, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(data));
+        assertEquals(5, TranspositionTable.move(data));
+
+        // Un risultato meno profondo della stessa ricerca non sostituisce quello esistente
+        table.store(key, 10, 2, TranspositionTable.UPPER_BOUND, TranspositionTable.NO_MOVE);
+        assertEquals(6, TranspositionTable.depth(table.probe(key)));
+        table.newSearch();
+        table.store(key, 10, 2, TranspositionTable.UPPER_BOUND, TranspositionTable.NO_MOVE);
+        assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(table.probe(key)));
+    }
+
+    @Test
+    void memoryStaysWithinBudget() {
+        TranspositionTable table = new TranspositionTable(64 * 1024);
+        assertTrue(table.getMemoryBytes() <= 64 * 1024);
+        for (long key = 1; key <= 100_000; key++) {
+            table.store(key, (int) key, (int) (key % 20), TranspositionTable.EXACT, 0);
+        }
+        assertEquals(64 * 1024, table.getMemoryBytes());
+        assertTrue(table.occupancy() > 0.99);
+    }
+
+    @Test
+    void concurrentAccessNeverReturnsForeignEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(16 * 1024);
+        AtomicInteger wrong = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long key = (i * 4L + offset) % 5_000;
+                    long data = table.probe(key);
+                    if (data != TranspositionTable.MISS && TranspositionTable.value(data) != (int) key * 3) {
+                        wrong.incrementAndGet();
+                    }
+                    table.store(key, (int) key * 3, i % 30, TranspositionTable.EXACT, offset);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrong.get());
+    }
+}
@@ -0,0 +1,72 @@
+import VectorRace.Posizione.Position;
+import VectorRace.Posizione.VectorDirection;
+import VectorRace.Posizione.VectorDirection.CardinalDirection;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+public class TestVectorDirection {
+
+    /**
+     * Calcolo di riferimento basato sull'angolo, identico all'implementazione originale
+     * di getCardinalDirection.
+     */
+    private static CardinalDirection byAngle(long dx, long dy) {
+        double angle = Math.toDegrees(Math.atan2(dy, dx));
+        if (angle < 0) {
+            angle += 360;
+        }
+        if (angle >= 337.5 || angle < 22.5) return CardinalDirection.E;
+        if (angle < 67.5) return CardinalDirection.NE;
+        if (angle < 112.5) return CardinalDirection.N;
+        if (angle < 157.5) return CardinalDirection.NW;
+        if (angle < 202.5) return CardinalDirection.W;
+        if (angle < 247.5) return CardinalDirection.SW;
+        if (angle < 292.5) return CardinalDirection.S;
+        return CardinalDirection.SE;
+    }
+
+    /**
+     * Confronto esaustivo su tutti gli spostamenti in un quadrato di lato 601,
+     * che include la tabella degli spostamenti piccoli e il calcolo intero.
+     */
+    @Test
+    void testMatchesAngleOnGrid() {
+        for (int dy = -300; dy <= 300; dy++) {
+            for (int dx = -300; dx <= 300; dx++) {
+                assertEquals(byAngle(dx, dy), VectorDirection.cardinalOf(dx, dy), "dx=" + dx + " dy=" + dy);
+            }
+        }
+        Position origin = new Position(5, 5);
+        assertEquals(CardinalDirection.E, new VectorDirection(origin, origin).getCardinalDirection());
+        assertEquals(CardinalDirection.N, new VectorDirection(origin, new Position(5, 9)).getCardinalDirection());
+    }
+
+    /**
+     * Confronto sugli spostamenti interi più vicini ai bordi degli ottanti (pendenze
+     * tan(22.5°) e tan(67.5°)), fino al limite del calcolo intero, in tutti i quadranti.
+     */
+    @Test
+    void testMatchesAngleNearOctantBorders() {
+        double low = Math.sqrt(2) - 1;
+        double high = Math.sqrt(2) + 1;
+        for (long ax = 1; ax <= (1L << 20); ax++) {
+            long[] candidates = {
+                    (long) Math.floor(ax * low), (long) Math.ceil(ax * low),
+                    (long) Math.floor(ax * high), (long) Math.ceil(ax * high)
+            };
+            for (long ay : candidates) {
+                for (int sx = -1; sx <= 1; sx += 2) {
+                    for (int sy = -1; sy <= 1; sy += 2) {
+                        long dx = sx * ax;
+                        long dy = sy * ay;
+                        if (byAngle(dx, dy) != VectorDirection.cardinalOf(dx, dy)) {
+                            assertEquals(byAngle(dx, dy), VectorDirection.cardinalOf(dx, dy), "dx=" + dx + " dy=" + dy);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
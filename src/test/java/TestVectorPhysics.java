@@ -0,0 +1,74 @@
+import VectorRace.Fisica.DefaultInertiaManager;
+import VectorRace.Fisica.SimpleVelocityCalculator;
+import VectorRace.Fisica.VectorPhysics;
+import VectorRace.Fisica.VectorState;
+import VectorRace.Giocatori.VectorGreedyBot;
+import VectorRace.Motore.GameBoard;
+import VectorRace.Motore.GameEngine;
+import VectorRace.Motore.RaceResult;
+import VectorRace.Posizione.CellType;
+import VectorRace.Posizione.ITrack;
+import VectorRace.Posizione.KinematicsTable;
+import VectorRace.Posizione.TrackRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestVectorPhysics {
+
+    @Test
+    void packedStateRoundTripsNegativeValues() {
+        long s = VectorState.pack(-5, 70000, -3, 127);
+        assertEquals(-5, VectorState.x(s));
+        assertEquals(70000, VectorState.y(s));
+        assertEquals(-3, VectorState.vx(s));
+        assertEquals(127, VectorState.vy(s));
+        assertEquals(VectorState.pack(-5, 70000, 0, 0), VectorState.stopped(s));
+    }
+
+    @Test
+    void accelerationRespectsSpeedLimits() {
+        VectorPhysics physics = new VectorPhysics(2);
+        long s = VectorState.pack(10, 10, 2, -1);
+        long next = physics.next(s, VectorPhysics.action(1, -1));
+        assertEquals(2, VectorState.vx(next));
+        assertEquals(-2, VectorState.vy(next));
+        assertEquals(12, VectorState.x(next));
+        assertEquals(8, VectorState.y(next));
+        assertEquals(6, Integer.bitCount(physics.allowedActions(s)));
+
+        VectorPhysics euclidean = new VectorPhysics(3, 5);
+        assertEquals(0, euclidean.allowedActions(VectorState.pack(0, 0, 2, 1)) & (1 << VectorPhysics.action(1, 0)));
+    }
+
+    @Test
+    void travelStopsAtFirstObstacleOnTheSegment() throws Exception {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        KinematicsTable kinematics = KinematicsTable.of(track);
+        long from = VectorState.pack(3, 2, 0, 0);
+        long to = VectorState.pack(3, -2, 0, -4);
+        long stop = VectorPhysics.travel(kinematics, from, to);
+        assertEquals(3, VectorState.x(stop));
+        assertEquals(0, VectorState.y(stop));
+        assertEquals(CellType.OBSTACLE, kinematics.typeAt(VectorState.x(stop), VectorState.y(stop)));
+        long free = VectorState.pack(8, 5, 5, 3);
+        assertEquals(free, VectorPhysics.travel(kinematics, from, free));
+    }
+
+    @Test
+    void vectorBotFinishesWithVectorPhysics() throws Exception {
+        ITrack track = TrackRegistry.getInstance().load("track.txt");
+        VectorPhysics physics = new VectorPhysics(4);
+        GameEngine engine = new GameEngine(new GameBoard(track), new SimpleVelocityCalculator(),
+                new DefaultInertiaManager(), 60);
+        engine.setVerbose(false);
+        engine.setVectorPhysics(physics);
+        VectorGreedyBot bot = new VectorGreedyBot("V", track.getStartPosition(), track, physics, new Random(1));
+        engine.addPlayer(bot);
+        RaceResult result = engine.runRace();
+        assertSame(bot, result.getWinner());
+        assertTrue(result.getTurns() < 20);
+    }
+}